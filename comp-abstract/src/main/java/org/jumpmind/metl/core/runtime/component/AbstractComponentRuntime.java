@@ -287,21 +287,41 @@ abstract public class AbstractComponentRuntime implements IComponentRuntime {
     }
     
     protected Bindings bindEntityData(ScriptEngine scriptEngine, Message inputMessage, EntityData entityData) {
+        Bindings bindings = scriptEngine.createBindings();       
+        bindHeadersAndFlowParameters(bindings, inputMessage);
+        bindEntityData(bindings, entityData);
+        scriptEngine.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+        return bindings;
+    }
+
+    /**
+     * Binds the attribute values of a row into bindings that have already been
+     * prepared by {@link #bindHeadersAndFlowParameters(Bindings, Message)}.
+     * Values bound for a previous row are cleared, so the same bindings can be
+     * reused for every row in a message. Use
+     * {@link #resetBindings(Bindings, Map)} first to also drop what a script
+     * bound while it evaluated the previous row.
+     */
+    @SuppressWarnings("unchecked")
+    protected void bindEntityData(Bindings bindings, EntityData entityData) {
         if (entityNameLookup == null) {
             entityNameLookup = new EntityNameLookup(context.getFlowStep().getComponent().getInputModel());
         }
-        Bindings bindings = scriptEngine.createBindings();       
-        bindHeadersAndFlowParameters(bindings, inputMessage);
         Model model = getInputModel();
         bindings.put("CHANGE_TYPE", entityData.getChangeType().name());
-        bindings.put("ENTITY_NAMES", entityNameLookup.getEntityNames(entityData));                
+        bindings.put("ENTITY_NAMES", entityNameLookup.getEntityNames(entityData));
+        for (ModelEntity entity : model.getModelEntities()) {
+            Object boundEntity = bindings.get(entity.getName());
+            if (boundEntity instanceof Map) {
+                ((Map<String, Object>) boundEntity).clear();
+            }
+        }
         Set<String> attributeIds = entityData.keySet();
         for (String attributeId : attributeIds) {
             ModelAttribute attribute = model.getAttributeById(attributeId);
             if (attribute != null) {
                 ModelEntity entity = model.getEntityById(attribute.getEntityId());
                 Object value = entityData.get(attributeId);
-                @SuppressWarnings("unchecked")
                 Map<String, Object> boundEntity = (Map<String, Object>) bindings.get(entity
                         .getName());
                 boundEntity.put(attribute.getName(), value);
@@ -309,8 +329,16 @@ abstract public class AbstractComponentRuntime implements IComponentRuntime {
                 log(LogLevel.WARN, "Could not find attribute in the input model with an id of " + attributeId);
             }
         }
-        scriptEngine.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
-        return bindings;
+    }
+
+    /**
+     * Puts the bindings back to the message level bindings they were built
+     * with, removing anything a script bound or replaced while it evaluated
+     * the previous row
+     */
+    protected void resetBindings(Bindings bindings, Map<String, Object> messageBindings) {
+        bindings.keySet().retainAll(messageBindings.keySet());
+        bindings.putAll(messageBindings);
     }
 
     protected Bindings bindStringData(ScriptEngine scriptEngine, Message inputMessage, String value) {
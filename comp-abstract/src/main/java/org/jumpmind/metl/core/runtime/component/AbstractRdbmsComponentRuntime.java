@@ -40,10 +40,13 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.SqlScriptReader;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
 import org.jumpmind.metl.core.runtime.ContentMessage;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
+import org.jumpmind.metl.core.runtime.resource.Datasource;
 import org.jumpmind.properties.TypedProperties;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
@@ -57,23 +60,61 @@ abstract public class AbstractRdbmsComponentRuntime extends AbstractComponentRun
     
     public final static String QUERY_TIMEOUT = "query.timeout.seconds";
 
+    public final static String FETCH_SIZE = "fetch.size";
+
     protected List<Result> results = new ArrayList<Result>();
 
     protected DataSource dataSource;
     
     protected int queryTimeout = -1;
 
+    protected NamedParameterJdbcTemplate jdbcTemplate;
+
+    protected Map<String, String> paramNamesByAttributeId;
+
+    /**
+     * The template is created once and reused for the life of the component,
+     * which also keeps the parsed named parameter SQL it caches.
+     */
     protected NamedParameterJdbcTemplate getJdbcTemplate() {
-        if (dataSource == null && getResourceRuntime() == null) {
-            throw new RuntimeException("The data source resource has not been configured.  Please configure it.");
+        if (jdbcTemplate == null) {
+            if (dataSource == null && getResourceRuntime() == null) {
+                throw new RuntimeException("The data source resource has not been configured.  Please configure it.");
+            }
+
+            if (dataSource == null) {
+                dataSource = (DataSource) getResourceRuntime().reference();
+            }
+            JdbcTemplate template = new JdbcTemplate(dataSource);
+            template.setQueryTimeout(queryTimeout);
+            template.setFetchSize(getFetchSize());
+            jdbcTemplate = new NamedParameterJdbcTemplate(template);
         }
+        return jdbcTemplate;
+    }
+
+    /**
+     * @return the fetch size configured on the component or, if it is not
+     *         set, on the data source resource. -1 leaves the driver default
+     *         in place.
+     */
+    protected int getFetchSize() {
+        int fetchSize = parseFetchSize(getTypedProperties().get(FETCH_SIZE));
+        if (fetchSize <= 0 && getResourceRuntime() != null && getResourceRuntime().getResourceRuntimeSettings() != null) {
+            fetchSize = parseFetchSize(getResourceRuntime().getResourceRuntimeSettings().get(Datasource.DB_FETCH_SIZE));
+        }
+        return fetchSize > 0 ? fetchSize : -1;
+    }
 
-        if (dataSource == null) {
-            dataSource = (DataSource) getResourceRuntime().reference();
+    private int parseFetchSize(String value) {
+        if (isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new MisconfiguredException("The fetch size must be a number.  It was '%s'", value);
+            }
         }
-        JdbcTemplate template = new JdbcTemplate(dataSource);
-        template.setQueryTimeout(queryTimeout);
-        return new NamedParameterJdbcTemplate(template);
+        return -1;
     }
 
     protected List<String> getSqlStatements(boolean required) {
@@ -113,8 +154,7 @@ abstract public class AbstractRdbmsComponentRuntime extends AbstractComponentRun
         paramMap.putAll(context.getFlowParameters() == null ? Collections.emptyMap() : context.getFlowParameters());
         paramMap.putAll(inputMessage.getHeader());
         if (entity instanceof EntityData) {
-            EntityData entityData = (EntityData) entity;
-            paramMap.putAll(this.getComponent().toRow(entityData, true, true));
+            putEntityParams(paramMap, (EntityData) entity);
         } else if (entity != null) {
             paramMap.put("RECORD", entity.toString());
         }
@@ -128,6 +168,33 @@ abstract public class AbstractRdbmsComponentRuntime extends AbstractComponentRun
         return paramMap;
     }
 
+    /**
+     * Adds the attributes of an input entity as ENTITY.ATTRIBUTE named
+     * parameters, resolving each parameter name only once per attribute.
+     */
+    protected void putEntityParams(Map<String, Object> paramMap, EntityData entityData) {
+        Model model = getInputModel();
+        if (model != null) {
+            if (paramNamesByAttributeId == null) {
+                paramNamesByAttributeId = new HashMap<String, String>();
+            }
+            for (Map.Entry<String, Object> entry : entityData.entrySet()) {
+                String attributeId = entry.getKey();
+                String paramName = paramNamesByAttributeId.get(attributeId);
+                if (paramName == null && !paramNamesByAttributeId.containsKey(attributeId)) {
+                    ModelAttribute attribute = model.getAttributeById(attributeId);
+                    if (attribute != null) {
+                        paramName = model.getEntityById(attribute.getEntityId()).getName() + "." + attribute.getName();
+                    }
+                    paramNamesByAttributeId.put(attributeId, paramName);
+                }
+                if (paramName != null) {
+                    paramMap.put(paramName, entry.getValue());
+                }
+            }
+        }
+    }
+
     protected void enhanceParamMapWithInValues(Map<String, Object> paramMap, Collection<?> payload, String sql) {
         Set<String> attributeNames = findWhereInParameters(sql);
         for (String attributeName : attributeNames) {
@@ -175,6 +242,7 @@ abstract public class AbstractRdbmsComponentRuntime extends AbstractComponentRun
         
     public void setDataSource(DataSource dataSource) {
         this.dataSource = dataSource;
+        this.jdbcTemplate = null;
     }
 
     @SuppressWarnings("unchecked")
@@ -29,6 +29,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -67,8 +68,30 @@ public class ModelAttributeScriptHelper {
 
     public static final RemoveAttribute REMOVE_ATTRIBUTE = new RemoveAttribute();
 
+    static private final int MAX_COMPILED_EXPRESSIONS_PER_THREAD = 1000;
+
     static private ThreadLocal<ScriptEngine> scriptEngine = new ThreadLocal<ScriptEngine>();
 
+    /*
+     * Helpers compiled from an expression are cached by expression text. The
+     * cache is per thread because a helper holds the state of the evaluation
+     * in progress, and it is naturally scoped to the plugin classloader that
+     * loaded this class.
+     */
+    static private ThreadLocal<Map<String, ModelAttributeScriptHelper>> compiledHelpers = new ThreadLocal<Map<String, ModelAttributeScriptHelper>>() {
+        @Override
+        protected Map<String, ModelAttributeScriptHelper> initialValue() {
+            return new LinkedHashMap<String, ModelAttributeScriptHelper>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ModelAttributeScriptHelper> eldest) {
+                    return size() > MAX_COMPILED_EXPRESSIONS_PER_THREAD;
+                }
+            };
+        }
+    };
+
     public ModelAttributeScriptHelper(Message message, ComponentContext context, ModelAttribute attribute, ModelEntity entity, Model model,
             EntityData data, Object value) {
         this(context, attribute, entity, model);
@@ -465,29 +488,53 @@ public class ModelAttributeScriptHelper {
 
     public static Object eval(Message message, ComponentContext context, ModelAttribute attribute, Object value, Model model, ModelEntity entity,
             EntityData data, String expression) {
-        ScriptEngine engine = scriptEngine.get();
-        if (engine == null) {
-            engine = new GroovyScriptEngineImpl();
-            scriptEngine.set(engine);
+        ModelAttributeScriptHelper helper = getCompiledHelper(attribute, value, expression);
+        helper.message = message;
+        helper.context = context;
+        helper.attribute = attribute;
+        helper.entity = entity;
+        helper.model = model;
+        helper.data = data;
+        helper.value = value;
+        try {
+            return helper.eval();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Groovy script evaluation resulted in an exception.  Attribute ==> " + getName(attribute)
+                    + ".  Value ==> " + (value == null ? "null" : value.toString()), e);
+        } finally {
+            helper.data = null;
+            helper.message = null;
+            helper.value = null;
         }
-        engine.put("value", value);
-        engine.put("data", data);
-        engine.put("entity", entity);
-        engine.put("model", model);
-        engine.put("attribute", attribute);
-        engine.put("message", message);
-        engine.put("context", context);
+    }
 
-        try {
-            String importString = "import org.jumpmind.metl.core.runtime.component.ModelAttributeScriptHelper;\n";
-            String code = String.format(
-                    "return new ModelAttributeScriptHelper(message, context, attribute, entity, model, data, value) { public Object eval() { return %s } }.eval()",
-                    expression);
-            return engine.eval(importString + code);
-        } catch (ScriptException e) {
-            throw new RuntimeException("Unable to evaluate groovy script.  Attribute ==> " + attribute.getName() + ".  Value ==> "
-                    + value.toString() + "." + e.getCause().getMessage(), e);
+    protected static ModelAttributeScriptHelper getCompiledHelper(ModelAttribute attribute, Object value, String expression) {
+        Map<String, ModelAttributeScriptHelper> helpers = compiledHelpers.get();
+        ModelAttributeScriptHelper helper = helpers.get(expression);
+        if (helper == null) {
+            ScriptEngine engine = scriptEngine.get();
+            if (engine == null) {
+                engine = new GroovyScriptEngineImpl();
+                scriptEngine.set(engine);
+            }
+
+            try {
+                String importString = "import org.jumpmind.metl.core.runtime.component.ModelAttributeScriptHelper;\n";
+                String code = String.format(
+                        "return new ModelAttributeScriptHelper(null, null, null, null) { public Object eval() { return %s } }",
+                        expression);
+                helper = (ModelAttributeScriptHelper) engine.eval(importString + code);
+                helpers.put(expression, helper);
+            } catch (ScriptException e) {
+                throw new RuntimeException("Unable to evaluate groovy script.  Attribute ==> " + getName(attribute) + ".  Value ==> "
+                        + (value == null ? "null" : value.toString()) + "." + e.getCause().getMessage(), e);
+            }
         }
+        return helper;
+    }
+
+    private static String getName(ModelAttribute attribute) {
+        return attribute != null ? attribute.getName() : null;
     }
 
     static class RemoveAttribute {
@@ -0,0 +1,59 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.runtime.EntityData;
+
+/**
+ * Measures the per row cost of evaluating a format function the way the
+ * delimited and fixed length parsers and formatters do.
+ */
+public class ModelAttributeScriptHelperBenchmark {
+
+    static final int WARMUP_ROWS = 100000;
+
+    static final int DEFAULT_ROWS = 1000000;
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        String expression = args.length > 1 ? args[1] : "trim().toUpperCase()";
+
+        ModelAttribute attribute = new ModelAttribute("attribute", "entity", "NAME");
+        EntityData data = new EntityData();
+
+        run(attribute, data, expression, WARMUP_ROWS);
+        long ts = System.nanoTime();
+        run(attribute, data, expression, rows);
+        long nanos = System.nanoTime() - ts;
+
+        System.out.println(String.format("%d evaluations of '%s' in %dms, %.1fns per row", rows, expression, nanos / 1000000,
+                nanos / (double) rows));
+    }
+
+    static void run(ModelAttribute attribute, EntityData data, String expression, int rows) {
+        for (int i = 0; i < rows; i++) {
+            data.put(attribute.getId(), " value " + i);
+            ModelAttributeScriptHelper.eval(null, null, attribute, data.get(attribute.getId()), null, null, data, expression);
+        }
+    }
+
+}
@@ -20,9 +20,13 @@
  */
 package org.jumpmind.metl.core.runtime.component;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.runtime.EntityData;
 import org.junit.Test;
 
 public class ModelAttributeScriptHelperTest {
@@ -36,4 +40,22 @@ public class ModelAttributeScriptHelperTest {
         assertNotNull(helper.parsedate("yyyy-MM-dd", "0000-00-01"));
 
     }
+
+    @Test
+    public void testEvalRebindsCompiledExpression() {
+        ModelAttribute attribute = new ModelAttribute();
+        attribute.setName("test");
+        assertEquals("ABC", ModelAttributeScriptHelper.eval(null, null, attribute, "abc", null, null, new EntityData(), "upper()"));
+        assertEquals("XYZ", ModelAttributeScriptHelper.eval(null, null, attribute, "xyz", null, null, new EntityData(), "upper()"));
+        assertEquals("xyz!", ModelAttributeScriptHelper.eval(null, null, attribute, "xyz", null, null, new EntityData(), "value + '!'"));
+        assertNull(ModelAttributeScriptHelper.eval(null, null, attribute, null, null, null, new EntityData(), "trim()"));
+    }
+
+    @Test
+    public void testCompiledHelperIsCachedByExpression() {
+        ModelAttributeScriptHelper first = ModelAttributeScriptHelper.getCompiledHelper(null, null, "lower()");
+        ModelAttributeScriptHelper second = ModelAttributeScriptHelper.getCompiledHelper(null, null, "lower()");
+        assertSame(first, second);
+    }
+
 }
@@ -22,14 +22,17 @@ package org.jumpmind.metl.core.runtime.component;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.Types;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,19 +48,27 @@ import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
 import org.jumpmind.db.sql.SqlTemplateSettings;
 import org.jumpmind.db.util.ResettableBasicDataSource;
+import org.jumpmind.exception.IoException;
 import org.jumpmind.metl.core.model.Component;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
 import org.jumpmind.metl.core.model.ComponentEntitySetting;
 import org.jumpmind.metl.core.model.DataType;
 import org.jumpmind.metl.core.model.Model;
 import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
 import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.runtime.AttributeComparator;
 import org.jumpmind.metl.core.runtime.ControlMessage;
+import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.EntityDataSpillReader;
+import org.jumpmind.metl.core.runtime.EntityDataSpillWriter;
 import org.jumpmind.metl.core.runtime.LogLevel;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
+import org.jumpmind.metl.core.util.Fingerprint;
 import org.jumpmind.properties.TypedProperties;
 
 public class DataDiff extends AbstractComponentRuntime {
@@ -76,14 +87,50 @@ public class DataDiff extends AbstractComponentRuntime {
 
     public final static String ATTRIBUTE_COMPARE_ENABLED = "compare.enabled";
 
+    public final static String DIFF_MODE = "diff.mode";
+
+    public final static String MAX_ROWS_IN_MEMORY = "max.rows.in.memory";
+
+    /**
+     * Loads both sides into temporary H2 tables and diffs them with SQL
+     */
+    public final static String DIFF_MODE_DATABASE = "DATABASE";
+
+    /**
+     * Merges both sides in a single pass. Both inputs must be ordered by
+     * primary key. Rows waiting on the other side beyond max.rows.in.memory
+     * are spilled to disk.
+     */
+    public final static String DIFF_MODE_SORTED = "SORTED";
+
+    /**
+     * Hash partitions both sides to disk by primary key and diffs one
+     * partition at a time using a hash of the compared columns
+     */
+    public final static String DIFF_MODE_HASHED = "HASHED";
+
+    static final int PARTITION_COUNT = 32;
+
     int rowsPerMessage = 1000;
 
+    int maxRowsInMemory = 100000;
+
     String sourceStep1Id;
 
     String sourceStep2Id;
 
     boolean inMemoryCompare = true;
 
+    String diffMode = DIFF_MODE_DATABASE;
+
+    List<EntityDiff> entityDiffs;
+
+    boolean source1Complete;
+
+    boolean source2Complete;
+
+    List<EntityData> payload;
+
     IDatabasePlatform databasePlatform;
 
     RdbmsWriter databaseWriter;
@@ -111,6 +158,7 @@ public class DataDiff extends AbstractComponentRuntime {
 
         this.inMemoryCompare = properties.is(IN_MEMORY_COMPARE);
         this.rowsPerMessage = properties.getInt(ROWS_PER_MESSAGE);
+        this.maxRowsInMemory = properties.getInt(MAX_ROWS_IN_MEMORY, maxRowsInMemory);
         Component comp = context.getFlowStep().getComponent();
         comp.setOutputModel(comp.getInputModel());
         Model inputModel = context.getFlowStep().getComponent().getInputModel();
@@ -133,11 +181,33 @@ public class DataDiff extends AbstractComponentRuntime {
                 return new Integer(orderValue1).compareTo(new Integer(orderValue2));
             }
         });
+
+        this.diffMode = properties.get(DIFF_MODE, DIFF_MODE_DATABASE);
+        if (!DIFF_MODE_DATABASE.equals(diffMode)) {
+            entityDiffs = new ArrayList<>(entities.size());
+            for (ModelEntity entity : entities) {
+                entityDiffs.add(new EntityDiff(entity));
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        closeEntityDiffs();
+        super.stop();
     }
 
     @Override
     public void handle(Message message, ISendMessageCallback callback,
             boolean unitOfWorkBoundaryReached) {
+        if (entityDiffs != null) {
+            try {
+                streamDiff(message, callback, unitOfWorkBoundaryReached);
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+            return;
+        }
         createDatabase();
         loadIntoDatabase(message);
         if (unitOfWorkBoundaryReached && error == null) {
@@ -304,6 +374,604 @@ public class DataDiff extends AbstractComponentRuntime {
 
     }
 
+    protected void streamDiff(Message message, ISendMessageCallback callback,
+            boolean unitOfWorkBoundaryReached) throws IOException {
+        String originatingStepId = message.getHeader().getOriginatingStepId();
+        boolean source1 = sourceStep1Id.equals(originatingStepId);
+        boolean source2 = sourceStep2Id.equals(originatingStepId);
+        boolean sorted = DIFF_MODE_SORTED.equals(diffMode);
+        if (message instanceof EntityDataMessage && (source1 || source2)) {
+            List<EntityData> rows = ((EntityDataMessage) message).getPayload();
+            for (EntityDiff entityDiff : entityDiffs) {
+                for (EntityData row : rows) {
+                    EntityData record = entityDiff.extract(row);
+                    if (record != null) {
+                        if (sorted) {
+                            entityDiff.enqueue(record, source1);
+                        } else {
+                            entityDiff.spill(record, source1);
+                        }
+                    }
+                }
+            }
+        } else if (message instanceof ControlMessage) {
+            source1Complete |= source1;
+            source2Complete |= source2;
+        }
+
+        if (sorted) {
+            for (EntityDiff entityDiff : entityDiffs) {
+                entityDiff.merge(callback, source1Complete || unitOfWorkBoundaryReached,
+                        source2Complete || unitOfWorkBoundaryReached);
+            }
+        }
+
+        if (unitOfWorkBoundaryReached) {
+            if (!sorted) {
+                for (EntityDiff entityDiff : entityDiffs) {
+                    entityDiff.diffPartitions(callback);
+                }
+            } else if (entityDiffs.size() > 1) {
+                for (EntityDiff entityDiff : entityDiffs) {
+                    send(entityDiff.addsAndChanges, callback);
+                }
+            }
+            for (int i = entityDiffs.size() - 1; i >= 0; i--) {
+                send(entityDiffs.get(i).deletes, callback);
+            }
+            if (payload != null && payload.size() > 0) {
+                callback.sendEntityDataMessage(null, new ArrayList<>(payload));
+                payload = null;
+            }
+
+            for (EntityDiff entityDiff : entityDiffs) {
+                info("Sent %d ADD, %d CHG and %d DEL records for %s", entityDiff.addCount,
+                        entityDiff.chgCount, entityDiff.delCount, entityDiff.entity.getName());
+            }
+            closeEntityDiffs();
+            entityDiffs = new ArrayList<>(entities.size());
+            for (ModelEntity entity : entities) {
+                entityDiffs.add(new EntityDiff(entity));
+            }
+            source1Complete = false;
+            source2Complete = false;
+        }
+    }
+
+    protected void send(EntityData data, ISendMessageCallback callback) {
+        if (payload == null) {
+            payload = new ArrayList<>(rowsPerMessage);
+        }
+        payload.add(data);
+        if (payload.size() >= rowsPerMessage) {
+            callback.sendEntityDataMessage(null, new ArrayList<>(payload));
+            payload = null;
+        }
+    }
+
+    protected void send(SpillFile spillFile, ISendMessageCallback callback) throws IOException {
+        if (spillFile != null) {
+            try (EntityDataSpillReader reader = spillFile.open()) {
+                EntityData data = reader.read();
+                while (data != null) {
+                    send(data, callback);
+                    data = reader.read();
+                }
+            }
+        }
+    }
+
+    protected void closeEntityDiffs() {
+        if (entityDiffs != null) {
+            for (EntityDiff entityDiff : entityDiffs) {
+                entityDiff.close();
+            }
+        }
+    }
+
+    protected boolean isEnabled(String entityId, String settingName) {
+        ComponentEntitySetting setting = context.getFlowStep().getComponent()
+                .getSingleEntitySetting(entityId, settingName);
+        return setting != null ? Boolean.parseBoolean(setting.getValue()) : true;
+    }
+
+    protected boolean isCompareEnabled(ModelAttribute attribute) {
+        ComponentAttributeSetting matchColumnSetting = context.getFlowStep().getComponent()
+                .getSingleAttributeSetting(attribute.getId(), DataDiff.ATTRIBUTE_COMPARE_ENABLED);
+        return matchColumnSetting != null ? Boolean.parseBoolean(matchColumnSetting.getValue())
+                : true;
+    }
+
+    protected static boolean valueEquals(Object value1, Object value2, DataType dataType) {
+        if (value1 == null || value2 == null) {
+            return value1 == value2;
+        }
+        return JoinKey.of(value1, dataType).equals(JoinKey.of(value2, dataType));
+    }
+
+    /**
+     * Diff state for one entity when diffing without a database
+     */
+    class EntityDiff implements Closeable {
+
+        final ModelEntity entity;
+
+        final String[] pkIds;
+
+        final DataType[] pkTypes;
+
+        final List<ModelAttribute> comparedAttributes = new ArrayList<>();
+
+        final List<ModelAttribute> outputAttributes = new ArrayList<>();
+
+        final AttributeComparator keyComparator;
+
+        final boolean addEnabled;
+
+        final boolean chgEnabled;
+
+        final boolean delEnabled;
+
+        SpillQueue queue1;
+
+        SpillQueue queue2;
+
+        /*
+         * The last record received from each source is held back until the
+         * next key arrives so that a duplicate key can replace it
+         */
+        EntityData pending1;
+
+        EntityData pending2;
+
+        SpillFile[] partitions1;
+
+        SpillFile[] partitions2;
+
+        SpillFile addsAndChanges;
+
+        SpillFile deletes;
+
+        int addCount;
+
+        int chgCount;
+
+        int delCount;
+
+        EntityDiff(ModelEntity entity) {
+            this.entity = entity;
+            List<ModelAttribute> pks = new ArrayList<>();
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                boolean compare = isCompareEnabled(attribute);
+                if (attribute.isPk()) {
+                    pks.add(attribute);
+                } else if (compare) {
+                    comparedAttributes.add(attribute);
+                }
+                if (compare) {
+                    outputAttributes.add(attribute);
+                }
+            }
+            if (pks.size() == 0) {
+                throw new MisconfiguredException(
+                        "The %s entity needs a primary key to be compared in %s mode",
+                        entity.getName(), diffMode);
+            }
+            pkIds = new String[pks.size()];
+            pkTypes = new DataType[pks.size()];
+            for (int i = 0; i < pks.size(); i++) {
+                pkIds[i] = pks.get(i).getId();
+                pkTypes[i] = pks.get(i).getDataType();
+            }
+            keyComparator = new AttributeComparator(pks);
+            addEnabled = isEnabled(entity.getId(), DataDiff.ENTITY_ADD_ENABLED);
+            chgEnabled = isEnabled(entity.getId(), DataDiff.ENTITY_CHG_ENABLED);
+            delEnabled = isEnabled(entity.getId(), DataDiff.ENTITY_DEL_ENABLED);
+            queue1 = new SpillQueue(getInputModel().getAttributeIndex(), maxRowsInMemory);
+            queue2 = new SpillQueue(getInputModel().getAttributeIndex(), maxRowsInMemory);
+        }
+
+        EntityData extract(EntityData row) {
+            EntityData record = null;
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                if (row.containsKey(attribute.getId())) {
+                    if (record == null) {
+                        record = new EntityData();
+                    }
+                    record.put(attribute.getId(), row.get(attribute.getId()));
+                }
+            }
+            return record;
+        }
+
+        /**
+         * Queues a record for the merge. As with the database diff, the last
+         * row received for a key wins.
+         */
+        void enqueue(EntityData record, boolean source1) throws IOException {
+            EntityData pending = source1 ? pending1 : pending2;
+            if (pending != null) {
+                int compare = keyComparator.compare(pending, record);
+                if (compare > 0) {
+                    throw new MisconfiguredException(
+                            "The %s data from the %s source is not ordered by primary key.  %s is not allowed to follow %s in %s mode",
+                            entity.getName(), source1 ? "old" : "new", key(record), key(pending), diffMode);
+                } else if (compare < 0) {
+                    (source1 ? queue1 : queue2).add(pending);
+                }
+            }
+            if (source1) {
+                pending1 = record;
+            } else {
+                pending2 = record;
+            }
+        }
+
+        void merge(ISendMessageCallback callback, boolean origComplete, boolean currComplete)
+                throws IOException {
+            if (origComplete && pending1 != null) {
+                queue1.add(pending1);
+                pending1 = null;
+            }
+            if (currComplete && pending2 != null) {
+                queue2.add(pending2);
+                pending2 = null;
+            }
+            while (queue1.size() > 0 && queue2.size() > 0) {
+                int compare = keyComparator.compare(queue1.peek(), queue2.peek());
+                if (compare == 0) {
+                    EntityData orig = queue1.poll();
+                    EntityData curr = queue2.poll();
+                    if (isChanged(orig, curr)) {
+                        emit(curr, ChangeType.CHG, callback);
+                    }
+                } else if (compare < 0) {
+                    emit(queue1.poll(), ChangeType.DEL, callback);
+                } else {
+                    emit(queue2.poll(), ChangeType.ADD, callback);
+                }
+            }
+            if (currComplete) {
+                while (queue1.size() > 0) {
+                    emit(queue1.poll(), ChangeType.DEL, callback);
+                }
+            }
+            if (origComplete) {
+                while (queue2.size() > 0) {
+                    emit(queue2.poll(), ChangeType.ADD, callback);
+                }
+            }
+        }
+
+        void spill(EntityData record, boolean source1) throws IOException {
+            SpillFile[] partitions = source1 ? partitions1 : partitions2;
+            if (partitions == null) {
+                partitions = new SpillFile[PARTITION_COUNT];
+                if (source1) {
+                    partitions1 = partitions;
+                } else {
+                    partitions2 = partitions;
+                }
+            }
+            int partition = LookupTable.getPartition(key(record));
+            if (partitions[partition] == null) {
+                partitions[partition] = new SpillFile(getInputModel().getAttributeIndex());
+            }
+            partitions[partition].write(record);
+        }
+
+        /**
+         * Diffs the spilled partitions. Only the key, a hash of the compared
+         * columns and the position of the last row for each key are held in
+         * memory, one partition at a time. As with the database diff, the last
+         * row received for a key wins.
+         */
+        void diffPartitions(ISendMessageCallback callback) throws IOException {
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                SpillFile partition1 = partitions1 != null ? partitions1[i] : null;
+                SpillFile partition2 = partitions2 != null ? partitions2[i] : null;
+                Map<Object, HashedRow> origs = index(partition1);
+                Map<Object, HashedRow> currs = index(partition2);
+                if (partition2 != null) {
+                    try (EntityDataSpillReader reader = partition2.open()) {
+                        long position = 0;
+                        EntityData curr = reader.read();
+                        while (curr != null) {
+                            Object key = key(curr);
+                            if (currs.get(key).position == position) {
+                                HashedRow orig = origs.get(key);
+                                if (orig == null) {
+                                    emit(curr, ChangeType.ADD, callback);
+                                } else if (comparedAttributes.size() > 0
+                                        && !orig.hash.equals(currs.get(key).hash)) {
+                                    emit(curr, ChangeType.CHG, callback);
+                                }
+                            }
+                            position++;
+                            curr = reader.read();
+                        }
+                    }
+                }
+                if (partition1 != null) {
+                    try (EntityDataSpillReader reader = partition1.open()) {
+                        long position = 0;
+                        EntityData orig = reader.read();
+                        while (orig != null) {
+                            Object key = key(orig);
+                            if (origs.get(key).position == position && !currs.containsKey(key)) {
+                                emit(orig, ChangeType.DEL, callback);
+                            }
+                            position++;
+                            orig = reader.read();
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<Object, HashedRow> index(SpillFile partition) throws IOException {
+            Map<Object, HashedRow> index = new HashMap<>();
+            if (partition != null) {
+                try (EntityDataSpillReader reader = partition.open()) {
+                    long position = 0;
+                    EntityData record = reader.read();
+                    while (record != null) {
+                        index.put(key(record), new HashedRow(hash(record), position++));
+                        record = reader.read();
+                    }
+                }
+            }
+            return index;
+        }
+
+        Object key(EntityData record) {
+            return JoinKey.of(record, pkIds, pkTypes);
+        }
+
+        Fingerprint hash(EntityData record) {
+            StringBuilder values = new StringBuilder();
+            for (ModelAttribute attribute : comparedAttributes) {
+                Object value = record.get(attribute.getId());
+                if (value == null) {
+                    values.append('\u0000');
+                } else {
+                    value = JoinKey.of(value, attribute.getDataType());
+                    values.append(value instanceof Date ? ((Date) value).getTime() : value);
+                }
+                values.append('\u0001');
+            }
+            return Fingerprint.of(values.toString());
+        }
+
+        boolean isChanged(EntityData orig, EntityData curr) {
+            for (ModelAttribute attribute : comparedAttributes) {
+                if (!valueEquals(orig.get(attribute.getId()), curr.get(attribute.getId()),
+                        attribute.getDataType())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void emit(EntityData record, ChangeType changeType, ISendMessageCallback callback)
+                throws IOException {
+            boolean enabled = changeType == ChangeType.ADD ? addEnabled
+                    : changeType == ChangeType.CHG ? chgEnabled : delEnabled;
+            if (enabled) {
+                EntityData data = new EntityData();
+                data.setChangeType(changeType);
+                for (ModelAttribute attribute : outputAttributes) {
+                    data.put(attribute.getId(), record.get(attribute.getId()));
+                }
+
+                if (changeType == ChangeType.ADD) {
+                    addCount++;
+                } else if (changeType == ChangeType.CHG) {
+                    chgCount++;
+                } else {
+                    delCount++;
+                }
+
+                /*
+                 * Keep the order of the database diff when there is more than
+                 * one entity: adds and changes in entity order, then deletes in
+                 * reverse entity order
+                 */
+                if (changeType == ChangeType.DEL && (entityDiffs.size() > 1 || DIFF_MODE_HASHED.equals(diffMode))) {
+                    if (deletes == null) {
+                        deletes = new SpillFile(getInputModel().getAttributeIndex());
+                    }
+                    deletes.write(data);
+                } else if (changeType != ChangeType.DEL && entityDiffs.size() > 1 && DIFF_MODE_SORTED.equals(diffMode)) {
+                    if (addsAndChanges == null) {
+                        addsAndChanges = new SpillFile(getInputModel().getAttributeIndex());
+                    }
+                    addsAndChanges.write(data);
+                } else {
+                    send(data, callback);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            close(partitions1);
+            close(partitions2);
+            close(addsAndChanges, deletes);
+            partitions1 = null;
+            partitions2 = null;
+            addsAndChanges = null;
+            deletes = null;
+            pending1 = null;
+            pending2 = null;
+            queue1.close();
+            queue2.close();
+        }
+
+        void close(SpillFile... spillFiles) {
+            if (spillFiles != null) {
+                for (SpillFile spillFile : spillFiles) {
+                    if (spillFile != null) {
+                        spillFile.close();
+                    }
+                }
+            }
+        }
+
+    }
+
+    static class HashedRow {
+
+        final Fingerprint hash;
+
+        final long position;
+
+        HashedRow(Fingerprint hash, long position) {
+            this.hash = hash;
+            this.position = position;
+        }
+
+    }
+
+    /**
+     * A first in, first out queue that keeps up to maxRowsInMemory records in
+     * memory and spills the rest to disk in arrival order
+     */
+    static class SpillQueue implements Closeable {
+
+        final ModelAttributeIndex index;
+
+        final int maxRowsInMemory;
+
+        final ArrayDeque<EntityData> memory = new ArrayDeque<>();
+
+        final ArrayDeque<SpillFile> files = new ArrayDeque<>();
+
+        SpillFile writing;
+
+        EntityDataSpillReader reading;
+
+        long spilledCount;
+
+        SpillQueue(ModelAttributeIndex index, int maxRowsInMemory) {
+            this.index = index;
+            this.maxRowsInMemory = Math.max(1, maxRowsInMemory);
+        }
+
+        void add(EntityData data) throws IOException {
+            if (spilledCount == 0 && memory.size() < maxRowsInMemory) {
+                memory.add(data);
+            } else {
+                if (writing == null) {
+                    writing = new SpillFile(index);
+                    files.add(writing);
+                }
+                writing.write(data);
+                spilledCount++;
+            }
+        }
+
+        EntityData peek() throws IOException {
+            fill();
+            return memory.peek();
+        }
+
+        EntityData poll() throws IOException {
+            fill();
+            return memory.poll();
+        }
+
+        long size() {
+            return memory.size() + spilledCount;
+        }
+
+        /**
+         * Refills memory from the oldest spill file once memory is empty.
+         * Records added meanwhile go to a new spill file behind it.
+         */
+        void fill() throws IOException {
+            while (memory.isEmpty() && spilledCount > 0) {
+                if (reading == null) {
+                    SpillFile file = files.peek();
+                    if (file == writing) {
+                        writing = null;
+                    }
+                    reading = file.open();
+                }
+                while (memory.size() < maxRowsInMemory) {
+                    EntityData data = reading.read();
+                    if (data == null) {
+                        reading.close();
+                        reading = null;
+                        files.poll().close();
+                        break;
+                    }
+                    memory.add(data);
+                    spilledCount--;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            memory.clear();
+            if (reading != null) {
+                try {
+                    reading.close();
+                } catch (IOException e) {
+                }
+                reading = null;
+            }
+            for (SpillFile file : files) {
+                file.close();
+            }
+            files.clear();
+            writing = null;
+            spilledCount = 0;
+        }
+
+    }
+
+    static class SpillFile implements Closeable {
+
+        final ModelAttributeIndex index;
+
+        final File file;
+
+        EntityDataSpillWriter writer;
+
+        SpillFile(ModelAttributeIndex index) throws IOException {
+            this.index = index;
+            this.file = File.createTempFile("metl-datadiff", ".spill");
+            this.writer = new EntityDataSpillWriter(file, index);
+        }
+
+        void write(EntityData data) throws IOException {
+            writer.write(data);
+        }
+
+        EntityDataSpillReader open() throws IOException {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            return new EntityDataSpillReader(file, index);
+        }
+
+        @Override
+        public void close() {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                }
+                writer = null;
+            }
+            FileUtils.deleteQuietly(file);
+        }
+
+    }
+
     protected void deleteDatabaseFile(File file) {
         log(LogLevel.INFO, "Deleting database file: %s", file.getName());
         FileUtils.deleteQuietly(file);
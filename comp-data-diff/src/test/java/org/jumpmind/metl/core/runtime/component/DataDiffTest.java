@@ -0,0 +1,157 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.ControlMessage;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.util.NameValue;
+import org.jumpmind.metl.core.utils.TestUtils;
+import org.junit.Test;
+
+public class DataDiffTest {
+
+    static final String ORIG = "orig";
+
+    static final String CURR = "curr";
+
+    @Test
+    public void testModesMatchDatabaseWithDuplicates() {
+        List<EntityData> origs = rows("1", "a", "2", "b", "2", "b2", "3", "c", "5", "e", "5", "e", "6", "f");
+        List<EntityData> currs = rows("1", "a", "2", "b", "3", "c", "4", "d", "5", "e5", "7", "g", "7", "g2");
+
+        Map<String, String> expected = new TreeMap<String, String>();
+        expected.put("2", "CHG b");
+        expected.put("4", "ADD d");
+        expected.put("5", "CHG e5");
+        expected.put("6", "DEL f");
+        expected.put("7", "ADD g2");
+
+        assertEquals(expected, diff(DataDiff.DIFF_MODE_DATABASE, 100, origs, currs));
+        assertEquals(expected, diff(DataDiff.DIFF_MODE_SORTED, 100, origs, currs));
+        assertEquals(expected, diff(DataDiff.DIFF_MODE_HASHED, 100, origs, currs));
+    }
+
+    @Test
+    public void testSortedSpillMatchesDatabase() {
+        List<EntityData> origs = new ArrayList<EntityData>();
+        List<EntityData> currs = new ArrayList<EntityData>();
+        for (int i = 0; i < 200; i++) {
+            String id = String.format("k%03d", i);
+            if (i % 7 != 0) {
+                origs.add(row(id, "v" + i));
+            }
+            if (i % 5 != 0) {
+                currs.add(row(id, i % 3 == 0 ? "changed" + i : "v" + i));
+            }
+        }
+
+        Map<String, String> expected = diff(DataDiff.DIFF_MODE_DATABASE, 3, origs, currs);
+        assertEquals(expected, diff(DataDiff.DIFF_MODE_SORTED, 3, origs, currs));
+        assertEquals(expected, diff(DataDiff.DIFF_MODE_HASHED, 3, origs, currs));
+    }
+
+    /**
+     * Sends the rows of both sources interleaved in small messages and
+     * returns the change type and value of each row sent, by key
+     */
+    protected Map<String, String> diff(String diffMode, int maxRowsInMemory, List<EntityData> origs,
+            List<EntityData> currs) {
+        DataDiff dataDiff = createDataDiff(diffMode, maxRowsInMemory);
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        for (int i = 0; i < Math.max(origs.size(), currs.size()); i += 4) {
+            if (i < origs.size()) {
+                dataDiff.handle(new EntityDataMessage(ORIG,
+                        new ArrayList<EntityData>(origs.subList(i, Math.min(i + 4, origs.size())))), callback, false);
+            }
+            if (i < currs.size()) {
+                dataDiff.handle(new EntityDataMessage(CURR,
+                        new ArrayList<EntityData>(currs.subList(i, Math.min(i + 4, currs.size())))), callback, false);
+            }
+        }
+        dataDiff.handle(new ControlMessage(ORIG), callback, false);
+        dataDiff.handle(new ControlMessage(CURR), callback, true);
+        dataDiff.stop();
+
+        Map<String, String> results = new TreeMap<String, String>();
+        for (ArrayList<EntityData> payload : callback.getPayloadList()) {
+            for (EntityData entityData : payload) {
+                results.put(String.valueOf(entityData.get("id")),
+                        entityData.getChangeType() + " " + entityData.get("value"));
+            }
+        }
+        return results;
+    }
+
+    protected List<EntityData> rows(String... idsAndValues) {
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (int i = 0; i < idsAndValues.length; i += 2) {
+            rows.add(row(idsAndValues[i], idsAndValues[i + 1]));
+        }
+        return rows;
+    }
+
+    protected EntityData row(String id, String value) {
+        return new EntityData(new NameValue("id", id), new NameValue("value", value));
+    }
+
+    protected DataDiff createDataDiff(String diffMode, int maxRowsInMemory) {
+        ModelEntity entity = new ModelEntity("item", "ITEM");
+        ModelAttribute id = new ModelAttribute("id", entity.getId(), "ID");
+        id.setPk(true);
+        entity.addModelAttribute(id);
+        entity.addModelAttribute(new ModelAttribute("value", entity.getId(), "VALUE"));
+        Model model = new Model();
+        model.getModelEntities().add(entity);
+
+        Component component = TestUtils.createComponent("DataDiff", false, null, model, model, null, null,
+                new Setting(DataDiff.SOURCE_1, ORIG), new Setting(DataDiff.SOURCE_2, CURR),
+                new Setting(DataDiff.DIFF_MODE, diffMode), new Setting(DataDiff.IN_MEMORY_COMPARE, "true"),
+                new Setting(DataDiff.MAX_ROWS_IN_MEMORY, String.valueOf(maxRowsInMemory)),
+                new Setting(DataDiff.ROWS_PER_MESSAGE, "10"));
+        Flow flow = TestUtils.createFlow("TestFlow", null);
+        FlowStep step = new FlowStep(component);
+        flow.getFlowSteps().add(step);
+
+        DataDiff dataDiff = new DataDiff();
+        dataDiff.setContext(new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null,
+                new HashMap<String, String>(), null));
+        dataDiff.start();
+        return dataDiff;
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.jumpmind.metl.core.runtime.component;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
@@ -10,12 +11,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
@@ -26,6 +39,11 @@ import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.properties.TypedProperties;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 import net.sf.saxon.value.DecimalValue;
 
@@ -42,12 +60,16 @@ public class ExcelFileReader extends AbstractFileReader {
     public static final String SETTING_EXCEL_MAPPING = "excel.mapping";
 
     public final static String IGNORE_ERROR = "ignore.error";
+
+    public final static String STREAMING_READ = "streaming.read";
     
     int rowsPerMessage = 1000;
 
     int headerLinesToSkip = 0;
 
     boolean ignoreError = false;
+
+    boolean streamingRead = false;
     
     Model outputModel;
 
@@ -63,6 +85,7 @@ public class ExcelFileReader extends AbstractFileReader {
         rowsPerMessage = properties.getInt(SETTING_ROWS_PER_MESSAGE, rowsPerMessage);
         headerLinesToSkip = properties.getInt(SETTING_HEADER_LINES_TO_SKIP, headerLinesToSkip);
         ignoreError = properties.is(IGNORE_ERROR, false);
+        streamingRead = properties.is(STREAMING_READ, false);
         convertAttributeSettingsToMaps();
     }
 
@@ -129,7 +152,11 @@ public class ExcelFileReader extends AbstractFileReader {
                 String filePath = resolveParamsAndHeaders(file, inputMessage);
                 inStream = directory.getInputStream(filePath, mustExist);
                 if (inStream != null) {
-                    readWorkbook(headers, inStream, callback);
+                    if (streamingRead) {
+                        streamWorkbook(headers, inStream, callback);
+                    } else {
+                        readWorkbook(headers, inStream, callback);
+                    }
                 }
             } catch (IOException e) {
                 throw new IoException("Error reading from file " + e.getMessage());
@@ -240,4 +267,187 @@ public class ExcelFileReader extends AbstractFileReader {
             IOUtils.closeQuietly(wb);
         }
     }
+
+    /**
+     * Reads the workbook with the XSSF event API. Only the shared strings and
+     * styles are held in memory. Sheets are parsed with SAX and rows are sent
+     * as they are read. The workbook is copied to a temporary file first
+     * because opening an OPC package from a stream inflates every part into
+     * memory.
+     */
+    private void streamWorkbook(Map<String, Serializable> headers, InputStream inStream,
+            ISendMessageCallback callback) throws IOException {
+        File file = File.createTempFile("metl-excel", ".xlsx");
+        OPCPackage pkg = null;
+        try {
+            FileUtils.copyInputStreamToFile(inStream, file);
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            SheetHandler handler = new SheetHandler(headers, callback, new ReadOnlySharedStringsTable(pkg),
+                    reader.getStylesTable());
+            XMLReader parser = SAXHelper.newXMLReader();
+            parser.setContentHandler(handler);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    String[] worksheetColumnArray = worksheetColumnListMap.get(sheets.getSheetName());
+                    if (worksheetColumnArray != null) {
+                        handler.worksheetColumnArray = worksheetColumnArray;
+                        parser.parse(new InputSource(sheet));
+                    }
+                }
+            }
+            // send leftovers
+            if (handler.outboundPayload.size() > 0) {
+                callback.sendEntityDataMessage(headers, handler.outboundPayload);
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IoException(e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Turns the rows of a worksheet into entity data with the same rules as
+     * readWorkbook.
+     */
+    class SheetHandler extends DefaultHandler {
+
+        final Map<String, Serializable> headers;
+
+        final ISendMessageCallback callback;
+
+        final ReadOnlySharedStringsTable sharedStrings;
+
+        final StylesTable styles;
+
+        String[] worksheetColumnArray;
+
+        ArrayList<EntityData> outboundPayload = new ArrayList<EntityData>();
+
+        int currentFileLinesRead = 1;
+
+        EntityData data;
+
+        boolean skipRow;
+
+        CellReference cellReference;
+
+        int columnIndex;
+
+        String cellType;
+
+        String cellStyle;
+
+        boolean cellMapped;
+
+        boolean cellHasValue;
+
+        boolean inValue;
+
+        StringBuilder value = new StringBuilder();
+
+        SheetHandler(Map<String, Serializable> headers, ISendMessageCallback callback,
+                ReadOnlySharedStringsTable sharedStrings, StylesTable styles) {
+            this.headers = headers;
+            this.callback = callback;
+            this.sharedStrings = sharedStrings;
+            this.styles = styles;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            if ("row".equals(localName)) {
+                skipRow = currentFileLinesRead <= headerLinesToSkip;
+                data = new EntityData();
+                columnIndex = -1;
+            } else if ("c".equals(localName)) {
+                String reference = attributes.getValue("r");
+                if (reference != null) {
+                    cellReference = new CellReference(reference);
+                    columnIndex = cellReference.getCol();
+                } else {
+                    cellReference = null;
+                    columnIndex++;
+                }
+                cellType = attributes.getValue("t");
+                cellStyle = attributes.getValue("s");
+                cellMapped = !skipRow && columnIndex < worksheetColumnArray.length
+                        && worksheetColumnArray[columnIndex] != null;
+                cellHasValue = false;
+                value.setLength(0);
+            } else if ("v".equals(localName) || ("t".equals(localName) && "inlineStr".equals(cellType))) {
+                inValue = true;
+                cellHasValue = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (inValue && cellMapped) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if ("v".equals(localName) || "t".equals(localName)) {
+                inValue = false;
+            } else if ("c".equals(localName)) {
+                if (cellMapped) {
+                    data.put(worksheetColumnArray[columnIndex], getCellValue());
+                }
+            } else if ("row".equals(localName)) {
+                if (!skipRow) {
+                    getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
+                    if (!data.isEmpty()) {
+                        outboundPayload.add(data);
+                    }
+                    if (outboundPayload.size() == rowsPerMessage) {
+                        callback.sendEntityDataMessage(headers, outboundPayload);
+                        outboundPayload = new ArrayList<EntityData>();
+                    }
+                }
+                currentFileLinesRead++;
+            }
+        }
+
+        Object getCellValue() {
+            if (!cellHasValue) {
+                return null;
+            }
+            String text = value.toString();
+            if ("s".equals(cellType)) {
+                return sharedStrings.getEntryAt(Integer.parseInt(text));
+            } else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+                return text;
+            } else if ("b".equals(cellType)) {
+                return "1".equals(text);
+            } else if ("e".equals(cellType)) {
+                if (ignoreError) {
+                    return null;
+                } else {
+                    throw new UnsupportedOperationException("Error in cell.  (RowIdx:ColIdx): "
+                            + (cellReference != null ? cellReference.getRow() + 1 : "?") + ":" + (columnIndex + 1));
+                }
+            } else {
+                double number = Double.parseDouble(text);
+                if (cellStyle != null) {
+                    XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(cellStyle));
+                    if (style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())
+                            && DateUtil.isValidExcelDate(number)) {
+                        return DateUtil.getJavaDate(number);
+                    }
+                }
+                return number;
+            }
+        }
+
+    }
+
 }
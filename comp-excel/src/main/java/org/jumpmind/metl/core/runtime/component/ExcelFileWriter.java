@@ -18,6 +18,7 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.WorkbookUtil;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
@@ -50,12 +51,26 @@ public class ExcelFileWriter extends AbstractFileWriter {
     public final static String EXCEL_WRITER_ATTRIBUTE_ORDINAL = "excel.writer.attribute.ordinal";
 
     public final static String EXCEL_OUTPUT_FORMAT = "Microsoft Excel XML (.xlsx)";
+
+    public final static String SETTING_STREAMING_WRITE = "streaming.write";
+
+    public final static String SETTING_ROWS_IN_MEMORY = "rows.in.memory";
+
+    public final static String SETTING_COMPRESS_TEMP_FILES = "compress.temp.files";
     
     boolean emptyFile;
 
     boolean inputDataReceived = false;
     
     boolean includeHeader;
+
+    boolean includeHeaderSetting;
+
+    boolean streamingWrite;
+
+    int rowsInMemory = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+    boolean compressTempFiles = true;
             
     String excelOutputType = EXCEL_OUTPUT_TYPE;
     
@@ -81,6 +96,10 @@ public class ExcelFileWriter extends AbstractFileWriter {
         TypedProperties properties = getTypedProperties();
         emptyFile = properties.is(SETTING_EMPTY_FILE, false);
         includeHeader = properties.is(SETTING_INCLUDE_HEADER, false);
+        includeHeaderSetting = includeHeader;
+        streamingWrite = properties.is(SETTING_STREAMING_WRITE, false);
+        rowsInMemory = properties.getInt(SETTING_ROWS_IN_MEMORY, rowsInMemory);
+        compressTempFiles = properties.is(SETTING_COMPRESS_TEMP_FILES, compressTempFiles);
         excelOutputType = properties.get(EXCEL_OUTPUT_TYPE, excelOutputType);
         excelSheetName = properties.get(SETTING_SHEET_NAME, excelSheetName);
         String enteredFileName = properties.get(SETTING_RELATIVE_PATH);
@@ -99,8 +118,25 @@ public class ExcelFileWriter extends AbstractFileWriter {
         	relativePathAndFile = properties.get(SETTING_RELATIVE_PATH);
         }
         
+        if (streamingWrite && "Microsoft Excel (.xls)".equals(excelOutputType)) {
+            throw new MisconfiguredException("Streaming write is only supported for the Excel XML (.xlsx) output type.");
+        }
+
+        createWorkbook();
+        convertAttributeSettingsToAttributeFormat();
+    }
+
+    private void createWorkbook() {
         if ("Microsoft Excel (.xls)".equals(excelOutputType)) {
         	wb = new HSSFWorkbook();
+        } else if (streamingWrite) {
+            /*
+             * Only the last rowsInMemory rows are kept on the heap. Older rows
+             * are flushed to temp files that are removed by dispose()
+             */
+            SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(rowsInMemory);
+            streamingWorkbook.setCompressTempFiles(compressTempFiles);
+            wb = streamingWorkbook;
         } else {
             wb = new XSSFWorkbook();
         }
@@ -108,7 +144,28 @@ public class ExcelFileWriter extends AbstractFileWriter {
         // fix user entered sheet (tab) name if it does not meet the Excel requirements
         String safeName = WorkbookUtil.createSafeSheetName(excelSheetName);
         sheet = wb.createSheet(safeName);
-        convertAttributeSettingsToAttributeFormat();
+    }
+
+    private void writeWorkbook() throws IOException {
+        if (fileOut != null) {
+            wb.write(fileOut);
+        }
+        if (streamingWrite) {
+            /*
+             * A streamed workbook can only be written once. Start a new one
+             * for the next file
+             */
+            disposeWorkbook();
+            createWorkbook();
+            rowNbr = 0;
+            includeHeader = includeHeaderSetting;
+        }
+    }
+
+    private void disposeWorkbook() {
+        if (wb instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) wb).dispose();
+        }
     }
 
     @Override
@@ -151,7 +208,7 @@ public class ExcelFileWriter extends AbstractFileWriter {
             
             // if we need to include the header add it to the output and update the boolean to not output again
             if (includeHeader) {
-            	Row row = sheet.createRow((short)rowNbr);
+            	Row row = sheet.createRow(rowNbr);
         		for (AttributeFormat attr : attributes) {
                     if (attr.getAttribute() != null) {
                 		Cell cell = row.createCell(colNbr);
@@ -170,7 +227,7 @@ public class ExcelFileWriter extends AbstractFileWriter {
             if (inputMessage instanceof EntityDataMessage) {
                 ArrayList<EntityData> inputRows = ((EntityDataMessage)inputMessage).getPayload();
                 for (EntityData inputRow : inputRows) {
-                	Row row = sheet.createRow((short)rowNbr);
+                	Row row = sheet.createRow(rowNbr);
                 	for (AttributeFormat attribute : attributes) {
                         Object object = inputRow.get(attribute.getAttributeId());
                     	Cell cell = row.createCell(colNbr);
@@ -185,17 +242,18 @@ public class ExcelFileWriter extends AbstractFileWriter {
 
     	try {
 	        if ((inputMessage instanceof ControlMessage || unitOfWorkBoundaryReached) && callback != null) {
-				if (fileOut != null) {
-					wb.write(fileOut);
-				}
+				writeWorkbook();
+	            closeFile();
 	            closeDirectory();
 	            ArrayList<String> results = new ArrayList<>(1);
 	            results.add("{\"status\":\"success\"}");
 	            callback.sendTextMessage(null, results);
-	        } else if (inputMessage instanceof ContentMessage) {
-				if (fileOut != null) {
-					wb.write(fileOut);
-				}
+	        } else if (inputMessage instanceof ContentMessage && !streamingWrite) {
+	            /*
+	             * A streamed workbook keeps the file open and is written once
+	             * at the end of the unit of work
+	             */
+				writeWorkbook();
 	            closeFile();
 	        }
 		} catch (IOException e) {
@@ -213,12 +271,15 @@ public class ExcelFileWriter extends AbstractFileWriter {
     @Override
     public void stop() {
         super.stop();
+        closeFile();
         closeDirectory();
+        disposeWorkbook();
     }
 
     @Override
     public void flowCompletedWithErrors(Throwable myError) {
         closeFile();
+        disposeWorkbook();
         super.flowCompletedWithErrors(myError);
     }
 
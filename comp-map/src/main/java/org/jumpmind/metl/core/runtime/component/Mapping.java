@@ -36,6 +36,7 @@ import org.jumpmind.metl.core.model.ModelAttribute;
 import org.jumpmind.metl.core.model.ModelEntity;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.IndexedEntityData;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
@@ -138,7 +139,7 @@ public class Mapping extends AbstractComponentRuntime {
                             .getName();
                     EntityData outputRow = outputRows.get(entityName);
                     if (outputRow == null) {
-                        outputRow = new EntityData();
+                        outputRow = new IndexedEntityData(outputModel.getAttributeIndex());
                         outputRow.setChangeType(inputRow.getChangeType());
                         outputRows.put(entityName, outputRow);
                         
@@ -156,7 +157,7 @@ public class Mapping extends AbstractComponentRuntime {
                             .getName();                    
                     EntityData outputRow = outputRows.get(entityName);
                     if (outputRow == null) {
-                        outputRow = new EntityData();
+                        outputRow = new IndexedEntityData(outputModel.getAttributeIndex());
                         outputRows.put(entityName, outputRow);   
                     }
                     if (!outputRow.containsKey(attr.getId())) {
@@ -179,7 +180,8 @@ public class Mapping extends AbstractComponentRuntime {
     protected ArrayList<EntityData> mapInputToOutput(EntityData inputRow) {
         ArrayList<EntityData> outputPayload = new ArrayList<EntityData>();
 
-        EntityData outputRow = new EntityData();
+        Model outputModel = getOutputModel();
+        EntityData outputRow = new IndexedEntityData(outputModel.getAttributeIndex());
         outputRow.setChangeType(inputRow.getChangeType());
 
         for (Entry<String, Object> attrEntry : inputRow.entrySet()) {
@@ -192,7 +194,7 @@ public class Mapping extends AbstractComponentRuntime {
         }
 
         if (setUnmappedAttributesToNull) {
-            for (ModelEntity entity : getComponent().getOutputModel().getModelEntities()) {
+            for (ModelEntity entity : outputModel.getModelEntities()) {
                 for (ModelAttribute attr : entity.getModelAttributes()) {
                     if (!outputRow.containsKey(attr.getId())) {
                         outputRow.put(attr.getId(), null);
@@ -23,35 +23,55 @@ package org.jumpmind.metl.core.runtime.component;
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.metl.core.model.Model;
 import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
 import org.jumpmind.metl.core.model.ModelEntity;
 import org.jumpmind.metl.core.runtime.ContentMessage;
 import org.jumpmind.metl.core.runtime.ControlMessage;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+import org.jumpmind.metl.core.runtime.IndexedEntityData;
 import org.jumpmind.metl.core.runtime.LogLevel;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
+import org.jumpmind.metl.core.util.ThreadUtils;
 import org.jumpmind.properties.TypedProperties;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.util.StringUtils;
 
@@ -69,6 +89,20 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
     
     public final static String UNIT_OF_WORK = "unit.of.work";
 
+    public final static String STREAM_RESULTS = "stream.results";
+
+    public final static String PARTITION_COLUMN = "partition.column";
+
+    public final static String PARTITION_COUNT = "partition.count";
+
+    static final String PARTITION_LOWER_BOUND = "metl_partition_lower";
+
+    static final String PARTITION_UPPER_BOUND = "metl_partition_upper";
+
+    static final Object PARTITION_DONE = new Object();
+
+    static final int MAX_CACHED_SQL_METADATA = 100;
+
     public static final String COMPONENT_LIFETIME = "PER UNIT OF WORK";
     
     public static final String SQL_SCRIPT = "SQL SCRIPT";
@@ -87,6 +121,23 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
     
     boolean passInputRowsThrough = false;
 
+    boolean streamResults = false;
+
+    String partitionColumn;
+
+    int partitionCount = 1;
+
+    ExecutorService partitionExecutor;
+
+    Map<String, SqlMetadata> sqlMetadataCache = Collections.synchronizedMap(new LinkedHashMap<String, SqlMetadata>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SqlMetadata> eldest) {
+            return size() > MAX_CACHED_SQL_METADATA;
+        }
+    });
+
     ChangeType entityChangeType = ChangeType.ADD;
 
     int rowReadDuringHandle;
@@ -104,6 +155,21 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
         runWhen = properties.get(RUN_WHEN, runWhen);
         unitOfWork = properties.get(UNIT_OF_WORK, unitOfWork);
         queryTimeout = properties.getInt(QUERY_TIMEOUT, queryTimeout);
+        streamResults = properties.is(STREAM_RESULTS, false);
+        partitionColumn = properties.get(PARTITION_COLUMN);
+        partitionCount = properties.getInt(PARTITION_COUNT, partitionCount);
+        if (partitionCount > 1 && isBlank(partitionColumn)) {
+            throw new MisconfiguredException("A partition column is required when the partition count is greater than one");
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (partitionExecutor != null) {
+            partitionExecutor.shutdownNow();
+            partitionExecutor = null;
+        }
+        super.stop();
     }
 
     @Override
@@ -153,7 +219,12 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
                 log(LogLevel.INFO, "About to run: %s", sqlToExecute);
                 log(LogLevel.INFO, "Passing params: %s", paramMap);
                 resultSetToEntityDataConverter.setSqlToExecute(sqlToExecute);
-                template.query(sqlToExecute, paramMap, resultSetToEntityDataConverter);
+                if (partitionCount > 1) {
+                    sendLeftOverRows(callback, outboundPayload);
+                    queryPartitions(template, sqlToExecute, paramMap, inputMessage, callback);
+                } else {
+                    query(template, sqlToExecute, paramMap, resultSetToEntityDataConverter);
+                }
                 if (unitOfWork.equalsIgnoreCase(SQL_STATEMENT)) {
                     sendLeftOverRows(callback, outboundPayload);
                     callback.sendControlMessage();
@@ -168,6 +239,209 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
         
     }
 
+    protected void query(NamedParameterJdbcTemplate template, final String sql, final Map<String, Object> paramMap,
+            final ResultSetToEntityDataConverter converter) {
+        if (streamResults) {
+            template.getJdbcOperations().execute(new ConnectionCallback<Object>() {
+                @Override
+                public Object doInConnection(Connection connection) throws SQLException, DataAccessException {
+                    streamQuery(connection, sql, paramMap, converter);
+                    return null;
+                }
+            });
+        } else {
+            template.query(sql, paramMap, converter);
+        }
+    }
+
+    /**
+     * Splits the query into range queries on the partition column and runs
+     * them concurrently, each on its own pooled connection. The ranges divide
+     * the span between the minimum and maximum value of the column evenly.
+     * Rows are handed back to this thread, which sends them on so that
+     * messages and unit of work boundaries are still produced by the component
+     * thread.
+     */
+    @SuppressWarnings("unchecked")
+    protected void queryPartitions(final NamedParameterJdbcTemplate template, final String sql, Map<String, Object> paramMap,
+            final Message inputMessage, ISendMessageCallback callback) {
+        List<Map<String, Object>> partitionParams = getPartitionParams(template, sql, paramMap);
+        final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>(partitionCount * 2);
+        if (partitionExecutor == null) {
+            partitionExecutor = ThreadUtils.createFixedThreadPool(getFlowStep().getName() + "-partition", partitionCount, partitionCount);
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(partitionParams.size());
+        for (int i = 0; i < partitionParams.size(); i++) {
+            final String partitionSql = getPartitionSql(sql, i == 0, i == partitionParams.size() - 1);
+            final Map<String, Object> params = partitionParams.get(i);
+            futures.add(partitionExecutor.submit(() -> {
+                try {
+                    PartitionConverter converter = new PartitionConverter(inputMessage, results);
+                    converter.setSqlToExecute(sql);
+                    query(template, partitionSql, params, converter);
+                    if (!converter.payload.isEmpty()) {
+                        converter.sendPayload();
+                    }
+                    results.put(PARTITION_DONE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable e) {
+                    try {
+                        results.put(e);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+        }
+
+        int running = futures.size();
+        try {
+            long ts = System.currentTimeMillis();
+            while (running > 0) {
+                checkForInterruption();
+                Object result = results.poll(1, TimeUnit.SECONDS);
+                if (result == PARTITION_DONE) {
+                    running--;
+                } else if (result instanceof RuntimeException) {
+                    throw (RuntimeException) result;
+                } else if (result instanceof Throwable) {
+                    throw new RuntimeException((Throwable) result);
+                } else if (result != null) {
+                    ArrayList<EntityData> rows = (ArrayList<EntityData>) result;
+                    getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber, rows.size());
+                    rowReadDuringHandle += rows.size();
+                    callback.sendEntityDataMessage(null, rows);
+                }
+
+                long newTs = System.currentTimeMillis();
+                if (newTs - ts > 10000) {
+                    getExecutionTracker().updateStatistics(threadNumber, context);
+                    ts = newTs;
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new CancellationException();
+        } finally {
+            if (running > 0) {
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    protected String getPartitionSql(String sql, boolean first, boolean last) {
+        String range = String.format("%1$s >= :%2$s and %1$s %3$s :%4$s", partitionColumn, PARTITION_LOWER_BOUND, last ? "<=" : "<",
+                PARTITION_UPPER_BOUND);
+        if (first) {
+            range = String.format("%s is null or (%s)", partitionColumn, range);
+        }
+        return String.format("select * from (%s) metl_partition where %s", sql, range);
+    }
+
+    /**
+     * @return one parameter map per partition, each with the lower and upper
+     *         bound of its range
+     */
+    protected List<Map<String, Object>> getPartitionParams(NamedParameterJdbcTemplate template, String sql, Map<String, Object> paramMap) {
+        String boundsSql = String.format("select min(%1$s), max(%1$s) from (%2$s) metl_partition", partitionColumn, sql);
+        Object[] bounds = template.query(boundsSql, paramMap, new ResultSetExtractor<Object[]>() {
+            @Override
+            public Object[] extractData(ResultSet rs) throws SQLException, DataAccessException {
+                return rs.next() ? new Object[] { rs.getObject(1), rs.getObject(2) } : new Object[2];
+            }
+        });
+
+        List<Object> boundaries = new ArrayList<Object>(partitionCount + 1);
+        if (bounds[0] instanceof Number && bounds[1] instanceof Number) {
+            BigDecimal min = new BigDecimal(bounds[0].toString());
+            BigDecimal max = new BigDecimal(bounds[1].toString());
+            BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(partitionCount), 10, RoundingMode.FLOOR);
+            for (int i = 0; i < partitionCount; i++) {
+                boundaries.add(min.add(step.multiply(BigDecimal.valueOf(i))));
+            }
+            boundaries.add(max);
+        } else if (bounds[0] instanceof Date && bounds[1] instanceof Date) {
+            long min = ((Date) bounds[0]).getTime();
+            long max = ((Date) bounds[1]).getTime();
+            long step = (max - min) / partitionCount;
+            boundaries.add(bounds[0]);
+            for (int i = 1; i < partitionCount; i++) {
+                boundaries.add(new Timestamp(min + step * i));
+            }
+            /*
+             * the outer bounds are used as read so sub millisecond precision
+             * of the minimum and maximum values is not lost
+             */
+            boundaries.add(bounds[1]);
+        } else if (bounds[0] == null && bounds[1] == null) {
+            boundaries.add(null);
+            boundaries.add(null);
+        } else {
+            throw new MisconfiguredException("The partition column '%s' must be a numeric or date column", partitionColumn);
+        }
+
+        List<Map<String, Object>> partitionParams = new ArrayList<Map<String, Object>>(partitionCount);
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            Map<String, Object> params = new HashMap<String, Object>(paramMap);
+            params.put(PARTITION_LOWER_BOUND, boundaries.get(i));
+            params.put(PARTITION_UPPER_BOUND, boundaries.get(i + 1));
+            partitionParams.add(params);
+        }
+        return partitionParams;
+    }
+
+    /**
+     * Runs the query on a forward only, read only cursor that fetches rows in
+     * batches instead of loading the whole result set. PostgreSQL only uses a
+     * cursor outside of auto commit. MySQL only streams when the fetch size is
+     * Integer.MIN_VALUE, unless cursor fetch is enabled on the URL.
+     */
+    protected void streamQuery(Connection connection, String sql, Map<String, Object> paramMap, ResultSetToEntityDataConverter converter)
+            throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String productName = metaData.getDatabaseProductName() != null ? metaData.getDatabaseProductName().toLowerCase() : "";
+        String url = metaData.getURL() != null ? metaData.getURL().toLowerCase() : "";
+        int fetchSize = getFetchSize() > 0 ? getFetchSize() : (int) Math.min(rowsPerMessage, Integer.MAX_VALUE);
+        if ((productName.contains("mysql") || productName.contains("mariadb")) && !url.contains("usecursorfetch=true")) {
+            fetchSize = Integer.MIN_VALUE;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            JdbcTemplate template = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            template.setQueryTimeout(queryTimeout);
+            template.setFetchSize(fetchSize);
+            new NamedParameterJdbcTemplate(template).query(sql, paramMap, converter);
+            if (autoCommit) {
+                connection.commit();
+            }
+        } catch (RuntimeException e) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    protected SqlMetadata getSqlMetadata(String sql) {
+        SqlMetadata sqlMetadata = sqlMetadataCache.get(sql);
+        if (sqlMetadata == null) {
+            sqlMetadata = new SqlMetadata(sql);
+            sqlMetadataCache.put(sql, sqlMetadata);
+        }
+        return sqlMetadata;
+    }
+
     private void sendLeftOverRows(final ISendMessageCallback callback, ArrayList<EntityData> outboundPayload) {
         if (outboundPayload != null && outboundPayload.size() > 0) {
             callback.sendEntityDataMessage(null, outboundPayload);
@@ -472,18 +746,18 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
         public ArrayList<EntityData> extractData(ResultSet rs) throws SQLException, DataAccessException {
             checkForInterruption();
             ResultSetMetaData meta = rs.getMetaData();
-            Map<Integer, String> columnHints = getSqlColumnEntityHints(sqlToExecute);
-            ArrayList<String> attributeIds = getAttributeIds(sqlToExecute, meta, columnHints);
+            SqlMetadata sqlMetadata = getSqlMetadata(sqlToExecute);
+            sqlMetadata.resolve(meta);
+            ArrayList<String> attributeIds = sqlMetadata.attributeIds;
+            ModelAttributeIndex attributeIndex = sqlMetadata.attributeIndex;
+            int[] positions = sqlMetadata.positions;
             long ts = System.currentTimeMillis();
             while (rs.next()) {
                 if (outputRecCount++ % rowsPerMessage == 0 && payload != null && !payload.isEmpty()) {
-                    callback.sendEntityDataMessage(null, payload);
-                    payload.clear();
+                    sendPayload();
                 }
 
-                getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-
-                EntityData rowData = new EntityData();
+                EntityData rowData = attributeIndex != null ? new IndexedEntityData(attributeIndex) : new EntityData();
                 rowData.setChangeType(entityChangeType);
                 for (int i = 1; i <= meta.getColumnCount(); i++) {
                     String attributeId = attributeIds.get(i - 1);
@@ -492,10 +766,14 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
                         if (trimColumns && value instanceof String) {
                             value = value.toString().trim();
                         }
-                        rowData.put(attributeId, value);
+                        if (positions != null && positions[i - 1] >= 0) {
+                            rowData.put(attributeIndex, positions[i - 1], value);
+                        } else {
+                            rowData.put(attributeId, value);
+                        }
                     }
                 }
-                rowReadDuringHandle++;
+                countRow();
                 payload.add(rowData);
                 if (context.getDeployment() != null && context.getDeployment().asLogLevel() == LogLevel.DEBUG) {
                     logEntityAttributes(rowData);
@@ -503,18 +781,98 @@ public class RdbmsReader extends AbstractRdbmsComponentRuntime {
 
                 long newTs = System.currentTimeMillis();
                 if (newTs - ts > 10000) {
-                    getExecutionTracker().updateStatistics(threadNumber, context);
+                    updateStatistics();
                     ts = newTs;
                 }
             }
             return payload;
         }
 
+        protected void sendPayload() {
+            callback.sendEntityDataMessage(null, payload);
+            payload.clear();
+        }
+
+        protected void countRow() {
+            getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
+            rowReadDuringHandle++;
+        }
+
+        protected void updateStatistics() {
+            getExecutionTracker().updateStatistics(threadNumber, context);
+        }
+
         public void setSqlToExecute(String sqlToExecute) {
             this.sqlToExecute = sqlToExecute;
         }
     }
 
+    /**
+     * What is learned about a SQL statement the first time it is run: the
+     * column hints parsed from its text and the attribute each result column
+     * maps to. Statements are cached by their text for the life of the
+     * component so queries run per entity do not repeat the work.
+     */
+    class SqlMetadata {
+
+        String sql;
+
+        Map<Integer, String> columnHints;
+
+        ArrayList<String> attributeIds;
+
+        ModelAttributeIndex attributeIndex;
+
+        int[] positions;
+
+        SqlMetadata(String sql) {
+            this.sql = sql;
+            this.columnHints = getSqlColumnEntityHints(sql);
+        }
+
+        synchronized void resolve(ResultSetMetaData meta) throws SQLException {
+            if (attributeIds == null || attributeIds.size() != meta.getColumnCount()) {
+                attributeIds = getAttributeIds(sql, meta, columnHints);
+                Model outputModel = getOutputModel();
+                attributeIndex = outputModel != null ? outputModel.getAttributeIndex() : null;
+                positions = attributeIndex != null ? attributeIndex.indexOf(attributeIds) : null;
+            }
+        }
+    }
+
+    /**
+     * Reads one partition on a partition thread. Rows are queued for the
+     * component thread, which sends them and keeps the statistics.
+     */
+    class PartitionConverter extends ResultSetToEntityDataConverter {
+
+        BlockingQueue<Object> results;
+
+        public PartitionConverter(Message inputMessage, BlockingQueue<Object> results) {
+            super(inputMessage, null, false, new ArrayList<EntityData>());
+            this.results = results;
+        }
+
+        @Override
+        protected void sendPayload() {
+            try {
+                results.put(new ArrayList<EntityData>(payload));
+                payload.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+
+        @Override
+        protected void countRow() {
+        }
+
+        @Override
+        protected void updateStatistics() {
+        }
+    }
+
     public void setRunWhen(String runWhen) {
         this.runWhen = runWhen;
     }
@@ -1,10 +1,21 @@
 package org.jumpmind.metl.core.runtime.component;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Test;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
 public class RdbmsReaderTest {
 
@@ -26,4 +37,26 @@ public class RdbmsReaderTest {
         assertEquals(hints.get(2), "COLB");
         assertEquals(hints.get(3), "COLC");
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetPartitionParamsKeepsTimestampBounds() throws Exception {
+        Timestamp min = Timestamp.valueOf("2016-01-01 00:00:00.000000001");
+        Timestamp max = Timestamp.valueOf("2016-01-02 00:00:00.123456789");
+        NamedParameterJdbcTemplate template = mock(NamedParameterJdbcTemplate.class);
+        when(template.query(anyString(), anyMap(), any(ResultSetExtractor.class)))
+                .thenReturn(new Object[] { min, max });
+
+        RdbmsReader reader = new RdbmsReader();
+        reader.partitionColumn = "UPDATE_TIME";
+        reader.partitionCount = 4;
+        List<Map<String, Object>> params = reader.getPartitionParams(template, "select * from test", new HashMap<String, Object>());
+
+        assertEquals(4, params.size());
+        assertSame(min, params.get(0).get(RdbmsReader.PARTITION_LOWER_BOUND));
+        assertSame(max, params.get(3).get(RdbmsReader.PARTITION_UPPER_BOUND));
+        for (int i = 1; i < params.size(); i++) {
+            assertEquals(params.get(i - 1).get(RdbmsReader.PARTITION_UPPER_BOUND), params.get(i).get(RdbmsReader.PARTITION_LOWER_BOUND));
+        }
+    }
 }
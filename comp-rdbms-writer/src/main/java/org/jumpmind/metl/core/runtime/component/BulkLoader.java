@@ -0,0 +1,258 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads rows into a table with the database's bulk load protocol. PostgreSQL
+ * rows are streamed as CSV through the driver's copy api and H2 rows are
+ * written to a temporary CSV file that is read with CSVREAD. CSVREAD opens
+ * the file on the database server, so it is only used for an embedded H2
+ * database that shares this process's file system. Every other database,
+ * a remote H2 server, or a PostgreSQL connection that can't be unwrapped,
+ * falls back to batched inserts.
+ */
+public class BulkLoader {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    final Logger log = LoggerFactory.getLogger(getClass());
+
+    String databaseName;
+
+    int batchSize;
+
+    public BulkLoader(String databaseName, int batchSize) {
+        this.databaseName = databaseName == null ? "" : databaseName.toLowerCase();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int load(Connection connection, String tableName, List<String> columns, List<Object[]> rows) throws SQLException, IOException {
+        if (rows.size() == 0) {
+            return 0;
+        }
+        if (isPostgres() && connection.isWrapperFor(BaseConnection.class)) {
+            return copy(connection.unwrap(BaseConnection.class), tableName, columns, rows);
+        } else if (isH2() && isEmbeddedH2Url(connection.getMetaData().getURL())) {
+            return csvRead(connection, tableName, columns, rows);
+        } else {
+            return batchInsert(connection, tableName, columns, rows);
+        }
+    }
+
+    public boolean isPostgres() {
+        /* redshift only copies from s3 */
+        return databaseName.contains("postgres") || databaseName.contains("greenplum");
+    }
+
+    public boolean isH2() {
+        return databaseName.contains("h2");
+    }
+
+    /**
+     * @return false for the tcp and ssl urls of an H2 server, whose CSVREAD
+     *         would look for the file on the server's file system
+     */
+    protected static boolean isEmbeddedH2Url(String url) {
+        String lower = url == null ? "" : url.toLowerCase();
+        return lower.startsWith("jdbc:h2:") && !lower.startsWith("jdbc:h2:tcp:") && !lower.startsWith("jdbc:h2:ssl:");
+    }
+
+    protected int copy(BaseConnection connection, String tableName, List<String> columns, List<Object[]> rows)
+            throws SQLException {
+        String sql = String.format("copy %s (%s) from stdin with csv", tableName, join(columns));
+        log.debug("Copying {} rows: {}", rows.size(), sql);
+        CopyIn copyIn = new CopyManager(connection).copyIn(sql);
+        try {
+            StringBuilder csv = new StringBuilder();
+            for (Object[] row : rows) {
+                appendCsvRow(csv, row, true);
+                if (csv.length() >= COPY_BUFFER_SIZE) {
+                    byte[] bytes = csv.toString().getBytes(UTF8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    csv.setLength(0);
+                }
+            }
+            if (csv.length() > 0) {
+                byte[] bytes = csv.toString().getBytes(UTF8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            }
+            return (int) copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    protected int csvRead(Connection connection, String tableName, List<String> columns, List<Object[]> rows)
+            throws SQLException, IOException {
+        File file = File.createTempFile("metl-bulk-load", ".csv");
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF8))) {
+                StringBuilder csv = new StringBuilder();
+                for (Object[] row : rows) {
+                    appendCsvRow(csv, row, false);
+                    writer.write(csv.toString());
+                    csv.setLength(0);
+                }
+            }
+            StringBuilder csvColumns = new StringBuilder();
+            for (int i = 1; i <= columns.size(); i++) {
+                csvColumns.append(i > 1 ? ",C" : "C").append(i);
+            }
+            String sql = String.format("insert into %s (%s) select * from csvread('%s', '%s', 'charset=UTF-8')", tableName,
+                    join(columns), file.getAbsolutePath().replace("'", "''"), csvColumns);
+            log.debug("Loading {} rows: {}", rows.size(), sql);
+            return executeUpdate(connection, sql);
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    protected int batchInsert(Connection connection, String tableName, List<String> columns, List<Object[]> rows) throws SQLException {
+        StringBuilder sql = new StringBuilder("insert into ").append(tableName).append(" (").append(join(columns)).append(") values (");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(")");
+        log.debug("Inserting {} rows: {}", rows.size(), sql);
+        int count = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+            int pending = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, toJdbcValue(row[i]));
+                }
+                ps.addBatch();
+                if (++pending >= batchSize) {
+                    count += sum(ps.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                count += sum(ps.executeBatch());
+            }
+        }
+        return count;
+    }
+
+    public static int executeUpdate(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Appends a row in the CSV dialect shared by PostgreSQL's copy and H2's
+     * CSVREAD. Null is an empty unquoted field while every other value is
+     * quoted, so an empty string survives the round trip.
+     */
+    protected static void appendCsvRow(StringBuilder csv, Object[] row, boolean postgres) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            Object value = row[i];
+            if (value != null) {
+                String text;
+                if (value instanceof byte[]) {
+                    text = (postgres ? "\\x" : "") + toHex((byte[]) value);
+                } else if (value instanceof Date && !(value instanceof java.sql.Date || value instanceof java.sql.Time)) {
+                    text = new Timestamp(((Date) value).getTime()).toString();
+                } else {
+                    text = value.toString();
+                }
+                csv.append('"');
+                for (int j = 0; j < text.length(); j++) {
+                    char c = text.charAt(j);
+                    if (c == '"') {
+                        csv.append('"');
+                    }
+                    csv.append(c);
+                }
+                csv.append('"');
+            }
+        }
+        csv.append('\n');
+    }
+
+    protected static Object toJdbcValue(Object value) {
+        if (value instanceof Date && !(value instanceof java.sql.Date || value instanceof java.sql.Time
+                || value instanceof Timestamp)) {
+            return new Timestamp(((Date) value).getTime());
+        }
+        return value;
+    }
+
+    protected static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    protected static String join(List<String> columns) {
+        StringBuilder list = new StringBuilder();
+        for (String column : columns) {
+            if (list.length() > 0) {
+                list.append(", ");
+            }
+            list.append(column);
+        }
+        return list.toString();
+    }
+
+    protected static int sum(int[] counts) {
+        int count = 0;
+        for (int c : counts) {
+            /* drivers may report SUCCESS_NO_INFO for each batched row */
+            count += c == Statement.SUCCESS_NO_INFO ? 1 : Math.max(c, 0);
+        }
+        return count;
+    }
+
+}
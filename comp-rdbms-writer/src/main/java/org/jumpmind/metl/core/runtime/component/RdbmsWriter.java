@@ -23,6 +23,9 @@ package org.jumpmind.metl.core.runtime.component;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -35,18 +38,22 @@ import javax.sql.DataSource;
 
 import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
 import org.jumpmind.db.sql.DmlStatement;
 import org.jumpmind.db.sql.DmlStatement.DmlType;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.JdbcSqlTransaction;
 import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.db.sql.SqlTemplateSettings;
 import org.jumpmind.db.sql.UniqueKeyException;
+import org.jumpmind.exception.IoException;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
 import org.jumpmind.metl.core.model.DataType;
 import org.jumpmind.metl.core.model.Model;
 import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
 import org.jumpmind.metl.core.model.ModelEntity;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
@@ -78,6 +85,11 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
     public final static String TABLE_PREFIX = "table.prefix";
     public final static String AUTO_CREATE_TABLE = "table.auto.create";
     public final static String USE_CACHED_METADATA = "use.cached.table.metadata";
+    public final static String BATCH_SIZE = "batch.size";
+    public final static String UPSERT = "upsert";
+    public final static String ROWS_PER_INSERT = "rows.per.insert";
+    public final static String BULK_LOAD = "bulk.load";
+    public final static String BULK_LOAD_MERGE = "bulk.load.merge";
 
     boolean useCachedMetadata = false;
     boolean continueOnError = false;
@@ -94,6 +106,16 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
     int inboundEntityDataCount = 0;
     int totalStatementCount = 0;
     boolean batchMode = false;
+    int batchSize = 100;
+    boolean upsert = false;
+    int rowsPerInsert = 1;
+    boolean bulkLoad = false;
+    boolean bulkLoadMerge = false;
+    BulkLoader bulkLoader;
+    int pendingBatchStatements = 0;
+    int pendingBatchEntities = 0;
+    int batchCount = 0;
+    long batchDuration = 0;
     IDatabasePlatform databasePlatform;
     List<TargetTableDefintion> targetTables;
     Throwable error;
@@ -126,9 +148,22 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         fitToColumn = properties.is(FIT_TO_COLUMN);
         tableSuffix = properties.get(TABLE_SUFFIX, "");
         autoCreateTable = properties.is(AUTO_CREATE_TABLE, false);
+        batchSize = properties.getInt(BATCH_SIZE, batchSize);
+        upsert = properties.is(UPSERT, upsert);
+        rowsPerInsert = Math.max(1, properties.getInt(ROWS_PER_INSERT, rowsPerInsert));
+        bulkLoad = properties.is(BULK_LOAD, bulkLoad);
+        bulkLoadMerge = bulkLoad && properties.is(BULK_LOAD_MERGE, bulkLoadMerge);
         
-        if (batchMode && insertFallback) {
-            throw new MisconfiguredException("Insert fallback is not supported in batch mode");
+        if (batchMode && insertFallback && !upsert) {
+            throw new MisconfiguredException("Insert fallback is not supported in batch mode.  Use upsert instead");
+        }
+
+        if (rowsPerInsert > 1 && replaceRows && !upsert) {
+            throw new MisconfiguredException("Replacing rows is not supported with multiple rows per insert.  Use upsert instead");
+        }
+
+        if (bulkLoad && (replaceRows || upsert)) {
+            throw new MisconfiguredException("Replacing rows and upsert are not supported with bulk load.  Use bulk load merge instead");
         }
 
         if (tableSuffix == null) {
@@ -168,9 +203,14 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
                         throw new RuntimeException("The data source resource has not been configured.  Please configure it.");
                     }
                     DataSource dataSource = (DataSource) getResourceReference();
-                    databasePlatform = JdbcDatabasePlatformFactory.createNewPlatformInstance(dataSource, new SqlTemplateSettings(),
+                    SqlTemplateSettings settings = new SqlTemplateSettings();
+                    settings.setBatchSize(batchSize);
+                    databasePlatform = JdbcDatabasePlatformFactory.createNewPlatformInstance(dataSource, settings,
                             quoteIdentifiers, false);
                 }
+                if (bulkLoad && bulkLoader == null) {
+                    bulkLoader = new BulkLoader(databasePlatform.getName(), batchSize);
+                }
                 if (targetTables == null) {
                     Model model = getInputModel();
                     targetTables = new ArrayList<TargetTableDefintion>();
@@ -203,9 +243,12 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
                     transaction.setInBatchMode(batchMode);
                     try {
                         write(transaction, (EntityDataMessage)inputMessage, callback, unitOfWorkBoundaryReached);
+                        flush(transaction);
                         transaction.commit();
                     } catch (Throwable ex) {
                         error = ex;
+                        pendingBatchStatements = 0;
+                        pendingBatchEntities = 0;
                         transaction.rollback();
                         if (ex instanceof RuntimeException) {
                             throw (RuntimeException) ex;
@@ -270,7 +313,7 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         ArrayList<Object> data = new ArrayList<Object>();
         for (TargetColumn modelColumn : modelTable.getTargetColumns()) {
             if ((isUpdate && modelColumn.isUpdateEnabled()) || (!isUpdate && modelColumn.isInsertEnabled())) {
-                Object value = inputRow.get(modelColumn.getModelAttribute().getId());
+                Object value = modelColumn.getValue(inputRow);
                 if (fitToColumn && value != null && value instanceof String) {
                     value = fitToColumn(modelTable.getTable(), modelColumn.getModelAttribute().getName(), (String) value);
                 }
@@ -281,7 +324,7 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         ArrayList<Object> keyValues = new ArrayList<Object>();
         for (TargetColumn modelColumn : modelTable.getKeyTargetColumns()) {
             if ((isUpdate && modelColumn.isUpdateEnabled()) || (!isUpdate && modelColumn.isInsertEnabled())) {
-                keyValues.add(inputRow.get(modelColumn.getModelAttribute().getId()));
+                keyValues.add(modelColumn.getValue(inputRow));
             }
         }
 
@@ -297,6 +340,8 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
             for (TargetTableDefintion targetTableDefinition : targetTables) {
                 if (inputRow.getChangeType() == ChangeType.DEL) {
                     modelTable = targetTableDefinition.getDeleteTable();
+                } else if (upsert || bulkLoadMerge) {
+                    modelTable = targetTableDefinition.getInsertTable();
                 } else if (updateFirst || inputRow.getChangeType() == ChangeType.CHG) {
                     modelTable = targetTableDefinition.getUpdateTable();
                 } else if (inputRow.getChangeType() == ChangeType.ADD) {
@@ -383,6 +428,17 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
     }
 
     private void executeSqlInserts(TargetTableDefintion targetTableDefinition, ISqlTransaction transaction, WriteStats stats) {
+        if (bulkLoad) {
+            executeBulkLoad(targetTableDefinition, transaction, stats);
+            return;
+        }
+
+        if (upsert || getRowsPerStatement(databasePlatform.getName(), rowsPerInsert,
+                targetTableDefinition.getInsertTable().getStatement().getTypes().length) > 1) {
+            executeSqlMultiRowInserts(targetTableDefinition, transaction, stats);
+            return;
+        }
+
         TargetTable targetUpdateTable = targetTableDefinition.getUpdateTable();
         TargetTable targetInsertTable = targetTableDefinition.getInsertTable();
 
@@ -406,16 +462,166 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         }
     }
 
+    /**
+     * Writes the rows of the insert table with statements that each carry up
+     * to {@link #rowsPerInsert} rows, fewer when that many rows would need more
+     * bind parameters than the database allows in one statement. When upsert is enabled the statements
+     * use the database's own insert or update syntax, so adds and changes need
+     * neither an update first nor an insert fallback round trip and can be
+     * batched.
+     */
+    private void executeSqlMultiRowInserts(TargetTableDefintion targetTableDefinition, ISqlTransaction transaction, WriteStats stats) {
+        TargetTable targetInsertTable = targetTableDefinition.getInsertTable();
+        List<EntityData> rows = targetInsertTable.getRowValues();
+        int[] rowTypes = targetInsertTable.getStatement().getTypes();
+        int rowsPerStatement = getRowsPerStatement(databasePlatform.getName(), rowsPerInsert, rowTypes.length);
+        for (int i = 0; i < rows.size(); i += rowsPerStatement) {
+            int rowCount = Math.min(rowsPerStatement, rows.size() - i);
+            String sql = targetTableDefinition.getMultiRowInsertSql(rowCount);
+            Object[] data = new Object[rowTypes.length * rowCount];
+            int[] types = new int[rowTypes.length * rowCount];
+            for (int j = 0; j < rowCount; j++) {
+                Object[] rowData = getValues(false, targetInsertTable, rows.get(i + j));
+                System.arraycopy(rowData, 0, data, j * rowTypes.length, rowTypes.length);
+                System.arraycopy(rowTypes, 0, types, j * rowTypes.length, rowTypes.length);
+            }
+            int count = execute(transaction, sql, types, new Object(), data, rowCount);
+            if (count > 0) {
+                results.add(new Result(sql, count));
+                totalStatementCount++;
+                if (!batchMode) {
+                    /* batched entities are counted when the batch executes */
+                    getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber, rowCount);
+                }
+            }
+            if (upsert) {
+                stats.upsertCount += batchMode ? rowCount : Math.min(count, rowCount);
+            } else {
+                stats.insertCount += batchMode ? rowCount : count;
+            }
+        }
+    }
+
+    /**
+     * Loads the rows of the insert table with the database's bulk load
+     * protocol on the transaction's connection. With bulk load merge the
+     * rows are loaded into a temporary staging table first and then merged
+     * into the target table with one statement.
+     */
+    private void executeBulkLoad(TargetTableDefintion targetTableDefinition, ISqlTransaction transaction, WriteStats stats) {
+        TargetTable targetInsertTable = targetTableDefinition.getInsertTable();
+        List<EntityData> rowValues = targetInsertTable.getRowValues();
+        if (rowValues.size() == 0) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<Object[]>(rowValues.size());
+        for (EntityData inputRow : rowValues) {
+            rows.add(getValues(false, targetInsertTable, inputRow));
+        }
+        List<String> columns = getInsertColumns(targetInsertTable);
+        String tableName = getQualifiedTableName(targetInsertTable.getTable());
+
+        /* statements already queued on the transaction have to run before the load */
+        flush(transaction);
+        lastPreparedDml = null;
+
+        Connection connection = ((JdbcSqlTransaction) transaction).getConnection();
+        long ts = System.currentTimeMillis();
+        try {
+            if (bulkLoadMerge) {
+                String stagingTableName = getStagingTableName(targetInsertTable.getTable());
+                BulkLoader.executeUpdate(connection, getDropStagingTableSql(stagingTableName));
+                BulkLoader.executeUpdate(connection, getCreateStagingTableSql(stagingTableName, tableName, columns));
+                bulkLoader.load(connection, stagingTableName, columns, rows);
+                String sql = targetTableDefinition.getMergeFromStagingSql(stagingTableName);
+                int count = BulkLoader.executeUpdate(connection, sql);
+                BulkLoader.executeUpdate(connection, getDropStagingTableSql(stagingTableName));
+                results.add(new Result(sql, count));
+                stats.upsertCount += rows.size();
+            } else {
+                int count = bulkLoader.load(connection, tableName, columns, rows);
+                results.add(new Result("bulk load " + tableName, count));
+                stats.insertCount += count;
+            }
+            totalStatementCount++;
+            getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber, rows.size());
+        } catch (SQLException ex) {
+            throw new SqlException(ex);
+        } catch (IOException ex) {
+            throw new IoException(ex);
+        } finally {
+            sqlDuration += System.currentTimeMillis() - ts;
+        }
+    }
+
+    private String getStagingTableName(Table table) {
+        String name = databasePlatform.getName().toLowerCase();
+        String stagingTableName = quote(table.getName() + "_stg");
+        return name.contains("mssql") || name.contains("sql server") ? "#" + stagingTableName : stagingTableName;
+    }
+
+    private String getCreateStagingTableSql(String stagingTableName, String tableName, List<String> columns) {
+        String name = databasePlatform.getName().toLowerCase();
+        String query = String.format("select %s from %s where 1=0", join(columns, "", ", "), tableName);
+        if (name.contains("postgres") || name.contains("greenplum") || name.contains("mysql") || name.contains("mariadb")) {
+            return String.format("create temporary table %s as %s", stagingTableName, query);
+        } else if (name.contains("h2")) {
+            return String.format("create local temporary table %s as %s", stagingTableName, query);
+        } else if (name.contains("mssql") || name.contains("sql server")) {
+            return String.format("select %s into %s from %s where 1=0", join(columns, "", ", "), stagingTableName, tableName);
+        } else {
+            throw new MisconfiguredException("Bulk load merge is not supported for %s", databasePlatform.getName());
+        }
+    }
+
+    private String getDropStagingTableSql(String stagingTableName) {
+        String name = databasePlatform.getName().toLowerCase();
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return "drop temporary table if exists " + stagingTableName;
+        } else if (name.contains("mssql") || name.contains("sql server")) {
+            return String.format("if object_id('tempdb..%s') is not null drop table %s", stagingTableName, stagingTableName);
+        } else {
+            return "drop table if exists " + stagingTableName;
+        }
+    }
+
     private int executeSql(TargetTable targetTable, ISqlTransaction transaction, Object[] rowData) {
         int count = execute(transaction, targetTable.getStatement(), new Object(), rowData);
         if (count > 0) {
             results.add(new Result(targetTable.getStatement().getSql(), count));
             totalStatementCount++;
-            getComponentStatistics().incrementNumberEntitiesProcessed(count);
+            if (!batchMode) {
+                getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber, count);
+            }
         }
         return count;
     }
 
+    /**
+     * Executes what is left in the JDBC batch and records how long the batch
+     * took
+     */
+    private void flush(ISqlTransaction transaction) {
+        long ts = System.currentTimeMillis();
+        transaction.flush();
+        if (batchMode && pendingBatchStatements > 0) {
+            batchExecuted(System.currentTimeMillis() - ts);
+        }
+    }
+
+    private void batchExecuted(long duration) {
+        getComponentStatistics().incrementBatchesExecuted(threadNumber, duration);
+        getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber, pendingBatchEntities);
+        if (log.isDebugEnabled()) {
+            log.debug("Executed a batch of {} statements in {}ms", pendingBatchStatements, duration);
+        }
+        batchCount++;
+        batchDuration += duration;
+        pendingBatchStatements = 0;
+        pendingBatchEntities = 0;
+    }
+
     private void write(ISqlTransaction transaction, EntityDataMessage inputMessage, ISendMessageCallback callback, boolean unitOfWorkLastMessage) {
         sortAndStoreRowsByTableAndOperation(inputMessage.getPayload());
         executeSqlByTableAndOperation(transaction);
@@ -434,6 +640,14 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
                         msg.append(stats.insertCount);
                         rowCount += stats.insertCount;
                     }
+                    if (stats.upsertCount > 0) {
+                        if (msg.length() > 0) {
+                            msg.append(", ");
+                        }
+                        msg.append("Upserted: ");
+                        msg.append(stats.upsertCount);
+                        rowCount += stats.upsertCount;
+                    }
                     if (stats.fallbackUpdateCount > 0) {
                         if (msg.length() > 0) {
                             msg.append(", ");
@@ -483,16 +697,24 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
             }
             info("Ran a total of %d statements in %s", rowCount,
                     LogUtils.formatDuration(sqlDuration));
+            if (batchCount > 0) {
+                info("Executed %d batches in %s", batchCount, LogUtils.formatDuration(batchDuration));
+            }
             sqlDuration = 0;
+            batchCount = 0;
+            batchDuration = 0;
             statsMap.clear();
             lastStatsLogTime = System.currentTimeMillis();
         }
     }
 
     private int execute(ISqlTransaction transaction, DmlStatement dmlStatement, Object marker, Object[] data) {
-        String sql = dmlStatement.getSql();
+        return execute(transaction, dmlStatement.getSql(), dmlStatement.getTypes(), marker, data, 1);
+    }
+
+    private int execute(ISqlTransaction transaction, String sql, int[] types, Object marker, Object[] data, int entityCount) {
         if (!sql.equals(lastPreparedDml)) {
-            transaction.flush();
+            flush(transaction);
             if (log.isDebugEnabled()) {
                 log.debug("Preparing dml: {}", sql);
             }
@@ -500,21 +722,30 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
             lastPreparedDml = sql;
         }
         if (log.isDebugEnabled()) {
-            log.debug("Submitting data {} with types {}", Arrays.toString(data), Arrays.toString(dmlStatement.getTypes()));
+            log.debug("Submitting data {} with types {}", Arrays.toString(data), Arrays.toString(types));
         }
         long ts = System.currentTimeMillis();
         try {
-            return transaction.addRow(marker, data, dmlStatement.getTypes());
+            int count = transaction.addRow(marker, data, types);
+            if (batchMode) {
+                pendingBatchStatements++;
+                pendingBatchEntities += entityCount;
+                if (pendingBatchStatements >= batchSize) {
+                    /* the transaction executes the batch once it reaches the batch size */
+                    batchExecuted(System.currentTimeMillis() - ts);
+                }
+            }
+            return count;
         } catch (Exception ex) {
             if (!(replaceRows && ex instanceof UniqueKeyException)) {
                 if (continueOnError) {
                     log(LogLevel.WARN, String.format("Failed to run the following sql: \n%s\nWith values: \n%s\nWith types: \n%s\n."
                             + "Continue on Error flag set - Continuing load",
-                            dmlStatement.getSql(), Arrays.toString(data), Arrays.toString(dmlStatement.getTypes())));
+                            sql, Arrays.toString(data), Arrays.toString(types)));
                     return 0;
                 } else {
                     log(LogLevel.ERROR, String.format("Failed to run the following sql: \n%s\nWith values: \n%s\nWith types: \n%s\n",
-                            dmlStatement.getSql(), Arrays.toString(data), Arrays.toString(dmlStatement.getTypes())));
+                            sql, Arrays.toString(data), Arrays.toString(types)));
                     throw ex;
                 }
             } else {
@@ -550,6 +781,26 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         this.batchMode = batchMode;
     }
 
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setUpsert(boolean upsert) {
+        this.upsert = upsert;
+    }
+
+    public void setRowsPerInsert(int rowsPerInsert) {
+        this.rowsPerInsert = rowsPerInsert;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public void setBulkLoadMerge(boolean bulkLoadMerge) {
+        this.bulkLoadMerge = bulkLoadMerge;
+    }
+
     public void setFitToColumn(boolean fitToColumn) {
         this.fitToColumn = fitToColumn;
     }
@@ -590,12 +841,176 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         return error;
     }
 
+    protected String buildMultiRowInsertSql(TargetTable insertTable, TargetTable updateTable, int rowCount) {
+        return buildInsertSql(insertTable, updateTable, upsert, rowCount, null);
+    }
+
+    protected String buildMergeFromStagingSql(TargetTable insertTable, TargetTable updateTable, String stagingTableName) {
+        return buildInsertSql(insertTable, updateTable, true, 0, stagingTableName);
+    }
+
+    private String buildInsertSql(TargetTable insertTable, TargetTable updateTable, boolean merge, int rowCount,
+            String stagingTableName) {
+        List<String> columns = getInsertColumns(insertTable);
+        String tableName = getQualifiedTableName(insertTable.getTable());
+        if (!merge) {
+            return buildInsertSql(databasePlatform.getName(), tableName, columns, null, null, rowCount, stagingTableName);
+        }
+
+        List<String> keys = new ArrayList<String>();
+        for (TargetColumn targetColumn : insertTable.getKeyTargetColumns()) {
+            keys.add(quote(targetColumn.getColumn().getName()));
+        }
+        if (keys.size() == 0) {
+            throw new MisconfiguredException("Upsert requires a primary key on %s", tableName);
+        }
+        List<String> updates = new ArrayList<String>();
+        if (updateTable != null) {
+            for (TargetColumn targetColumn : updateTable.getTargetColumns()) {
+                String column = quote(targetColumn.getColumn().getName());
+                if (targetColumn.isUpdateEnabled() && !keys.contains(column) && columns.contains(column)) {
+                    updates.add(column);
+                }
+            }
+        }
+        return buildInsertSql(databasePlatform.getName(), tableName, columns, keys, updates, rowCount, stagingTableName);
+    }
+
+    /**
+     * Builds an insert of either rowCount rows of parameters or of everything
+     * in a staging table. When keys are given the statement is a merge that
+     * inserts or updates by primary key using the database's own syntax.
+     * Redshift is not supported, since it has no on conflict clause.
+     */
+    static String buildInsertSql(String platformName, String tableName, List<String> columns, List<String> keys,
+            List<String> updates, int rowCount, String stagingTableName) {
+        String columnList = join(columns, "", ", ");
+        StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            row.append(i > 0 ? ", ?" : "?");
+        }
+        row.append(")");
+        String values = join(Collections.nCopies(rowCount, row.toString()), "", ", ");
+        String query = stagingTableName == null ? "values " + values : String.format("select %s from %s", columnList, stagingTableName);
+        String insert = String.format("insert into %s (%s) %s", tableName, columnList, query);
+        if (keys == null) {
+            return insert;
+        }
+
+        String name = platformName.toLowerCase();
+        if (name.contains("postgres") || name.contains("greenplum")) {
+            return String.format("%s on conflict (%s) do %s", insert, join(keys, "", ", "),
+                    updates.size() > 0 ? "update set " + join(updates, "%1$s = excluded.%1$s", ", ") : "nothing");
+        } else if (name.contains("mysql") || name.contains("mariadb")) {
+            return String.format("%s on duplicate key update %s", insert,
+                    updates.size() > 0 ? join(updates, "%1$s = values(%1$s)", ", ") : join(keys.subList(0, 1), "%1$s = %1$s", ""));
+        } else if (name.contains("h2")) {
+            return String.format("merge into %s (%s) key (%s) %s", tableName, columnList, join(keys, "", ", "), query);
+        } else if (name.contains("mssql") || name.contains("sql server")) {
+            String source = stagingTableName == null ? String.format("(values %s) as s (%s)", values, columnList) : stagingTableName + " as s";
+            return String.format("merge into %s as t using %s on (%s)%s when not matched then insert (%s) values (%s);",
+                    tableName, source, join(keys, "t.%1$s = s.%1$s", " and "),
+                    updates.size() > 0 ? " when matched then update set " + join(updates, "t.%1$s = s.%1$s", ", ") : "",
+                    columnList, join(columns, "s.%1$s", ", "));
+        } else if (name.contains("oracle")) {
+            String select = "select " + join(columns, "? %1$s", ", ") + " from dual";
+            String source = stagingTableName == null ? "(" + join(Collections.nCopies(rowCount, select), "", " union all ") + ") s"
+                    : stagingTableName + " s";
+            return String.format("merge into %s t using %s on (%s)%s when not matched then insert (%s) values (%s)", tableName,
+                    source, join(keys, "t.%1$s = s.%1$s", " and "),
+                    updates.size() > 0 ? " when matched then update set " + join(updates, "t.%1$s = s.%1$s", ", ") : "",
+                    columnList, join(columns, "s.%1$s", ", "));
+        } else {
+            throw new MisconfiguredException("Upsert is not supported for %s", platformName);
+        }
+    }
+
+    /**
+     * @return the most bind parameters the database accepts in one statement
+     */
+    static int getMaxBindParameters(String platformName) {
+        String name = platformName.toLowerCase();
+        if (name.contains("mssql") || name.contains("sql server")) {
+            return 2100;
+        } else if (name.equals("ase") || name.contains("sybase")) {
+            return 2000;
+        } else if (name.contains("sqlite")) {
+            return 999;
+        } else if (name.contains("mysql") || name.contains("mariadb") || name.contains("oracle")) {
+            return 65535;
+        } else {
+            return 32767;
+        }
+    }
+
+    /**
+     * @return the most rows the database accepts in one values clause, or
+     *         {@link Integer#MAX_VALUE} when only the bind parameters limit it
+     */
+    static int getMaxValuesRows(String platformName) {
+        String name = platformName.toLowerCase();
+        if (name.contains("mssql") || name.contains("sql server")) {
+            return 1000;
+        } else {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return how many rows of columnCount columns go in one insert so the
+     *         statement stays within the database's bind parameter and values
+     *         clause limits
+     */
+    static int getRowsPerStatement(String platformName, int rowsPerInsert, int columnCount) {
+        int maxRows = Math.min(getMaxBindParameters(platformName) / Math.max(1, columnCount),
+                getMaxValuesRows(platformName));
+        return Math.max(1, Math.min(rowsPerInsert, maxRows));
+    }
+
+    private List<String> getInsertColumns(TargetTable insertTable) {
+        List<String> columns = new ArrayList<String>();
+        for (TargetColumn targetColumn : insertTable.getTargetColumns()) {
+            if (targetColumn.isInsertEnabled()) {
+                columns.add(quote(targetColumn.getColumn().getName()));
+            }
+        }
+        return columns;
+    }
+
+    private String getQualifiedTableName(Table table) {
+        DatabaseInfo info = databasePlatform.getDatabaseInfo();
+        return table.getQualifiedTableName(quoteIdentifiers ? info.getDelimiterToken() : "", info.getCatalogSeparator(),
+                info.getSchemaSeparator());
+    }
+
+    private String quote(String name) {
+        String delimiter = databasePlatform.getDatabaseInfo().getDelimiterToken();
+        return quoteIdentifiers && delimiter != null ? delimiter + name + delimiter : name;
+    }
+
+    /**
+     * Formats each value with the pattern and joins the results. An empty
+     * pattern joins the values as they are.
+     */
+    private static String join(List<String> values, String pattern, String separator) {
+        StringBuilder sql = new StringBuilder();
+        for (String value : values) {
+            if (sql.length() > 0) {
+                sql.append(separator);
+            }
+            sql.append(pattern.length() > 0 ? String.format(pattern, value) : value);
+        }
+        return sql.toString();
+    }
+
     class TargetTableDefintion implements Comparable<TargetTableDefintion> {
         ModelEntity modelEntity;
         TargetTable updateTable;
         TargetTable insertTable;
         TargetTable deleteTable;
         Integer order;
+        Map<Integer, String> multiRowInsertSql = new HashMap<Integer, String>();
+        String mergeFromStagingSql;
 
         public TargetTableDefintion(ModelEntity modelEntity, TargetTable updateTable, TargetTable insertTable, TargetTable deleteTable) {
 
@@ -618,6 +1033,22 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
             return modelEntity;
         }
 
+        public String getMergeFromStagingSql(String stagingTableName) {
+            if (mergeFromStagingSql == null) {
+                mergeFromStagingSql = buildMergeFromStagingSql(insertTable, updateTable, stagingTableName);
+            }
+            return mergeFromStagingSql;
+        }
+
+        public String getMultiRowInsertSql(int rowCount) {
+            String sql = multiRowInsertSql.get(rowCount);
+            if (sql == null) {
+                sql = buildMultiRowInsertSql(insertTable, updateTable, rowCount);
+                multiRowInsertSql.put(rowCount, sql);
+            }
+            return sql;
+        }
+
         public TargetTable getUpdateTable() {
             return updateTable;
         }
@@ -738,10 +1169,14 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         Column column;
         boolean insertEnabled = true;
         boolean updateEnabled = true;
+        ModelAttributeIndex attributeIndex;
+        int position;
 
         TargetColumn(ModelAttribute modelAttribute, Column column) {
             this.modelAttribute = modelAttribute;
             this.column = column;
+            this.attributeIndex = getInputModel().getAttributeIndex();
+            this.position = attributeIndex.indexOf(modelAttribute.getId());
             ComponentAttributeSetting insertAttr = getComponent().getSingleAttributeSetting(modelAttribute.getId(), ATTRIBUTE_INSERT_ENABLED);
             insertEnabled = insertAttr != null ? Boolean.parseBoolean(insertAttr.getValue()) : true;
             ComponentAttributeSetting updateAttr = getComponent().getSingleAttributeSetting(modelAttribute.getId(), ATTRIBUTE_UPDATE_ENABLED);
@@ -756,6 +1191,14 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
             return column;
         }
 
+        public Object getValue(EntityData inputRow) {
+            if (position >= 0) {
+                return inputRow.get(attributeIndex, position);
+            } else {
+                return inputRow.get(modelAttribute.getId());
+            }
+        }
+
         public boolean isInsertEnabled() {
             return insertEnabled;
         }
@@ -772,5 +1215,6 @@ public class RdbmsWriter extends AbstractRdbmsComponentRuntime {
         int updateCount;
         int fallbackInsertCount;
         int fallbackUpdateCount;
+        int upsertCount;
     }
 }
@@ -0,0 +1,115 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BulkLoaderTest {
+
+    Connection connection;
+
+    @Before
+    public void setup() throws Exception {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:bulkloader");
+        BulkLoader.executeUpdate(connection, "create table bulk_test (id integer primary key, name varchar(50), created timestamp)");
+    }
+
+    @After
+    public void teardown() throws Exception {
+        BulkLoader.executeUpdate(connection, "drop table bulk_test");
+        connection.close();
+    }
+
+    @Test
+    public void testAppendCsvRow() {
+        StringBuilder csv = new StringBuilder();
+        BulkLoader.appendCsvRow(csv, new Object[] { 1, null, "", "a \"quoted\", value" }, false);
+        assertEquals("\"1\",,\"\",\"a \"\"quoted\"\", value\"\n", csv.toString());
+
+        csv.setLength(0);
+        BulkLoader.appendCsvRow(csv, new Object[] { new byte[] { 1, (byte) 0xAB } }, true);
+        assertEquals("\"\\x01ab\"\n", csv.toString());
+    }
+
+    @Test
+    public void testCsvRead() throws Exception {
+        BulkLoader loader = new BulkLoader("h2", 10);
+        assertEquals(3, loader.load(connection, "bulk_test", Arrays.asList("id", "name", "created"), createRows()));
+        assertRows();
+    }
+
+    @Test
+    public void testCsvReadOnlyForEmbeddedH2() {
+        assertTrue(BulkLoader.isEmbeddedH2Url("jdbc:h2:mem:bulkloader"));
+        assertTrue(BulkLoader.isEmbeddedH2Url("jdbc:h2:file:./data/metl;AUTO_SERVER=TRUE"));
+        assertTrue(BulkLoader.isEmbeddedH2Url("jdbc:h2:~/metl"));
+        assertFalse(BulkLoader.isEmbeddedH2Url("jdbc:h2:tcp://dbhost:9092/metl"));
+        assertFalse(BulkLoader.isEmbeddedH2Url("jdbc:h2:ssl://dbhost/metl"));
+        assertFalse(BulkLoader.isEmbeddedH2Url(null));
+    }
+
+    @Test
+    public void testBatchInsertFallback() throws Exception {
+        BulkLoader loader = new BulkLoader("generic", 2);
+        assertEquals(3, loader.load(connection, "bulk_test", Arrays.asList("id", "name", "created"), createRows()));
+        assertRows();
+    }
+
+    protected List<Object[]> createRows() {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        rows.add(new Object[] { 1, "one", new Timestamp(0) });
+        rows.add(new Object[] { 2, "", null });
+        rows.add(new Object[] { 3, null, new java.util.Date(1000) });
+        return rows;
+    }
+
+    protected void assertRows() throws Exception {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("select id, name, created from bulk_test order by id")) {
+            rs.next();
+            assertEquals("one", rs.getString(2));
+            assertEquals(new Timestamp(0), rs.getTimestamp(3));
+            rs.next();
+            assertEquals("", rs.getString(2));
+            assertNull(rs.getTimestamp(3));
+            rs.next();
+            assertNull(rs.getString(2));
+            assertEquals(new Timestamp(1000), rs.getTimestamp(3));
+        }
+    }
+}
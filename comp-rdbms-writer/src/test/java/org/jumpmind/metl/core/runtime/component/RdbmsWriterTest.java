@@ -0,0 +1,83 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RdbmsWriterTest {
+
+    List<String> columns = Arrays.asList("ID", "NAME", "CREATED");
+
+    List<String> keys = Collections.singletonList("ID");
+
+    List<String> updates = Arrays.asList("NAME", "CREATED");
+
+    @Test
+    public void testBuildMultiRowInsertSql() {
+        assertEquals("insert into T (ID, NAME, CREATED) values (?, ?, ?), (?, ?, ?)",
+                RdbmsWriter.buildInsertSql("h2", "T", columns, null, null, 2, null));
+    }
+
+    @Test
+    public void testBuildUpsertSql() {
+        assertEquals("insert into T (ID, NAME, CREATED) values (?, ?, ?), (?, ?, ?) on conflict (ID) do update set "
+                + "NAME = excluded.NAME, CREATED = excluded.CREATED",
+                RdbmsWriter.buildInsertSql("postgres", "T", columns, keys, updates, 2, null));
+        assertEquals("insert into T (ID, NAME, CREATED) values (?, ?, ?) on duplicate key update "
+                + "NAME = values(NAME), CREATED = values(CREATED)",
+                RdbmsWriter.buildInsertSql("mysql", "T", columns, keys, updates, 1, null));
+        assertEquals("merge into T (ID, NAME, CREATED) key (ID) values (?, ?, ?), (?, ?, ?)",
+                RdbmsWriter.buildInsertSql("h2", "T", columns, keys, updates, 2, null));
+        assertEquals("merge into T as t using (values (?, ?, ?)) as s (ID, NAME, CREATED) on (t.ID = s.ID) "
+                + "when matched then update set t.NAME = s.NAME, t.CREATED = s.CREATED "
+                + "when not matched then insert (ID, NAME, CREATED) values (s.ID, s.NAME, s.CREATED);",
+                RdbmsWriter.buildInsertSql("mssql2008", "T", columns, keys, updates, 1, null));
+    }
+
+    @Test
+    public void testRowsPerStatementCappedByBindParameterLimit() {
+        assertEquals(210, RdbmsWriter.getRowsPerStatement("mssql2008", 1000, 10));
+        assertEquals(655, RdbmsWriter.getRowsPerStatement("postgres", 1000, 50));
+        assertEquals(100, RdbmsWriter.getRowsPerStatement("postgres", 100, 50));
+        assertEquals(1000, RdbmsWriter.getRowsPerStatement("mysql", 1000, 50));
+    }
+
+    @Test
+    public void testRowsPerStatementCappedByValuesRows() {
+        assertEquals(1000, RdbmsWriter.getRowsPerStatement("mssql2008", 5000, 1));
+        assertEquals(1000, RdbmsWriter.getRowsPerStatement("mssql2008", 1000, 2));
+        assertEquals(5000, RdbmsWriter.getRowsPerStatement("postgres", 5000, 1));
+    }
+
+    @Test
+    public void testRowsPerStatementFallsBackToSingleRow() {
+        assertEquals(1, RdbmsWriter.getRowsPerStatement("mssql2008", 1000, 2100));
+        assertEquals(1, RdbmsWriter.getRowsPerStatement("mssql2008", 1000, 3000));
+        assertEquals(1, RdbmsWriter.getRowsPerStatement("h2", 1, 3));
+    }
+
+}
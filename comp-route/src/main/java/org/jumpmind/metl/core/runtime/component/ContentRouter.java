@@ -31,7 +31,8 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.script.Bindings;
-import javax.script.ScriptContext;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
@@ -41,6 +42,7 @@ import org.jumpmind.metl.core.model.FlowStepLink;
 import org.jumpmind.metl.core.runtime.ControlMessage;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.LogLevel;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.TextMessage;
@@ -60,6 +62,8 @@ public class ContentRouter extends AbstractComponentRuntime {
 
     List<Route> routes;
 
+    CompiledScript[] matchExpressions;
+
     ScriptEngine scriptEngine;
 
     boolean onlyRouteFirstMatch;
@@ -90,7 +94,21 @@ public class ContentRouter extends AbstractComponentRuntime {
             } catch (Exception e) {
                 throw new IoException(e);
             }
+            matchExpressions = compile(routes);
+        }
+    }
+
+    protected CompiledScript[] compile(List<Route> routes) {
+        CompiledScript[] compiled = new CompiledScript[routes.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            String matchExpression = routes.get(i).getMatchExpression();
+            try {
+                compiled[i] = ((Compilable) scriptEngine).compile(matchExpression);
+            } catch (ScriptException e) {
+                throw new MisconfiguredException("Could not compile the route expression '%s'.  %s", matchExpression, e.getMessage());
+            }
         }
+        return compiled;
     }
 
     @Override
@@ -118,14 +136,19 @@ public class ContentRouter extends AbstractComponentRuntime {
     void handleEntityListPayload(EntityDataMessage inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         Map<String, ArrayList<EntityData>> outboundMessages = new HashMap<String, ArrayList<EntityData>>();
         ArrayList<EntityData> inputDatas = inputMessage.getPayload();
+        Bindings bindings = scriptEngine.createBindings();
+        bindHeadersAndFlowParameters(bindings, inputMessage);
+        Map<String, Object> messageBindings = new HashMap<String, Object>(bindings);
 
         for (EntityData entityData : inputDatas) {
             getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-            bindEntityData(scriptEngine, inputMessage, entityData);
+            resetBindings(bindings, messageBindings);
+            bindEntityData(bindings, entityData);
             if (routes != null) {
-                for (Route route : routes) {
+                for (int i = 0; i < matchExpressions.length; i++) {
+                    Route route = routes.get(i);
                     try {
-                        if (Boolean.TRUE.equals(scriptEngine.eval(route.getMatchExpression()))) {
+                        if (Boolean.TRUE.equals(matchExpressions[i].eval(bindings))) {
                             ArrayList<EntityData> outboundPayload = outboundMessages.get(route.getTargetStepId());
                             if (outboundPayload != null && outboundPayload.size() >= rowsPerMessage) {
                                 outboundMessages.remove(route.getTargetStepId());
@@ -158,11 +181,11 @@ public class ContentRouter extends AbstractComponentRuntime {
     protected void handleControlMessages(ControlMessage inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         Bindings bindings = scriptEngine.createBindings();
         bindHeadersAndFlowParameters(bindings, inputMessage);
-        scriptEngine.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
         if (routes != null) {
-            for (Route route : routes) {
+            for (int i = 0; i < matchExpressions.length; i++) {
+                Route route = routes.get(i);
                 try {
-                    if (Boolean.TRUE.equals(scriptEngine.eval(route.getMatchExpression()))) {
+                    if (Boolean.TRUE.equals(matchExpressions[i].eval(bindings))) {
                         callback.sendControlMessage(inputMessage.getHeader(), route.getTargetStepId());
                         targetStepsThatNeedControlMessages.remove(route.getTargetStepId());
                         if (onlyRouteFirstMatch) {
@@ -179,22 +202,31 @@ public class ContentRouter extends AbstractComponentRuntime {
     protected void handleStringListPayload(TextMessage inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         Map<String, ArrayList<String>> outboundMessages = new HashMap<String, ArrayList<String>>();
         ArrayList<String> inputDatas = (ArrayList<String>) inputMessage.getPayload();
+        Bindings bindings = scriptEngine.createBindings();
+        bindHeadersAndFlowParameters(bindings, inputMessage);
+        Map<String, Object> messageBindings = new HashMap<String, Object>(bindings);
         for (String data : inputDatas) {
             getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-            bindStringData(scriptEngine, inputMessage, data);
+            resetBindings(bindings, messageBindings);
+            bindings.put("text", data);
+            if (data == null) {
+                log(LogLevel.WARN, "Binding was unsuccessful since the value was null");
+            }
             if (routes != null) {
-                for (Route route : routes) {
+                for (int i = 0; i < matchExpressions.length; i++) {
+                    Route route = routes.get(i);
                     try {
-                        if (Boolean.TRUE.equals(scriptEngine.eval(route.getMatchExpression()))) {
+                        if (Boolean.TRUE.equals(matchExpressions[i].eval(bindings))) {
                             ArrayList<String> outboundPayload = outboundMessages.get(route.getTargetStepId());
-                            if (outboundPayload == null) {
-                                outboundPayload = new ArrayList<String>();
-                                outboundMessages.put(route.getTargetStepId(), outboundPayload);
-                            }
-                            if (outboundPayload.size() >= rowsPerMessage) {
+                            if (outboundPayload != null && outboundPayload.size() >= rowsPerMessage) {
                                 outboundMessages.remove(route.getTargetStepId());
                                 callback.sendTextMessage(null, outboundPayload, route.getTargetStepId());
                                 targetStepsThatNeedControlMessages.add(route.getTargetStepId());
+                                outboundPayload = null;
+                            }
+                            if (outboundPayload == null) {
+                                outboundPayload = new ArrayList<String>();
+                                outboundMessages.put(route.getTargetStepId(), outboundPayload);
                             }
                             outboundPayload.add(data);
                             if (onlyRouteFirstMatch) {
@@ -21,6 +21,8 @@
 package org.jumpmind.metl.core.runtime.component;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
@@ -28,7 +30,9 @@ import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
 import org.jumpmind.metl.core.runtime.ContentMessage;
 import org.jumpmind.metl.core.runtime.ControlMessage;
 import org.jumpmind.metl.core.runtime.Message;
+import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
+import org.jumpmind.properties.TypedProperties;
 
 public class MessageFilter extends AbstractComponentRuntime {
 
@@ -42,6 +46,26 @@ public class MessageFilter extends AbstractComponentRuntime {
 
     ScriptEngine scriptEngine;
 
+    CompiledScript filterExpression;
+
+    String messageTypeToFilter;
+
+    @Override
+    public void start() {
+        scriptEngine = new GroovyScriptEngineImpl();
+        TypedProperties properties = getTypedProperties();
+        messageTypeToFilter = properties.get(SETTING_MESSAGE_TYPE_TO_FILTER);
+        String expression = properties.get(SETTING_FILTER_EXPRESSION);
+        filterExpression = null;
+        if (expression != null) {
+            try {
+                filterExpression = ((Compilable) scriptEngine).compile(expression);
+            } catch (ScriptException e) {
+                throw new MisconfiguredException("Could not compile the filter expression '%s'.  %s", expression, e.getMessage());
+            }
+        }
+    }
+
     @Override
     public boolean supportsStartupMessages() {
         return true;
@@ -49,21 +73,13 @@ public class MessageFilter extends AbstractComponentRuntime {
 
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
-        if (scriptEngine == null) {
-            scriptEngine = new GroovyScriptEngineImpl();
-        }
-
-        String messageTypeToFilter = properties.get(SETTING_MESSAGE_TYPE_TO_FILTER);
-        String expression = properties.get(SETTING_FILTER_EXPRESSION);
-        Bindings bindings = scriptEngine.createBindings();
-        bindHeadersAndFlowParameters(bindings, inputMessage);
         try {
             if (MESSAGE_TYPE_TO_FILTER_CONTENT.equals(messageTypeToFilter) && inputMessage instanceof ContentMessage) {
-                if (Boolean.TRUE.equals(scriptEngine.eval(expression, bindings))) {
+                if (matches(inputMessage)) {
                     callback.forward(inputMessage);
                 }
             } else if (MESSAGE_TYPE_TO_FILTER_CONTROL.equals(messageTypeToFilter) && inputMessage instanceof ControlMessage) {
-                if (Boolean.TRUE.equals(scriptEngine.eval(expression, bindings))) {
+                if (matches(inputMessage)) {
                     callback.sendControlMessage();
                 }
             } else if (inputMessage instanceof ControlMessage) {
@@ -75,4 +91,17 @@ public class MessageFilter extends AbstractComponentRuntime {
 
     }
 
+    /**
+     * @return true if the filter expression evaluates to true. Without an
+     *         expression nothing matches, as when an empty script is evaluated.
+     */
+    protected boolean matches(Message inputMessage) throws ScriptException {
+        if (filterExpression == null) {
+            return false;
+        }
+        Bindings bindings = scriptEngine.createBindings();
+        bindHeadersAndFlowParameters(bindings, inputMessage);
+        return Boolean.TRUE.equals(filterExpression.eval(bindings));
+    }
+
 }
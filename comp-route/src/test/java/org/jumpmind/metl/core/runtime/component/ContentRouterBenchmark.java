@@ -0,0 +1,158 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.FlowStepLink;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.runtime.Message;
+import org.jumpmind.metl.core.runtime.component.ContentRouter.Route;
+import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
+import org.jumpmind.metl.core.utils.TestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures rows per second through a {@link ContentRouter} configured with a
+ * number of routes that each compare one attribute.
+ */
+public class ContentRouterBenchmark {
+
+    static final int DEFAULT_ROUTE_COUNT = 10;
+
+    static final int DEFAULT_ROWS = 1000000;
+
+    static final int ROWS_PER_MESSAGE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int routeCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUTE_COUNT;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROWS;
+
+        ModelEntity entity = new ModelEntity("entity", "BENCHMARK");
+        entity.addModelAttribute(new ModelAttribute("id", entity.getId(), "ID"));
+        entity.addModelAttribute(new ModelAttribute("route", entity.getId(), "ROUTE"));
+        Model model = new Model();
+        model.getModelEntities().add(entity);
+
+        Flow flow = TestUtils.createFlow("BenchmarkFlow", null);
+        List<Route> routes = new ArrayList<>();
+        FlowStep step = new FlowStep();
+        for (int i = 0; i < routeCount; i++) {
+            FlowStep target = TestUtils.createNoOpProcessorFlowStep(flow, "Target " + i, null);
+            flow.getFlowSteps().add(target);
+            flow.getFlowStepLinks().add(new FlowStepLink(step.getId(), target.getId()));
+            routes.add(new Route("BENCHMARK.ROUTE == " + i, target.getId()));
+        }
+        Component component = TestUtils.createComponent(ContentRouter.TYPE, false, null, model, null, null, null,
+                new Setting(ContentRouter.SETTING_CONFIG, new ObjectMapper().writeValueAsString(routes)),
+                new Setting(ContentRouter.ROWS_PER_MESSAGE, Integer.toString(ROWS_PER_MESSAGE)));
+        step.setComponent(component);
+        flow.getFlowSteps().add(step);
+
+        ContentRouter router = new ContentRouter();
+        router.setContext(new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null, null, null));
+        router.start();
+
+        CountingCallback callback = new CountingCallback();
+        route(router, callback, routeCount, rows / 10);
+
+        callback.count = 0;
+        long ts = System.currentTimeMillis();
+        route(router, callback, routeCount, rows);
+        long millis = Math.max(1, System.currentTimeMillis() - ts);
+
+        System.out.println(String.format("%d rows through %d routes in %dms, %d rows/sec (%d rows routed)", rows, routeCount, millis,
+                rows * 1000l / millis, callback.count));
+    }
+
+    static void route(ContentRouter router, ISendMessageCallback callback, int routeCount, int rows) {
+        for (int sent = 0; sent < rows; sent += ROWS_PER_MESSAGE) {
+            ArrayList<EntityData> payload = new ArrayList<>(ROWS_PER_MESSAGE);
+            for (int i = sent; i < sent + ROWS_PER_MESSAGE && i < rows; i++) {
+                EntityData data = new EntityData();
+                data.put("id", i);
+                data.put("route", i % routeCount);
+                payload.add(data);
+            }
+            EntityDataMessage message = new EntityDataMessage("");
+            message.setPayload(payload);
+            router.handle(message, callback, false);
+        }
+    }
+
+    static class CountingCallback implements ISendMessageCallback {
+
+        long count;
+
+        @Override
+        public void sendEntityDataMessage(Map<String, Serializable> messageHeaders, ArrayList<EntityData> payload, String... targetStepIds) {
+            count += payload.size();
+        }
+
+        @Override
+        public void sendTextMessage(Map<String, Serializable> messageHeaders, ArrayList<String> payload, String... targetStepIds) {
+            count += payload.size();
+        }
+
+        @Override
+        public void sendTextMessage(Map<String, Serializable> messageHeaders, String payload, String... targetStepIds) {
+            count++;
+        }
+
+        @Override
+        public void sendBinaryMessage(Map<String, Serializable> messageHeaders, byte[] payload, String... targetStepIds) {
+        }
+
+        @Override
+        public void sendShutdownMessage(boolean cancel) {
+        }
+
+        @Override
+        public void sendControlMessage(Map<String, Serializable> messageHeaders, String... targetStepIds) {
+        }
+
+        @Override
+        public void sendControlMessage() {
+        }
+
+        @Override
+        public void forward(Message message) {
+        }
+
+        @Override
+        public void forward(Map<String, Serializable> messageHeaders, Message message) {
+        }
+    }
+
+}
@@ -108,6 +108,18 @@ public class ContentRouterTest {
         assertEquals("Route to 2", datas.get(0).get("tt2colx"));
     }
     
+    @Test
+    public void testScriptVariablesDoNotCarryOverToTheNextRow() throws Exception {
+        Set<Route> routes = new HashSet<Route>();
+        routes.add(new Route("def first = !binding.hasVariable('matched'); matched = true; first", "Target 1"));
+        step.setComponent(TestUtils.createComponent(ContentRouter.TYPE, false, null, createInputModel(), null, null,
+                null, new Setting(ContentRouter.SETTING_CONFIG, new ObjectMapper().writeValueAsString(routes))));
+        SendMessageCallback<ArrayList<EntityData>> target = route(new EntityData(new NameValue("tt1col1", "a")),
+                new EntityData(new NameValue("tt1col1", "b")));
+        assertEquals(1, target.getPayloadList().size());
+        assertEquals(2, target.getPayloadList().get(0).size());
+    }
+    
     protected SendMessageCallback<ArrayList<EntityData>> route(EntityData...data) {
         SendMessageCallback<ArrayList<EntityData>> target = new SendMessageCallback<ArrayList<EntityData>>();
         ContentRouter router = new ContentRouter();
@@ -34,15 +34,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 public abstract class AbstractSerializer extends AbstractComponentRuntime {
 
-
+    public final static String STREAMING = "streaming";
 
     protected String format;
     protected String structure;
+    protected boolean streaming;
 
     @Override
     public void start() {
         format = properties.get(FORMAT, FORMAT_AUTOMATIC);
         structure = properties.get(STRUCTURE, STRUCTURE_BY_INBOUND_ROW);
+        streaming = properties.is(STREAMING);
     }
 
     @Override
@@ -24,19 +24,35 @@ import static org.jumpmind.metl.core.runtime.component.ComponentSettingsConstant
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.jumpmind.metl.core.model.EntityRow;
 import org.jumpmind.metl.core.model.EntityTable;
 import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.TextMessage;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
 public class Deserializer extends AbstractSerializer {
 
+    int rowsPerMessage = 1000;
+
+    ArrayList<EntityData> streamingPayload = new ArrayList<>();
+
+    @Override
+    public void start() {
+        super.start();
+        rowsPerMessage = properties.getInt(ROWS_PER_MESSAGE, rowsPerMessage);
+    }
+
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback,
             boolean unitOfWorkBoundaryReached) {
@@ -48,7 +64,9 @@ public class Deserializer extends AbstractSerializer {
                     List<String> textList = textMessage.getPayload();
                     for (String text : textList) {
                         ObjectMapper mapper = getObjectMapper();
-                        if (structure.equals(STRUCTURE_BY_TABLE)) {
+                        if (streaming && !(mapper instanceof XmlMapper)) {
+                            deserializeStreaming(mapper, text, inputMessage, callback);
+                        } else if (structure.equals(STRUCTURE_BY_TABLE)) {
                             List<EntityTable> entityTables = mapper.readValue(text,
                                     mapper.getTypeFactory().constructCollectionType(List.class,
                                             EntityTable.class));
@@ -76,6 +94,11 @@ public class Deserializer extends AbstractSerializer {
                     }
                 }
             }
+
+            if (unitOfWorkBoundaryReached && streamingPayload.size() > 0) {
+                callback.sendEntityDataMessage(inputMessage.getHeader(), streamingPayload);
+                streamingPayload = new ArrayList<>();
+            }
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -83,4 +106,65 @@ public class Deserializer extends AbstractSerializer {
         }
     }
 
+    /**
+     * Reads rows with a {@link JsonParser} and sends them every rows.per.message
+     * rows. The text may be a JSON array or a sequence of root level objects
+     * such as JSON lines. Rows left over are kept for the next text and sent
+     * when the unit of work boundary is reached.
+     */
+    protected void deserializeStreaming(ObjectMapper mapper, String text, Message inputMessage,
+            ISendMessageCallback callback) throws Exception {
+        Model outputModel = getOutputModel();
+        try (JsonParser parser = mapper.getFactory().createParser(text)) {
+            JsonToken token = parser.nextToken();
+            while (token != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    if (structure.equals(STRUCTURE_BY_TABLE)) {
+                        readTable(mapper, parser, outputModel, streamingPayload);
+                    } else {
+                        EntityData data = mapper.readValue(parser, EntityRow.class).toEntityData(outputModel);
+                        if (data != null) {
+                            streamingPayload.add(data);
+                        }
+                    }
+
+                    if (streamingPayload.size() >= rowsPerMessage) {
+                        callback.sendEntityDataMessage(inputMessage.getHeader(), streamingPayload);
+                        streamingPayload = new ArrayList<>();
+                    }
+                }
+                token = parser.nextToken();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readTable(ObjectMapper mapper, JsonParser parser, Model outputModel, List<EntityData> payload)
+            throws Exception {
+        ModelEntity entity = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("name".equals(fieldName)) {
+                entity = outputModel.getEntityByName(parser.getValueAsString());
+            } else if ("rows".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Map<String, String> row = mapper.readValue(parser, Map.class);
+                    if (entity != null) {
+                        EntityData data = new EntityData();
+                        for (Map.Entry<String, String> entry : row.entrySet()) {
+                            ModelAttribute attribute = entity.getModelAttributeByName(entry.getKey());
+                            if (attribute != null) {
+                                data.put(attribute.getId(), entry.getValue());
+                            }
+                        }
+                        payload.add(data);
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
 }
@@ -24,6 +24,7 @@ import static org.jumpmind.metl.core.runtime.component.ComponentSettingsConstant
 import static org.jumpmind.metl.core.runtime.component.ComponentSettingsConstants.STRUCTURE_BY_TABLE;
 
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -42,20 +43,58 @@ import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.util.FormatUtils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
 public class Serializer extends AbstractSerializer {
 
+    public final static String MESSAGE_SIZE = "message.size";
+
+    public final static String JSON_LINES = "json.lines";
+
     List<EntityData> payload;
 
+    int messageSize = 1024 * 1024;
+
+    boolean jsonLines;
+
+    ObjectMapper streamMapper;
+
+    StringWriter streamBuffer;
+
+    JsonGenerator streamGenerator;
+
+    String streamTable;
+
+    ArrayList<String> streamLines;
+
+    int streamLinesSize;
+
+    boolean streamSent;
+
     @Override
     public void start() {
         super.start();
         payload = new ArrayList<>();
+        messageSize = properties.getInt(MESSAGE_SIZE, messageSize);
+        jsonLines = properties.is(JSON_LINES);
     }
 
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback,
             boolean unitOfWorkBoundaryReached) {
         try {
+            if (streaming) {
+                if (streamMapper == null) {
+                    streamMapper = getObjectMapper();
+                }
+                if (!(streamMapper instanceof XmlMapper)) {
+                    handleStreaming(inputMessage, callback, unitOfWorkBoundaryReached);
+                    return;
+                }
+            }
+
             if (inputMessage instanceof EntityDataMessage) {
                 EntityDataMessage entityMessage = (EntityDataMessage) inputMessage;
                 payload.addAll(entityMessage.getPayload());
@@ -68,9 +107,7 @@ public class Serializer extends AbstractSerializer {
                 } else {
                     response = createByInboundRowPayload(payload);
                 }
-                Map<String,Serializable> header = new HashMap<>(inputMessage.getHeader());
-                header.put(FORMAT, getDetectedFormat());
-                callback.sendTextMessage(header,
+                callback.sendTextMessage(getHeader(inputMessage),
                         getObjectMapper().writeValueAsString(response));
                 payload = new ArrayList<>();
             }
@@ -82,70 +119,192 @@ public class Serializer extends AbstractSerializer {
         }
     }
 
+    /**
+     * Writes each row as it arrives, either into JSON arrays that are closed
+     * and sent every message.size characters or as one JSON document per
+     * line. Every message sent is valid JSON on its own.
+     */
+    protected void handleStreaming(Message inputMessage, ISendMessageCallback callback,
+            boolean unitOfWorkBoundaryReached) throws Exception {
+        if (inputMessage instanceof EntityDataMessage) {
+            for (EntityData entityData : ((EntityDataMessage) inputMessage).getPayload()) {
+                if (STRUCTURE_BY_TABLE.equals(structure)) {
+                    writeTableRow(entityData);
+                } else {
+                    List<EntityRow> rows = new ArrayList<>();
+                    addEntityRows(entityData, rows);
+                    for (EntityRow row : rows) {
+                        writeRow(row);
+                    }
+                }
+
+                if (jsonLines ? streamLinesSize >= messageSize
+                        : streamGenerator != null && streamGenerator.getOutputBuffered()
+                                + streamBuffer.getBuffer().length() >= messageSize) {
+                    sendStreamed(inputMessage, callback);
+                }
+            }
+        }
+
+        if (unitOfWorkBoundaryReached) {
+            if (!jsonLines && !streamSent) {
+                getStreamGenerator();
+            }
+            sendStreamed(inputMessage, callback);
+            streamSent = false;
+        }
+    }
+
+    private void writeRow(EntityRow row) throws Exception {
+        if (jsonLines) {
+            addLine(streamMapper.writeValueAsString(row));
+        } else {
+            streamMapper.writeValue(getStreamGenerator(), row);
+        }
+    }
+
+    private void writeTableRow(EntityData entityData) throws Exception {
+        ModelEntity entity = getEntity(entityData);
+        if (entity == null) {
+            return;
+        }
+        Map<String, String> row = createTableRow(entityData);
+        if (jsonLines) {
+            EntityTable table = new EntityTable(entity.getName());
+            table.getRows().add(row);
+            addLine(streamMapper.writeValueAsString(table));
+        } else {
+            JsonGenerator generator = getStreamGenerator();
+            if (!entity.getName().equals(streamTable)) {
+                if (streamTable != null) {
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+                streamTable = entity.getName();
+                generator.writeStartObject();
+                generator.writeStringField("name", streamTable);
+                generator.writeArrayFieldStart("rows");
+            }
+            streamMapper.writeValue(generator, row);
+        }
+    }
+
+    private void addLine(String line) {
+        if (streamLines == null) {
+            streamLines = new ArrayList<>();
+        }
+        streamLines.add(line);
+        streamLinesSize += line.length();
+    }
+
+    private JsonGenerator getStreamGenerator() throws Exception {
+        if (streamGenerator == null) {
+            streamBuffer = new StringWriter();
+            streamGenerator = streamMapper.getFactory().createGenerator(streamBuffer);
+            streamGenerator.writeStartArray();
+        }
+        return streamGenerator;
+    }
+
+    private void sendStreamed(Message inputMessage, ISendMessageCallback callback) throws Exception {
+        if (jsonLines) {
+            if (streamLines != null) {
+                callback.sendTextMessage(getHeader(inputMessage), streamLines);
+                streamLines = null;
+                streamLinesSize = 0;
+                streamSent = true;
+            }
+        } else if (streamGenerator != null) {
+            if (streamTable != null) {
+                streamGenerator.writeEndArray();
+                streamGenerator.writeEndObject();
+                streamTable = null;
+            }
+            streamGenerator.writeEndArray();
+            streamGenerator.close();
+            callback.sendTextMessage(getHeader(inputMessage), streamBuffer.toString());
+            streamGenerator = null;
+            streamBuffer = null;
+            streamSent = true;
+        }
+    }
+
+    private Map<String, Serializable> getHeader(Message inputMessage) {
+        Map<String, Serializable> header = new HashMap<>(inputMessage.getHeader());
+        header.put(FORMAT, getDetectedFormat());
+        return header;
+    }
+
     private ArrayList<EntityRow> createByInboundRowPayload(List<EntityData> payload) {
         ArrayList<EntityRow> entityResponse = new ArrayList<>();
         if (payload != null) {
-            Model inputModel = getInputModel();
             for (EntityData entityData : payload) {
-                for (ModelEntity entity : inputModel.getModelEntities()) {
-                    EntityRow row = null;
-                    for (ModelAttribute attribute : entity.getModelAttributes()) {
-                        if (entityData.containsKey(attribute.getId())) {
-                            if (row == null) {
-                                row = new EntityRow(entity.getName(),
-                                        new HashMap<>(entity.getModelAttributes().size()));
-                                entityResponse.add(row);
-                            }
-                            String stringValue = null;
-                            Object value = entityData.get(attribute.getId());
-                            if (value instanceof Date) {
-                                stringValue = FormatUtils.TIMESTAMP_FORMATTER.format((Date) value);
-                            }
-                            if (value != null) {
-                                stringValue = value.toString();
-                            }
-                            row.getData().put(attribute.getName(), stringValue);
-                        }
+                addEntityRows(entityData, entityResponse);
+            }
+        }
+        return entityResponse;
+    }
+
+    private void addEntityRows(EntityData entityData, List<EntityRow> entityResponse) {
+        Model inputModel = getInputModel();
+        for (ModelEntity entity : inputModel.getModelEntities()) {
+            EntityRow row = null;
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                if (entityData.containsKey(attribute.getId())) {
+                    if (row == null) {
+                        row = new EntityRow(entity.getName(),
+                                new HashMap<>(entity.getModelAttributes().size()));
+                        entityResponse.add(row);
                     }
+                    row.getData().put(attribute.getName(), toStringValue(entityData.get(attribute.getId())));
                 }
             }
         }
-        return entityResponse;
     }
 
     private ArrayList<EntityTable> createByTablePayload(List<EntityData> payload) {
         Map<String, EntityTable> entityTables = new HashMap<String, EntityTable>();
         if (payload != null) {
-            Model inputModel = getInputModel();
             for (EntityData entityData : payload) {
-                Iterator<String> itr = entityData.keySet().iterator();
-                boolean firstAttribute = true;
-                ModelEntity entity = null;
-                Map<String, String> row = new HashMap<String, String>();
-                while (itr.hasNext()) {
-                    String attributeId = itr.next();
-                    if (firstAttribute) {
-                        entity = inputModel.getEntityById(
-                                inputModel.getAttributeById(attributeId).getEntityId());
-                        if (!entityTables.containsKey(entity.getName())) {
-                            entityTables.put(entity.getName(), new EntityTable(entity.getName()));
-                        }
-                        firstAttribute = false;
+                ModelEntity entity = getEntity(entityData);
+                if (entity != null) {
+                    if (!entityTables.containsKey(entity.getName())) {
+                        entityTables.put(entity.getName(), new EntityTable(entity.getName()));
                     }
-
-                    String stringValue = null;
-                    Object value = entityData.get(attributeId);
-                    if (value instanceof Date) {
-                        stringValue = FormatUtils.TIMESTAMP_FORMATTER.format((Date) value);
-                    }
-                    if (value != null) {
-                        stringValue = value.toString();
-                    }
-                    row.put(inputModel.getAttributeById(attributeId).getName(), stringValue);
+                    entityTables.get(entity.getName()).getRows().add(createTableRow(entityData));
                 }
-                entityTables.get(entity.getName()).getRows().add(row);
             }
         }
         return new ArrayList<>(entityTables.values());        
     }
+
+    private ModelEntity getEntity(EntityData entityData) {
+        Iterator<String> itr = entityData.keySet().iterator();
+        if (itr.hasNext()) {
+            Model inputModel = getInputModel();
+            return inputModel.getEntityById(inputModel.getAttributeById(itr.next()).getEntityId());
+        } else {
+            return null;
+        }
+    }
+
+    private Map<String, String> createTableRow(EntityData entityData) {
+        Model inputModel = getInputModel();
+        Map<String, String> row = new HashMap<String, String>();
+        for (Map.Entry<String, Object> entry : entityData.entrySet()) {
+            row.put(inputModel.getAttributeById(entry.getKey()).getName(), toStringValue(entry.getValue()));
+        }
+        return row;
+    }
+
+    private String toStringValue(Object value) {
+        String stringValue = null;
+        if (value instanceof Date) {
+            stringValue = FormatUtils.TIMESTAMP_FORMATTER.format((Date) value);
+        }
+        if (value != null) {
+            stringValue = value.toString();
+        }
+        return stringValue;
+    }
 }
@@ -0,0 +1,191 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.jumpmind.metl.core.runtime.component.ComponentSettingsConstants.STRUCTURE;
+import static org.jumpmind.metl.core.runtime.component.ComponentSettingsConstants.STRUCTURE_BY_INBOUND_ROW;
+import static org.jumpmind.metl.core.runtime.component.ComponentSettingsConstants.STRUCTURE_BY_TABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.runtime.TextMessage;
+import org.jumpmind.metl.core.util.NameValue;
+import org.jumpmind.metl.core.utils.TestUtils;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class SerializerTest {
+
+    @Test
+    public void testStreamedByInboundRowRoundTrip() throws Exception {
+        List<EntityData> rows = rows(20);
+        List<ArrayList<String>> messages = serialize(true, STRUCTURE_BY_INBOUND_ROW, false, 100, rows);
+        assertTrue(messages.size() > 1);
+        assertValidJsonArrays(messages);
+        assertEquals(rows, deserialize(true, STRUCTURE_BY_INBOUND_ROW, messages));
+        assertEquals(rows, deserialize(false, STRUCTURE_BY_INBOUND_ROW, messages));
+    }
+
+    @Test
+    public void testStreamedByTableRoundTrip() throws Exception {
+        List<EntityData> rows = rows(20);
+        List<ArrayList<String>> messages = serialize(true, STRUCTURE_BY_TABLE, false, 100, rows);
+        assertTrue(messages.size() > 1);
+        assertValidJsonArrays(messages);
+        assertEquals(rows, deserialize(true, STRUCTURE_BY_TABLE, messages));
+    }
+
+    @Test
+    public void testStreamedJsonLinesRoundTrip() throws Exception {
+        List<EntityData> rows = rows(20);
+        for (String structure : new String[] { STRUCTURE_BY_INBOUND_ROW, STRUCTURE_BY_TABLE }) {
+            List<ArrayList<String>> messages = serialize(true, structure, true, 100, rows);
+            assertTrue(messages.size() > 1);
+            for (ArrayList<String> lines : messages) {
+                for (String line : lines) {
+                    assertTrue(new ObjectMapper().readTree(line).isObject());
+                }
+            }
+            assertEquals(rows, deserialize(true, structure, messages));
+            // 20 rows three at a time, however the lines are split across messages
+            assertEquals(7, deserializeMessages(true, structure, messages).size());
+        }
+    }
+
+    @Test
+    public void testEmptyUnitOfWorkIsEmptyArray() throws Exception {
+        List<ArrayList<String>> messages = serialize(true, STRUCTURE_BY_TABLE, false, 100,
+                new ArrayList<EntityData>());
+        assertEquals(1, messages.size());
+        assertEquals("[]", messages.get(0).get(0));
+    }
+
+    protected void assertValidJsonArrays(List<ArrayList<String>> messages) throws Exception {
+        for (ArrayList<String> texts : messages) {
+            for (String text : texts) {
+                JsonNode node = new ObjectMapper().readTree(text);
+                assertTrue(text, node.isArray() && node.size() > 0);
+            }
+        }
+    }
+
+    /**
+     * Sends the rows two at a time and returns the text payloads sent
+     */
+    protected List<ArrayList<String>> serialize(boolean streaming, String structure, boolean jsonLines,
+            int messageSize, List<EntityData> rows) {
+        Serializer serializer = new Serializer();
+        serializer.create(null, createContext(new Setting(AbstractSerializer.STREAMING, String.valueOf(streaming)),
+                new Setting(STRUCTURE, structure), new Setting(Serializer.JSON_LINES, String.valueOf(jsonLines)),
+                new Setting(Serializer.MESSAGE_SIZE, String.valueOf(messageSize))), 0);
+        serializer.start();
+        SendMessageCallback<ArrayList<String>> callback = new SendMessageCallback<ArrayList<String>>();
+        for (int i = 0; i < rows.size(); i += 2) {
+            ArrayList<EntityData> payload = new ArrayList<EntityData>(rows.subList(i, Math.min(i + 2, rows.size())));
+            serializer.handle(new EntityDataMessage("test", payload), callback, i + 2 >= rows.size());
+        }
+        if (rows.isEmpty()) {
+            serializer.handle(new EntityDataMessage("test", new ArrayList<EntityData>()), callback, true);
+        }
+        serializer.stop();
+        return callback.getPayloadList();
+    }
+
+    protected List<EntityData> deserialize(boolean streaming, String structure, List<ArrayList<String>> messages) {
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (ArrayList<EntityData> payload : deserializeMessages(streaming, structure, messages)) {
+            rows.addAll(payload);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the row payloads sent by a deserializer with rows.per.message
+     * set to 3
+     */
+    protected List<ArrayList<EntityData>> deserializeMessages(boolean streaming, String structure,
+            List<ArrayList<String>> messages) {
+        Deserializer deserializer = new Deserializer();
+        deserializer.create(null, createContext(new Setting(AbstractSerializer.STREAMING, String.valueOf(streaming)),
+                new Setting(STRUCTURE, structure), new Setting(Deserializer.ROWS_PER_MESSAGE, "3")), 0);
+        deserializer.start();
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        for (int i = 0; i < messages.size(); i++) {
+            deserializer.handle(new TextMessage("test", messages.get(i)), callback, i == messages.size() - 1);
+        }
+        deserializer.stop();
+        return callback.getPayloadList();
+    }
+
+    protected List<EntityData> rows(int count) {
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(i);
+            if (i % 5 == 4) {
+                rows.add(new EntityData(new NameValue("order_id", id), new NameValue("order_customer_id", id)));
+            } else {
+                rows.add(new EntityData(new NameValue("customer_id", id), new NameValue("customer_name", "name " + i)));
+            }
+        }
+        return rows;
+    }
+
+    protected ComponentContext createContext(Setting... settings) {
+        Model model = createModel();
+        Component component = TestUtils.createComponent("Serializer", false, null, model, model, null, null,
+                settings);
+        Flow flow = TestUtils.createFlow("TestFlow", null);
+        FlowStep step = new FlowStep(component);
+        flow.getFlowSteps().add(step);
+        return new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null,
+                new HashMap<String, String>(), null);
+    }
+
+    protected Model createModel() {
+        ModelEntity customer = new ModelEntity("customer", "CUSTOMER");
+        customer.addModelAttribute(new ModelAttribute("customer_id", customer.getId(), "ID"));
+        customer.addModelAttribute(new ModelAttribute("customer_name", customer.getId(), "NAME"));
+        ModelEntity order = new ModelEntity("order", "ORDER");
+        order.addModelAttribute(new ModelAttribute("order_id", order.getId(), "ID"));
+        order.addModelAttribute(new ModelAttribute("order_customer_id", order.getId(), "CUSTOMER_ID"));
+        Model model = new Model();
+        model.getModelEntities().add(customer);
+        model.getModelEntities().add(order);
+        return model;
+    }
+
+}
@@ -20,39 +20,35 @@
  */
 package org.jumpmind.metl.core.runtime.component;
 
-import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
-import org.apache.commons.lang.ObjectUtils;
-import org.h2.Driver;
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.ComponentAttributeSetting;
 import org.jumpmind.metl.core.model.Model;
 import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
 import org.jumpmind.metl.core.model.ModelEntity;
-import org.jumpmind.metl.core.runtime.ControlMessage;
+import org.jumpmind.metl.core.runtime.AttributeComparator;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
-import org.jumpmind.metl.core.runtime.LogLevel;
+import org.jumpmind.metl.core.runtime.ExternalSorter;
+import org.jumpmind.metl.core.runtime.IndexedEntityData;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.properties.TypedProperties;
-import org.jumpmind.db.model.Column;
-import org.jumpmind.db.model.IIndex;
-import org.jumpmind.db.model.IndexColumn;
-import org.jumpmind.db.model.Table;
-import org.jumpmind.db.platform.IDatabasePlatform;
-import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
-import org.jumpmind.db.sql.SqlTemplateSettings;
-import org.jumpmind.db.util.ResettableBasicDataSource;
-import org.jumpmind.metl.core.model.Component;
-import org.jumpmind.metl.core.model.ComponentAttributeSetting;
-import org.jumpmind.metl.core.model.DataType;
 
+/**
+ * Sorts each unit of work with an {@link ExternalSorter}. When sorting by the
+ * attributes selected in the editor, only the last row for each primary key
+ * of an entity is sent unless {@link #DROP_DUPLICATE_PRIMARY_KEYS} is turned
+ * off.
+ */
 public class Sorter extends AbstractComponentRuntime {
 
     public static final String TYPE = "Sorter";
@@ -63,34 +59,50 @@ public class Sorter extends AbstractComponentRuntime {
 
     public final static String ATTRIBUTE_SORTER_ENABLED = "sort.enabled";
 
+    public final static String MAX_ROWS_IN_MEMORY = "max.rows.in.memory";
+
+    public final static String MAX_MEMORY_MB = "max.memory.mb";
+
+    public final static String DROP_DUPLICATE_PRIMARY_KEYS = "drop.duplicate.primary.keys";
+
     int rowsPerMessage;
 
-    IDatabasePlatform databasePlatform;
+    int maxRowsInMemory = 100000;
+
+    long maxBytesInMemory = 64 * 1024 * 1024;
 
-    RdbmsWriter databaseWriter;
-    
     String sortAttributeId;
 
     ArrayList<ComponentAttributeSetting> sortKeyAttributeIdList = new ArrayList<>();
     
-    List<EntityData> sortedRecords = new ArrayList<EntityData>();
-    
     List<ModelEntity> entities;
 
-    String databaseName;
+    ModelAttributeIndex attributeIndex;
+
+    ExternalSorter sorter;
+
+    Map<ModelEntity, ExternalSorter> sortersByEntity;
+
+    Map<ModelEntity, ExternalSorter> dedupersByEntity;
+
+    Map<ModelEntity, AttributeComparator> primaryKeyComparatorsByEntity;
+
+    boolean dropDuplicatePrimaryKeys = true;
 
-    Throwable error;
-    
     boolean entitySort = true;
     
     @Override
     public void start() {
         TypedProperties properties = getTypedProperties();
         rowsPerMessage = properties.getInt(ROWS_PER_MESSAGE);
+        maxRowsInMemory = properties.getInt(MAX_ROWS_IN_MEMORY, maxRowsInMemory);
+        maxBytesInMemory = properties.getLong(MAX_MEMORY_MB, maxBytesInMemory / 1024 / 1024) * 1024 * 1024;
+        dropDuplicatePrimaryKeys = properties.is(DROP_DUPLICATE_PRIMARY_KEYS, dropDuplicatePrimaryKeys);
         String sortAttribute = properties.get(SORT_ATTRIBUTE);
         Model inputModel = this.getComponent().getInputModel();
         Component component = context.getFlowStep().getComponent();
     	entities = new ArrayList<>(inputModel.getModelEntities());
+        attributeIndex = inputModel.getAttributeIndex();
 
         // check if a value was input on the main screen and if not verify there were sort attributes
         // selected in the component editor screen
@@ -131,7 +143,24 @@ public class Sorter extends AbstractComponentRuntime {
         	throw new IllegalStateException(
         			"Sort attribute must be a valid 'entity.attribute' in the input model. "
         			+ "Or at least one attribute must be specified to sort on in the component editor.");
-        }        
+        }
+
+        if (entitySort) {
+            sorter = createSorter(new AttributeComparator(inputModel.getAttributeById(sortAttributeId)));
+        } else {
+            sortersByEntity = new LinkedHashMap<>();
+            dedupersByEntity = new LinkedHashMap<>();
+            primaryKeyComparatorsByEntity = new LinkedHashMap<>();
+            for (ModelEntity entity : entities) {
+                sortersByEntity.put(entity, createSorter(new AttributeComparator(getSortAttributes(entity))));
+                List<ModelAttribute> primaryKeys = getPrimaryKeyAttributes(entity);
+                if (dropDuplicatePrimaryKeys && primaryKeys.size() > 0) {
+                    AttributeComparator primaryKeyComparator = new AttributeComparator(primaryKeys);
+                    primaryKeyComparatorsByEntity.put(entity, primaryKeyComparator);
+                    dedupersByEntity.put(entity, createSorter(primaryKeyComparator));
+                }
+            }
+        }
     }
     
     @Override
@@ -142,226 +171,162 @@ public class Sorter extends AbstractComponentRuntime {
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
     	if (inputMessage instanceof EntityDataMessage) {
-            if (!entitySort) {
-	            createDatabase();
-	            loadIntoDatabase(inputMessage);
-            }
-            
             ArrayList<EntityData> payload = ((EntityDataMessage)inputMessage).getPayload();
-            for (int i = 0; i < payload.size(); i++) {
+            for (EntityData record : payload) {
                 getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-                
                 if (entitySort) {
-                	EntityData record = payload.get(i);
-                	sortedRecords.add(record);
+                    sorter.add(record);
+                } else {
+                    for (ModelEntity entity : entities) {
+                        EntityData entityRecord = getEntityRecord(entity, record);
+                        if (entityRecord != null) {
+                            ExternalSorter deduper = dedupersByEntity.get(entity);
+                            if (deduper != null) {
+                                deduper.add(entityRecord);
+                            } else {
+                                sortersByEntity.get(entity).add(entityRecord);
+                            }
+                        }
+                    }
                 }
             }
     	}
 
-    	if (unitOfWorkBoundaryReached && error == null) {
+    	if (unitOfWorkBoundaryReached) {
     		if (entitySort) {
-    			ArrayList<EntityData> dataToSend = new ArrayList<EntityData>();
-    			
-    			sort();
-
-    			for (EntityData record : sortedRecords) {
-    				if (dataToSend.size() >= rowsPerMessage) {
-    					callback.sendEntityDataMessage(null, dataToSend);
-    					dataToSend = new ArrayList<EntityData>();
-    				}
-    				dataToSend.add(record);
-    			}
-
-    			sortedRecords.clear();
-
-    			if (dataToSend != null && dataToSend.size() > 0) {
-    				callback.sendEntityDataMessage(null, dataToSend);
-    			}
+    		    sendSorted(sorter, callback);
     		} else {
-    			sortData(callback);
+    		    for (ModelEntity entity : entities) {
+    		        ExternalSorter entitySorter = sortersByEntity.get(entity);
+    		        ExternalSorter deduper = dedupersByEntity.get(entity);
+    		        if (deduper != null) {
+    		            dropDuplicatePrimaryKeys(deduper, primaryKeyComparatorsByEntity.get(entity), entitySorter);
+    		        }
+    		        long count = entitySorter.getRowCount();
+    		        sendSorted(entitySorter, callback);
+    		        info("Sorted %d records for %s", count, entity.getName());
+    		    }
     		}
     	}
     }
 
-    private void sort() {
-    	Collections.sort(sortedRecords, new Comparator<EntityData>() {
-    		@Override
-    		public int compare(EntityData o1, EntityData o2) {
-    			Object obj1 = o1.get(sortAttributeId);
-    			Object obj2 = o2.get(sortAttributeId);
-    			if ((obj1 instanceof Comparable || obj1 == null)
-    					&& (obj2 instanceof Comparable || obj2 == null)) {
-    				return ObjectUtils.compare((Comparable<?>) obj1, (Comparable<?>) obj2);
-    			} else {
-    				String str1 = obj1 != null ? obj1.toString() : null;
-    				String str2 = obj2 != null ? obj2.toString() : null;
-    				return ObjectUtils.compare(str1, str2);
-    			}
-    		}
-    	});
+    @Override
+    public void stop() {
+        if (sorter != null) {
+            sorter.close();
+        }
+        if (sortersByEntity != null) {
+            for (ExternalSorter entitySorter : sortersByEntity.values()) {
+                entitySorter.close();
+            }
+        }
+        if (dedupersByEntity != null) {
+            for (ExternalSorter deduper : dedupersByEntity.values()) {
+                deduper.close();
+            }
+        }
+        super.stop();
+    }
+
+    protected ExternalSorter createSorter(Comparator<EntityData> comparator) {
+        return new ExternalSorter(attributeIndex, comparator, maxRowsInMemory, maxBytesInMemory, null);
+    }
+
+    protected void sendSorted(ExternalSorter sorter, ISendMessageCallback callback) {
+        try {
+            if (sorter.getRunCount() > 0) {
+                info("Merging %d sorted runs of %d records", sorter.getRunCount() + 1, sorter.getRowCount());
+            }
+            ArrayList<EntityData> dataToSend = new ArrayList<EntityData>();
+            Iterator<EntityData> records = sorter.iterator();
+            while (records.hasNext()) {
+                if (dataToSend.size() >= rowsPerMessage) {
+                    callback.sendEntityDataMessage(null, dataToSend);
+                    dataToSend = new ArrayList<EntityData>();
+                }
+                dataToSend.add(records.next());
+            }
+
+            if (dataToSend.size() > 0) {
+                callback.sendEntityDataMessage(null, dataToSend);
+            }
+        } finally {
+            sorter.close();
+        }
+    }
+
+    /**
+     * Reads the rows ordered by primary key and adds only the last row that
+     * arrived for each key to the sorter. The primary key sort is stable, so
+     * that is the last row of each group of equal keys.
+     */
+    protected void dropDuplicatePrimaryKeys(ExternalSorter deduper, Comparator<EntityData> primaryKeyComparator,
+            ExternalSorter sorter) {
+        try {
+            EntityData last = null;
+            Iterator<EntityData> records = deduper.iterator();
+            while (records.hasNext()) {
+                EntityData record = records.next();
+                if (last != null && primaryKeyComparator.compare(last, record) != 0) {
+                    sorter.add(last);
+                }
+                last = record;
+            }
+            if (last != null) {
+                sorter.add(last);
+            }
+        } finally {
+            deduper.close();
+        }
     }
 
-	private void sortData(ISendMessageCallback callback) {
-		Map<ModelEntity, String> sqls = new HashMap<>();
-		boolean addOrderBy = false;
-		for (ModelEntity entity : entities) {
-			StringBuilder sql = new StringBuilder("select ");
-			appendColumns(sql, entity);
-			sql.append(" from " + entity.getName() + "_1 ");
-			
-			// check to see if any one attribute of the entity is flagged to sort by before adding the 'order by' clause 
-			for (ComponentAttributeSetting componentAttribute : sortKeyAttributeIdList) {
-				for (ModelAttribute attribute : entity.getModelAttributes()) {
-					if (componentAttribute.getAttributeId().equals(attribute.getId())) {
-						addOrderBy = true;
-						break;
-					}
-				}
-				if (addOrderBy) {
-					break;
-				}
-			}
-			
-			if (addOrderBy) {
-				sql.append(" order by ");
-				appendSortColumns(sql, entity);
-			}
-			
-			log(LogLevel.INFO, "Generated sort sql: %s", sql);
-			sqls.put(entity, sql.toString());
-			addOrderBy = false;
-		}
-		
-		RdbmsReader reader = new RdbmsReader();
-		reader.setDataSource(databasePlatform.getDataSource());
-		reader.setContext(context);
-		reader.setComponentDefinition(componentDefinition);
-		reader.setRowsPerMessage(rowsPerMessage);
-		reader.setThreadNumber(threadNumber);
-		
-		for (ModelEntity entity : entities) {
-			reader.setSql(sqls.get(entity));
-			reader.handle(new ControlMessage(this.context.getFlowStep().getId()), callback, false);
-			info("Read %d  records for %s", reader.getRowReadDuringHandle(), entity.getName());
-		}
-		
-		ResettableBasicDataSource ds = databasePlatform.getDataSource();
-		
-		ds.close();
-		
-		databasePlatform = null;
-		databaseName = null;
-		databaseWriter = null;
-	}
-
-	
-	protected void appendColumns(StringBuilder sql, ModelEntity entity) {
-		for (ModelAttribute attribute : entity.getModelAttributes()) {
-			sql.append(attribute.getName()).append(" /* ")
-				.append(entity.getName()).append(".").append(attribute.getName())
-				.append(" */").append(",");
-		}
-		sql.replace(sql.length() - 1, sql.length(), "");
-	}
-
-
-	protected void appendSortColumns(StringBuilder sql, ModelEntity entity) {
-		for (ComponentAttributeSetting componentAttribute : sortKeyAttributeIdList) {
-			for (ModelAttribute attribute : entity.getModelAttributes()) {
-				if (componentAttribute.getAttributeId().equals(attribute.getId())) {
-					sql.append(attribute.getName()).append(",");
-					break;
-				}
-			}
-		}
-		sql.replace(sql.length() - 1, sql.length(), "");
-	}
-
-	protected void loadIntoDatabase(Message message) {
-		String tableSuffix = "_1";
-		
-		if (databaseWriter == null) {
-			databaseWriter = new RdbmsWriter();
-			databaseWriter.setDatabasePlatform(databasePlatform);
-			databaseWriter.setComponentDefinition(componentDefinition);
-			databaseWriter.setReplaceRows(true);
-			databaseWriter.setContext(context);
-			databaseWriter.setThreadNumber(threadNumber);
-		}
-		
-		if (tableSuffix != null) {
-			databaseWriter.setTableSuffix(tableSuffix);
-			try {
-				databaseWriter.handle(message, null, false);
-			} finally {
-				error = databaseWriter.getError();
-			}
-		}
-	}
-
-	protected void createDatabase() {
-		if (databasePlatform == null) {
-			ResettableBasicDataSource ds = new ResettableBasicDataSource();
-			ds.setDriverClassName(Driver.class.getName());
-			ds.setMaxActive(1);
-			ds.setInitialSize(1);
-			ds.setMinIdle(1);
-			ds.setMaxIdle(1);
-			databaseName = UUID.randomUUID().toString();
-			ds.setUrl("jdbc:h2:mem:" + databaseName);
-			databasePlatform = JdbcDatabasePlatformFactory.createNewPlatformInstance(ds,
-					new SqlTemplateSettings(), true, false);
-			
-			Model inputModel = context.getFlowStep().getComponent().getInputModel();
-			List<ModelEntity> entities = inputModel.getModelEntities();
-			for (ModelEntity entity : entities) {
-				Table table = new Table();
-				table.setName(entity.getName() + "_1");
-				List<ModelAttribute> attributes = entity.getModelAttributes();
-				for (ModelAttribute attribute : attributes) {
-					DataType dataType = attribute.getDataType();
-					Column column = new Column(attribute.getName());
-					if (dataType.isNumeric()) {
-						column.setTypeCode(Types.DECIMAL);
-					} else if (dataType.isBoolean()) {
-						column.setTypeCode(Types.BOOLEAN);
-					} else if (dataType.isTimestamp()) {
-						column.setTypeCode(Types.TIMESTAMP);
-					} else if (dataType.isBinary()) {
-						column.setTypeCode(Types.BLOB);
-					} else {
-						column.setTypeCode(Types.LONGVARCHAR);
-					}
-					
-					column.setPrimaryKey(attribute.isPk());
-					table.addColumn(column);
-				}
-				
-				alterCaseToMatchLogicalCase(table);
-				databasePlatform.createTables(false, false, table);
-			}
-			
-			log(LogLevel.INFO, "Creating databasePlatform with the following url: %s", ds.getUrl());
-		}
-	}
-
-
-	private void alterCaseToMatchLogicalCase(Table table) {
-		table.setName(table.getName().toUpperCase());
-		
-		Column[] columns = table.getColumns();
-		for (Column column : columns) {
-			column.setName(column.getName().toUpperCase());
-		}
-		
-		IIndex[] indexes = table.getIndices();
-		for (IIndex index : indexes) {
-			index.setName(index.getName().toUpperCase());
-			
-			IndexColumn[] indexColumns = index.getColumns();
-			for (IndexColumn indexColumn : indexColumns) {
-				indexColumn.setName(indexColumn.getName().toUpperCase());
-			}
-		}
-	}
+    /**
+     * @return the attributes of the entity to sort by in sort order
+     */
+    protected List<ModelAttribute> getSortAttributes(ModelEntity entity) {
+        List<ModelAttribute> attributes = new ArrayList<>();
+        for (ComponentAttributeSetting componentAttribute : sortKeyAttributeIdList) {
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                if (componentAttribute.getAttributeId().equals(attribute.getId())) {
+                    attributes.add(attribute);
+                    break;
+                }
+            }
+        }
+        return attributes;
+    }
+
+    protected List<ModelAttribute> getPrimaryKeyAttributes(ModelEntity entity) {
+        List<ModelAttribute> attributes = new ArrayList<>();
+        for (ModelAttribute attribute : entity.getModelAttributes()) {
+            if (attribute.isPk()) {
+                attributes.add(attribute);
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * When sorting by the attributes selected in the editor each entity is
+     * sorted and sent on its own, so each record is split into one record per
+     * entity it has values for
+     */
+    protected EntityData getEntityRecord(ModelEntity entity, EntityData record) {
+        boolean found = false;
+        for (ModelAttribute attribute : entity.getModelAttributes()) {
+            if (record.containsKey(attribute.getId())) {
+                found = true;
+                break;
+            }
+        }
+
+        EntityData entityRecord = null;
+        if (found) {
+            entityRecord = new IndexedEntityData(attributeIndex);
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                entityRecord.put(attribute.getId(), record.get(attribute.getId()));
+            }
+        }
+        return entityRecord;
+    }
 }
@@ -0,0 +1,121 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.ComponentAttributeSetting;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.util.NameValue;
+import org.jumpmind.metl.core.utils.TestUtils;
+import org.junit.Test;
+
+public class SorterTest {
+
+    @Test
+    public void testDropDuplicatePrimaryKeys() {
+        List<EntityData> sorted = sort(true);
+        assertEquals(3, sorted.size());
+        assertEquals("c", sorted.get(0).get("name"));
+        assertEquals("d", sorted.get(1).get("name"));
+        assertEquals("e", sorted.get(2).get("name"));
+    }
+
+    @Test
+    public void testKeepDuplicatePrimaryKeys() {
+        List<EntityData> sorted = sort(false);
+        assertEquals(5, sorted.size());
+        assertEquals("a", sorted.get(0).get("name"));
+        assertEquals("b", sorted.get(1).get("name"));
+        assertEquals("c", sorted.get(2).get("name"));
+        assertEquals("d", sorted.get(3).get("name"));
+        assertEquals("e", sorted.get(4).get("name"));
+    }
+
+    /**
+     * Sorts rows with duplicate ids by name in messages of two rows and
+     * returns the rows that were sent
+     */
+    protected List<EntityData> sort(boolean dropDuplicatePrimaryKeys) {
+        Sorter sorter = new Sorter();
+        sorter.create(null, createContext(new Setting(Sorter.ROWS_PER_MESSAGE, "2"),
+                new Setting(Sorter.MAX_ROWS_IN_MEMORY, "2"),
+                new Setting(Sorter.DROP_DUPLICATE_PRIMARY_KEYS, String.valueOf(dropDuplicatePrimaryKeys))), 0);
+        sorter.start();
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        ArrayList<EntityData> payload = new ArrayList<EntityData>();
+        payload.add(row("1", "b"));
+        payload.add(row("3", "d"));
+        payload.add(row("1", "a"));
+        payload.add(row("4", "e"));
+        payload.add(row("1", "c"));
+        sorter.handle(new EntityDataMessage("test", payload), callback, true);
+        sorter.stop();
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (ArrayList<EntityData> sent : callback.getPayloadList()) {
+            assertEquals(true, sent.size() <= 2);
+            rows.addAll(sent);
+        }
+        return rows;
+    }
+
+    protected EntityData row(String id, String name) {
+        return new EntityData(new NameValue("id", id), new NameValue("name", name));
+    }
+
+    protected ComponentContext createContext(Setting... settings) {
+        Model model = createModel();
+        List<ComponentAttributeSetting> attributeSettings = new ArrayList<ComponentAttributeSetting>();
+        attributeSettings.add(new ComponentAttributeSetting("name", Sorter.SORTER_ATTRIBUTE_ORDINAL, "1"));
+        Component component = TestUtils.createComponent("Sorter", false, null, model, model, null,
+                attributeSettings, settings);
+        Flow flow = TestUtils.createFlow("TestFlow", null);
+        FlowStep step = new FlowStep(component);
+        flow.getFlowSteps().add(step);
+        return new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null,
+                new HashMap<String, String>(), null);
+    }
+
+    protected Model createModel() {
+        ModelEntity entity = new ModelEntity("test", "TEST");
+        ModelAttribute id = new ModelAttribute("id", entity.getId(), "ID");
+        id.setPk(true);
+        entity.addModelAttribute(id);
+        entity.addModelAttribute(new ModelAttribute("name", entity.getId(), "NAME"));
+        Model model = new Model();
+        model.getModelEntities().add(entity);
+        return model;
+    }
+
+}
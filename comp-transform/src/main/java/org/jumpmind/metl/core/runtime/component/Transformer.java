@@ -40,6 +40,7 @@ import org.jumpmind.metl.core.model.ModelEntity;
 import org.jumpmind.metl.core.runtime.ControlMessage;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.IndexedEntityData;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 
@@ -112,7 +113,7 @@ public class Transformer extends AbstractComponentRuntime {
 
 			if (inDatas != null) {
 				for (EntityData inData : inDatas) {
-					EntityData outData = new EntityData();
+					EntityData outData = new IndexedEntityData(inputModel.getAttributeIndex());
 					outData.setChangeType(inData.getChangeType());
 					outDatas.add(outData);
 
@@ -20,14 +20,23 @@
  */
 package org.jumpmind.metl.core.runtime.component;
 
+import static org.apache.commons.lang.StringUtils.isBlank;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.Stack;
 
 import org.jdom2.Attribute;
 import org.jdom2.Content;
 import org.jdom2.Document;
 import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.XMLReaders;
 import org.jdom2.xpath.XPathExpression;
@@ -43,20 +52,39 @@ import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.TextMessage;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.properties.TypedProperties;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
 
 public class XPathXmlParser extends AbstractXMLComponentRuntime {
 
     public static final String TYPE = "XPath XML Parser";
 
+    public final static String RECORD_ELEMENT = "xml.parser.record.element";
+
     List<XmlFormatterEntitySetting> entitySettings = new ArrayList<XmlFormatterEntitySetting>();
     
     int rowsPerMessage;
 
+    String recordElement;
+
+    XmlPullParserFactory pullParserFactory;
+
     @Override
     public void start() {
         super.start();
         TypedProperties properties = getTypedProperties();
         rowsPerMessage = properties.getInt(ROWS_PER_MESSAGE);
+        recordElement = properties.get(RECORD_ELEMENT);
+        if (isNotBlank(recordElement)) {
+            recordElement = recordElement.trim().substring(recordElement.trim().lastIndexOf(':') + 1);
+            try {
+                pullParserFactory = XmlPullParserFactory.newInstance();
+                pullParserFactory.setNamespaceAware(true);
+            } catch (XmlPullParserException e) {
+                throw new RuntimeException(e);
+            }
+        }
 
         Model model = getComponent().getOutputModel();
         if (model == null) {
@@ -97,11 +125,115 @@ public class XPathXmlParser extends AbstractXMLComponentRuntime {
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         if (inputMessage instanceof TextMessage) {
-            handleUsingXPath(inputMessage, callback, unitOfWorkBoundaryReached);
+            if (pullParserFactory != null) {
+                handleUsingRecordStream(inputMessage, callback, unitOfWorkBoundaryReached);
+            } else {
+                handleUsingXPath(inputMessage, callback, unitOfWorkBoundaryReached);
+            }
+        }
+    }
+
+    /**
+     * Pulls each document and only builds a JDOM tree for one record element
+     * at a time. The record is attached to bare copies of its ancestors so
+     * that the configured absolute xpaths still match, evaluated and then
+     * detached before the next record is read. Entity xpaths that match an
+     * ancestor of the record instead of the record or its content are only
+     * evaluated once per ancestor element, when its first record closes, so
+     * only the ancestor's own attributes and that record are visible to them.
+     */
+    protected void handleUsingRecordStream(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
+        ArrayList<String> inputRows = ((TextMessage) inputMessage).getPayload();
+        ArrayList<EntityData> payload = new ArrayList<EntityData>();
+        if (inputRows != null) {
+            try {
+                XmlPullParser parser = pullParserFactory.newPullParser();
+                for (String xml : inputRows) {
+                    parser.setInput(new StringReader(xml));
+                    Document document = null;
+                    Set<Element> processedAncestors = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+                    Stack<Element> ancestors = new Stack<Element>();
+                    Stack<Element> record = new Stack<Element>();
+                    int eventType = parser.getEventType();
+                    while (eventType != XmlPullParser.END_DOCUMENT) {
+                        switch (eventType) {
+                            case XmlPullParser.START_TAG:
+                                Element element = toElement(parser);
+                                if (!record.isEmpty()) {
+                                    record.peek().addContent(element);
+                                    record.push(element);
+                                } else {
+                                    if (ancestors.isEmpty()) {
+                                        document = new Document(element);
+                                    } else {
+                                        ancestors.peek().addContent(element);
+                                    }
+                                    if (parser.getName().equals(recordElement)) {
+                                        record.push(element);
+                                    } else {
+                                        ancestors.push(element);
+                                    }
+                                }
+                                break;
+                            case XmlPullParser.TEXT:
+                                if (!record.isEmpty()) {
+                                    record.peek().addContent(new Text(parser.getText()));
+                                }
+                                break;
+                            case XmlPullParser.END_TAG:
+                                if (!record.isEmpty()) {
+                                    Element closed = record.pop();
+                                    if (record.isEmpty()) {
+                                        removeNamespaces(document);
+                                        processDocument(document, closed, processedAncestors, payload);
+                                        if (closed.getParent() != document) {
+                                            closed.detach();
+                                        }
+                                        if (payload.size() > rowsPerMessage) {
+                                            callback.sendEntityDataMessage(null, payload);
+                                            payload = new ArrayList<>();
+                                        }
+                                    }
+                                } else {
+                                    Element closed = ancestors.pop();
+                                    if (!ancestors.isEmpty()) {
+                                        closed.detach();
+                                    }
+                                }
+                                break;
+                        }
+                        eventType = parser.next();
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        if (payload.size() > 0) {
+            callback.sendEntityDataMessage(null, payload);
+        }
+    }
+
+    private Element toElement(XmlPullParser parser) {
+        Element element = new Element(parser.getName(), getNamespace(parser.getPrefix(), parser.getNamespace()));
+        for (int i = 0; i < parser.getAttributeCount(); i++) {
+            element.setAttribute(new Attribute(parser.getAttributeName(i), parser.getAttributeValue(i),
+                    getNamespace(parser.getAttributePrefix(i), parser.getAttributeNamespace(i))));
+        }
+        return element;
+    }
+
+    private Namespace getNamespace(String prefix, String uri) {
+        if (isBlank(uri)) {
+            return Namespace.NO_NAMESPACE;
+        } else {
+            return Namespace.getNamespace(prefix == null ? "" : prefix, uri);
         }
     }
    
-    @SuppressWarnings("unchecked")
     protected void handleUsingXPath(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         ArrayList<String> inputRows = ((TextMessage) inputMessage).getPayload();
         ArrayList<EntityData> payload = new ArrayList<EntityData>();
@@ -113,42 +245,7 @@ public class XPathXmlParser extends AbstractXMLComponentRuntime {
                 try {
                     Document document = builder.build(new StringReader(xml));
                     removeNamespaces(document);
-                    for (XmlFormatterEntitySetting entitySetting : entitySettings) {
-                        List<XmlFormatterAttributeSetting> attributeSettings = entitySetting.getAttributeSettings();
-                        List<Element> entityMatches = (List<Element>) entitySetting.getExpression().evaluate(document.getRootElement());
-                        for (Element element : entityMatches) {
-                            
-                            getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-                            EntityData data = new EntityData();
-                            for (XmlFormatterAttributeSetting attributeSetting : attributeSettings) {
-                                Element targetElement = element;
-
-                                List<Object> attributeMatches = (List<Object>) attributeSetting.getExpression().evaluate(targetElement);
-                                
-                                for (Object object : attributeMatches) {
-                                    if (object instanceof Attribute) {
-                                        data.put(attributeSetting.getSetting().getAttributeId(), ((Attribute) object).getValue());
-                                    } else if (object instanceof Content) {
-                                        data.put(attributeSetting.getSetting().getAttributeId(), ((Content) object).getValue());
-                                    } else if (object instanceof Element) {
-                                        data.put(attributeSetting.getSetting().getAttributeId(), ((Element) object).getTextTrim());
-                                    }
-                                }
-                                
-                                if (attributeMatches.size() == 0) {
-                                    info("Did not find a match for: %s\n in:\n %s", attributeSetting.getExpression().getExpression(),
-                                            toXML(element));
-                                }
-                            }
-                            if (data.size() > 0) {
-                                payload.add(data);
-                            } else {
-                                log(LogLevel.WARN,
-                                        "Found entity element: <%s/> with no matching attributes.  Please make sure your xpath expressions match",
-                                        element.getName());
-                            }
-                        }
-                    }
+                    processDocument(document, payload);
 
                     if (payload.size() > rowsPerMessage) {
                         callback.sendEntityDataMessage(null, payload);
@@ -165,6 +262,61 @@ public class XPathXmlParser extends AbstractXMLComponentRuntime {
         }
     }
 
+    protected void processDocument(Document document, ArrayList<EntityData> payload) {
+        processDocument(document, null, null, payload);
+    }
+
+    /**
+     * @param record
+     *            when not null, the record element currently attached to the
+     *            document. Matches outside of it are ancestors of the record
+     *            and are skipped if they are already in processedAncestors.
+     */
+    @SuppressWarnings("unchecked")
+    protected void processDocument(Document document, Element record, Set<Element> processedAncestors,
+            ArrayList<EntityData> payload) {
+        for (XmlFormatterEntitySetting entitySetting : entitySettings) {
+            List<XmlFormatterAttributeSetting> attributeSettings = entitySetting.getAttributeSettings();
+            List<Element> entityMatches = (List<Element>) entitySetting.getExpression().evaluate(document.getRootElement());
+            for (Element element : entityMatches) {
+                if (record != null && element != record && !record.isAncestor(element)
+                        && !processedAncestors.add(element)) {
+                    continue;
+                }
+
+                getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
+                EntityData data = new EntityData();
+                for (XmlFormatterAttributeSetting attributeSetting : attributeSettings) {
+                    Element targetElement = element;
+
+                    List<Object> attributeMatches = (List<Object>) attributeSetting.getExpression().evaluate(targetElement);
+                    
+                    for (Object object : attributeMatches) {
+                        if (object instanceof Attribute) {
+                            data.put(attributeSetting.getSetting().getAttributeId(), ((Attribute) object).getValue());
+                        } else if (object instanceof Content) {
+                            data.put(attributeSetting.getSetting().getAttributeId(), ((Content) object).getValue());
+                        } else if (object instanceof Element) {
+                            data.put(attributeSetting.getSetting().getAttributeId(), ((Element) object).getTextTrim());
+                        }
+                    }
+                    
+                    if (attributeMatches.size() == 0) {
+                        info("Did not find a match for: %s\n in:\n %s", attributeSetting.getExpression().getExpression(),
+                                toXML(element));
+                    }
+                }
+                if (data.size() > 0) {
+                    payload.add(data);
+                } else {
+                    log(LogLevel.WARN,
+                            "Found entity element: <%s/> with no matching attributes.  Please make sure your xpath expressions match",
+                            element.getName());
+                }
+            }
+        }
+    }
+
     class XmlFormatterAttributeSetting {
 
         ComponentAttributeSetting setting;
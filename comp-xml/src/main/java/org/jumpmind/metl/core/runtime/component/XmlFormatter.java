@@ -21,19 +21,27 @@
 package org.jumpmind.metl.core.runtime.component;
 
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Stack;
 
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
 import org.apache.commons.lang.StringUtils;
 import org.jdom2.Attribute;
+import org.jdom2.Content;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.jdom2.Text;
 import org.jdom2.filter.Filters;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.XMLReaders;
@@ -45,6 +53,7 @@ import org.jdom2.xpath.XPathHelper;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
 import org.jumpmind.metl.core.model.ComponentEntitySetting;
 import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
 import org.jumpmind.metl.core.runtime.ControlMessage;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
@@ -75,6 +84,10 @@ public class XmlFormatter extends AbstractXMLComponentRuntime {
 
     public final static String XML_FORMATTER_TEMPLATE = "xml.formatter.template";
 
+    public final static String STREAMING = "xml.formatter.streaming";
+
+    public final static String STREAMING_CHUNK_SIZE = "xml.formatter.streaming.chunk.size";
+
     boolean ignoreNamespace = true;
 
     String xmlFormat;
@@ -93,6 +106,24 @@ public class XmlFormatter extends AbstractXMLComponentRuntime {
 
     String runWhen;
 
+    boolean streaming;
+
+    int streamingChunkSize = 1024 * 1024;
+
+    Map<String, Element> streamEntityElements;
+
+    Map<Element, String> streamEntityIds;
+
+    Map<Element, String> streamElementAttributeIds;
+
+    Map<Attribute, String> streamAttributeAttributeIds;
+
+    Stack<Element> streamOpenElements;
+
+    StringWriter streamBuffer;
+
+    XMLStreamWriter streamWriter;
+
     @Override
     public void start() {
         super.start();
@@ -106,6 +137,11 @@ public class XmlFormatter extends AbstractXMLComponentRuntime {
         templateDoc = getTemplateDoc();
         entityAttributeDtls = fillEntityAttributeDetails(templateDoc);
         runWhen = getComponent().get(RUN_WHEN, PER_MESSAGE);
+        streaming = properties.is(STREAMING);
+        streamingChunkSize = properties.getInt(STREAMING_CHUNK_SIZE, streamingChunkSize);
+        if (streaming) {
+            compileStreamingTemplate();
+        }
     }
 
     @Override
@@ -117,6 +153,11 @@ public class XmlFormatter extends AbstractXMLComponentRuntime {
     public void handle(Message inputMessage, ISendMessageCallback callback,
             boolean unitOfWorkBoundaryReached) {
 
+        if (streaming) {
+            handleStreaming(inputMessage, callback);
+            return;
+        }
+
         if (!(inputMessage instanceof ControlMessage)) {
             messagesToProcess.add(inputMessage);
         }
@@ -394,6 +435,218 @@ public class XmlFormatter extends AbstractXMLComponentRuntime {
         }
     }
 
+    /**
+     * Resolves the entity and attribute xpaths against the template once so
+     * that streamed rows can be written by walking the template elements
+     * instead of evaluating xpaths against a generated document.
+     */
+    private void compileStreamingTemplate() {
+        streamEntityElements = new HashMap<String, Element>();
+        streamEntityIds = new HashMap<Element, String>();
+        streamElementAttributeIds = new HashMap<Element, String>();
+        streamAttributeAttributeIds = new HashMap<Attribute, String>();
+        for (Entry<String, DocElement> entry : fillEntityDetails(templateDoc).entrySet()) {
+            streamEntityElements.put(entry.getKey(), entry.getValue().xmlElement);
+            streamEntityIds.put(entry.getValue().xmlElement, entry.getKey());
+        }
+        for (Entry<String, DocElement> entry : fillAttributeDetails(templateDoc).entrySet()) {
+            DocElement docElement = entry.getValue();
+            if (docElement.xmlElement != null) {
+                streamElementAttributeIds.put(docElement.xmlElement, entry.getKey());
+            } else {
+                streamAttributeAttributeIds.put(docElement.xmlAttribute, entry.getKey());
+            }
+        }
+        streamOpenElements = new Stack<Element>();
+    }
+
+    private void handleStreaming(Message inputMessage, ISendMessageCallback callback) {
+        try {
+            if (inputMessage instanceof EntityDataMessage) {
+                for (EntityData inputRow : ((EntityDataMessage) inputMessage).getPayload()) {
+                    streamRow(inputRow);
+                    getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
+                    if (streamBuffer.getBuffer().length() >= streamingChunkSize) {
+                        sendStreamedChunk(callback);
+                    }
+                }
+            }
+
+            if ((PER_UNIT_OF_WORK.equals(runWhen) && inputMessage instanceof ControlMessage)
+                    || (!PER_UNIT_OF_WORK.equals(runWhen)
+                            && !(inputMessage instanceof ControlMessage))) {
+                endStreamedDocument(callback);
+            }
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void streamRow(EntityData inputRow) throws XMLStreamException {
+        Map<String, Map<String, Object>> valuesByEntity = new LinkedHashMap<String, Map<String, Object>>();
+        for (Entry<String, Object> attribute : inputRow.entrySet()) {
+            ModelAttribute modelAttribute = inputModel.getAttributeById(attribute.getKey());
+            if (modelAttribute != null) {
+                Map<String, Object> values = valuesByEntity.get(modelAttribute.getEntityId());
+                if (values == null) {
+                    values = new HashMap<String, Object>();
+                    valuesByEntity.put(modelAttribute.getEntityId(), values);
+                }
+                values.put(attribute.getKey(), attribute.getValue());
+            }
+        }
+
+        for (Entry<String, Map<String, Object>> entry : valuesByEntity.entrySet()) {
+            Element entityElement = streamEntityElements.get(entry.getKey());
+            if (entityElement != null) {
+                streamEntity(entityElement, entry.getValue());
+            }
+        }
+    }
+
+    private void streamEntity(Element entityElement, Map<String, Object> values) throws XMLStreamException {
+        if (streamWriter == null) {
+            XMLOutputFactory factory = XMLOutputFactory.newInstance();
+            factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, Boolean.TRUE);
+            streamBuffer = new StringWriter();
+            streamWriter = factory.createXMLStreamWriter(streamBuffer);
+            streamWriter.writeStartDocument("UTF-8", "1.0");
+        }
+
+        List<Element> parents = new ArrayList<Element>();
+        for (Element parent = entityElement.getParentElement(); parent != null; parent = parent.getParentElement()) {
+            parents.add(0, parent);
+        }
+
+        /*
+         * close whatever is open until the top of the stack is a template
+         * ancestor of this entity, then open the static parents that are
+         * still missing
+         */
+        while (!streamOpenElements.isEmpty() && !parents.contains(streamOpenElements.peek())) {
+            endStreamedElement();
+        }
+        for (int i = streamOpenElements.size(); i < parents.size(); i++) {
+            startStreamedElement(parents.get(i), null, streamOpenElements.size());
+            streamOpenElements.push(parents.get(i));
+        }
+
+        startStreamedElement(entityElement, values, streamOpenElements.size());
+        streamOpenElements.push(entityElement);
+        streamChildren(entityElement, values, streamOpenElements.size());
+    }
+
+    private boolean streamChildren(Element parent, Map<String, Object> values, int depth) throws XMLStreamException {
+        boolean childElementsWritten = false;
+        for (Content content : parent.getContent()) {
+            if (content instanceof Element) {
+                Element child = (Element) content;
+                if (streamEntityIds.containsKey(child)) {
+                    // nested entities are written by their own rows
+                    continue;
+                }
+                String attributeId = streamElementAttributeIds.get(child);
+                if (attributeId != null && values.containsKey(attributeId)) {
+                    Object value = values.get(attributeId);
+                    if (value == null && nullHandling.equals(NULL_HANDLING_REMOVE)) {
+                        continue;
+                    }
+                    startStreamedElement(child, values, depth);
+                    if (value == null) {
+                        if (nullHandling.equalsIgnoreCase(NULL_HANDLING_XML_NIL)) {
+                            Namespace xsi = getXmlNamespace();
+                            streamWriter.writeAttribute(xsi.getPrefix(), xsi.getURI(), "nil", "true");
+                        }
+                    } else {
+                        streamWriter.writeCharacters(value.toString());
+                    }
+                    streamWriter.writeEndElement();
+                } else {
+                    startStreamedElement(child, values, depth);
+                    if (streamChildren(child, values, depth + 1)) {
+                        indentStream(depth);
+                    }
+                    streamWriter.writeEndElement();
+                }
+                childElementsWritten = true;
+            } else if (content instanceof Text) {
+                String text = RAW_FORMAT.equals(xmlFormat) ? ((Text) content).getText() : ((Text) content).getTextTrim();
+                if (text.length() > 0) {
+                    streamWriter.writeCharacters(text);
+                }
+            }
+        }
+        return childElementsWritten;
+    }
+
+    private void startStreamedElement(Element element, Map<String, Object> values, int depth) throws XMLStreamException {
+        indentStream(depth);
+        Namespace namespace = element.getNamespace();
+        if (StringUtils.isEmpty(namespace.getURI())) {
+            streamWriter.writeStartElement(element.getName());
+        } else {
+            streamWriter.writeStartElement(namespace.getPrefix(), element.getName(), namespace.getURI());
+        }
+        for (Namespace additionalNamespace : element.getAdditionalNamespaces()) {
+            streamWriter.writeNamespace(additionalNamespace.getPrefix(), additionalNamespace.getURI());
+        }
+
+        /*
+         * static parents (no values) keep their template attributes except
+         * the ones mapped to a model attribute, which have no row to come from
+         */
+        for (Attribute attribute : element.getAttributes()) {
+            String attributeId = streamAttributeAttributeIds.get(attribute);
+            if (values == null && attributeId != null) {
+                continue;
+            }
+            Object value = attributeId != null ? values.get(attributeId) : null;
+            String text = value != null ? value.toString() : attribute.getValue();
+            Namespace attributeNamespace = attribute.getNamespace();
+            if (StringUtils.isEmpty(attributeNamespace.getURI())) {
+                streamWriter.writeAttribute(attribute.getName(), text);
+            } else {
+                streamWriter.writeAttribute(attributeNamespace.getPrefix(), attributeNamespace.getURI(),
+                        attribute.getName(), text);
+            }
+        }
+    }
+
+    private void endStreamedElement() throws XMLStreamException {
+        streamOpenElements.pop();
+        indentStream(streamOpenElements.size());
+        streamWriter.writeEndElement();
+    }
+
+    private void indentStream(int depth) throws XMLStreamException {
+        if (!COMPACT_FORMAT.equals(xmlFormat) && !RAW_FORMAT.equals(xmlFormat)) {
+            streamWriter.writeCharacters("\n" + StringUtils.repeat("  ", depth));
+        }
+    }
+
+    private void endStreamedDocument(ISendMessageCallback callback) throws XMLStreamException {
+        if (streamWriter != null) {
+            while (!streamOpenElements.isEmpty()) {
+                endStreamedElement();
+            }
+            streamWriter.writeEndDocument();
+            sendStreamedChunk(callback);
+            streamWriter.close();
+            streamWriter = null;
+            streamBuffer = null;
+        }
+    }
+
+    private void sendStreamedChunk(ISendMessageCallback callback) throws XMLStreamException {
+        streamWriter.flush();
+        if (streamBuffer.getBuffer().length() > 0) {
+            ArrayList<String> outboundPayload = new ArrayList<String>(1);
+            outboundPayload.add(streamBuffer.toString());
+            streamBuffer.getBuffer().setLength(0);
+            callback.sendTextMessage(null, outboundPayload);
+        }
+    }
+
     private final static Namespace getXmlNamespace() {
         return Namespace.getNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
     }
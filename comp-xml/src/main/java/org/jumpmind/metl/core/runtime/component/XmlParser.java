@@ -25,10 +25,8 @@ import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.jdom2.Attribute;
 import org.jdom2.Content;
@@ -50,20 +48,23 @@ import org.jumpmind.metl.core.runtime.TextMessage;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.properties.TypedProperties;
 import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
 
 public class XmlParser extends AbstractXMLComponentRuntime {
 
     public static final String TYPE = "Parse XML";
 
-    Map<String, List<XmlFormatterEntitySetting>> entitySettingsByPath = new HashMap<>();  //THIS DOESN'T WORK BECAUSE THERE CAN BE MULTIPLE ENTITY SETTINGS PER PATH
-    
     List<XmlFormatterEntitySetting> entitySettings = new ArrayList<XmlFormatterEntitySetting>();
 
     boolean optimizeForSpeed = false;
 
     int rowsPerMessage;
 
+    XmlPullParserFactory pullParserFactory;
+
+    PathNode pathTrie;
+
     @Override
     public void start() {
         super.start();
@@ -75,8 +76,8 @@ public class XmlParser extends AbstractXMLComponentRuntime {
         if (model == null) {
             throw new IllegalStateException("The output model must be defined");
         }
-        
-        List<XmlFormatterEntitySetting> entitySettingsForPath;  
+
+        pathTrie = optimizeForSpeed ? new PathNode() : null;
 
         Component component = getComponent();
 
@@ -85,14 +86,13 @@ public class XmlParser extends AbstractXMLComponentRuntime {
                 String entityXPath = compEntitySetting.getValue();
                 XPathExpression<?> expression = XPathFactory.instance().compile(entityXPath);
                 XmlFormatterEntitySetting entitySetting = new XmlFormatterEntitySetting(compEntitySetting, expression);
-                
-                entitySettingsForPath = entitySettingsByPath.get(compEntitySetting.getValue());
-                if (entitySettingsForPath == null) {
-                    entitySettingsForPath = new ArrayList<XmlParser.XmlFormatterEntitySetting>();
-                    entitySettingsByPath.put(compEntitySetting.getValue(), entitySettingsForPath);
-                }
-                entitySettingsForPath.add(entitySetting);
                 entitySettings.add(entitySetting);
+                if (pathTrie != null) {
+                    PathNode entityNode = pathTrie.add(entityXPath);
+                    if (entityNode != null) {
+                        entityNode.entitySettings.add(entitySetting);
+                    }
+                }
                 
                 List<ComponentAttributeSetting> attributeSettings = component
                         .getAttributeSettingsFor(entitySetting.getSetting().getEntityId());
@@ -104,6 +104,9 @@ public class XmlParser extends AbstractXMLComponentRuntime {
                         }
                         expression = XPathFactory.instance().compile(attributeXPath);
                         entitySetting.getAttributeSettings().add(new XmlFormatterAttributeSetting(componentAttributeSetting, expression));
+                        if (pathTrie != null) {
+                            pathTrie.addValue(attributeXPath);
+                        }
                     }
                 }
             }
@@ -112,6 +115,14 @@ public class XmlParser extends AbstractXMLComponentRuntime {
         if (entitySettings.size() == 0) {
             throw new MisconfiguredException("At least one XPATH setting must be provided.");
         }
+
+        if (optimizeForSpeed) {
+            try {
+                pullParserFactory = XmlPullParserFactory.newInstance();
+            } catch (XmlPullParserException e) {
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     @Override
@@ -133,55 +144,77 @@ public class XmlParser extends AbstractXMLComponentRuntime {
     protected void handleUsingPullParser(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         try {
             Map<String, String> currentDataAtLevel = new HashMap<>();
-            XmlPullParser parser = XmlPullParserFactory.newInstance().newPullParser();
+            XmlPullParser parser = pullParserFactory.newPullParser();
             ArrayList<String> inputRows = ((TextMessage) inputMessage).getPayload();
             ArrayList<EntityData> payload = new ArrayList<EntityData>();
+            /*
+             * matchedNodes holds, for each open element, the trie nodes whose
+             * path ends at that element. absoluteNodes holds the node for the
+             * path from the document root, which is what entities match on.
+             */
+            List<List<PathNode>> matchedNodes = new ArrayList<>();
+            List<PathNode> absoluteNodes = new ArrayList<>();
             if (inputRows != null) {
                 for (String xml : inputRows) {
-                    List<StringBuilder> paths = new ArrayList<>();
+                    int depth = -1;
                     parser.setInput(new StringReader(xml));
                     int eventType = parser.getEventType();
                     while (eventType != XmlPullParser.END_DOCUMENT) {
                         switch (eventType) {
                             case XmlPullParser.START_TAG:
                                 String tagName = removeNameSpace(parser.getName());
-                                for (StringBuilder path : paths) {
-                                    path.append("/").append(tagName);
+                                depth++;
+                                if (matchedNodes.size() == depth) {
+                                    matchedNodes.add(new ArrayList<PathNode>());
+                                    absoluteNodes.add(null);
                                 }
-                                StringBuilder shortPath = new StringBuilder("/").append(tagName);
-                                paths.add(shortPath);
-                                addAttributes(parser, paths, currentDataAtLevel);
+                                List<PathNode> matched = matchedNodes.get(depth);
+                                matched.clear();
+                                PathNode node = pathTrie.children.get(tagName);
+                                if (node != null) {
+                                    matched.add(node);
+                                }
+                                if (depth == 0) {
+                                    absoluteNodes.set(depth, node);
+                                } else {
+                                    for (PathNode parent : matchedNodes.get(depth - 1)) {
+                                        node = parent.children.get(tagName);
+                                        if (node != null) {
+                                            matched.add(node);
+                                        }
+                                    }
+                                    PathNode parent = absoluteNodes.get(depth - 1);
+                                    absoluteNodes.set(depth, parent != null ? parent.children.get(tagName) : null);
+                                }
+                                addAttributes(parser, matched, currentDataAtLevel);
                                 break;
                             case XmlPullParser.END_TAG:
-                                List<EntityData> data = processCurrentLevel(paths.get(0).toString(), currentDataAtLevel);
-                                if (data != null) {
-                                    payload.addAll(data);
-                                    getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-                                }
-
-                                String removed = paths.remove(paths.size() - 1).toString();
-                                Iterator<Entry<String, String>> entries = currentDataAtLevel.entrySet().iterator();
-                                while (entries.hasNext()) {
-                                    Entry<String, String> entry = entries.next();
-                                    if (entry.getKey().startsWith(removed)) {
-                                        entries.remove();
+                                PathNode absolute = absoluteNodes.get(depth);
+                                if (absolute != null && absolute.entitySettings.size() > 0) {
+                                    List<EntityData> data = processCurrentLevel(absolute.entitySettings, currentDataAtLevel);
+                                    if (data != null) {
+                                        payload.addAll(data);
+                                        getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
                                     }
                                 }
 
-                                for (StringBuilder path : paths) {
-                                    int index = path.lastIndexOf("/");
-                                    if (index >= 0) {
-                                        path.replace(index, path.length(), "");
+                                PathNode closed = pathTrie.children.get(removeNameSpace(parser.getName()));
+                                if (closed != null) {
+                                    for (String key : closed.subtreeKeys) {
+                                        currentDataAtLevel.remove(key);
                                     }
                                 }
+                                depth--;
                                 break;
                             case XmlPullParser.TEXT:
-                                String text = parser.getText();
-                                for (StringBuilder path : paths) {
-                                    currentDataAtLevel.put(String.format("%s/text()", path), text);
-                                    currentDataAtLevel.put(path.toString(), text);
+                                if (depth >= 0) {
+                                    String text = parser.getText();
+                                    for (PathNode textNode : matchedNodes.get(depth)) {
+                                        for (String key : textNode.textKeys) {
+                                            currentDataAtLevel.put(key, text);
+                                        }
+                                    }
                                 }
-
                                 break;
                         }
 
@@ -206,40 +239,39 @@ public class XmlParser extends AbstractXMLComponentRuntime {
         }
     }
 
-    protected void addAttributes(XmlPullParser parser, List<StringBuilder> paths, Map<String, String> values) {
+    protected void addAttributes(XmlPullParser parser, List<PathNode> matched, Map<String, String> values) {
         int attributeCount = parser.getAttributeCount();
-        for (int i = 0; i < attributeCount; i++) {
-            String attributeName = parser.getAttributeName(i);
-            String attributeValue = parser.getAttributeValue(i);
-            for (StringBuilder path : paths) {
-                values.put(String.format("%s/@%s", path, attributeName), attributeValue);
+        for (PathNode node : matched) {
+            if (node.attributeKeys.size() > 0) {
+                for (int i = 0; i < attributeCount; i++) {
+                    String key = node.attributeKeys.get(parser.getAttributeName(i));
+                    if (key != null) {
+                        values.put(key, parser.getAttributeValue(i));
+                    }
+                }
             }
         }
     }
 
-    protected List<EntityData> processCurrentLevel(String path, Map<String, String> currentDataByLevel) {
+    protected List<EntityData> processCurrentLevel(List<XmlFormatterEntitySetting> entitySettingsForPath, Map<String, String> currentDataByLevel) {
         List<EntityData> entitiesData = null;
         EntityData data = null;
 
-        if (entitySettingsByPath.get(path) != null) {
-            for (XmlFormatterEntitySetting entitySetting : entitySettingsByPath.get(path)) {
-                if (entitySetting != null) {                    
-                    data = new EntityData();
-                    List<XmlFormatterAttributeSetting> attributeSettings = entitySetting
-                            .getAttributeSettings();
-                    for (XmlFormatterAttributeSetting attributeSetting : attributeSettings) {
-                        String xpath = attributeSetting.getExpression().getExpression();
-                        String value = currentDataByLevel.get(xpath);
-                        if (value != null) {
-                            data.put(attributeSetting.getSetting().getAttributeId(), value);
-                        }
-                    }
-                    if (entitiesData == null) {
-                        entitiesData = new ArrayList<EntityData>();
-                    }
-                    entitiesData.add(data);
+        for (XmlFormatterEntitySetting entitySetting : entitySettingsForPath) {
+            data = new EntityData();
+            List<XmlFormatterAttributeSetting> attributeSettings = entitySetting
+                    .getAttributeSettings();
+            for (XmlFormatterAttributeSetting attributeSetting : attributeSettings) {
+                String xpath = attributeSetting.getExpression().getExpression();
+                String value = currentDataByLevel.get(xpath);
+                if (value != null) {
+                    data.put(attributeSetting.getSetting().getAttributeId(), value);
                 }
             }
+            if (entitiesData == null) {
+                entitiesData = new ArrayList<EntityData>();
+            }
+            entitiesData.add(data);
         }
         return entitiesData;
     }
@@ -322,6 +354,62 @@ public class XmlParser extends AbstractXMLComponentRuntime {
 
     }
 
+    /**
+     * A node in the trie of simple element paths built from the configured
+     * xpaths. Each node is an element step. The keys stored on a node are the
+     * xpath expressions whose value is captured when a path ending at that
+     * node is open.
+     */
+    static class PathNode {
+
+        Map<String, PathNode> children = new HashMap<>();
+
+        List<String> textKeys = new ArrayList<>(1);
+
+        Map<String, String> attributeKeys = new HashMap<>();
+
+        List<String> subtreeKeys = new ArrayList<>();
+
+        List<XmlFormatterEntitySetting> entitySettings = new ArrayList<>(1);
+
+        PathNode add(String path) {
+            if (!path.startsWith("/")) {
+                return null;
+            }
+            PathNode node = this;
+            for (String step : path.substring(1).split("/")) {
+                PathNode child = node.children.get(step);
+                if (child == null) {
+                    child = new PathNode();
+                    node.children.put(step, child);
+                }
+                node = child;
+            }
+            return node;
+        }
+
+        void addValue(String xpath) {
+            int index = xpath.lastIndexOf('/');
+            if (!xpath.startsWith("/") || index <= 0) {
+                // relative paths are only matched by the xpath parser
+                return;
+            }
+            String lastStep = xpath.substring(index + 1);
+            if (lastStep.startsWith("@")) {
+                add(xpath.substring(0, index)).attributeKeys.put(lastStep.substring(1), xpath);
+            } else if (lastStep.equals("text()")) {
+                add(xpath.substring(0, index)).textKeys.add(xpath);
+            } else {
+                add(xpath).textKeys.add(xpath);
+            }
+            int firstStepEnd = xpath.indexOf('/', 1);
+            PathNode firstStep = children.get(firstStepEnd > 0 ? xpath.substring(1, firstStepEnd) : xpath.substring(1));
+            if (firstStep != null) {
+                firstStep.subtreeKeys.add(xpath);
+            }
+        }
+    }
+
     class XmlFormatterAttributeSetting {
 
         ComponentAttributeSetting setting;
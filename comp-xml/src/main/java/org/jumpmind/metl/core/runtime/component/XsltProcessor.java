@@ -25,11 +25,25 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
 import org.apache.commons.lang.StringUtils;
 import org.jdom2.Document;
 import org.jdom2.Element;
@@ -37,7 +51,8 @@ import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.XMLReaders;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
-import org.jdom2.transform.XSLTransformer;
+import org.jdom2.transform.JDOMResult;
+import org.jdom2.transform.JDOMSource;
 import org.jumpmind.metl.core.model.DataType;
 import org.jumpmind.metl.core.model.Model;
 import org.jumpmind.metl.core.model.ModelAttribute;
@@ -49,6 +64,14 @@ import org.jumpmind.metl.core.runtime.LogLevel;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.properties.TypedProperties;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
 
 public class XsltProcessor extends AbstractComponentRuntime {
 
@@ -68,12 +91,29 @@ public class XsltProcessor extends AbstractComponentRuntime {
     
     public final static String OMIT_XML_DECLARATION = "xslt.processor.xml.omit.declaration";
 
+    public final static String STREAMING = "xslt.processor.streaming";
+
     public static final String TYPE = "XSLT Processor";
 
     public final static String XSLT_PROCESSOR_STYLESHEET = "xslt.processor.stylesheet";
 
     private final static String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
 
+    final static int MAX_COMPILED_STYLESHEETS = 100;
+
+    /*
+     * Compiled stylesheets are shared by every runtime of every step, keyed
+     * by the stylesheet text after parameter replacement
+     */
+    static Map<String, Templates> compiledTemplates = Collections.synchronizedMap(new LinkedHashMap<String, Templates>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Templates> eldest) {
+            return size() > MAX_COMPILED_STYLESHEETS;
+        }
+    });
+
     Setting stylesheet;
     
     boolean outputAllAttributes;
@@ -83,6 +123,16 @@ public class XsltProcessor extends AbstractComponentRuntime {
     boolean omitXmlDeclaration = false;
     
     String xmlFormat;
+
+    boolean streaming = false;
+
+    TransformerFactory transformerFactory;
+
+    Templates templates;
+
+    String templatesStylesheetXml;
+
+    Transformer transformer;
     
     @Override
     public void start() {
@@ -91,10 +141,17 @@ public class XsltProcessor extends AbstractComponentRuntime {
         useParameterReplacement = properties.is(PARAMETER_REPLACEMENT);
         xmlFormat = properties.get(XML_FORMAT);
         omitXmlDeclaration = properties.is(OMIT_XML_DECLARATION, false);
+        streaming = properties.is(STREAMING, false);
         stylesheet = getComponent().findSetting(XSLT_PROCESSOR_STYLESHEET);
         if (StringUtils.isBlank(stylesheet.getValue())) {
             throw new RuntimeException("The XSLT stylesheet is blank.  Edit the component and set a stylesheet.");
         }
+        transformerFactory = TransformerFactory.newInstance();
+        templates = null;
+        transformer = null;
+        if (!useParameterReplacement) {
+            getTransformer(stylesheet.getValue());
+        }
     }
     
     @Override
@@ -109,12 +166,19 @@ public class XsltProcessor extends AbstractComponentRuntime {
 
             ArrayList<String> outputPayload = new ArrayList<String>();
 
-            String batchXml = getBatchXml(getComponent().getInputModel(), inputRows, outputAllAttributes);
             String stylesheetXml = stylesheet.getValue();
             if (useParameterReplacement) {
                 stylesheetXml = resolveParamsAndHeaders(stylesheetXml, inputMessage);
             }
-            String outputXml = getTransformedXml(batchXml, stylesheetXml, xmlFormat, omitXmlDeclaration);
+            Transformer transformer = getTransformer(stylesheetXml);
+            String outputXml = null;
+            if (streaming) {
+                outputXml = getStreamedTransformedXml(getComponent().getInputModel(), inputRows, outputAllAttributes,
+                        transformer, xmlFormat, omitXmlDeclaration);
+            } else {
+                String batchXml = getBatchXml(getComponent().getInputModel(), inputRows, outputAllAttributes);
+                outputXml = getTransformedXml(batchXml, transformer, xmlFormat, omitXmlDeclaration);
+            }
             outputPayload.add(outputXml);
 
             log(LogLevel.DEBUG, outputPayload.toString());
@@ -123,6 +187,47 @@ public class XsltProcessor extends AbstractComponentRuntime {
         }
     }
 
+    /**
+     * The stylesheet is only compiled the first time its text is seen by any
+     * runtime. The compiled {@link Templates} are thread safe but a
+     * {@link Transformer} is not, so each component runtime (one per step
+     * thread) keeps its own.
+     */
+    protected Transformer getTransformer(String stylesheetXml) {
+        if (templates == null || !stylesheetXml.equals(templatesStylesheetXml)) {
+            templates = getTemplates(transformerFactory, stylesheetXml);
+            templatesStylesheetXml = stylesheetXml;
+            transformer = null;
+        }
+        try {
+            if (transformer == null) {
+                transformer = templates.newTransformer();
+            } else {
+                transformer.reset();
+            }
+        } catch (TransformerConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+        return transformer;
+    }
+
+    protected static Templates getTemplates(TransformerFactory transformerFactory, String stylesheetXml) {
+        Templates templates = compiledTemplates.get(stylesheetXml);
+        if (templates == null) {
+            templates = compile(transformerFactory, stylesheetXml);
+            compiledTemplates.put(stylesheetXml, templates);
+        }
+        return templates;
+    }
+
+    public static Templates compile(TransformerFactory transformerFactory, String stylesheetXml) {
+        try {
+            return transformerFactory.newTemplates(new StreamSource(new StringReader(stylesheetXml)));
+        } catch (TransformerConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static String getBatchXml(Model model, ArrayList<EntityData> inputRows, boolean outputAllAttributes) {
         SimpleDateFormat df = new SimpleDateFormat(DATE_FORMAT);
         Element root = new Element("batch");
@@ -150,18 +255,7 @@ public class XsltProcessor extends AbstractComponentRuntime {
                     if (attribute != null && attribute.getEntityId().equals(entity.getId())) {
                         Element attributeElement = new Element("attribute");
                         attributeElement.setAttribute("name", attribute.getName());                       
-                        Object object = entityData.get(attribute.getId());
-                        String value = null;
-                        DataType type = attribute.getDataType();
-                        
-                        if (object != null) {
-                            if (type.isTimestamp() && object instanceof Date) {
-                                value = df.format(object);
-                            } else {
-                                value = object.toString();
-                            }
-                        }
-                        attributeElement.setAttribute("value", value == null ? "" : value);
+                        attributeElement.setAttribute("value", getValue(attribute, entityData, df));
                         recordElement.addContent(attributeElement);
                     }
                 }
@@ -180,6 +274,65 @@ public class XsltProcessor extends AbstractComponentRuntime {
         return writer.toString();
     }
 
+    /**
+     * Emits the same batch document as {@link #getBatchXml(Model, ArrayList, boolean)}
+     * as SAX events without building a JDOM tree. No whitespace is added
+     * between elements.
+     */
+    public static void writeBatchXml(ContentHandler handler, Model model, ArrayList<EntityData> inputRows,
+            boolean outputAllAttributes) throws SAXException {
+        SimpleDateFormat df = new SimpleDateFormat(DATE_FORMAT);
+        AttributesImpl xmlAttributes = new AttributesImpl();
+        handler.startDocument();
+        handler.startElement("", "batch", "batch", xmlAttributes);
+        for (ModelEntity entity : getModelEntities(model, inputRows)) {
+            xmlAttributes.clear();
+            xmlAttributes.addAttribute("", "name", "name", "CDATA", entity.getName());
+            handler.startElement("", "entity", "entity", xmlAttributes);
+            for (EntityData entityData : inputRows) {
+                List<ModelAttribute> attributes = null;
+                if (outputAllAttributes) {
+                    attributes = entity.getModelAttributes();
+                } else {
+                    attributes = getModelAttributes(model, entity.getId(), entityData.keySet());
+                }
+
+                if (attributes.size() > 0) {
+                    xmlAttributes.clear();
+                    handler.startElement("", "record", "record", xmlAttributes);
+                    for (ModelAttribute attribute : attributes) {
+                        if (attribute != null && attribute.getEntityId().equals(entity.getId())) {
+                            xmlAttributes.clear();
+                            xmlAttributes.addAttribute("", "name", "name", "CDATA", attribute.getName());
+                            xmlAttributes.addAttribute("", "value", "value", "CDATA", getValue(attribute, entityData, df));
+                            handler.startElement("", "attribute", "attribute", xmlAttributes);
+                            handler.endElement("", "attribute", "attribute");
+                        }
+                    }
+                    handler.endElement("", "record", "record");
+                }
+            }
+            handler.endElement("", "entity", "entity");
+        }
+        handler.endElement("", "batch", "batch");
+        handler.endDocument();
+    }
+
+    protected static String getValue(ModelAttribute attribute, EntityData entityData, SimpleDateFormat df) {
+        Object object = entityData.get(attribute.getId());
+        String value = null;
+        DataType type = attribute.getDataType();
+        
+        if (object != null) {
+            if (type.isTimestamp() && object instanceof Date) {
+                value = df.format(object);
+            } else {
+                value = object.toString();
+            }
+        }
+        return value == null ? "" : value;
+    }
+
     protected static List<ModelEntity> getModelEntities(Model model, ArrayList<EntityData> inputRows) {
         Set<ModelEntity> entities = new LinkedHashSet<ModelEntity>();
         for (EntityData entityData : inputRows) {
@@ -208,15 +361,24 @@ public class XsltProcessor extends AbstractComponentRuntime {
     }
 
     public static String getTransformedXml(String inputXml, String stylesheetXml, String xmlFormat, boolean omitXmlDeclaration) {
+        try {
+            Transformer transformer = compile(TransformerFactory.newInstance(), stylesheetXml).newTransformer();
+            return getTransformedXml(inputXml, transformer, xmlFormat, omitXmlDeclaration);
+        } catch (TransformerConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static String getTransformedXml(String inputXml, Transformer transformer, String xmlFormat, boolean omitXmlDeclaration) {
         StringWriter writer = new StringWriter();
         SAXBuilder builder = new SAXBuilder();
         builder.setXMLReaderFactory(XMLReaders.NONVALIDATING);
         builder.setFeature("http://xml.org/sax/features/validation", false);
         try {
             Document inputDoc = builder.build(new StringReader(inputXml));
-            StringReader reader = new StringReader(stylesheetXml);
-            XSLTransformer transformer = new XSLTransformer(reader);
-            Document outputDoc = transformer.transform(inputDoc);
+            JDOMResult result = new JDOMResult();
+            transformer.transform(new JDOMSource(inputDoc), result);
+            Document outputDoc = result.getDocument();
             XMLOutputter xmlOutput = new XMLOutputter();
             Format format = null;
             if (xmlFormat.equals(COMPACT_FORMAT)) {
@@ -236,4 +398,129 @@ public class XsltProcessor extends AbstractComponentRuntime {
         }
         return writer.toString();
     }
+
+    /**
+     * Transforms without JDOM. The XSLT engine reads the batch document as SAX
+     * events generated from the rows, so it is never written out as text, and
+     * the result is serialized by the engine, which indents for the pretty
+     * format only.
+     */
+    public static String getStreamedTransformedXml(Model model, ArrayList<EntityData> inputRows, boolean outputAllAttributes,
+            Transformer transformer, String xmlFormat, boolean omitXmlDeclaration) {
+        try {
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, omitXmlDeclaration ? "yes" : "no");
+            boolean pretty = !COMPACT_FORMAT.equals(xmlFormat) && !RAW_FORMAT.equals(xmlFormat);
+            transformer.setOutputProperty(OutputKeys.INDENT, pretty ? "yes" : "no");
+            StringWriter writer = new StringWriter();
+            transformer.transform(new SAXSource(new BatchXmlReader(model, inputRows, outputAllAttributes), new InputSource()),
+                    new StreamResult(writer));
+            return writer.toString();
+        } catch (TransformerException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * An {@link XMLReader} that "parses" a batch of rows by emitting the batch
+     * document events for them
+     */
+    static class BatchXmlReader implements XMLReader {
+
+        final Model model;
+
+        final ArrayList<EntityData> inputRows;
+
+        final boolean outputAllAttributes;
+
+        final Map<String, Boolean> features = new HashMap<String, Boolean>();
+
+        final Map<String, Object> properties = new HashMap<String, Object>();
+
+        ContentHandler contentHandler;
+
+        DTDHandler dtdHandler;
+
+        EntityResolver entityResolver;
+
+        ErrorHandler errorHandler;
+
+        BatchXmlReader(Model model, ArrayList<EntityData> inputRows, boolean outputAllAttributes) {
+            this.model = model;
+            this.inputRows = inputRows;
+            this.outputAllAttributes = outputAllAttributes;
+            features.put("http://xml.org/sax/features/namespaces", true);
+            features.put("http://xml.org/sax/features/namespace-prefixes", false);
+        }
+
+        @Override
+        public void parse(InputSource input) throws SAXException {
+            writeBatchXml(contentHandler, model, inputRows, outputAllAttributes);
+        }
+
+        @Override
+        public void parse(String systemId) throws SAXException {
+            parse(new InputSource(systemId));
+        }
+
+        @Override
+        public boolean getFeature(String name) {
+            return Boolean.TRUE.equals(features.get(name));
+        }
+
+        @Override
+        public void setFeature(String name, boolean value) {
+            features.put(name, value);
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return properties.get(name);
+        }
+
+        @Override
+        public void setProperty(String name, Object value) {
+            properties.put(name, value);
+        }
+
+        @Override
+        public void setEntityResolver(EntityResolver resolver) {
+            this.entityResolver = resolver;
+        }
+
+        @Override
+        public EntityResolver getEntityResolver() {
+            return entityResolver;
+        }
+
+        @Override
+        public void setDTDHandler(DTDHandler handler) {
+            this.dtdHandler = handler;
+        }
+
+        @Override
+        public DTDHandler getDTDHandler() {
+            return dtdHandler;
+        }
+
+        @Override
+        public void setContentHandler(ContentHandler handler) {
+            this.contentHandler = handler;
+        }
+
+        @Override
+        public ContentHandler getContentHandler() {
+            return contentHandler;
+        }
+
+        @Override
+        public void setErrorHandler(ErrorHandler handler) {
+            this.errorHandler = handler;
+        }
+
+        @Override
+        public ErrorHandler getErrorHandler() {
+            return errorHandler;
+        }
+
+    }
 }
@@ -0,0 +1,204 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import java.io.Serializable;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.ComponentAttributeSetting;
+import org.jumpmind.metl.core.model.ComponentEntitySetting;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.runtime.Message;
+import org.jumpmind.metl.core.runtime.TextMessage;
+import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
+import org.jumpmind.metl.core.utils.TestUtils;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+/**
+ * Compares the throughput of an {@link XmlParser} running with
+ * optimize.for.speed against a bare XmlPull loop over the same synthetic
+ * document. The document is about one megabyte and is parsed repeatedly until
+ * the requested number of megabytes (1024 by default) has been read.
+ */
+public class XmlParserBenchmark {
+
+    static final int DEFAULT_MEGABYTES = 1024;
+
+    static final int DOCUMENT_SIZE = 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+
+        String xml = createDocument();
+        int documents = (int) (megabytes * 1024l * 1024l / xml.length());
+
+        XmlParser parser = createParser();
+        CountingCallback callback = new CountingCallback();
+        TextMessage message = new TextMessage("").addString(xml);
+
+        for (int i = 0; i < 10; i++) {
+            pull(xml);
+            parser.handle(message, callback, false);
+        }
+
+        long ts = System.currentTimeMillis();
+        long events = 0;
+        for (int i = 0; i < documents; i++) {
+            events += pull(xml);
+        }
+        long pullMillis = Math.max(1, System.currentTimeMillis() - ts);
+
+        callback.count = 0;
+        ts = System.currentTimeMillis();
+        for (int i = 0; i < documents; i++) {
+            parser.handle(message, callback, false);
+        }
+        long parserMillis = Math.max(1, System.currentTimeMillis() - ts);
+
+        long totalMegabytes = documents * (long) xml.length() / (1024 * 1024);
+        System.out.println(String.format("raw XmlPull: %dMB in %dms, %dMB/sec (%d events)", totalMegabytes, pullMillis,
+                totalMegabytes * 1000 / pullMillis, events));
+        System.out.println(String.format("Parse XML:   %dMB in %dms, %dMB/sec (%d rows)", totalMegabytes, parserMillis,
+                totalMegabytes * 1000 / parserMillis, callback.count));
+    }
+
+    static String createDocument() {
+        StringBuilder xml = new StringBuilder(DOCUMENT_SIZE + 256);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<orders>\n");
+        xml.append("  <header><batch>1</batch></header>\n");
+        for (int i = 0; xml.length() < DOCUMENT_SIZE; i++) {
+            xml.append("  <order id=\"").append(i).append("\" status=\"OPEN\">\n");
+            xml.append("    <customer>Customer ").append(i % 1000).append("</customer>\n");
+            xml.append("    <amount currency=\"USD\">").append(i % 10000).append(".25</amount>\n");
+            xml.append("    <note>unmapped text that still has to be parsed</note>\n");
+            xml.append("  </order>\n");
+        }
+        xml.append("</orders>\n");
+        return xml.toString();
+    }
+
+    static XmlParser createParser() {
+        ModelEntity entity = new ModelEntity("order", "ORDER");
+        entity.addModelAttribute(new ModelAttribute("id", entity.getId(), "ID"));
+        entity.addModelAttribute(new ModelAttribute("customer", entity.getId(), "CUSTOMER"));
+        entity.addModelAttribute(new ModelAttribute("amount", entity.getId(), "AMOUNT"));
+        entity.addModelAttribute(new ModelAttribute("currency", entity.getId(), "CURRENCY"));
+        entity.addModelAttribute(new ModelAttribute("batch", entity.getId(), "BATCH"));
+        Model model = new Model();
+        model.getModelEntities().add(entity);
+
+        List<ComponentEntitySetting> entitySettings = new ArrayList<>();
+        entitySettings.add(new ComponentEntitySetting("order", XmlParser.XML_FORMATTER_XPATH, "/orders/order"));
+        List<ComponentAttributeSetting> attributeSettings = new ArrayList<>();
+        attributeSettings.add(new ComponentAttributeSetting("id", XmlParser.XML_FORMATTER_XPATH, "/orders/order/@id"));
+        attributeSettings.add(new ComponentAttributeSetting("customer", XmlParser.XML_FORMATTER_XPATH, "/orders/order/customer"));
+        attributeSettings.add(new ComponentAttributeSetting("amount", XmlParser.XML_FORMATTER_XPATH, "/orders/order/amount/text()"));
+        attributeSettings.add(new ComponentAttributeSetting("currency", XmlParser.XML_FORMATTER_XPATH, "/orders/order/amount/@currency"));
+        attributeSettings.add(new ComponentAttributeSetting("batch", XmlParser.XML_FORMATTER_XPATH, "/orders/header/batch"));
+
+        Component component = TestUtils.createComponent(XmlParser.TYPE, false, null, null, model, entitySettings, attributeSettings,
+                new Setting("optimize.for.speed", "true"), new Setting(XmlParser.ROWS_PER_MESSAGE, "1000"));
+        Flow flow = TestUtils.createFlow("BenchmarkFlow", null);
+        FlowStep step = new FlowStep();
+        step.setComponent(component);
+        flow.getFlowSteps().add(step);
+
+        XmlParser parser = new XmlParser();
+        parser.setContext(new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null, null, null));
+        parser.start();
+        return parser;
+    }
+
+    static long pull(String xml) throws Exception {
+        XmlPullParser parser = XmlPullParserFactory.newInstance().newPullParser();
+        parser.setInput(new StringReader(xml));
+        long events = 0;
+        int eventType = parser.getEventType();
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            if (eventType == XmlPullParser.START_TAG) {
+                parser.getName();
+                for (int i = 0; i < parser.getAttributeCount(); i++) {
+                    parser.getAttributeValue(i);
+                }
+            } else if (eventType == XmlPullParser.TEXT) {
+                parser.getText();
+            }
+            events++;
+            eventType = parser.next();
+        }
+        return events;
+    }
+
+    static class CountingCallback implements ISendMessageCallback {
+
+        long count;
+
+        @Override
+        public void sendEntityDataMessage(Map<String, Serializable> messageHeaders, ArrayList<EntityData> payload, String... targetStepIds) {
+            count += payload.size();
+        }
+
+        @Override
+        public void sendTextMessage(Map<String, Serializable> messageHeaders, ArrayList<String> payload, String... targetStepIds) {
+        }
+
+        @Override
+        public void sendTextMessage(Map<String, Serializable> messageHeaders, String payload, String... targetStepIds) {
+        }
+
+        @Override
+        public void sendBinaryMessage(Map<String, Serializable> messageHeaders, byte[] payload, String... targetStepIds) {
+        }
+
+        @Override
+        public void sendShutdownMessage(boolean cancel) {
+        }
+
+        @Override
+        public void sendControlMessage(Map<String, Serializable> messageHeaders, String... targetStepIds) {
+        }
+
+        @Override
+        public void sendControlMessage() {
+        }
+
+        @Override
+        public void forward(Message message) {
+        }
+
+        @Override
+        public void forward(Map<String, Serializable> messageHeaders, Message message) {
+        }
+    }
+
+}
@@ -51,6 +51,8 @@ public class Model extends AbstractNamedObject implements IAuditable {
 
     boolean deleted = false;
 
+    transient volatile ModelIndex index;
+
     public Model() {
         this.modelEntities = new ArrayList<ModelEntity>();
     }
@@ -99,27 +101,42 @@ public class Model extends AbstractNamedObject implements IAuditable {
     }
 
     public ModelEntity getEntityById(String entityId) {
-        for (ModelEntity entity : modelEntities) {
-            if (entity.getId().equalsIgnoreCase(entityId)) {
-                return entity;
+        ModelEntity entity = entityId != null ? getIndex().entitiesById.get(ModelIndex.toKey(entityId)) : null;
+        if (entity != null && entity.getId().equalsIgnoreCase(entityId)) {
+            return entity;
+        }
+        for (ModelEntity modelEntity : modelEntities) {
+            if (modelEntity.getId().equalsIgnoreCase(entityId)) {
+                index = null;
+                return modelEntity;
             }
         }
         return null;
     }
 
     public ModelEntity getEntityByName(String entityName) {
-        for (ModelEntity entity : modelEntities) {
-            if (entity.getName().equalsIgnoreCase(entityName)) {
-                return entity;
+        ModelEntity entity = entityName != null ? getIndex().entitiesByName.get(ModelIndex.toKey(entityName)) : null;
+        if (entity != null && entityName.equalsIgnoreCase(entity.getName())) {
+            return entity;
+        }
+        for (ModelEntity modelEntity : modelEntities) {
+            if (modelEntity.getName().equalsIgnoreCase(entityName)) {
+                index = null;
+                return modelEntity;
             }
         }
         return null;
     }
 
     public ModelAttribute getAttributeById(String attributeId) {
+        ModelAttribute attribute = attributeId != null ? getIndex().attributesById.get(ModelIndex.toKey(attributeId)) : null;
+        if (attribute != null && attribute.getId().equalsIgnoreCase(attributeId)) {
+            return attribute;
+        }
         for (ModelEntity entity : modelEntities) {
             for (ModelAttribute modelAttribute : entity.getModelAttributes()) {
                 if (modelAttribute.getId().equalsIgnoreCase(attributeId)) {
+                    index = null;
                     return modelAttribute;
                 }
             }
@@ -130,16 +147,22 @@ public class Model extends AbstractNamedObject implements IAuditable {
     public ModelAttribute getAttributeByName(String entityName, String attributeName) {
         ModelEntity entity = getEntityByName(entityName);
         if (entity != null) {
-            for (ModelAttribute modelAttribute : entity.getModelAttributes()) {
-                if (modelAttribute.getName().equalsIgnoreCase(attributeName)) {
-                    return modelAttribute;
-                }
-            }
+            return entity.getModelAttributeByName(attributeName);
         }
         return null;
     }
 
     public List<ModelAttribute> getAttributesByName(String attributeName) {
+        List<ModelAttribute> indexed = attributeName != null ? getIndex().attributesByName.get(ModelIndex.toKey(attributeName)) : null;
+        if (indexed != null) {
+            boolean current = true;
+            for (ModelAttribute modelAttribute : indexed) {
+                current &= attributeName.equalsIgnoreCase(modelAttribute.getName());
+            }
+            if (current) {
+                return new ArrayList<ModelAttribute>(indexed);
+            }
+        }
         List<ModelAttribute> attributes = new ArrayList<ModelAttribute>();
         for (ModelEntity entity : modelEntities) {
             for (ModelAttribute modelAttribute : entity.getModelAttributes()) {
@@ -148,9 +171,34 @@ public class Model extends AbstractNamedObject implements IAuditable {
                 }
             }
         }
+        if (attributes.size() > 0) {
+            index = null;
+        }
         return attributes;
     }
 
+    /**
+     * @return the attribute positions shared by rows stored against this
+     *         model
+     */
+    public ModelAttributeIndex getAttributeIndex() {
+        return getIndex().attributeIndex;
+    }
+
+    /**
+     * The lookups above try a hash index first and check the object they
+     * find. The index is rebuilt when entities or attributes are added or
+     * removed. It is also dropped when the scan fallback finds something the
+     * index missed, such as a renamed object, so the next lookup rebuilds it.
+     */
+    ModelIndex getIndex() {
+        ModelIndex index = this.index;
+        if (index == null || !index.isCurrent(modelEntities)) {
+            this.index = index = new ModelIndex(this);
+        }
+        return index;
+    }
+
     public List<ModelEntity> getModelEntities() {
         return modelEntities;
     }
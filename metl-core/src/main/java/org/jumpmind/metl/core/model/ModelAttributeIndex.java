@@ -0,0 +1,126 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each attribute of a {@link Model} a fixed position, in entity and
+ * attribute order. One index is built per model and shared by every row that
+ * is stored by position against it. The attributes of an entity take up a
+ * contiguous range of positions.
+ */
+public class ModelAttributeIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    final String[] attributeIds;
+
+    final Map<String, Integer> positionsById;
+
+    final Map<String, Integer> positionsByLowerCaseId;
+
+    final int[] entityStarts;
+
+    final int[] entityEnds;
+
+    public ModelAttributeIndex(Model model) {
+        List<String> ids = new ArrayList<String>();
+        List<Integer> starts = new ArrayList<Integer>();
+        List<Integer> ends = new ArrayList<Integer>();
+        for (ModelEntity entity : model.getModelEntities()) {
+            int start = ids.size();
+            int end = start + entity.getModelAttributes().size();
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                ids.add(attribute.getId());
+                starts.add(start);
+                ends.add(end);
+            }
+        }
+        this.attributeIds = ids.toArray(new String[ids.size()]);
+        this.entityStarts = new int[attributeIds.length];
+        this.entityEnds = new int[attributeIds.length];
+        for (int i = 0; i < attributeIds.length; i++) {
+            entityStarts[i] = starts.get(i);
+            entityEnds[i] = ends.get(i);
+        }
+        this.positionsById = new HashMap<String, Integer>(attributeIds.length * 2);
+        this.positionsByLowerCaseId = new HashMap<String, Integer>(attributeIds.length * 2);
+        for (int i = 0; i < attributeIds.length; i++) {
+            positionsById.put(attributeIds[i], i);
+            positionsByLowerCaseId.put(attributeIds[i].toLowerCase(), i);
+        }
+    }
+
+    /**
+     * @return the position of the attribute, matching the id case
+     *         insensitively, or -1 if the attribute is not in the model
+     */
+    public int indexOf(Object attributeId) {
+        if (attributeId instanceof String) {
+            Integer position = positionsById.get(attributeId);
+            if (position == null) {
+                position = positionsByLowerCaseId.get(((String) attributeId).toLowerCase());
+            }
+            if (position != null) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    public int[] indexOf(List<String> attributeIds) {
+        int[] positions = new int[attributeIds.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = indexOf(attributeIds.get(i));
+        }
+        return positions;
+    }
+
+    public String getAttributeId(int position) {
+        return attributeIds[position];
+    }
+
+    /**
+     * @return the first position of the entity of the attribute at the given
+     *         position
+     */
+    public int getEntityStart(int position) {
+        return entityStarts[position];
+    }
+
+    /**
+     * @return the position after the last attribute of the entity of the
+     *         attribute at the given position
+     */
+    public int getEntityEnd(int position) {
+        return entityEnds[position];
+    }
+
+    public int size() {
+        return attributeIds.length;
+    }
+
+}
@@ -21,7 +21,9 @@
 package org.jumpmind.metl.core.model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ModelEntity extends AbstractNamedObject implements IAuditable {
 
@@ -35,6 +37,12 @@ public class ModelEntity extends AbstractNamedObject implements IAuditable {
     
     String description;
 
+    transient volatile Map<String, ModelAttribute> attributesByName;
+
+    transient List<ModelAttribute> indexedModelAttributes;
+
+    transient int indexedAttributeCount;
+
     public ModelEntity() {
         modelAttributes = new ArrayList<ModelAttribute>();
     }
@@ -63,14 +71,34 @@ public class ModelEntity extends AbstractNamedObject implements IAuditable {
     }
 
     public ModelAttribute getModelAttributeByName(String name) {
+        ModelAttribute attribute = name != null ? getAttributesByName().get(ModelIndex.toKey(name)) : null;
+        if (attribute != null && name.equalsIgnoreCase(attribute.getName())) {
+            return attribute;
+        }
         for (ModelAttribute modelAttribute : modelAttributes) {
             if (modelAttribute.getName().equalsIgnoreCase(name)) {
+                attributesByName = null;
                 return modelAttribute;
             }
         }
         return null;
     }
 
+    Map<String, ModelAttribute> getAttributesByName() {
+        Map<String, ModelAttribute> attributesByName = this.attributesByName;
+        if (attributesByName == null || indexedModelAttributes != modelAttributes
+                || indexedAttributeCount != modelAttributes.size()) {
+            attributesByName = new HashMap<String, ModelAttribute>(modelAttributes.size() * 2);
+            for (ModelAttribute modelAttribute : modelAttributes) {
+                ModelIndex.putIfAbsent(attributesByName, modelAttribute.getName(), modelAttribute);
+            }
+            this.attributesByName = attributesByName;
+            indexedModelAttributes = modelAttributes;
+            indexedAttributeCount = modelAttributes.size();
+        }
+        return attributesByName;
+    }
+
     public String getModelId() {
         return modelId;
     }
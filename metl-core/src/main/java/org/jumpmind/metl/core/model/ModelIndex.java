@@ -0,0 +1,97 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash lookups of the entities and attributes of a {@link Model}, keyed in
+ * lower case. The index remembers the shape of the model it was built from so
+ * the model can tell when it needs to be rebuilt.
+ */
+class ModelIndex {
+
+    final List<ModelEntity> modelEntities;
+
+    final int entityCount;
+
+    final int attributeCount;
+
+    final Map<String, ModelEntity> entitiesById = new HashMap<String, ModelEntity>();
+
+    final Map<String, ModelEntity> entitiesByName = new HashMap<String, ModelEntity>();
+
+    final Map<String, ModelAttribute> attributesById = new HashMap<String, ModelAttribute>();
+
+    final Map<String, List<ModelAttribute>> attributesByName = new HashMap<String, List<ModelAttribute>>();
+
+    final ModelAttributeIndex attributeIndex;
+
+    ModelIndex(Model model) {
+        this.modelEntities = model.getModelEntities();
+        this.entityCount = modelEntities.size();
+        this.attributeCount = countAttributes(modelEntities);
+        for (ModelEntity entity : modelEntities) {
+            putIfAbsent(entitiesById, entity.getId(), entity);
+            putIfAbsent(entitiesByName, entity.getName(), entity);
+            for (ModelAttribute attribute : entity.getModelAttributes()) {
+                putIfAbsent(attributesById, attribute.getId(), attribute);
+                if (attribute.getName() != null) {
+                    String name = toKey(attribute.getName());
+                    List<ModelAttribute> attributes = attributesByName.get(name);
+                    if (attributes == null) {
+                        attributes = new ArrayList<ModelAttribute>(1);
+                        attributesByName.put(name, attributes);
+                    }
+                    attributes.add(attribute);
+                }
+            }
+        }
+        this.attributeIndex = new ModelAttributeIndex(model);
+    }
+
+    boolean isCurrent(List<ModelEntity> modelEntities) {
+        return this.modelEntities == modelEntities && entityCount == modelEntities.size()
+                && attributeCount == countAttributes(modelEntities);
+    }
+
+    static int countAttributes(List<ModelEntity> modelEntities) {
+        int count = 0;
+        for (ModelEntity entity : modelEntities) {
+            count += entity.getModelAttributes().size();
+        }
+        return count;
+    }
+
+    static String toKey(String value) {
+        return value != null ? value.toLowerCase() : null;
+    }
+
+    static <T> void putIfAbsent(Map<String, T> map, String key, T value) {
+        if (key != null) {
+            map.putIfAbsent(toKey(key), value);
+        }
+    }
+
+}
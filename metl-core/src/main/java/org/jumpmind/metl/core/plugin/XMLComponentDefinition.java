@@ -95,6 +95,20 @@ public class XMLComponentDefinition extends XMLAbstractDefinition {
     @XmlAttribute(required = false)
     protected boolean supportsMultipleThreads;
 
+    /**
+     * Set when the component never touches a payload again after it has been
+     * sent, so the runtime can hand it to the target step without copying it.
+     */
+    @XmlAttribute(required = false)
+    protected boolean transferPayloadOwnership;
+
+    /**
+     * Set when a multi-threaded step must have handled every message queued
+     * ahead of a control message before it handles the control message.
+     */
+    @XmlAttribute(required = false)
+    protected boolean waitForThreadsBeforeControlMessages;
+
     @XmlAttribute(required = false)
     protected boolean inputOutputModelsMatch;
 
@@ -177,6 +191,22 @@ public class XMLComponentDefinition extends XMLAbstractDefinition {
         this.supportsMultipleThreads = supportsMultipleThreads;
     }
 
+    public boolean isTransferPayloadOwnership() {
+        return transferPayloadOwnership;
+    }
+
+    public void setTransferPayloadOwnership(boolean transferPayloadOwnership) {
+        this.transferPayloadOwnership = transferPayloadOwnership;
+    }
+
+    public boolean isWaitForThreadsBeforeControlMessages() {
+        return waitForThreadsBeforeControlMessages;
+    }
+
+    public void setWaitForThreadsBeforeControlMessages(boolean waitForThreadsBeforeControlMessages) {
+        this.waitForThreadsBeforeControlMessages = waitForThreadsBeforeControlMessages;
+    }
+
     public void setFlowManipulatorClassName(String flowManipulatorClassName) {
         this.flowManipulatorClassName = flowManipulatorClassName;
     }
@@ -63,6 +63,7 @@ import org.jumpmind.metl.core.plugin.XMLComponentDefinition;
 import org.jumpmind.metl.core.plugin.XMLResourceDefinition;
 import org.jumpmind.metl.core.runtime.component.IComponentDeploymentListener;
 import org.jumpmind.metl.core.runtime.component.IComponentRuntimeFactory;
+import org.jumpmind.metl.core.runtime.component.LookupCache;
 import org.jumpmind.metl.core.runtime.component.Results;
 import org.jumpmind.metl.core.runtime.flow.FlowRuntime;
 import org.jumpmind.metl.core.runtime.resource.IResourceRuntime;
@@ -247,6 +248,8 @@ public class AgentRuntime {
             
             deployedResources.clear();
 
+            LookupCache.invalidateAll(agent.getId());
+
             log.info("Agent '{}' has been stopped", agent);
         }
     }
@@ -0,0 +1,114 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.DataType;
+import org.jumpmind.metl.core.model.ModelAttribute;
+
+/**
+ * Orders rows by a list of attributes. Values are compared by the
+ * attribute's data type rather than by their string form, so numeric
+ * attributes that arrive as text still sort numerically. Nulls sort first.
+ */
+public class AttributeComparator implements Comparator<EntityData> {
+
+    final String[] attributeIds;
+
+    final DataType[] dataTypes;
+
+    public AttributeComparator(List<ModelAttribute> attributes) {
+        this.attributeIds = new String[attributes.size()];
+        this.dataTypes = new DataType[attributes.size()];
+        for (int i = 0; i < attributes.size(); i++) {
+            ModelAttribute attribute = attributes.get(i);
+            attributeIds[i] = attribute.getId();
+            dataTypes[i] = attribute.getDataType();
+        }
+    }
+
+    public AttributeComparator(ModelAttribute... attributes) {
+        this(Arrays.asList(attributes));
+    }
+
+    @Override
+    public int compare(EntityData o1, EntityData o2) {
+        for (int i = 0; i < attributeIds.length; i++) {
+            int compare = compare(o1.get(attributeIds[i]), o2.get(attributeIds[i]), dataTypes[i]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static int compare(Object obj1, Object obj2, DataType dataType) {
+        if (obj1 == obj2) {
+            return 0;
+        } else if (obj1 == null) {
+            return -1;
+        } else if (obj2 == null) {
+            return 1;
+        }
+
+        if (obj1 instanceof Number && obj2 instanceof Number || (dataType != null && dataType.isNumeric())) {
+            BigDecimal number1 = toBigDecimal(obj1);
+            BigDecimal number2 = toBigDecimal(obj2);
+            if (number1 != null && number2 != null) {
+                return number1.compareTo(number2);
+            }
+        }
+
+        if (obj1 instanceof Date && obj2 instanceof Date) {
+            return Long.compare(((Date) obj1).getTime(), ((Date) obj2).getTime());
+        } else if (obj1 instanceof Comparable && obj1.getClass().equals(obj2.getClass())) {
+            return ((Comparable) obj1).compareTo(obj2);
+        } else {
+            return obj1.toString().compareTo(obj2.toString());
+        }
+    }
+
+    static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        } else if ((value instanceof Double || value instanceof Float) && !Double.isNaN(((Number) value).doubleValue())
+                && !Double.isInfinite(((Number) value).doubleValue())) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        } else if (value instanceof Number || value instanceof String) {
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+    }
+
+}
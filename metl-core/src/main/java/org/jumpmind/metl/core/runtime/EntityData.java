@@ -20,6 +20,7 @@
  */
 package org.jumpmind.metl.core.runtime;
 
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
 import org.jumpmind.metl.core.util.NameValue;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
 
@@ -44,6 +45,19 @@ public class EntityData extends LinkedCaseInsensitiveMap<Object> {
         }
     }
 
+    /**
+     * Looks up the attribute at the given position of a model's attribute
+     * index. Rows that are stored against the same index read the value
+     * directly by position.
+     */
+    public Object get(ModelAttributeIndex index, int position) {
+        return get(index.getAttributeId(position));
+    }
+
+    public void put(ModelAttributeIndex index, int position, Object value) {
+        put(index.getAttributeId(position), value);
+    }
+
     public EntityData copy() {
         return (EntityData) this.clone();
     }
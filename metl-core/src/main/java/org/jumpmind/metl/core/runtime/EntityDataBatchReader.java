@@ -0,0 +1,199 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import static org.jumpmind.metl.core.runtime.EntityDataBatchWriter.*;
+import static org.jumpmind.metl.core.runtime.EntityDataSpillReader.readBytes;
+import static org.jumpmind.metl.core.runtime.EntityDataSpillReader.readString;
+import static org.jumpmind.metl.core.runtime.EntityDataSpillReader.readValue;
+import static org.jumpmind.metl.core.runtime.EntityDataSpillWriter.BUFFER_SIZE;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.exception.IoException;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+
+/**
+ * Reads back the batches written by an {@link EntityDataBatchWriter}, either
+ * one row at a time from a stream or a whole batch at once. When a
+ * {@link ModelAttributeIndex} is given the rows are created as
+ * {@link IndexedEntityData} and each column's position is looked up once per
+ * batch.
+ */
+public class EntityDataBatchReader implements Closeable {
+
+    static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+
+    final ModelAttributeIndex index;
+
+    final DataInputStream in;
+
+    List<EntityData> batch;
+
+    int position;
+
+    public EntityDataBatchReader(File file, ModelAttributeIndex index) throws IOException {
+        this(new FileInputStream(file), index);
+    }
+
+    public EntityDataBatchReader(InputStream in, ModelAttributeIndex index) {
+        this.index = index;
+        this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    }
+
+    /**
+     * @return the next row or null once every row has been read
+     */
+    public EntityData read() throws IOException {
+        while (batch == null || position >= batch.size()) {
+            int version = in.read();
+            if (version < 0) {
+                batch = null;
+                return null;
+            }
+            batch = readBatch(in, version, index);
+            position = 0;
+        }
+        EntityData data = batch.get(position);
+        batch.set(position++, null);
+        return data;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public static ArrayList<EntityData> fromBytes(byte[] bytes) {
+        try {
+            return readBatch(new DataInputStream(new ByteArrayInputStream(bytes)), null);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    public static ArrayList<EntityData> readBatch(DataInput in, ModelAttributeIndex index) throws IOException {
+        return readBatch(in, in.readUnsignedByte(), index);
+    }
+
+    static ArrayList<EntityData> readBatch(DataInput in, int version, ModelAttributeIndex index) throws IOException {
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported batch format version " + version);
+        }
+        int rowCount = in.readInt();
+        ArrayList<EntityData> rows = new ArrayList<EntityData>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(index != null ? new IndexedEntityData(index) : new EntityData());
+        }
+
+        if (!in.readBoolean()) {
+            for (EntityData data : rows) {
+                data.setChangeType(CHANGE_TYPES[in.readByte()]);
+            }
+        }
+
+        String[] attributeIds = new String[in.readInt()];
+        for (int i = 0; i < attributeIds.length; i++) {
+            attributeIds[i] = readString(in);
+        }
+
+        byte[] valueBits = new byte[(rowCount + 7) / 8];
+        byte[] nullBits = new byte[valueBits.length];
+        for (String attributeId : attributeIds) {
+            byte type = in.readByte();
+            boolean allValues = in.readBoolean();
+            if (!allValues) {
+                in.readFully(valueBits);
+                in.readFully(nullBits);
+            }
+
+            String[] dictionary = null;
+            if (type == COLUMN_DICTIONARY) {
+                dictionary = new String[in.readInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = readString(in);
+                }
+            }
+
+            int attributePosition = index != null ? index.indexOf(attributeId) : -1;
+            for (int i = 0; i < rowCount; i++) {
+                boolean hasValue = allValues || (valueBits[i >> 3] & (1 << (i & 7))) != 0;
+                if (hasValue || (nullBits[i >> 3] & (1 << (i & 7))) != 0) {
+                    Object value = hasValue ? readColumnValue(in, type, dictionary) : null;
+                    EntityData data = rows.get(i);
+                    if (attributePosition >= 0) {
+                        data.put(index, attributePosition, value);
+                    } else {
+                        data.put(attributeId, value);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    static Object readColumnValue(DataInput in, byte type, String[] dictionary) throws IOException {
+        switch (type) {
+            case COLUMN_STRING:
+                return readString(in);
+            case COLUMN_DICTIONARY:
+                if (dictionary.length <= 256) {
+                    return dictionary[in.readUnsignedByte()];
+                } else if (dictionary.length <= 65536) {
+                    return dictionary[in.readUnsignedShort()];
+                } else {
+                    return dictionary[in.readInt()];
+                }
+            case COLUMN_INTEGER:
+                return in.readInt();
+            case COLUMN_LONG:
+                return in.readLong();
+            case COLUMN_DOUBLE:
+                return in.readDouble();
+            case COLUMN_BOOLEAN:
+                return in.readBoolean();
+            case COLUMN_BIG_DECIMAL:
+                int scale = in.readInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case COLUMN_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            default:
+                return readValue(in);
+        }
+    }
+
+}
@@ -0,0 +1,304 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import static org.jumpmind.metl.core.runtime.EntityDataSpillWriter.BUFFER_SIZE;
+import static org.jumpmind.metl.core.runtime.EntityDataSpillWriter.writeString;
+import static org.jumpmind.metl.core.runtime.EntityDataSpillWriter.writeValue;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.exception.IoException;
+import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+
+/**
+ * Writes rows in a compact columnar batch format. Each batch starts with the
+ * attribute ids of its columns, followed by one vector per column: bitmaps
+ * for missing and null values, then the values themselves. A column whose
+ * values all have the same type is written without per value type tags.
+ * String columns with repeating values are dictionary encoded.
+ * <p>
+ * Batches can be written one after another to a file, as a spill format
+ * read back with {@link EntityDataBatchReader}. {@link #toBytes(List)} encodes
+ * a single batch in memory, as used when an {@link EntityDataMessage} is
+ * serialized.
+ */
+public class EntityDataBatchWriter implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    static final byte FORMAT_VERSION = 1;
+
+    static final byte COLUMN_MIXED = 0;
+    static final byte COLUMN_STRING = 1;
+    static final byte COLUMN_DICTIONARY = 2;
+    static final byte COLUMN_INTEGER = 3;
+    static final byte COLUMN_LONG = 4;
+    static final byte COLUMN_DOUBLE = 5;
+    static final byte COLUMN_BOOLEAN = 6;
+    static final byte COLUMN_BIG_DECIMAL = 7;
+    static final byte COLUMN_TIMESTAMP = 8;
+
+    static final Map<Class<?>, Byte> COLUMN_TYPES = new HashMap<Class<?>, Byte>();
+
+    static {
+        COLUMN_TYPES.put(String.class, COLUMN_STRING);
+        COLUMN_TYPES.put(Integer.class, COLUMN_INTEGER);
+        COLUMN_TYPES.put(Long.class, COLUMN_LONG);
+        COLUMN_TYPES.put(Double.class, COLUMN_DOUBLE);
+        COLUMN_TYPES.put(Boolean.class, COLUMN_BOOLEAN);
+        COLUMN_TYPES.put(BigDecimal.class, COLUMN_BIG_DECIMAL);
+        COLUMN_TYPES.put(Timestamp.class, COLUMN_TIMESTAMP);
+    }
+
+    final DataOutputStream out;
+
+    final int batchSize;
+
+    List<EntityData> batch;
+
+    long rowCount;
+
+    public EntityDataBatchWriter(File file) throws IOException {
+        this(new FileOutputStream(file), DEFAULT_BATCH_SIZE);
+    }
+
+    public EntityDataBatchWriter(OutputStream out, int batchSize) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        this.batchSize = Math.max(1, batchSize);
+        this.batch = new ArrayList<EntityData>(this.batchSize);
+    }
+
+    public void write(EntityData data) throws IOException {
+        batch.add(data);
+        rowCount++;
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the rows that have been buffered so far as a batch
+     */
+    public void flush() throws IOException {
+        if (batch.size() > 0) {
+            writeBatch(out, batch);
+            batch = new ArrayList<EntityData>(batchSize);
+        }
+        out.flush();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    public static byte[] toBytes(List<EntityData> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeBatch(out, rows);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void writeBatch(DataOutput out, List<EntityData> rows) throws IOException {
+        int rowCount = rows.size();
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(rowCount);
+
+        boolean allAdds = true;
+        for (EntityData data : rows) {
+            allAdds &= data.getChangeType() == ChangeType.ADD;
+        }
+        out.writeBoolean(allAdds);
+        if (!allAdds) {
+            for (EntityData data : rows) {
+                out.writeByte(data.getChangeType().ordinal());
+            }
+        }
+
+        Map<String, Integer> columns = new LinkedHashMap<String, Integer>();
+        for (EntityData data : rows) {
+            for (String attributeId : data.keySet()) {
+                if (!columns.containsKey(attributeId)) {
+                    columns.put(attributeId, columns.size());
+                }
+            }
+        }
+        out.writeInt(columns.size());
+        for (String attributeId : columns.keySet()) {
+            writeString(out, attributeId);
+        }
+
+        Object[] values = new Object[rowCount];
+        byte[] valueBits = new byte[(rowCount + 7) / 8];
+        byte[] nullBits = new byte[valueBits.length];
+        for (String attributeId : columns.keySet()) {
+            int valueCount = 0;
+            for (int i = 0; i < rowCount; i++) {
+                EntityData data = rows.get(i);
+                Object value = data.get(attributeId);
+                if (value != null) {
+                    values[valueCount++] = value;
+                    valueBits[i >> 3] |= 1 << (i & 7);
+                } else if (data.containsKey(attributeId)) {
+                    nullBits[i >> 3] |= 1 << (i & 7);
+                }
+            }
+
+            writeColumn(out, values, valueCount, valueCount == rowCount ? null : valueBits, nullBits);
+
+            Arrays.fill(values, 0, valueCount, null);
+            Arrays.fill(valueBits, (byte) 0);
+            Arrays.fill(nullBits, (byte) 0);
+        }
+    }
+
+    static void writeColumn(DataOutput out, Object[] values, int valueCount, byte[] valueBits, byte[] nullBits)
+            throws IOException {
+        byte type = getColumnType(values, valueCount);
+        Map<String, Integer> dictionary = null;
+        if (type == COLUMN_STRING) {
+            dictionary = new LinkedHashMap<String, Integer>();
+            for (int i = 0; i < valueCount && dictionary.size() <= valueCount / 2; i++) {
+                if (!dictionary.containsKey(values[i])) {
+                    dictionary.put((String) values[i], dictionary.size());
+                }
+            }
+            if (dictionary.size() <= valueCount / 2) {
+                type = COLUMN_DICTIONARY;
+            }
+        }
+
+        out.writeByte(type);
+        out.writeBoolean(valueBits == null);
+        if (valueBits != null) {
+            out.write(valueBits);
+            out.write(nullBits);
+        }
+
+        switch (type) {
+            case COLUMN_STRING:
+                for (int i = 0; i < valueCount; i++) {
+                    writeString(out, (String) values[i]);
+                }
+                break;
+            case COLUMN_DICTIONARY:
+                out.writeInt(dictionary.size());
+                for (String value : dictionary.keySet()) {
+                    writeString(out, value);
+                }
+                for (int i = 0; i < valueCount; i++) {
+                    int code = dictionary.get(values[i]);
+                    if (dictionary.size() <= 256) {
+                        out.writeByte(code);
+                    } else if (dictionary.size() <= 65536) {
+                        out.writeShort(code);
+                    } else {
+                        out.writeInt(code);
+                    }
+                }
+                break;
+            case COLUMN_INTEGER:
+                for (int i = 0; i < valueCount; i++) {
+                    out.writeInt((Integer) values[i]);
+                }
+                break;
+            case COLUMN_LONG:
+                for (int i = 0; i < valueCount; i++) {
+                    out.writeLong((Long) values[i]);
+                }
+                break;
+            case COLUMN_DOUBLE:
+                for (int i = 0; i < valueCount; i++) {
+                    out.writeDouble((Double) values[i]);
+                }
+                break;
+            case COLUMN_BOOLEAN:
+                for (int i = 0; i < valueCount; i++) {
+                    out.writeBoolean((Boolean) values[i]);
+                }
+                break;
+            case COLUMN_BIG_DECIMAL:
+                for (int i = 0; i < valueCount; i++) {
+                    BigDecimal decimal = (BigDecimal) values[i];
+                    out.writeInt(decimal.scale());
+                    byte[] unscaled = decimal.unscaledValue().toByteArray();
+                    out.writeInt(unscaled.length);
+                    out.write(unscaled);
+                }
+                break;
+            case COLUMN_TIMESTAMP:
+                for (int i = 0; i < valueCount; i++) {
+                    out.writeLong(((Timestamp) values[i]).getTime());
+                    out.writeInt(((Timestamp) values[i]).getNanos());
+                }
+                break;
+            default:
+                for (int i = 0; i < valueCount; i++) {
+                    writeValue(out, values[i]);
+                }
+                break;
+        }
+    }
+
+    /**
+     * @return the typed encoding when every value has the same class and one
+     *         exists for it, otherwise {@link #COLUMN_MIXED}
+     */
+    static byte getColumnType(Object[] values, int valueCount) {
+        if (valueCount == 0) {
+            return COLUMN_MIXED;
+        }
+        Class<?> type = values[0].getClass();
+        for (int i = 1; i < valueCount; i++) {
+            if (values[i].getClass() != type) {
+                return COLUMN_MIXED;
+            }
+        }
+        Byte columnType = COLUMN_TYPES.get(type);
+        return columnType != null ? columnType : COLUMN_MIXED;
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.jumpmind.metl.core.runtime;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
 public class EntityDataMessage extends ContentMessage<ArrayList<EntityData>> {
@@ -14,4 +15,38 @@ public class EntityDataMessage extends ContentMessage<ArrayList<EntityData>> {
         super(originatingStepId, payload);
     }
 
+    /**
+     * Serializes the rows as one columnar batch, see
+     * {@link EntityDataBatchWriter}, instead of as individual maps. Messages
+     * passed between steps in memory keep their rows as they are.
+     */
+    private Object writeReplace() {
+        return new SerializedForm(this);
+    }
+
+    static class SerializedForm implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        MessageHeader header;
+
+        byte[] rows;
+
+        SerializedForm(EntityDataMessage message) {
+            this.header = message.getHeader();
+            if (message.getPayload() != null) {
+                this.rows = EntityDataBatchWriter.toBytes(message.getPayload());
+            }
+        }
+
+        private Object readResolve() {
+            EntityDataMessage message = new EntityDataMessage(header.getOriginatingStepId());
+            message.header = header;
+            if (rows != null) {
+                message.setPayload(EntityDataBatchReader.fromBytes(rows));
+            }
+            return message;
+        }
+    }
+
 }
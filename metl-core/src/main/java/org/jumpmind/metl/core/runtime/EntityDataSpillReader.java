@@ -0,0 +1,148 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import static org.jumpmind.metl.core.runtime.EntityDataSpillWriter.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+
+/**
+ * Reads back the rows written by an {@link EntityDataSpillWriter} in the
+ * order they were written.
+ */
+public class EntityDataSpillReader implements Closeable {
+
+    static final ChangeType[] CHANGE_TYPES = ChangeType.values();
+
+    final ModelAttributeIndex index;
+
+    final DataInputStream in;
+
+    public EntityDataSpillReader(File file, ModelAttributeIndex index) throws IOException {
+        this.index = index;
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+    }
+
+    /**
+     * @return the next row or null once every row has been read
+     */
+    public EntityData read() throws IOException {
+        int changeType = in.read();
+        if (changeType < 0) {
+            return null;
+        }
+        IndexedEntityData data = new IndexedEntityData(index);
+        data.setChangeType(CHANGE_TYPES[changeType]);
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            int position = in.readInt();
+            if (position < 0) {
+                data.put(readString(in), readValue(in));
+            } else {
+                data.put(index, position, readValue(in));
+            }
+        }
+        return data;
+    }
+
+    public DataInput getInput() {
+        return in;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public static Object readValue(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BIG_DECIMAL:
+                int scale = in.readInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case TIME:
+                return new Time(in.readLong());
+            case DATE:
+                return new Date(in.readLong());
+            case BYTES:
+                return readBytes(in);
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case SHORT:
+                return in.readShort();
+            case SERIALIZED:
+                try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    return objectIn.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new IOException("Unexpected value type " + type);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return new String(readBytes(in), UTF8);
+    }
+
+    static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Map;
+
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+
+/**
+ * Writes rows to a compact binary file so components can spill data that
+ * doesn't fit in memory. Attributes are written by their position in the
+ * model's {@link ModelAttributeIndex} and values with a one byte type tag,
+ * so rows read back with {@link EntityDataSpillReader} keep their java
+ * types.
+ */
+public class EntityDataSpillWriter implements Closeable {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INTEGER = 2;
+    static final byte LONG = 3;
+    static final byte BIG_DECIMAL = 4;
+    static final byte DOUBLE = 5;
+    static final byte FLOAT = 6;
+    static final byte BOOLEAN = 7;
+    static final byte TIMESTAMP = 8;
+    static final byte SQL_DATE = 9;
+    static final byte TIME = 10;
+    static final byte DATE = 11;
+    static final byte BYTES = 12;
+    static final byte BIG_INTEGER = 13;
+    static final byte SHORT = 14;
+    static final byte SERIALIZED = 99;
+
+    final File file;
+
+    final ModelAttributeIndex index;
+
+    final DataOutputStream out;
+
+    long rowCount;
+
+    public EntityDataSpillWriter(File file, ModelAttributeIndex index) throws IOException {
+        this.file = file;
+        this.index = index;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    }
+
+    public void write(EntityData data) throws IOException {
+        out.writeByte(data.getChangeType().ordinal());
+        out.writeInt(data.size());
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            int position = index.indexOf(entry.getKey());
+            out.writeInt(position);
+            if (position < 0) {
+                writeString(out, entry.getKey());
+            }
+            writeValue(out, entry.getValue());
+        }
+        rowCount++;
+    }
+
+    /**
+     * Lets a caller write its own fields after a row, for example a sequence
+     * number that has to travel with it
+     */
+    public DataOutput getOutput() {
+        return out;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    public static void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeByte(BIG_DECIMAL);
+            out.writeInt(decimal.scale());
+            writeBytes(out, decimal.unscaledValue().toByteArray());
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(TIME);
+            out.writeLong(((Date) value).getTime());
+        } else if (value.getClass().equals(Date.class)) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+                objectOut.writeObject(value);
+            }
+            out.writeByte(SERIALIZED);
+            writeBytes(out, bytes.toByteArray());
+        }
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        writeBytes(out, value.getBytes(UTF8));
+    }
+
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+}
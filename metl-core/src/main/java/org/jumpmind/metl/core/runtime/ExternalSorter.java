@@ -0,0 +1,318 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.jumpmind.exception.IoException;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+
+/**
+ * Sorts an unbounded number of rows. Rows are collected in memory until
+ * either the row or the byte budget is reached, then the run is sorted and
+ * spilled to a temporary file. Once every row has been added the spilled runs
+ * are k-way merged, at most {@link #MAX_MERGE_FAN_IN} at a time, so only that
+ * many run files are open at once. The sort is stable, rows that compare
+ * equal come out in the order they were added. Runs are stored in the columnar format of
+ * {@link EntityDataBatchWriter}.
+ */
+public class ExternalSorter implements Closeable {
+
+    /*
+     * every run keeps one decoded batch in memory while merging, so runs are
+     * written in small batches
+     */
+    static final int SPILL_BATCH_SIZE = 256;
+
+    /*
+     * the most runs merged at once. With more runs than this, consecutive
+     * runs are merged into longer ones first.
+     */
+    public static final int MAX_MERGE_FAN_IN = 64;
+
+    final ModelAttributeIndex index;
+
+    final Comparator<EntityData> comparator;
+
+    final int maxRowsInMemory;
+
+    final long maxBytesInMemory;
+
+    final File tempDirectory;
+
+    int maxMergeFanIn = MAX_MERGE_FAN_IN;
+
+    List<EntityData> rows = new ArrayList<EntityData>();
+
+    long bytesInMemory;
+
+    List<File> runs = new ArrayList<File>();
+
+    List<EntityDataBatchReader> readers = new ArrayList<EntityDataBatchReader>();
+
+    long rowCount;
+
+    public ExternalSorter(ModelAttributeIndex index, Comparator<EntityData> comparator, int maxRowsInMemory, long maxBytesInMemory,
+            File tempDirectory) {
+        this.index = index;
+        this.comparator = comparator;
+        this.maxRowsInMemory = Math.max(1, maxRowsInMemory);
+        this.maxBytesInMemory = maxBytesInMemory;
+        this.tempDirectory = tempDirectory;
+    }
+
+    public void add(EntityData data) {
+        rows.add(data);
+        rowCount++;
+        bytesInMemory += estimateSize(data);
+        if (rows.size() >= maxRowsInMemory || (maxBytesInMemory > 0 && bytesInMemory >= maxBytesInMemory)) {
+            spill();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    public void setMaxMergeFanIn(int maxMergeFanIn) {
+        this.maxMergeFanIn = Math.max(2, maxMergeFanIn);
+    }
+
+    /**
+     * @return the rows that were added in sorted order. The sorter should be
+     *         closed after the rows have been consumed.
+     */
+    public Iterator<EntityData> iterator() {
+        Collections.sort(rows, comparator);
+        if (runs.size() == 0) {
+            List<EntityData> sorted = rows;
+            rows = new ArrayList<EntityData>();
+            bytesInMemory = 0;
+            return sorted.iterator();
+        }
+        spill();
+        while (runs.size() > maxMergeFanIn) {
+            mergePass();
+        }
+        return new MergeIterator();
+    }
+
+    /**
+     * Merges each group of {@link #maxMergeFanIn} consecutive runs into one
+     * run. Groups stay in the order they were spilled, so the sort stays
+     * stable.
+     */
+    protected void mergePass() {
+        List<File> merged = new ArrayList<File>();
+        try {
+            for (int i = 0; i < runs.size(); i += maxMergeFanIn) {
+                List<File> group = runs.subList(i, Math.min(i + maxMergeFanIn, runs.size()));
+                merged.add(group.size() == 1 ? group.get(0) : merge(group));
+            }
+        } finally {
+            for (File file : runs) {
+                if (!merged.contains(file) && !file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+            runs = merged;
+        }
+    }
+
+    protected File merge(List<File> group) {
+        List<EntityDataBatchReader> groupReaders = new ArrayList<EntityDataBatchReader>();
+        File file = null;
+        boolean merged = false;
+        try {
+            file = File.createTempFile("metl-sort", ".run", tempDirectory);
+            try (EntityDataBatchWriter writer = new EntityDataBatchWriter(new FileOutputStream(file), SPILL_BATCH_SIZE)) {
+                PriorityQueue<Run> queue = open(group, groupReaders);
+                while (queue.size() > 0) {
+                    Run run = queue.poll();
+                    writer.write(run.head);
+                    run.head = run.reader.read();
+                    if (run.head != null) {
+                        queue.add(run);
+                    }
+                }
+            }
+            merged = true;
+            return file;
+        } catch (IOException e) {
+            throw new IoException(e);
+        } finally {
+            close(groupReaders);
+            if (!merged && file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Opens a reader on each run and queues the runs that have rows by their
+     * first row
+     */
+    protected PriorityQueue<Run> open(List<File> files, List<EntityDataBatchReader> openReaders) throws IOException {
+        PriorityQueue<Run> queue = new PriorityQueue<Run>();
+        for (int i = 0; i < files.size(); i++) {
+            EntityDataBatchReader reader = new EntityDataBatchReader(files.get(i), index);
+            openReaders.add(reader);
+            Run run = new Run(i, reader);
+            if (run.head != null) {
+                queue.add(run);
+            }
+        }
+        return queue;
+    }
+
+    protected void close(List<EntityDataBatchReader> openReaders) {
+        for (EntityDataBatchReader reader : openReaders) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+            }
+        }
+        openReaders.clear();
+    }
+
+    protected void spill() {
+        if (rows.size() > 0) {
+            Collections.sort(rows, comparator);
+            try {
+                File file = File.createTempFile("metl-sort", ".run", tempDirectory);
+                runs.add(file);
+                try (EntityDataBatchWriter writer = new EntityDataBatchWriter(new FileOutputStream(file), SPILL_BATCH_SIZE)) {
+                    for (EntityData data : rows) {
+                        writer.write(data);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+            rows = new ArrayList<EntityData>();
+            bytesInMemory = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        close(readers);
+        for (File file : runs) {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+        runs.clear();
+        rows = new ArrayList<EntityData>();
+        bytesInMemory = 0;
+        rowCount = 0;
+    }
+
+    /**
+     * A rough estimate of the heap a row occupies. It only needs to be good
+     * enough to keep a run inside its byte budget.
+     */
+    public static long estimateSize(EntityData data) {
+        long size = 64;
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            size += 48;
+            Object value = entry.getValue();
+            if (value instanceof String) {
+                size += 40 + ((String) value).length() * 2;
+            } else if (value instanceof byte[]) {
+                size += 16 + ((byte[]) value).length;
+            } else if (value != null) {
+                size += 24;
+            }
+        }
+        return size;
+    }
+
+    class Run implements Comparable<Run> {
+        final int number;
+        final EntityDataBatchReader reader;
+        EntityData head;
+
+        Run(int number, EntityDataBatchReader reader) throws IOException {
+            this.number = number;
+            this.reader = reader;
+            this.head = reader.read();
+        }
+
+        @Override
+        public int compareTo(Run o) {
+            int compare = comparator.compare(head, o.head);
+            return compare != 0 ? compare : Integer.compare(number, o.number);
+        }
+    }
+
+    class MergeIterator implements Iterator<EntityData> {
+
+        PriorityQueue<Run> queue;
+
+        MergeIterator() {
+            try {
+                queue = open(runs, readers);
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return queue.size() > 0;
+        }
+
+        @Override
+        public EntityData next() {
+            Run run = queue.poll();
+            if (run == null) {
+                throw new NoSuchElementException();
+            }
+            EntityData next = run.head;
+            try {
+                run.head = run.reader.read();
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+            if (run.head != null) {
+                queue.add(run);
+            }
+            return next;
+        }
+    }
+
+}
@@ -0,0 +1,538 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+
+/**
+ * An {@link EntityData} that stores the values of model attributes in an
+ * array ordered by the model's shared {@link ModelAttributeIndex}, instead of
+ * in hash entries keyed by attribute id. It still behaves as a case
+ * insensitive map keyed by attribute id so scripts and components that treat
+ * rows as maps keep working. Keys that are not attributes of the model are
+ * kept in the underlying map, which does not allocate its tables until the
+ * first such key is put.
+ * <p>
+ * The array only covers the entities whose attributes have been set. A row
+ * of one entity of a model with many entities holds one slot per attribute
+ * of that entity, and the array grows when an attribute of another entity is
+ * set. An empty slot is an attribute that is not set, and an attribute set
+ * to null holds {@link Null#VALUE}.
+ */
+public class IndexedEntityData extends EntityData {
+
+    private static final long serialVersionUID = 1L;
+
+    static final Object[] EMPTY = new Object[0];
+
+    enum Null {
+        VALUE
+    }
+
+    final ModelAttributeIndex index;
+
+    Object[] values = EMPTY;
+
+    int offset;
+
+    int indexedSize;
+
+    public IndexedEntityData(ModelAttributeIndex index) {
+        this.index = index;
+    }
+
+    public ModelAttributeIndex getAttributeIndex() {
+        return index;
+    }
+
+    @Override
+    public Object get(ModelAttributeIndex index, int position) {
+        if (index == this.index) {
+            return value(position);
+        } else {
+            return super.get(index, position);
+        }
+    }
+
+    @Override
+    public void put(ModelAttributeIndex index, int position, Object value) {
+        if (index == this.index) {
+            set(position, value);
+        } else {
+            super.put(index, position, value);
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        int position = index.indexOf(key);
+        if (position >= 0) {
+            return value(position);
+        } else {
+            return super.get(key);
+        }
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        return containsKey(key) ? get(key) : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int position = index.indexOf(key);
+        if (position >= 0) {
+            return isSet(position);
+        } else {
+            return super.containsKey(key);
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object slot : values) {
+            if (slot != null && Objects.equals(slot == Null.VALUE ? null : slot, value)) {
+                return true;
+            }
+        }
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int position = index.indexOf(key);
+        if (position >= 0) {
+            return set(position, value);
+        } else {
+            return super.put(key, value);
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> map) {
+        for (Map.Entry<? extends String, ? extends Object> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Object oldValue = get(key);
+        if (oldValue == null) {
+            put(key, value);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int position = index.indexOf(key);
+        if (position >= 0) {
+            return unset(position);
+        } else {
+            return super.remove(key);
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (containsKey(key) && Objects.equals(get(key), value)) {
+            remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        if (containsKey(key) && Objects.equals(get(key), oldValue)) {
+            put(key, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        return containsKey(key) ? put(key, value) : null;
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+        Object value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        Object oldValue = get(key);
+        if (oldValue != null) {
+            Object value = remappingFunction.apply(key, oldValue);
+            if (value != null) {
+                put(key, value);
+            } else {
+                remove(key);
+            }
+            return value;
+        }
+        return null;
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        Object value = remappingFunction.apply(key, get(key));
+        if (value != null) {
+            put(key, value);
+        } else {
+            remove(key);
+        }
+        return value;
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+        Object oldValue = get(key);
+        Object newValue = oldValue == null ? value : remappingFunction.apply(oldValue, value);
+        if (newValue != null) {
+            put(key, newValue);
+        } else {
+            remove(key);
+        }
+        return newValue;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (Map.Entry<String, Object> entry : entrySet()) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+        for (Map.Entry<String, Object> entry : entrySet()) {
+            entry.setValue(function.apply(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    @Override
+    public int size() {
+        return indexedSize + super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        indexedSize = 0;
+        super.clear();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return IndexedEntityData.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final EntryIterator entries = new EntryIterator();
+                return new Iterator<String>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return entries.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return IndexedEntityData.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                final EntryIterator entries = new EntryIterator();
+                return new Iterator<Object>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Object next() {
+                        return entries.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return IndexedEntityData.this.size();
+            }
+        };
+    }
+
+    @Override
+    public IndexedEntityData copy() {
+        return clone();
+    }
+
+    @Override
+    public IndexedEntityData clone() {
+        IndexedEntityData copy = new IndexedEntityData(index);
+        copy.setChangeType(getChangeType());
+        if (values.length > 0) {
+            copy.values = values.clone();
+        }
+        copy.offset = offset;
+        copy.indexedSize = indexedSize;
+        for (Map.Entry<String, Object> entry : super.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
+    protected Object value(int position) {
+        int slot = position - offset;
+        if (slot >= 0 && slot < values.length) {
+            Object value = values[slot];
+            return value == Null.VALUE ? null : value;
+        }
+        return null;
+    }
+
+    protected boolean isSet(int position) {
+        int slot = position - offset;
+        return slot >= 0 && slot < values.length && values[slot] != null;
+    }
+
+    protected Object set(int position, Object value) {
+        ensureCovered(position);
+        int slot = position - offset;
+        Object oldValue = values[slot];
+        if (oldValue == null) {
+            indexedSize++;
+        }
+        values[slot] = value == null ? Null.VALUE : value;
+        return oldValue == Null.VALUE ? null : oldValue;
+    }
+
+    protected Object unset(int position) {
+        Object oldValue = value(position);
+        if (isSet(position)) {
+            values[position - offset] = null;
+            indexedSize--;
+        }
+        return oldValue;
+    }
+
+    /**
+     * Grows the array to cover the attributes of the entity of the given
+     * position
+     */
+    protected void ensureCovered(int position) {
+        int slot = position - offset;
+        if (slot < 0 || slot >= values.length) {
+            int start = index.getEntityStart(position);
+            int end = index.getEntityEnd(position);
+            Object[] covered;
+            if (values.length > 0) {
+                start = Math.min(start, offset);
+                end = Math.max(end, offset + values.length);
+                covered = new Object[end - start];
+                System.arraycopy(values, 0, covered, offset - start, values.length);
+            } else {
+                covered = new Object[end - start];
+            }
+            values = covered;
+            offset = start;
+        }
+    }
+
+    /**
+     * @return the first position at or after the given position whose
+     *         attribute is set, or -1 if there is none
+     */
+    protected int nextSet(int position) {
+        for (int slot = Math.max(position - offset, 0); slot < values.length; slot++) {
+            if (values[slot] != null) {
+                return slot + offset;
+            }
+        }
+        return -1;
+    }
+
+    Iterator<Map.Entry<String, Object>> overflowIterator() {
+        return super.entrySet().iterator();
+    }
+
+    class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        int next = nextSet(0);
+
+        int current = -1;
+
+        Iterator<Map.Entry<String, Object>> overflow;
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0 || overflow().hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next >= 0) {
+                current = next;
+                next = nextSet(next + 1);
+                return new IndexedEntry(current);
+            } else if (overflow().hasNext()) {
+                current = -1;
+                return overflow.next();
+            } else {
+                throw new NoSuchElementException();
+            }
+        }
+
+        @Override
+        public void remove() {
+            if (current >= 0) {
+                unset(current);
+                current = -1;
+            } else if (overflow != null) {
+                overflow.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        Iterator<Map.Entry<String, Object>> overflow() {
+            if (overflow == null) {
+                overflow = overflowIterator();
+            }
+            return overflow;
+        }
+    }
+
+    class IndexedEntry implements Map.Entry<String, Object> {
+
+        final int position;
+
+        IndexedEntry(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public String getKey() {
+            return index.getAttributeId(position);
+        }
+
+        @Override
+        public Object getValue() {
+            return value(position);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return set(position, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Map.Entry) {
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+}
@@ -32,6 +32,8 @@ public class ComponentStatistics {
     private Map<Integer, Integer> numberOutboundPayload = new ConcurrentHashMap<>();
     private Map<Integer, Long> timeSpentInHandle = new ConcurrentHashMap<>();
     private Map<Integer, Long> timeSpentWaiting = new ConcurrentHashMap<>();
+    private Map<Integer, Integer> numberBatchesExecuted = new ConcurrentHashMap<>();
+    private Map<Integer, Long> timeSpentExecutingBatches = new ConcurrentHashMap<>();
     
     
     public long getTimeSpentInHandle(int thread) {
@@ -68,6 +70,21 @@ public class ComponentStatistics {
         }
     }
 
+    public int getNumberBatchesExecuted(int thread) {
+        Integer number = numberBatchesExecuted.get(thread);
+        return number != null ? number : 0;
+    }
+
+    public long getTimeSpentExecutingBatches(int thread) {
+        Long number = timeSpentExecutingBatches.get(thread);
+        return number != null ? number : 0;
+    }
+
+    public void incrementBatchesExecuted(int thread, long timeSpent) {
+        this.numberBatchesExecuted.put(thread, getNumberBatchesExecuted(thread)+1);
+        this.timeSpentExecutingBatches.put(thread, getTimeSpentExecutingBatches(thread)+timeSpent);
+    }
+
     public int getNumberInboundMessages(int thread) {
         Integer number = numberInboundMessages.get(thread);
         return number != null ? number : 0;
@@ -20,20 +20,32 @@
  */
 package org.jumpmind.metl.core.runtime.component;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 import org.jumpmind.metl.core.model.Component;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
 import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.exception.IoException;
 import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
 import org.jumpmind.metl.core.model.ModelEntity;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.EntityDataSpillReader;
+import org.jumpmind.metl.core.runtime.EntityDataSpillWriter;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
+import org.jumpmind.metl.core.util.BloomFilter;
+import org.jumpmind.metl.core.util.Fingerprint;
 import org.jumpmind.properties.TypedProperties;
 
 public class Deduper extends AbstractComponentRuntime {
@@ -51,6 +63,24 @@ public class Deduper extends AbstractComponentRuntime {
     public final static String PRESERVE_RECORD = "preserve.record";
 
     public final static String ATTRIBUTE_DEDUPE_ENABLED = "dedupe.enabled";
+
+    public final static String KEY_STORE = "key.store";
+
+    public final static String KEY_STORE_MEMORY = "MEMORY";
+
+    public final static String KEY_STORE_BOUNDED = "BOUNDED";
+
+    public final static String KEY_STORE_APPROXIMATE = "APPROXIMATE";
+
+    public final static String MAX_KEYS_IN_MEMORY = "max.keys.in.memory";
+
+    public final static String EXPECTED_KEYS = "expected.keys";
+
+    public final static String FALSE_POSITIVE_PROBABILITY = "false.positive.probability";
+
+    static final int SPILL_PARTITIONS = 64;
+
+    static final int MAX_SPILL_LEVELS = 8;
     
     int rowsPerMessage = 1000;
     
@@ -64,6 +94,26 @@ public class Deduper extends AbstractComponentRuntime {
 
     LinkedHashMap<String, EntityData> deduped = new LinkedHashMap<String, EntityData>();
 
+    String keyStore = KEY_STORE_MEMORY;
+
+    int maxKeysInMemory = 1000000;
+
+    long expectedKeys = 10000000;
+
+    double falsePositiveProbability = 0.0001;
+
+    Set<Fingerprint> firstKeys;
+
+    LinkedHashMap<Fingerprint, EntityData> lastRecords;
+
+    BloomFilter bloomFilter;
+
+    SpillPartitions spillPartitions;
+
+    long sequence;
+
+    ArrayList<EntityData> outbound;
+
     @Override
     public void start() {
         TypedProperties properties = getTypedProperties();
@@ -75,6 +125,20 @@ public class Deduper extends AbstractComponentRuntime {
             throw new MisconfiguredException("The input model is not set and it is required");
         }
         Component component = context.getFlowStep().getComponent();
+        keyStore = properties.get(KEY_STORE, keyStore);
+        maxKeysInMemory = properties.getInt(MAX_KEYS_IN_MEMORY, maxKeysInMemory);
+        expectedKeys = properties.getLong(EXPECTED_KEYS, expectedKeys);
+        String probability = properties.get(FALSE_POSITIVE_PROBABILITY);
+        if (probability != null && probability.trim().length() > 0) {
+            try {
+                falsePositiveProbability = Double.parseDouble(probability.trim());
+            } catch (NumberFormatException e) {
+                throw new MisconfiguredException("The false positive probability must be a number.  It was %s", probability);
+            }
+        }
+        if (KEY_STORE_APPROXIMATE.equals(keyStore) && PRESERVE_LAST.equals(preserveRecord)) {
+            throw new MisconfiguredException("The approximate key store can only preserve the first record");
+        }
         
         if (DEDUPE_ATTRIBUTE.equals(dedupeType)) {
         	List<ModelEntity> entities = new ArrayList<>(inputModel.getModelEntities());
@@ -105,18 +169,15 @@ public class Deduper extends AbstractComponentRuntime {
 
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
+        if (!KEY_STORE_MEMORY.equals(keyStore)) {
+            handleWithFingerprints(inputMessage, callback, unitOfWorkBoundaryReached);
+            return;
+        }
+
         if (inputMessage instanceof EntityDataMessage) {
             ArrayList<EntityData> payload = ((EntityDataMessage)inputMessage).getPayload();
             for (EntityData entityData : payload) {
-                String key = "";
-
-                if (DEDUPE_ATTRIBUTE.equals(dedupeType)) {
-                	for (String attributeId : dedupeKeyAttributeIdList) {
-                		key += entityData.get(attributeId);
-                	}
-                } else {
-                	key = entityData.toString();
-                }
+                String key = getKey(entityData);
                 
                 if (!deduped.containsKey(key)) {
                     getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
@@ -151,4 +212,343 @@ public class Deduper extends AbstractComponentRuntime {
         }
     }
 
+    protected String getKey(EntityData entityData) {
+        String key = "";
+        if (DEDUPE_ATTRIBUTE.equals(dedupeType)) {
+            for (String attributeId : dedupeKeyAttributeIdList) {
+                key += entityData.get(attributeId);
+            }
+        } else {
+            key = entityData.toString();
+        }
+        return key;
+    }
+
+    /**
+     * Dedupes in bounded memory by keeping 128 bit fingerprints of the keys
+     * instead of the keys. When preserving the first record, records are sent
+     * as soon as their key is seen. Once more than
+     * {@link #MAX_KEYS_IN_MEMORY} keys have been seen, records with new keys
+     * are spilled to hash partitions on disk and deduped one partition at a
+     * time at the end of the unit of work. Records still come out in the
+     * order their key was first seen. The approximate key store uses a Bloom
+     * filter instead, which may drop a few unique records.
+     */
+    protected void handleWithFingerprints(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
+        if (outbound == null) {
+            outbound = new ArrayList<EntityData>(rowsPerMessage);
+        }
+
+        if (inputMessage instanceof EntityDataMessage) {
+            ArrayList<EntityData> payload = ((EntityDataMessage) inputMessage).getPayload();
+            for (EntityData entityData : payload) {
+                Fingerprint fingerprint = Fingerprint.of(getKey(entityData));
+                if (KEY_STORE_APPROXIMATE.equals(keyStore)) {
+                    if (bloomFilter == null) {
+                        bloomFilter = new BloomFilter(expectedKeys, falsePositiveProbability);
+                    }
+                    if (bloomFilter.put(fingerprint)) {
+                        send(entityData, callback);
+                    }
+                } else if (PRESERVE_LAST.equals(preserveRecord)) {
+                    if (lastRecords == null) {
+                        lastRecords = new LinkedHashMap<Fingerprint, EntityData>();
+                    }
+                    if (lastRecords.containsKey(fingerprint) || lastRecords.size() < maxKeysInMemory) {
+                        lastRecords.put(fingerprint, entityData);
+                    } else {
+                        spill(fingerprint, entityData);
+                    }
+                } else {
+                    if (firstKeys == null) {
+                        firstKeys = new HashSet<Fingerprint>();
+                    }
+                    if (!firstKeys.contains(fingerprint)) {
+                        if (firstKeys.size() < maxKeysInMemory) {
+                            firstKeys.add(fingerprint);
+                            send(entityData, callback);
+                        } else {
+                            spill(fingerprint, entityData);
+                        }
+                    }
+                }
+                sequence++;
+            }
+        }
+
+        if (unitOfWorkBoundaryReached) {
+            if (lastRecords != null) {
+                for (EntityData entityData : lastRecords.values()) {
+                    send(entityData, callback);
+                }
+            }
+            try {
+                if (spillPartitions != null) {
+                    info("Deduping %d records that were spilled to disk", spillPartitions.count);
+                    spillPartitions.drain(callback);
+                }
+            } finally {
+                if (outbound.size() > 0) {
+                    callback.sendEntityDataMessage(null, outbound);
+                }
+                reset();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        reset();
+        super.stop();
+    }
+
+    protected void reset() {
+        if (spillPartitions != null) {
+            spillPartitions.close();
+        }
+        spillPartitions = null;
+        firstKeys = null;
+        lastRecords = null;
+        bloomFilter = null;
+        sequence = 0;
+        outbound = null;
+    }
+
+    protected void send(EntityData entityData, ISendMessageCallback callback) {
+        getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
+        outbound.add(entityData);
+        if (outbound.size() >= rowsPerMessage) {
+            callback.sendEntityDataMessage(null, outbound);
+            outbound = new ArrayList<EntityData>(rowsPerMessage);
+        }
+    }
+
+    protected void spill(Fingerprint fingerprint, EntityData entityData) {
+        if (spillPartitions == null) {
+            spillPartitions = new SpillPartitions(getInputModel().getAttributeIndex());
+        }
+        spillPartitions.write(fingerprint, sequence, entityData);
+    }
+
+    /**
+     * Records whose key didn't fit in memory, hashed into partitions by
+     * fingerprint so that each partition can be deduped in memory on its own.
+     * A partition with more records than {@link #maxKeysInMemory} is hashed
+     * again into enough sub partitions to fit, using other bits of the
+     * fingerprint.
+     */
+    class SpillPartitions {
+
+        ModelAttributeIndex index;
+
+        int level;
+
+        long parentCount;
+
+        File[] files;
+
+        EntityDataSpillWriter[] writers;
+
+        long[] counts;
+
+        List<File> results;
+
+        List<EntityDataSpillReader> readers = new ArrayList<EntityDataSpillReader>();
+
+        long count;
+
+        SpillPartitions(ModelAttributeIndex index) {
+            this(index, SPILL_PARTITIONS, 0, Long.MAX_VALUE, new ArrayList<File>());
+        }
+
+        SpillPartitions(ModelAttributeIndex index, int partitionCount, int level, long parentCount, List<File> results) {
+            this.index = index;
+            this.level = level;
+            this.parentCount = parentCount;
+            this.results = results;
+            this.files = new File[partitionCount];
+            this.writers = new EntityDataSpillWriter[partitionCount];
+            this.counts = new long[partitionCount];
+        }
+
+        int getPartition(Fingerprint fingerprint) {
+            long bits = Long.rotateLeft(level % 2 == 0 ? fingerprint.getHigh() : fingerprint.getLow(), 16 * (level / 2));
+            return (int) ((bits & Long.MAX_VALUE) % files.length);
+        }
+
+        void write(Fingerprint fingerprint, long sequence, EntityData entityData) {
+            int partition = getPartition(fingerprint);
+            try {
+                if (writers[partition] == null) {
+                    files[partition] = File.createTempFile("metl-dedupe", ".partition");
+                    writers[partition] = new EntityDataSpillWriter(files[partition], index);
+                }
+                writeRecord(writers[partition], entityData, sequence, fingerprint);
+                counts[partition]++;
+                count++;
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+
+        /**
+         * Dedupes each partition into a result file ordered by the sequence
+         * of each key's first record, then merges the result files by that
+         * sequence
+         */
+        void drain(ISendMessageCallback callback) {
+            try {
+                dedupePartitions();
+
+                PriorityQueue<Result> queue = new PriorityQueue<Result>();
+                for (File file : results) {
+                    EntityDataSpillReader reader = new EntityDataSpillReader(file, index);
+                    readers.add(reader);
+                    Result result = new Result(reader);
+                    if (result.next()) {
+                        queue.add(result);
+                    }
+                }
+                while (queue.size() > 0) {
+                    Result result = queue.poll();
+                    send(result.entityData, callback);
+                    if (result.next()) {
+                        queue.add(result);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+
+        /**
+         * A partition that holds more records than fit in memory and that
+         * hashing made smaller than its parent is repartitioned. One that
+         * didn't shrink is mostly duplicates of a few keys, so it is deduped
+         * in memory.
+         */
+        void dedupePartitions() throws IOException {
+            for (int i = 0; i < files.length; i++) {
+                if (writers[i] != null) {
+                    writers[i].close();
+                    writers[i] = null;
+                    if (counts[i] > maxKeysInMemory && counts[i] < parentCount && level < MAX_SPILL_LEVELS) {
+                        repartition(files[i], counts[i]);
+                    } else {
+                        dedupePartition(files[i]);
+                    }
+                    files[i].delete();
+                    files[i] = null;
+                }
+            }
+        }
+
+        void repartition(File file, long recordCount) throws IOException {
+            int partitionCount = (int) Math.min(SPILL_PARTITIONS, 2 * (recordCount / Math.max(1, maxKeysInMemory)) + 2);
+            SpillPartitions partitions = new SpillPartitions(index, partitionCount, level + 1, recordCount, results);
+            try {
+                try (EntityDataSpillReader reader = new EntityDataSpillReader(file, index)) {
+                    EntityData entityData = reader.read();
+                    while (entityData != null) {
+                        long recordSequence = reader.getInput().readLong();
+                        Fingerprint fingerprint = new Fingerprint(reader.getInput().readLong(), reader.getInput().readLong());
+                        partitions.write(fingerprint, recordSequence, entityData);
+                        entityData = reader.read();
+                    }
+                }
+                partitions.dedupePartitions();
+            } finally {
+                partitions.closePartitions();
+            }
+        }
+
+        void dedupePartition(File file) throws IOException {
+            LinkedHashMap<Fingerprint, EntityData> records = new LinkedHashMap<Fingerprint, EntityData>();
+            Map<Fingerprint, Long> sequences = new LinkedHashMap<Fingerprint, Long>();
+            try (EntityDataSpillReader reader = new EntityDataSpillReader(file, index)) {
+                EntityData entityData = reader.read();
+                while (entityData != null) {
+                    long recordSequence = reader.getInput().readLong();
+                    Fingerprint fingerprint = new Fingerprint(reader.getInput().readLong(), reader.getInput().readLong());
+                    if (!records.containsKey(fingerprint)) {
+                        records.put(fingerprint, entityData);
+                        sequences.put(fingerprint, recordSequence);
+                    } else if (PRESERVE_LAST.equals(preserveRecord)) {
+                        records.put(fingerprint, entityData);
+                    }
+                    entityData = reader.read();
+                }
+            }
+
+            File result = File.createTempFile("metl-dedupe", ".result");
+            results.add(result);
+            try (EntityDataSpillWriter writer = new EntityDataSpillWriter(result, index)) {
+                for (Map.Entry<Fingerprint, EntityData> entry : records.entrySet()) {
+                    writeRecord(writer, entry.getValue(), sequences.get(entry.getKey()), entry.getKey());
+                }
+            }
+        }
+
+        void writeRecord(EntityDataSpillWriter writer, EntityData entityData, long sequence, Fingerprint fingerprint)
+                throws IOException {
+            writer.write(entityData);
+            writer.getOutput().writeLong(sequence);
+            writer.getOutput().writeLong(fingerprint.getHigh());
+            writer.getOutput().writeLong(fingerprint.getLow());
+        }
+
+        void close() {
+            for (EntityDataSpillReader reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                }
+            }
+            closePartitions();
+            for (File file : results) {
+                file.delete();
+            }
+        }
+
+        void closePartitions() {
+            for (int i = 0; i < files.length; i++) {
+                if (writers[i] != null) {
+                    try {
+                        writers[i].close();
+                    } catch (IOException e) {
+                    }
+                }
+                if (files[i] != null) {
+                    files[i].delete();
+                }
+            }
+        }
+
+        class Result implements Comparable<Result> {
+            EntityDataSpillReader reader;
+            EntityData entityData;
+            long sequence;
+
+            Result(EntityDataSpillReader reader) {
+                this.reader = reader;
+            }
+
+            boolean next() throws IOException {
+                entityData = reader.read();
+                if (entityData != null) {
+                    sequence = reader.getInput().readLong();
+                    reader.getInput().readLong();
+                    reader.getInput().readLong();
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public int compareTo(Result o) {
+                return Long.compare(sequence, o.sequence);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,123 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.DataType;
+import org.jumpmind.metl.core.runtime.EntityData;
+
+/**
+ * Builds hash keys for joining rows on attribute values. Values are
+ * normalized by data type so that the same value matches no matter how it
+ * arrived: numbers, including numeric attributes that arrive as text, become
+ * {@link BigDecimal}s without trailing zeros, dates lose their sql subtype
+ * and binary values are compared by content. Values of string attributes
+ * are compared by their string form, with numbers written without trailing
+ * zeros, so that "1" matches 1. A null matches an empty string, as it did
+ * when keys were compared as strings. Multi attribute keys are lists of the
+ * normalized values.
+ */
+public final class JoinKey {
+
+    private JoinKey() {
+    }
+
+    public static Object of(EntityData data, String[] attributeIds, DataType[] dataTypes) {
+        if (attributeIds.length == 1) {
+            return of(data.get(attributeIds[0]), dataTypes[0]);
+        }
+        List<Object> key = new ArrayList<Object>(attributeIds.length);
+        for (int i = 0; i < attributeIds.length; i++) {
+            key.add(of(data.get(attributeIds[i]), dataTypes[i]));
+        }
+        return key;
+    }
+
+    /**
+     * Returns the data types to build keys with when the attributes are
+     * joined to attributes of the other data types. Where the two sides do
+     * not have the same type, and are not both numeric, the values are
+     * compared as strings so that both sides are normalized the same way.
+     */
+    public static DataType[] comparableTypes(DataType[] dataTypes, DataType[] otherDataTypes) {
+        DataType[] comparableTypes = new DataType[dataTypes.length];
+        for (int i = 0; i < dataTypes.length; i++) {
+            DataType dataType = dataTypes[i];
+            DataType otherDataType = i < otherDataTypes.length ? otherDataTypes[i] : null;
+            if (dataType == null || otherDataType == null || dataType == otherDataType
+                    || (dataType.isNumeric() && otherDataType.isNumeric())) {
+                comparableTypes[i] = dataType;
+            } else {
+                comparableTypes[i] = DataType.VARCHAR;
+            }
+        }
+        return comparableTypes;
+    }
+
+    public static Object of(Object value, DataType dataType) {
+        if (value == null) {
+            return "";
+        } else if (dataType != null && dataType.isString()) {
+            return toString(value);
+        } else if (value instanceof BigDecimal) {
+            return normalize((BigDecimal) value);
+        } else if (value instanceof Number || (dataType != null && dataType.isNumeric() && value instanceof String)) {
+            try {
+                return normalize(new BigDecimal(value.toString().trim()));
+            } catch (NumberFormatException e) {
+                return value.toString();
+            }
+        } else if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        } else if (value instanceof Boolean) {
+            return value;
+        } else {
+            return value.toString();
+        }
+    }
+
+    static String toString(Object value) {
+        if (value instanceof Number) {
+            try {
+                return normalize(value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString()))
+                        .toPlainString();
+            } catch (NumberFormatException e) {
+                return value.toString();
+            }
+        } else if (value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        } else {
+            return value.toString();
+        }
+    }
+
+    static BigDecimal normalize(BigDecimal value) {
+        return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+    }
+
+}
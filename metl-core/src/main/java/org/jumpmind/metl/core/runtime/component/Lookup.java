@@ -21,24 +21,30 @@
 package org.jumpmind.metl.core.runtime.component;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.lang.ObjectUtils;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.metl.core.model.DataType;
 import org.jumpmind.metl.core.model.FlowStepLink;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
 import org.jumpmind.metl.core.runtime.ControlMessage;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.EntityDataSpillReader;
+import org.jumpmind.metl.core.runtime.EntityDataSpillWriter;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.MisconfiguredException;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 import org.jumpmind.properties.TypedProperties;
 
-public class Lookup extends AbstractComponentRuntime {
+public class Lookup extends AbstractComponentRuntime implements ISourceDataConsumer {
 
     public final static String TYPE = "Lookup";
 
@@ -47,8 +53,15 @@ public class Lookup extends AbstractComponentRuntime {
     public final static String LOOKUP_VALUE = "lookup.value.attribute";
     public final static String REPLACEMENT_VALUE_ATTRIBUTE = "replacement.value.attribute";
     public final static String REPLACEMENT_KEY_ATTRIBUTE = "replacement.key.attribute";
+    public final static String ADDITIONAL_LOOKUP_KEYS = "additional.lookup.key.attributes";
+    public final static String ADDITIONAL_REPLACEMENT_KEYS = "additional.replacement.key.attributes";
+    public final static String MAX_ROWS_IN_MEMORY = "max.rows.in.memory";
+    public final static String CACHE_NAME = "shared.cache.name";
+    public final static String CACHE_VERSION = "shared.cache.version";
+    public final static String CACHE_TIME_TO_LIVE = "shared.cache.ttl.seconds";
+    public final static String INVALIDATE_CACHE_HEADER = "invalidate.lookup.cache";
 
-    boolean lookupInitialized = false;
+    volatile boolean lookupInitialized = false;
 
     String sourceStepId;
     String keyAttributeId;
@@ -56,9 +69,30 @@ public class Lookup extends AbstractComponentRuntime {
     String replacementKeyAttributeId;
     String replacementValueAttributeId;
 
-    Map<Object, Object> lookup = new HashMap<Object, Object>();
+    String[] keyAttributeIds;
+    DataType[] keyDataTypes;
+    String[] replacementKeyAttributeIds;
+    DataType[] replacementKeyDataTypes;
+
+    int rowsPerMessage = 1000;
+    int maxRowsInMemory = 1000000;
+
+    LookupTable lookup;
+
+    String cacheName;
+
+    LookupCache.Entry cacheEntry;
+
+    boolean usingCachedLookup;
 
     List<Message> queuedWhileWaitingForLookup = new ArrayList<Message>();
+    int queuedRowCount;
+    File queueFile;
+    EntityDataSpillWriter queueWriter;
+    List<Integer> queuedMessageSizes = new ArrayList<Integer>();
+
+    File[] probeFiles;
+    EntityDataSpillWriter[] probeWriters;
 
     @Override
     public void start() {
@@ -69,6 +103,8 @@ public class Lookup extends AbstractComponentRuntime {
         valueAttributeId = properties.get(LOOKUP_VALUE);
         replacementKeyAttributeId = properties.get(REPLACEMENT_KEY_ATTRIBUTE);
         replacementValueAttributeId = properties.get(REPLACEMENT_VALUE_ATTRIBUTE);
+        rowsPerMessage = properties.getInt(ROWS_PER_MESSAGE, rowsPerMessage);
+        maxRowsInMemory = properties.getInt(MAX_ROWS_IN_MEMORY, maxRowsInMemory);
         
         if (getInputModel() == null) {
             throw new MisconfiguredException("The input model must be specified");
@@ -84,12 +120,66 @@ public class Lookup extends AbstractComponentRuntime {
         if (link == null) {
             throw new MisconfiguredException("The lookup data source is missing"); 
         }
+
+        List<String> keys = getKeyAttributeIds(keyAttributeId, properties.get(ADDITIONAL_LOOKUP_KEYS));
+        List<String> replacementKeys = getKeyAttributeIds(replacementKeyAttributeId, properties.get(ADDITIONAL_REPLACEMENT_KEYS));
+        if (keys.size() != replacementKeys.size()) {
+            throw new MisconfiguredException("The number of lookup key attributes (%d) and replacement key attributes (%d) must match",
+                    keys.size(), replacementKeys.size());
+        }
+        keyAttributeIds = keys.toArray(new String[keys.size()]);
+        replacementKeyAttributeIds = replacementKeys.toArray(new String[replacementKeys.size()]);
+        keyDataTypes = JoinKey.comparableTypes(getDataTypes(keyAttributeIds), getDataTypes(replacementKeyAttributeIds));
+        replacementKeyDataTypes = JoinKey.comparableTypes(getDataTypes(replacementKeyAttributeIds), getDataTypes(keyAttributeIds));
+
+        cacheName = properties.get(CACHE_NAME);
+        cacheEntry = null;
+        usingCachedLookup = false;
+        lookup = null;
+        if (isNotBlank(cacheName)) {
+            String executionId = getExecutionTracker().getExecutionId();
+            cacheEntry = LookupCache.acquire(getAgentId(), cacheName, resolveFlowParams(properties.get(CACHE_VERSION)),
+                    properties.getLong(CACHE_TIME_TO_LIVE, 0) * 1000, executionId, maxRowsInMemory);
+            if (cacheEntry.isComplete()) {
+                usingCachedLookup = true;
+                lookupInitialized = true;
+                lookup = cacheEntry.getTable();
+                info("Using the shared %s lookup table of %d rows", cacheName, lookup.size());
+            } else if (cacheEntry.getExecutionId().equals(executionId)) {
+                lookup = cacheEntry.getTable();
+            } else {
+                info("The shared %s lookup table is being built by another execution.  Building a private copy", cacheName);
+                cacheEntry = null;
+            }
+        }
+        
+        if (lookup == null && cacheEntry == null) {
+            /*
+             * the source's rows are spread over the step's threads, so they
+             * all build one table. Runtimes are started one at a time.
+             */
+            for (Lookup runtime : getStepRuntimes()) {
+                if (runtime != this && runtime.cacheEntry == null && runtime.lookup != null) {
+                    lookup = runtime.lookup;
+                    break;
+                }
+            }
+        }
+
+        if (lookup == null) {
+            lookup = new LookupTable(maxRowsInMemory);
+        }
     }
 
     @Override
     public boolean supportsStartupMessages() {
         return false;
     }
+
+    @Override
+    public boolean isDataNeededFrom(String sourceStepId) {
+        return !usingCachedLookup || !sourceStepId.equals(this.sourceStepId);
+    }
     
     @Override
     public void flowCompleted(boolean cancelled) {
@@ -98,52 +188,329 @@ public class Lookup extends AbstractComponentRuntime {
         }
     }
 
+    @Override
+    public void stop() {
+        if (cacheEntry != null && !cacheEntry.isComplete()) {
+            LookupCache.invalidate(cacheEntry);
+        }
+        if (lookup != null && (cacheEntry == null || !cacheEntry.isComplete())) {
+            synchronized (lookup) {
+                lookup.close();
+            }
+        }
+        closeQueue();
+        closeProbePartitions();
+        super.stop();
+    }
+
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
+        if (inputMessage instanceof ControlMessage && isNotBlank(cacheName)
+                && cacheName.equals(inputMessage.getHeader().get(INVALIDATE_CACHE_HEADER))) {
+            info("Invalidating the shared %s lookup table", cacheName);
+            LookupCache.invalidate(getAgentId(), cacheName);
+        }
+
         if (sourceStepId.equals(inputMessage.getHeader().getOriginatingStepId())) {
+            if (usingCachedLookup) {
+                return;
+            }
             if (inputMessage instanceof EntityDataMessage) {
                 List<EntityData> datas = ((EntityDataMessage)inputMessage).getPayload();
-                for (EntityData entityData : datas) {
-                    lookup.put(ObjectUtils.toString(entityData.get(keyAttributeId)), entityData.get(valueAttributeId));
+                synchronized (lookup) {
+                    for (EntityData entityData : datas) {
+                        lookup.put(JoinKey.of(entityData, keyAttributeIds, keyDataTypes), entityData.get(valueAttributeId));
+                    }
                 }
             }
             lookupInitialized = inputMessage instanceof ControlMessage;
 
             if (lookupInitialized) {
-                Iterator<Message> messages = queuedWhileWaitingForLookup.iterator();
-                while (messages.hasNext()) {
-                    Message message = messages.next();
-                    if (message instanceof EntityDataMessage) {
-                        enhanceAndSend((EntityDataMessage)message, callback, unitOfWorkBoundaryReached);
+                if (cacheEntry != null) {
+                    cacheEntry.complete();
+                } else {
+                    synchronized (lookup) {
+                        lookup.complete();
                     }
                 }
+                if (lookup.isPartitioned()) {
+                    info("The lookup table of %d rows did not fit in memory.  It was partitioned to disk", lookup.size());
+                }
+                /*
+                 * the other threads of this step may be holding rows that
+                 * arrived before the table was complete and may never get
+                 * another message to send them
+                 */
+                for (Lookup runtime : getRuntimesSharingLookup()) {
+                    runtime.lookupInitialized = true;
+                    runtime.sendQueued(callback);
+                }
+            }
+        } else if (!lookupInitialized && cacheEntry != null && cacheEntry.isComplete()) {
+            /* another thread of this step finished building the shared table */
+            lookupInitialized = true;
+            sendQueued(callback);
+            if (inputMessage instanceof EntityDataMessage) {
+                enhanceAndSend(((EntityDataMessage) inputMessage).getPayload(), callback);
             }
         } else if (!lookupInitialized) {
-            queuedWhileWaitingForLookup.add(inputMessage);
+            queue(inputMessage, callback);
         } else if (lookupInitialized && !(inputMessage instanceof ControlMessage)) {
             if (inputMessage instanceof EntityDataMessage) {
-                enhanceAndSend((EntityDataMessage)inputMessage, callback, unitOfWorkBoundaryReached);
+                enhanceAndSend(((EntityDataMessage) inputMessage).getPayload(), callback);
+            }
+        }
+
+        if (unitOfWorkBoundaryReached && lookupInitialized && lookup.isPartitioned()) {
+            for (Lookup runtime : getRuntimesSharingLookup()) {
+                runtime.joinProbePartitions(callback);
+            }
+        }
+    }
+
+    /**
+     * @return this runtime followed by the runtimes of this step's other
+     *         threads
+     */
+    protected List<Lookup> getStepRuntimes() {
+        List<Lookup> runtimes = new ArrayList<Lookup>();
+        runtimes.add(this);
+        Map<Integer, IComponentRuntime> runtimesByThread = context.getComponentRuntimeByThread();
+        if (runtimesByThread != null) {
+            for (IComponentRuntime runtime : runtimesByThread.values()) {
+                if (runtime != this && runtime instanceof Lookup) {
+                    runtimes.add((Lookup) runtime);
+                }
+            }
+        }
+        return runtimes;
+    }
+
+    /**
+     * @return this runtime followed by the runtimes of this step's other
+     *         threads that build the same lookup table
+     */
+    protected List<Lookup> getRuntimesSharingLookup() {
+        List<Lookup> runtimes = new ArrayList<Lookup>();
+        for (Lookup runtime : getStepRuntimes()) {
+            if (runtime.lookup == lookup) {
+                runtimes.add(runtime);
             }
         }
+        return runtimes;
     }
 
-    protected void enhanceAndSend(EntityDataMessage message, ISendMessageCallback callback, boolean unitOfWorkLastMessage) {
-        List<EntityData> datas = message.getPayload();
+    /**
+     * Holds a message from the main stream until the lookup table is
+     * complete. Once more than {@link #maxRowsInMemory} rows are waiting, the
+     * rest are spilled to disk.
+     */
+    protected synchronized void queue(Message inputMessage, ISendMessageCallback callback) {
+        if (lookupInitialized) {
+            /* another thread completed the table and sent the queue since handle checked */
+            if (inputMessage instanceof EntityDataMessage) {
+                enhanceAndSend(((EntityDataMessage) inputMessage).getPayload(), callback);
+            }
+            return;
+        }
+        if (inputMessage instanceof EntityDataMessage) {
+            List<EntityData> datas = ((EntityDataMessage) inputMessage).getPayload();
+            if (queueWriter == null && queuedRowCount + datas.size() <= maxRowsInMemory) {
+                queuedWhileWaitingForLookup.add(inputMessage);
+                queuedRowCount += datas.size();
+            } else {
+                try {
+                    if (queueWriter == null) {
+                        queueFile = File.createTempFile("metl-lookup", ".queue");
+                        queueWriter = new EntityDataSpillWriter(queueFile, getInputModel().getAttributeIndex());
+                    }
+                    for (EntityData entityData : datas) {
+                        queueWriter.write(entityData);
+                    }
+                    queuedMessageSizes.add(datas.size());
+                } catch (IOException e) {
+                    throw new IoException(e);
+                }
+            }
+        }
+    }
+
+    protected synchronized void sendQueued(ISendMessageCallback callback) {
+        for (Message message : queuedWhileWaitingForLookup) {
+            enhanceAndSend(((EntityDataMessage) message).getPayload(), callback);
+        }
+        queuedWhileWaitingForLookup.clear();
+        queuedRowCount = 0;
+
+        if (queueWriter != null) {
+            try {
+                queueWriter.close();
+                queueWriter = null;
+                try (EntityDataSpillReader reader = new EntityDataSpillReader(queueFile, getInputModel().getAttributeIndex())) {
+                    for (int size : queuedMessageSizes) {
+                        List<EntityData> datas = new ArrayList<EntityData>(size);
+                        for (int i = 0; i < size; i++) {
+                            datas.add(reader.read());
+                        }
+                        enhanceAndSend(datas, callback);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IoException(e);
+            } finally {
+                closeQueue();
+            }
+        }
+    }
+
+    protected void enhanceAndSend(List<EntityData> datas, ISendMessageCallback callback) {
         if (datas != null) {
-            debug("Using lookup table: {}", lookup);
+            if (lookup.isPartitioned()) {
+                probe(datas);
+                return;
+            }
+            debug("Using lookup table of %d rows", lookup.size());
             ArrayList<EntityData> payload = new ArrayList<EntityData>();
             for (int j = 0; j < datas.size(); j++) {
-                getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
                 EntityData oldData = datas.get(j);
-                EntityData newData = new EntityData();   
-                newData.setChangeType(oldData.getChangeType());
-                newData.putAll(oldData);
-                newData.put(replacementValueAttributeId, 
-                        lookup.get(ObjectUtils.toString(oldData.get(replacementKeyAttributeId))));
-                payload.add(newData);
+                payload.add(enhance(oldData, lookup.get(JoinKey.of(oldData, replacementKeyAttributeIds, replacementKeyDataTypes))));
             }
             callback.sendEntityDataMessage(null, payload);
         }   
     }
 
+    protected EntityData enhance(EntityData oldData, Object value) {
+        getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
+        EntityData newData = new EntityData();   
+        newData.setChangeType(oldData.getChangeType());
+        newData.putAll(oldData);
+        newData.put(replacementValueAttributeId, value);
+        return newData;
+    }
+
+    /**
+     * Writes main stream rows to the partition of the lookup table their key
+     * hashes to. They are joined one partition at a time once the unit of
+     * work is complete.
+     */
+    protected synchronized void probe(List<EntityData> datas) {
+        try {
+            if (probeWriters == null) {
+                probeFiles = new File[LookupTable.PARTITION_COUNT];
+                probeWriters = new EntityDataSpillWriter[LookupTable.PARTITION_COUNT];
+            }
+            for (EntityData entityData : datas) {
+                int partition = LookupTable.getPartition(JoinKey.of(entityData, replacementKeyAttributeIds, replacementKeyDataTypes));
+                if (probeWriters[partition] == null) {
+                    probeFiles[partition] = File.createTempFile("metl-lookup", ".probe");
+                    probeWriters[partition] = new EntityDataSpillWriter(probeFiles[partition], getInputModel().getAttributeIndex());
+                }
+                probeWriters[partition].write(entityData);
+            }
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    protected synchronized void joinProbePartitions(ISendMessageCallback callback) {
+        if (probeWriters == null) {
+            return;
+        }
+        try {
+            ArrayList<EntityData> payload = new ArrayList<EntityData>(rowsPerMessage);
+            for (int i = 0; i < LookupTable.PARTITION_COUNT; i++) {
+                if (probeWriters[i] != null) {
+                    probeWriters[i].close();
+                    probeWriters[i] = null;
+                    Map<Object, Object> partition = lookup.loadPartition(i);
+                    try (EntityDataSpillReader reader = new EntityDataSpillReader(probeFiles[i], getInputModel().getAttributeIndex())) {
+                        EntityData oldData = reader.read();
+                        while (oldData != null) {
+                            payload.add(enhance(oldData,
+                                    partition.get(JoinKey.of(oldData, replacementKeyAttributeIds, replacementKeyDataTypes))));
+                            if (payload.size() >= rowsPerMessage) {
+                                callback.sendEntityDataMessage(null, payload);
+                                payload = new ArrayList<EntityData>(rowsPerMessage);
+                            }
+                            oldData = reader.read();
+                        }
+                    }
+                    probeFiles[i].delete();
+                    probeFiles[i] = null;
+                }
+            }
+            if (payload.size() > 0) {
+                callback.sendEntityDataMessage(null, payload);
+            }
+        } catch (IOException e) {
+            throw new IoException(e);
+        } finally {
+            closeProbePartitions();
+        }
+    }
+
+    protected void closeQueue() {
+        if (queueWriter != null) {
+            try {
+                queueWriter.close();
+            } catch (IOException e) {
+            }
+            queueWriter = null;
+        }
+        if (queueFile != null) {
+            queueFile.delete();
+            queueFile = null;
+        }
+        queuedMessageSizes.clear();
+    }
+
+    protected void closeProbePartitions() {
+        if (probeWriters != null) {
+            for (int i = 0; i < probeWriters.length; i++) {
+                if (probeWriters[i] != null) {
+                    try {
+                        probeWriters[i].close();
+                    } catch (IOException e) {
+                    }
+                }
+                if (probeFiles[i] != null) {
+                    probeFiles[i].delete();
+                }
+            }
+            probeWriters = null;
+            probeFiles = null;
+        }
+    }
+
+    protected String getAgentId() {
+        return getComponentContext().getDeployment().getAgentId();
+    }
+
+    protected List<String> getKeyAttributeIds(String attributeId, String additionalAttributes) {
+        List<String> attributeIds = new ArrayList<String>();
+        attributeIds.add(attributeId);
+        if (!isBlank(additionalAttributes)) {
+            Model model = getInputModel();
+            for (String name : additionalAttributes.split(",")) {
+                String[] elements = name.trim().split("[.]");
+                ModelAttribute attribute = elements.length == 2 ? model.getAttributeByName(elements[0], elements[1]) : null;
+                if (attribute == null) {
+                    throw new MisconfiguredException("Additional key attributes must be valid 'entity.attribute' names.  Could not find %s",
+                            name);
+                }
+                attributeIds.add(attribute.getId());
+            }
+        }
+        return attributeIds;
+    }
+
+    protected DataType[] getDataTypes(String[] attributeIds) {
+        DataType[] dataTypes = new DataType[attributeIds.length];
+        for (int i = 0; i < attributeIds.length; i++) {
+            ModelAttribute attribute = getInputModel().getAttributeById(attributeIds[i]);
+            dataTypes[i] = attribute != null ? attribute.getDataType() : null;
+        }
+        return dataTypes;
+    }
+
 }
@@ -0,0 +1,147 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Agent wide registry of named lookup tables. A table is built by the first
+ * execution that asks for it and is then shared, read only, by every step
+ * thread and every later execution until its version changes, its time to
+ * live expires or it is invalidated.
+ */
+public class LookupCache {
+
+    static final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    private LookupCache() {
+    }
+
+    /**
+     * @return the cached entry for the name. If there is no usable entry a
+     *         new, incomplete one is registered and the calling execution is
+     *         expected to build it.
+     */
+    public static synchronized Entry acquire(String agentId, String name, String version, long timeToLiveMs, String executionId,
+            int maxEntriesInMemory) {
+        String key = getKey(agentId, name);
+        Entry entry = entries.get(key);
+        if (entry != null && (entry.isExpired() || !Objects.equals(entry.version, version))) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(key, version, timeToLiveMs, executionId, new LookupTable(maxEntriesInMemory));
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    public static synchronized void invalidate(String agentId, String name) {
+        entries.remove(getKey(agentId, name));
+    }
+
+    /**
+     * Removes the entry only if it is still the one registered for its name.
+     */
+    public static synchronized void invalidate(Entry entry) {
+        if (entries.get(entry.key) == entry) {
+            entries.remove(entry.key);
+        }
+    }
+
+    public static synchronized void invalidateAll(String agentId) {
+        String prefix = getKey(agentId, "");
+        Iterator<String> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith(prefix)) {
+                keys.remove();
+            }
+        }
+    }
+
+    static String getKey(String agentId, String name) {
+        return agentId + "/" + name;
+    }
+
+    public static class Entry {
+
+        final String key;
+
+        final String version;
+
+        final long expiresAt;
+
+        final String executionId;
+
+        final LookupTable table;
+
+        volatile boolean complete;
+
+        Entry(String key, String version, long timeToLiveMs, String executionId, LookupTable table) {
+            this.key = key;
+            this.version = version;
+            this.expiresAt = timeToLiveMs > 0 ? System.currentTimeMillis() + timeToLiveMs : Long.MAX_VALUE;
+            this.executionId = executionId;
+            this.table = table;
+        }
+
+        public LookupTable getTable() {
+            return table;
+        }
+
+        public String getExecutionId() {
+            return executionId;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+
+        /**
+         * Called by the building execution once the lookup source has sent
+         * all of its rows. Takes the table's lock, which every put holds, so
+         * the table isn't published while a put is in progress. Tables that
+         * had to be partitioned to disk are not shared.
+         */
+        public synchronized void complete() {
+            synchronized (table) {
+                if (!complete) {
+                    table.complete();
+                    if (table.isPartitioned()) {
+                        invalidate(this);
+                    } else {
+                        complete = true;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
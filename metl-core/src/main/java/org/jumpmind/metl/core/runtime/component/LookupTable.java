@@ -0,0 +1,208 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.exception.IoException;
+import org.jumpmind.metl.core.runtime.EntityDataSpillReader;
+import org.jumpmind.metl.core.runtime.EntityDataSpillWriter;
+
+/**
+ * The build side of a lookup. Entries are kept in a hash map until there are
+ * more than the configured maximum, then every entry is hash partitioned by
+ * key to files on disk. A partitioned table is joined one partition at a
+ * time, with only that partition's entries loaded.
+ */
+public class LookupTable {
+
+    public static final int PARTITION_COUNT = 32;
+
+    final int maxEntriesInMemory;
+
+    Map<Object, Object> entries = new HashMap<Object, Object>();
+
+    File[] files;
+
+    DataOutputStream[] outs;
+
+    long size;
+
+    public LookupTable(int maxEntriesInMemory) {
+        this.maxEntriesInMemory = maxEntriesInMemory;
+    }
+
+    public void put(Object key, Object value) {
+        size++;
+        if (files == null) {
+            entries.put(key, value);
+            if (maxEntriesInMemory > 0 && entries.size() > maxEntriesInMemory) {
+                partition();
+            }
+        } else {
+            write(key, value);
+        }
+    }
+
+    /**
+     * @return the value for the key. Only valid for a table that has not
+     *         been partitioned.
+     */
+    public Object get(Object key) {
+        return entries.get(key);
+    }
+
+    public boolean isPartitioned() {
+        return files != null;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public static int getPartition(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % PARTITION_COUNT;
+    }
+
+    /**
+     * Finishes writing the partitions. Call once every entry has been put. A
+     * later put reopens the partitions it writes to, and the table has to be
+     * completed again before its partitions are loaded.
+     */
+    public void complete() {
+        if (outs != null) {
+            try {
+                for (DataOutputStream out : outs) {
+                    if (out != null) {
+                        out.close();
+                    }
+                }
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+            outs = null;
+        }
+    }
+
+    public Map<Object, Object> loadPartition(int partition) {
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        if (files[partition] != null) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(files[partition])))) {
+                while (true) {
+                    Object key;
+                    try {
+                        key = readKey(in);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    map.put(key, EntityDataSpillReader.readValue(in));
+                }
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+        return map;
+    }
+
+    public void close() {
+        complete();
+        if (files != null) {
+            for (File file : files) {
+                if (file != null && !file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+            files = null;
+        }
+        entries = new HashMap<Object, Object>();
+        size = 0;
+    }
+
+    protected void partition() {
+        files = new File[PARTITION_COUNT];
+        outs = new DataOutputStream[PARTITION_COUNT];
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+        entries = new HashMap<Object, Object>();
+    }
+
+    protected void write(Object key, Object value) {
+        int partition = getPartition(key);
+        try {
+            if (outs == null) {
+                outs = new DataOutputStream[PARTITION_COUNT];
+            }
+            if (outs[partition] == null) {
+                boolean append = files[partition] != null;
+                if (!append) {
+                    files[partition] = File.createTempFile("metl-lookup", ".partition");
+                }
+                outs[partition] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[partition], append)));
+            }
+            writeKey(outs[partition], key);
+            EntityDataSpillWriter.writeValue(outs[partition], value);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    static void writeKey(DataOutput out, Object key) throws IOException {
+        if (key instanceof List) {
+            List<?> values = (List<?>) key;
+            out.writeInt(values.size());
+            for (Object value : values) {
+                EntityDataSpillWriter.writeValue(out, value);
+            }
+        } else {
+            out.writeInt(-1);
+            EntityDataSpillWriter.writeValue(out, key);
+        }
+    }
+
+    static Object readKey(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return EntityDataSpillReader.readValue(in);
+        }
+        List<Object> values = new ArrayList<Object>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(EntityDataSpillReader.readValue(in));
+        }
+        return values;
+    }
+
+}
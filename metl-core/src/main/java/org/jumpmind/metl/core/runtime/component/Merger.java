@@ -20,17 +20,24 @@
  */
 package org.jumpmind.metl.core.runtime.component;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.jumpmind.exception.IoException;
 import org.jumpmind.metl.core.model.Component;
 import org.jumpmind.metl.core.model.ComponentAttributeSetting;
+import org.jumpmind.metl.core.model.DataType;
 import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
 import org.jumpmind.metl.core.runtime.EntityData;
 import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.EntityDataSpillReader;
+import org.jumpmind.metl.core.runtime.EntityDataSpillWriter;
 import org.jumpmind.metl.core.runtime.Message;
 import org.jumpmind.metl.core.runtime.flow.ISendMessageCallback;
 
@@ -40,10 +47,24 @@ public class Merger extends AbstractComponentRuntime {
 
     public final static String MERGE_ATTRIBUTE = "merge.attribute";
 
+    public final static String MAX_ROWS_IN_MEMORY = "max.rows.in.memory";
+
+    static final int PARTITION_COUNT = 32;
+
     Map<Object, EntityData> mergedData = new LinkedHashMap<Object, EntityData>();
 
     List<String> attributesToMergeOn = new ArrayList<String>();
 
+    String[] mergeAttributeIds;
+
+    DataType[] mergeDataTypes;
+
+    int maxRowsInMemory = 100000;
+
+    File[] partitionFiles;
+
+    EntityDataSpillWriter[] partitionWriters;
+
     @Override
     public void start() {
         Component component = getComponent();
@@ -61,6 +82,14 @@ public class Merger extends AbstractComponentRuntime {
                 }
             }
         }
+
+        mergeAttributeIds = attributesToMergeOn.toArray(new String[attributesToMergeOn.size()]);
+        mergeDataTypes = new DataType[mergeAttributeIds.length];
+        for (int i = 0; i < mergeAttributeIds.length; i++) {
+            ModelAttribute attribute = inputModel.getAttributeById(mergeAttributeIds[i]);
+            mergeDataTypes[i] = attribute != null ? attribute.getDataType() : null;
+        }
+        maxRowsInMemory = properties.getInt(MAX_ROWS_IN_MEMORY, maxRowsInMemory);
     }
 
     @Override
@@ -68,6 +97,12 @@ public class Merger extends AbstractComponentRuntime {
         return false;
     }
 
+    @Override
+    public void stop() {
+        closePartitions();
+        super.stop();
+    }
+
     @Override
     public void handle(Message inputMessage, ISendMessageCallback callback, boolean unitOfWorkBoundaryReached) {
         if (inputMessage instanceof EntityDataMessage) {
@@ -76,40 +111,125 @@ public class Merger extends AbstractComponentRuntime {
         }
 
         if (unitOfWorkBoundaryReached) {
+            int rowsPerMessage = properties.getInt(ROWS_PER_MESSAGE);
             ArrayList<EntityData> dataToSend = new ArrayList<EntityData>();
-            Iterator<EntityData> itr = mergedData.values().iterator();
-            while (itr.hasNext()) {
-                if (dataToSend.size() >= properties.getInt(ROWS_PER_MESSAGE)) {
-                    callback.sendEntityDataMessage(null, dataToSend);
-                    dataToSend = new ArrayList<EntityData>();
+            if (partitionWriters == null) {
+                dataToSend = send(mergedData, dataToSend, rowsPerMessage, callback);
+            } else {
+                info("Merging rows that were spilled to disk");
+                for (int i = 0; i < PARTITION_COUNT; i++) {
+                    if (partitionWriters[i] != null) {
+                        dataToSend = send(loadPartition(i), dataToSend, rowsPerMessage, callback);
+                    }
                 }
-                dataToSend.add(itr.next());
+                closePartitions();
             }
             if (dataToSend != null && dataToSend.size() > 0) {
                 callback.sendEntityDataMessage(null, dataToSend);
             }
+            mergedData.clear();
+        }
+    }
+
+    private ArrayList<EntityData> send(Map<Object, EntityData> data, ArrayList<EntityData> dataToSend, int rowsPerMessage,
+            ISendMessageCallback callback) {
+        Iterator<EntityData> itr = data.values().iterator();
+        while (itr.hasNext()) {
+            if (dataToSend.size() >= rowsPerMessage) {
+                callback.sendEntityDataMessage(null, dataToSend);
+                dataToSend = new ArrayList<EntityData>();
+            }
+            dataToSend.add(itr.next());
         }
+        return dataToSend;
     }
 
     private void join(ArrayList<EntityData> records) {
         for (EntityData entityData : records) {
             getComponentStatistics().incrementNumberEntitiesProcessed(threadNumber);
-            StringBuilder key = new StringBuilder();
-            for (String attributeId : attributesToMergeOn) {
-                if (key.length() > 0) {
-                    key.append("&");
+            Object keyValue = JoinKey.of(entityData, mergeAttributeIds, mergeDataTypes);
+            if (partitionWriters != null) {
+                spill(keyValue, entityData);
+            } else {
+                EntityData existingRecord = mergedData.get(keyValue);
+                if (existingRecord != null) {
+                    mergeRecords(entityData, existingRecord);
+                } else {
+                    mergedData.put(keyValue, entityData.copy());
+                    if (maxRowsInMemory > 0 && mergedData.size() > maxRowsInMemory) {
+                        spillAll();
+                    }
                 }
-                key.append(attributeId);
-                key.append("=");
-                key.append(entityData.get(attributeId));
             }
-            Object keyValue = key.toString();
-            EntityData existingRecord = mergedData.get(keyValue);
-            if (existingRecord != null) {
-                mergeRecords(entityData, existingRecord);
-            } else {
-                mergedData.put(keyValue, entityData.copy());
+        }
+    }
+
+    /**
+     * Moves the rows merged so far to hash partitions on disk. Every row
+     * received after this is appended to its partition and merged when the
+     * unit of work is complete.
+     */
+    private void spillAll() {
+        info("More than %d rows were received.  Spilling merged rows to disk", maxRowsInMemory);
+        partitionFiles = new File[PARTITION_COUNT];
+        partitionWriters = new EntityDataSpillWriter[PARTITION_COUNT];
+        for (Map.Entry<Object, EntityData> entry : mergedData.entrySet()) {
+            spill(entry.getKey(), entry.getValue());
+        }
+        mergedData.clear();
+    }
+
+    private void spill(Object key, EntityData entityData) {
+        int partition = LookupTable.getPartition(key);
+        try {
+            if (partitionWriters[partition] == null) {
+                partitionFiles[partition] = File.createTempFile("metl-merger", ".partition");
+                partitionWriters[partition] = new EntityDataSpillWriter(partitionFiles[partition], getInputModel().getAttributeIndex());
+            }
+            partitionWriters[partition].write(entityData);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    private Map<Object, EntityData> loadPartition(int partition) {
+        Map<Object, EntityData> merged = new LinkedHashMap<Object, EntityData>();
+        try {
+            partitionWriters[partition].close();
+            try (EntityDataSpillReader reader = new EntityDataSpillReader(partitionFiles[partition], getInputModel().getAttributeIndex())) {
+                EntityData entityData = reader.read();
+                while (entityData != null) {
+                    Object keyValue = JoinKey.of(entityData, mergeAttributeIds, mergeDataTypes);
+                    EntityData existingRecord = merged.get(keyValue);
+                    if (existingRecord != null) {
+                        mergeRecords(entityData, existingRecord);
+                    } else {
+                        merged.put(keyValue, entityData);
+                    }
+                    entityData = reader.read();
+                }
+            }
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+        return merged;
+    }
+
+    private void closePartitions() {
+        if (partitionWriters != null) {
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                if (partitionWriters[i] != null) {
+                    try {
+                        partitionWriters[i].close();
+                    } catch (IOException e) {
+                    }
+                    if (!partitionFiles[i].delete()) {
+                        partitionFiles[i].deleteOnExit();
+                    }
+                }
             }
+            partitionWriters = null;
+            partitionFiles = null;
         }
     }
 
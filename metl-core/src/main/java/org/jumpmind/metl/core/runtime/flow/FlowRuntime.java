@@ -384,14 +384,22 @@ public class FlowRuntime {
     }
 
     /*
-     * Waiting until all steps have exited
+     * Waiting until all steps have exited.  Steps signal us when they finish so
+     * the timeout is only a safety net.
      */
-    public void waitForFlowCompletion() {
+    public synchronized void waitForFlowCompletion() {
         while (isRunning()) {
-            AppUtils.sleep(5);
+            try {
+                wait(500);
+            } catch (InterruptedException e) {
+            }
         }
     }
 
+    protected synchronized void stepFinished() {
+        notifyAll();
+    }
+
     public void notifyStepsTheFlowIsComplete() {
         List<Throwable> allErrors = getAllErrors(); 
 
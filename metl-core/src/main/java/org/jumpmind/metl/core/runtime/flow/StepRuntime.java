@@ -60,9 +60,9 @@ import org.jumpmind.metl.core.runtime.component.ComponentContext;
 import org.jumpmind.metl.core.runtime.component.ComponentStatistics;
 import org.jumpmind.metl.core.runtime.component.IComponentRuntime;
 import org.jumpmind.metl.core.runtime.component.IComponentRuntimeFactory;
+import org.jumpmind.metl.core.runtime.component.ISourceDataConsumer;
 import org.jumpmind.metl.core.util.LogUtils;
 import org.jumpmind.metl.core.util.ThreadUtils;
-import org.jumpmind.util.AppUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,17 +76,24 @@ public class StepRuntime implements Runnable {
 
     public static final String UNIT_OF_WORK_FLOW = "Flow";
 
+    /*
+     * Upper bound on how long an idle step waits for a signal before it
+     * rechecks its running state. Steps are woken as soon as a message is
+     * queued, so this only matters for missed state changes.
+     */
+    static final long IDLE_WAIT_MS = 500;
+
     protected BlockingQueue<Message> inQueue;
 
     protected Executor componentRuntimeExecutor;
     
-    boolean running = false;
+    volatile boolean running = false;
     
-    boolean cancelling = false;
+    volatile boolean cancelling = false;
 
-    boolean cancelled = false;
+    volatile boolean cancelled = false;
 
-    boolean finished = false;
+    volatile boolean finished = false;
 
     Throwable error;
 
@@ -122,6 +129,12 @@ public class StepRuntime implements Runnable {
     
     int threadCount;
 
+    boolean transferPayloadOwnership;
+
+    boolean waitForThreadsBeforeControlMessages;
+
+    Boolean dataNeededByTargets;
+
     public StepRuntime(IComponentRuntimeFactory componentFactory, IDefinitionFactory componentDefinitionFactory, ComponentContext componentContext, FlowRuntime flowRuntime) {
         this.flowRuntime = flowRuntime;
         this.componentContext = componentContext;
@@ -134,6 +147,9 @@ public class StepRuntime implements Runnable {
         this.componentDefintion = componentDefintionFactory.getComponentDefinition(componentContext.getFlowStep().getComponent().getProjectVersionId(), getComponentType());        
         Component component = componentContext.getFlowStep().getComponent();
         this.threadCount = component.getInt(StepRuntime.THREAD_COUNT, 1);        
+        this.transferPayloadOwnership = componentDefintion != null && componentDefintion.isTransferPayloadOwnership();
+        this.waitForThreadsBeforeControlMessages = componentDefintion != null
+                && componentDefintion.isWaitForThreadsBeforeControlMessages();
         for (int threadNumber = 1; threadNumber <= threadCount; threadNumber++) {
             createComponentRuntime(threadNumber);
         }
@@ -189,9 +205,18 @@ public class StepRuntime implements Runnable {
                     throw new CancellationException();
                 }
             }
+            signal();
         }
     }
 
+    /*
+     * Wake up the step thread (and any threads waiting for the active count to
+     * drop) because a message was queued or the state of the step changed
+     */
+    protected synchronized void signal() {
+        notifyAll();
+    }
+
     public void start() {
         try {
             componentContext.setComponentStatistics(new ComponentStatistics());    
@@ -271,19 +296,23 @@ public class StepRuntime implements Runnable {
                 Message inputMessage = null;
                 synchronized (this) {
                     inputMessage = inQueue.poll();
+                    if (inputMessage == null && running && !cancelled) {
+                        /*
+                         * Releases the monitor while idle so queue() can
+                         * signal us as soon as a message arrives
+                         */
+                        waitForSignal(IDLE_WAIT_MS);
+                        inputMessage = inQueue.poll();
+                    }
                     if (inputMessage != null && !(inputMessage instanceof ShutdownMessage)) {
                         activeCount++;
                     }
                 }
-                if (running && !cancelled) {
-                    if (inputMessage != null) {
-                        if (inputMessage instanceof ShutdownMessage) {
-                            process((ShutdownMessage) inputMessage, target);
-                        } else {
-                            process(inputMessage, target);
-                        }
-                    } else if (running && !cancelled) {
-                        AppUtils.sleep(50);
+                if (running && !cancelled && inputMessage != null) {
+                    if (inputMessage instanceof ShutdownMessage) {
+                        process((ShutdownMessage) inputMessage, target);
+                    } else {
+                        process(inputMessage, target);
                     }
                 }
             }
@@ -294,6 +323,20 @@ public class StepRuntime implements Runnable {
     
     protected synchronized void decrementActiveCount() {
         activeCount--;
+        notifyAll();
+    }
+
+    protected synchronized void waitForOtherThreadsToFinish() {
+        while (activeCount > 1 && !cancelling) {
+            waitForSignal(IDLE_WAIT_MS);
+        }
+    }
+
+    private void waitForSignal(long timeout) {
+        try {
+            wait(timeout);
+        } catch (InterruptedException e) {
+        }
     }
     
     protected synchronized int getActiveCountPlusQueueSize() {
@@ -308,8 +351,9 @@ public class StepRuntime implements Runnable {
          * race conditions.
          */
         if (threadCount > 1) {
-            while (unitOfWorkBoundaryReached && activeCount > 1) {
-                AppUtils.sleep(5);
+            if (unitOfWorkBoundaryReached
+                    || (waitForThreadsBeforeControlMessages && inputMessage instanceof ControlMessage)) {
+                waitForOtherThreadsToFinish();
             }
             this.componentRuntimeExecutor.execute(() -> processOnAnotherThread(inputMessage, unitOfWorkBoundaryReached, target));    
         } else {
@@ -317,6 +361,33 @@ public class StepRuntime implements Runnable {
         }
     }
 
+    /**
+     * A reader that starts the flow is skipped when every one of its targets
+     * has said it doesn't need the reader's data, for example a Lookup that
+     * is using a shared cached table. The reader's control message is still
+     * sent so its targets see it finish.
+     */
+    protected boolean isDataNeededByTargets() {
+        if (dataNeededByTargets == null) {
+            boolean needed = !startStep || componentDefintion == null
+                    || !"READER".equals(componentDefintion.getCategory())
+                    || !componentDefintion.isAutoSendControlMessages() || targetStepRuntimes.isEmpty();
+            String stepId = componentContext.getFlowStep().getId();
+            for (StepRuntime targetRuntime : targetStepRuntimes) {
+                for (IComponentRuntime runtime : targetRuntime.getComponentRuntimes()) {
+                    needed |= !(runtime instanceof ISourceDataConsumer)
+                            || ((ISourceDataConsumer) runtime).isDataNeededFrom(stepId);
+                }
+            }
+            if (!needed) {
+                componentContext.getExecutionTracker().log(ThreadUtils.getThreadNumber(threadCount), LogLevel.INFO,
+                        componentContext, "Not reading because none of the target steps need the data");
+            }
+            dataNeededByTargets = needed;
+        }
+        return dataNeededByTargets;
+    }
+
     protected void processOnAnotherThread(Message inputMessage, boolean unitOfWorkBoundaryReached, SendMessageCallback callback) {
         int threadNumber = ThreadUtils.getThreadNumber(threadCount);
         try {
@@ -347,7 +418,9 @@ public class StepRuntime implements Runnable {
             try {
                 ComponentContext.projectVersionId.set(componentContext.getManipulatedFlow().getProjectVersionId());
                 Thread.currentThread().setContextClassLoader(componentRuntime.getClass().getClassLoader());
-                componentRuntime.handle(inputMessage, callback, unitOfWorkBoundaryReached);
+                if (isDataNeededByTargets()) {
+                    componentRuntime.handle(inputMessage, callback, unitOfWorkBoundaryReached);
+                }
             } catch (CancellationException e) {
                 log.info("Handle was interrupted by cancellation for {}", componentContext.getFlowStep().getName());
             }
@@ -500,6 +573,8 @@ public class StepRuntime implements Runnable {
         }
 
         recordFlowStepFinished();
+        signal();
+        flowRuntime.stepFinished();
     }
 
     private void shutdownThreads(boolean waitForShutdown) {
@@ -703,6 +778,27 @@ public class StepRuntime implements Runnable {
             return payload;
         }
 
+        /*
+         * Gives an additional target its own copy of a message whose payload
+         * ownership was transferred to the first target
+         */
+        private Message copyForAdditionalTarget(Message message) {
+            Message copy = message;
+            String originatingStepId = message.getHeader().getOriginatingStepId();
+            if (message instanceof EntityDataMessage) {
+                copy = new EntityDataMessage(originatingStepId, copy(((EntityDataMessage) message).getPayload()));
+            } else if (message instanceof TextMessage) {
+                copy = new TextMessage(originatingStepId, copy(((TextMessage) message).getPayload()));
+            } else if (message instanceof BinaryMessage) {
+                copy = new BinaryMessage(originatingStepId, copy(((BinaryMessage) message).getPayload()));
+            }
+            if (copy != message) {
+                copy.getHeader().putAll(message.getHeader());
+                copy.getHeader().setSequenceNumber(message.getHeader().getSequenceNumber());
+            }
+            return copy;
+        }
+
         private void sendMessage(Message message, String... targetFlowStepIds) {
             ComponentStatistics statistics = componentContext.getComponentStatistics();
             int threadNumber = ThreadUtils.getThreadNumber(threadCount);
@@ -729,6 +825,7 @@ public class StepRuntime implements Runnable {
 
             Collection<String> targetStepIds = targetFlowStepIds != null ? Arrays.asList(targetFlowStepIds) : Collections.emptyList();
 
+            int forwardCount = 0;
             for (StepRuntime targetRuntime : targetStepRuntimes) {
                 boolean forward = targetStepIds == null || targetStepIds.size() == 0
                         || targetStepIds.contains(targetRuntime.getComponentContext().getFlowStep().getId());
@@ -738,7 +835,11 @@ public class StepRuntime implements Runnable {
                             log.debug("Sending " + message.getClass().getSimpleName() + " to "
                                     + targetRuntime.getComponentContext().getFlowStep().getName());
                         }
-                        targetRuntime.queue(message);
+                        if (transferPayloadOwnership && forwardCount++ > 0) {
+                            targetRuntime.queue(copyForAdditionalTarget(message));
+                        } else {
+                            targetRuntime.queue(message);
+                        }
                         if (message instanceof ControlMessage) {
                             targetStepRuntimeUnitOfWorkSent.add(targetRuntime.getComponentContext().getFlowStep().getId());
                         }
@@ -798,7 +899,9 @@ public class StepRuntime implements Runnable {
 
         @Override
         public void sendBinaryMessage(Map<String, Serializable> messageHeaders, byte[] payload, String... targetStepIds) {
-            payload = copy(payload);
+            if (!transferPayloadOwnership) {
+                payload = copy(payload);
+            }
             FlowStep flowStep = componentContext.getFlowStep();
             sendMessage(createMessage(new BinaryMessage(flowStep.getId(), payload), messageHeaders), targetStepIds);
             contentMessagesSentCount++;
@@ -807,7 +910,9 @@ public class StepRuntime implements Runnable {
         @Override
         public void sendEntityDataMessage(Map<String, Serializable> messageHeaders, ArrayList<EntityData> payload, String... targetStepIds) {
             validateEntityData(payload);
-            payload = copy(payload);
+            if (!transferPayloadOwnership) {
+                payload = copy(payload);
+            }
             FlowStep flowStep = componentContext.getFlowStep();
             sendMessage(createMessage(new EntityDataMessage(flowStep.getId(), payload), messageHeaders), targetStepIds);
             contentMessagesSentCount++;
@@ -822,7 +927,9 @@ public class StepRuntime implements Runnable {
 
         @Override
         public void sendTextMessage(Map<String, Serializable> messageHeaders, ArrayList<String> payload, String... targetStepIds) {
-            payload = copy(payload);
+            if (!transferPayloadOwnership) {
+                payload = copy(payload);
+            }
             FlowStep flowStep = componentContext.getFlowStep();
             sendMessage(createMessage(new TextMessage(flowStep.getId(), payload), messageHeaders), targetStepIds);
             contentMessagesSentCount++;
@@ -830,12 +937,19 @@ public class StepRuntime implements Runnable {
 
         @Override
         public void forward(Map<String, Serializable> messageHeaders, Message message) {
+            /*
+             * A forwarded payload belongs to the inbound message, so it is
+             * never the sender's to give away
+             */
             if (message instanceof EntityDataMessage) {
-                sendEntityDataMessage(messageHeaders, ((EntityDataMessage) message).getPayload());
+                ArrayList<EntityData> payload = ((EntityDataMessage) message).getPayload();
+                sendEntityDataMessage(messageHeaders, transferPayloadOwnership ? copy(payload) : payload);
             } else if (message instanceof TextMessage) {
-                sendTextMessage(messageHeaders, ((TextMessage) message).getPayload());
+                ArrayList<String> payload = ((TextMessage) message).getPayload();
+                sendTextMessage(messageHeaders, transferPayloadOwnership ? copy(payload) : payload);
             } else if (message instanceof BinaryMessage) {
-                sendBinaryMessage(messageHeaders, ((BinaryMessage) message).getPayload());
+                byte[] payload = ((BinaryMessage) message).getPayload();
+                sendBinaryMessage(messageHeaders, transferPayloadOwnership ? copy(payload) : payload);
             }
         }
 
@@ -0,0 +1,87 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ModelTest {
+
+    Model model;
+
+    ModelEntity person;
+
+    ModelAttribute personName;
+
+    ModelAttribute addressId;
+
+    @Before
+    public void setup() {
+        model = new Model("m");
+        person = new ModelEntity("person", "PERSON");
+        person.addModelAttribute(new ModelAttribute("personId", "person", "ID"));
+        personName = new ModelAttribute("personName", "person", "NAME");
+        person.addModelAttribute(personName);
+        ModelEntity address = new ModelEntity("address", "ADDRESS");
+        addressId = new ModelAttribute("addressId", "address", "ID");
+        address.addModelAttribute(addressId);
+        model.getModelEntities().add(person);
+        model.getModelEntities().add(address);
+    }
+
+    @Test
+    public void testLookupsIgnoreCase() {
+        assertSame(person, model.getEntityById("PERSON"));
+        assertSame(person, model.getEntityByName("person"));
+        assertSame(personName, model.getAttributeById("PERSONNAME"));
+        assertSame(personName, model.getAttributeByName("Person", "Name"));
+        assertSame(addressId, model.getAttributeByName("ADDRESS", "id"));
+        assertEquals(2, model.getAttributesByName("id").size());
+        assertNull(model.getAttributeById("unknown"));
+        assertNull(model.getEntityByName(null));
+    }
+
+    @Test
+    public void testLookupsSeeModelChanges() {
+        assertNull(model.getAttributeById("personAge"));
+        ModelAttribute personAge = new ModelAttribute("personAge", "person", "AGE");
+        person.addModelAttribute(personAge);
+        assertSame(personAge, model.getAttributeById("personAge"));
+        assertSame(personAge, model.getAttributeByName("PERSON", "AGE"));
+
+        personName.setName("FULL_NAME");
+        assertNull(model.getAttributeByName("PERSON", "NAME"));
+        assertSame(personName, model.getAttributeByName("PERSON", "FULL_NAME"));
+        assertEquals(1, model.getAttributesByName("FULL_NAME").size());
+
+        person.setName("EMPLOYEE");
+        assertNull(model.getEntityByName("PERSON"));
+        assertSame(person, model.getEntityByName("EMPLOYEE"));
+
+        person.removeModelAttribute(personAge);
+        assertNull(model.getAttributeById("personAge"));
+    }
+
+}
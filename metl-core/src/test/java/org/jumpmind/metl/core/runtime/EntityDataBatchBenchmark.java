@@ -0,0 +1,174 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.symmetric.csv.CsvReader;
+import org.jumpmind.symmetric.csv.CsvWriter;
+
+/**
+ * Measures how quickly batches of rows are encoded and decoded with
+ * {@link EntityDataBatchWriter} compared to java serialization of the row
+ * maps and to csv records like the ones written to step logs. The csv
+ * numbers are only a reference, values come back as strings.
+ */
+public class EntityDataBatchBenchmark {
+
+    static final int DEFAULT_ROWS = 1000000;
+
+    static final int ROWS_PER_BATCH = 1000;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        List<ArrayList<EntityData>> batches = createBatches(rows);
+
+        for (int i = 0; i < 3; i++) {
+            columnar(batches);
+            serialized(batches);
+            csv(batches);
+        }
+
+        System.out.println(String.format("%d rows in batches of %d", rows, ROWS_PER_BATCH));
+        print("columnar", columnar(batches), rows);
+        print("java serialization", serialized(batches), rows);
+        print("csv", csv(batches), rows);
+    }
+
+    static ArrayList<ArrayList<EntityData>> createBatches(int rows) {
+        ArrayList<ArrayList<EntityData>> batches = new ArrayList<ArrayList<EntityData>>();
+        ArrayList<EntityData> batch = null;
+        for (int i = 0; i < rows; i++) {
+            if (batch == null || batch.size() == ROWS_PER_BATCH) {
+                batch = new ArrayList<EntityData>(ROWS_PER_BATCH);
+                batches.add(batch);
+            }
+            EntityData data = new EntityData();
+            data.put("id", i);
+            data.put("customer", "Customer " + (i % 5000));
+            data.put("status", i % 10 == 0 ? "CLOSED" : "OPEN");
+            data.put("amount", new BigDecimal(i % 100000).movePointLeft(2));
+            data.put("created", new Timestamp(1500000000000l + i));
+            data.put("note", i % 3 == 0 ? null : "note for row " + i);
+            batch.add(data);
+        }
+        return batches;
+    }
+
+    static long[] columnar(List<ArrayList<EntityData>> batches) {
+        long ts = System.nanoTime();
+        List<byte[]> encoded = new ArrayList<byte[]>(batches.size());
+        long bytes = 0;
+        for (ArrayList<EntityData> batch : batches) {
+            byte[] batchBytes = EntityDataBatchWriter.toBytes(batch);
+            bytes += batchBytes.length;
+            encoded.add(batchBytes);
+        }
+        long encodeNanos = System.nanoTime() - ts;
+
+        ts = System.nanoTime();
+        for (byte[] batchBytes : encoded) {
+            EntityDataBatchReader.fromBytes(batchBytes);
+        }
+        return new long[] { encodeNanos, System.nanoTime() - ts, bytes };
+    }
+
+    static long[] serialized(List<ArrayList<EntityData>> batches) throws Exception {
+        long ts = System.nanoTime();
+        List<byte[]> encoded = new ArrayList<byte[]>(batches.size());
+        long bytes = 0;
+        for (ArrayList<EntityData> batch : batches) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+                objectOut.writeObject(batch);
+            }
+            bytes += out.size();
+            encoded.add(out.toByteArray());
+        }
+        long encodeNanos = System.nanoTime() - ts;
+
+        ts = System.nanoTime();
+        for (byte[] batchBytes : encoded) {
+            try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(batchBytes))) {
+                objectIn.readObject();
+            }
+        }
+        return new long[] { encodeNanos, System.nanoTime() - ts, bytes };
+    }
+
+    static long[] csv(List<ArrayList<EntityData>> batches) throws Exception {
+        long ts = System.nanoTime();
+        List<byte[]> encoded = new ArrayList<byte[]>(batches.size());
+        long bytes = 0;
+        for (ArrayList<EntityData> batch : batches) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CsvWriter writer = new CsvWriter(new OutputStreamWriter(out, UTF8), ',');
+            writer.writeRecord(batch.get(0).keySet().toArray(new String[0]));
+            for (EntityData data : batch) {
+                String[] values = new String[data.size()];
+                int i = 0;
+                for (Object value : data.values()) {
+                    values[i++] = value != null ? value.toString() : null;
+                }
+                writer.writeRecord(values);
+            }
+            writer.close();
+            bytes += out.size();
+            encoded.add(out.toByteArray());
+        }
+        long encodeNanos = System.nanoTime() - ts;
+
+        ts = System.nanoTime();
+        for (byte[] batchBytes : encoded) {
+            CsvReader reader = new CsvReader(new InputStreamReader(new ByteArrayInputStream(batchBytes), UTF8), ',');
+            reader.readRecord();
+            String[] headers = reader.getValues();
+            while (reader.readRecord()) {
+                EntityData data = new EntityData();
+                String[] values = reader.getValues();
+                for (int i = 0; i < headers.length; i++) {
+                    data.put(headers[i], values[i]);
+                }
+            }
+            reader.close();
+        }
+        return new long[] { encodeNanos, System.nanoTime() - ts, bytes };
+    }
+
+    static void print(String name, long[] result, int rows) {
+        System.out.println(String.format("%-20s write %8d rows/sec, read %8d rows/sec, %6.1f bytes/row", name,
+                rows * 1000000000l / Math.max(1, result[0]), rows * 1000000000l / Math.max(1, result[1]),
+                result[2] / (double) rows));
+    }
+
+}
@@ -0,0 +1,217 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+import org.junit.Test;
+
+public class EntityDataBatchTest {
+
+    @Test
+    public void testTypedColumns() {
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (int i = 0; i < 20; i++) {
+            EntityData data = new EntityData();
+            data.put("string", "value " + i);
+            data.put("integer", i);
+            data.put("long", (long) i << 40);
+            data.put("double", i / 4d);
+            data.put("boolean", i % 2 == 0);
+            data.put("decimal", new BigDecimal(i).movePointLeft(3).negate());
+            Timestamp timestamp = new Timestamp(1000l * i);
+            timestamp.setNanos(i * 7);
+            data.put("timestamp", timestamp);
+            rows.add(data);
+        }
+        assertRoundTrip(rows);
+    }
+
+    @Test
+    public void testMixedColumns() {
+        Object[] values = new Object[] { "text \u00e9", 1, 2L, new BigDecimal("-12.340"), 1.5d, 2.5f, true, new Timestamp(1000),
+                new java.sql.Date(2000), new java.sql.Time(3000), new Date(4000), new byte[] { 1, 2 },
+                new BigInteger("123456789012345678901234567890"), (short) 7, ChangeType.DEL };
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (Object value : values) {
+            EntityData data = new EntityData();
+            data.put("value", value);
+            rows.add(data);
+        }
+        assertRoundTrip(rows);
+    }
+
+    @Test
+    public void testNullsMissingValuesAndChangeTypes() {
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (int i = 0; i < 19; i++) {
+            EntityData data = new EntityData();
+            data.setChangeType(ChangeType.values()[i % 3]);
+            if (i % 3 != 0) {
+                data.put("sometimes", i % 3 == 1 ? null : i);
+            }
+            data.put("alwaysNull", null);
+            if (i == 18) {
+                data.put("onlyLast", "last");
+            }
+            rows.add(data);
+        }
+        List<EntityData> read = assertRoundTrip(rows);
+        assertFalse(read.get(0).containsKey("sometimes"));
+        assertTrue(read.get(1).containsKey("sometimes"));
+        assertNull(read.get(1).get("sometimes"));
+        assertFalse(read.get(17).containsKey("onlyLast"));
+    }
+
+    @Test
+    public void testDictionaryEncodedStrings() {
+        List<EntityData> rows = new ArrayList<EntityData>();
+        for (int i = 0; i < 5000; i++) {
+            EntityData data = new EntityData();
+            data.put("small", "status " + (i % 3));
+            data.put("large", "code " + (i % 1000));
+            rows.add(data);
+        }
+        assertRoundTrip(rows);
+
+        byte[] dictionary = EntityDataBatchWriter.toBytes(rows);
+        for (EntityData data : rows) {
+            data.put("small", data.get("small") + " " + rows.indexOf(data));
+        }
+        assertTrue(dictionary.length < EntityDataBatchWriter.toBytes(rows).length);
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        assertEquals(0, EntityDataBatchReader.fromBytes(EntityDataBatchWriter.toBytes(new ArrayList<EntityData>())).size());
+    }
+
+    @Test
+    public void testFileOfBatches() throws Exception {
+        ModelEntity entity = new ModelEntity("sale", "SALE");
+        entity.addModelAttribute(new ModelAttribute("amount", "sale", "AMOUNT"));
+        entity.addModelAttribute(new ModelAttribute("name", "sale", "NAME"));
+        Model model = new Model("m");
+        model.getModelEntities().add(entity);
+        ModelAttributeIndex index = model.getAttributeIndex();
+
+        File file = File.createTempFile("batch", ".test");
+        try {
+            try (EntityDataBatchWriter writer = new EntityDataBatchWriter(new FileOutputStream(file), 7)) {
+                for (int i = 0; i < 100; i++) {
+                    EntityData data = new EntityData();
+                    data.put("AMOUNT", new BigDecimal(i));
+                    data.put("name", "name " + i);
+                    data.put("notInModel", i);
+                    writer.write(data);
+                }
+                assertEquals(100, writer.getRowCount());
+            }
+            try (EntityDataBatchReader reader = new EntityDataBatchReader(file, index)) {
+                for (int i = 0; i < 100; i++) {
+                    EntityData data = reader.read();
+                    assertTrue(data instanceof IndexedEntityData);
+                    assertEquals(new BigDecimal(i), data.get(index, index.indexOf("amount")));
+                    assertEquals("name " + i, data.get("name"));
+                    assertEquals(i, data.get("notInModel"));
+                }
+                assertNull(reader.read());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSerializeMessage() throws Exception {
+        EntityDataMessage message = new EntityDataMessage("step");
+        message.getHeader().setSequenceNumber(3);
+        ArrayList<EntityData> rows = new ArrayList<EntityData>();
+        EntityData data = new EntityData();
+        data.put("id", 1);
+        data.put("name", "one");
+        data.setChangeType(ChangeType.CHG);
+        rows.add(data);
+        message.setPayload(rows);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        EntityDataMessage read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (EntityDataMessage) in.readObject();
+        }
+        assertEquals("step", read.getHeader().getOriginatingStepId());
+        assertEquals(3, read.getHeader().getSequenceNumber());
+        assertRows(rows, read.getPayload());
+    }
+
+    protected List<EntityData> assertRoundTrip(List<EntityData> rows) {
+        List<EntityData> read = EntityDataBatchReader.fromBytes(EntityDataBatchWriter.toBytes(rows));
+        assertRows(rows, read);
+        return read;
+    }
+
+    protected void assertRows(List<EntityData> expected, List<EntityData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            EntityData expectedRow = expected.get(i);
+            EntityData actualRow = actual.get(i);
+            assertEquals(expectedRow.getChangeType(), actualRow.getChangeType());
+            assertEquals(expectedRow.keySet(), actualRow.keySet());
+            for (String attributeId : expectedRow.keySet()) {
+                Object value = expectedRow.get(attributeId);
+                if (value instanceof byte[]) {
+                    assertArrayEquals((byte[]) value, (byte[]) actualRow.get(attributeId));
+                } else {
+                    assertEquals(value, actualRow.get(attributeId));
+                    if (value != null) {
+                        assertEquals(value.getClass(), actualRow.get(attributeId).getClass());
+                    }
+                }
+            }
+        }
+    }
+
+}
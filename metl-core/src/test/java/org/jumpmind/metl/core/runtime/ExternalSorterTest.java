@@ -0,0 +1,195 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Iterator;
+
+import org.jumpmind.metl.core.model.DataType;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExternalSorterTest {
+
+    Model model;
+
+    ModelAttributeIndex index;
+
+    ModelAttribute amount;
+
+    ModelAttribute sequence;
+
+    @Before
+    public void setup() {
+        model = new Model("m");
+        ModelEntity entity = new ModelEntity("sale", "SALE");
+        amount = new ModelAttribute("amount", "sale", "AMOUNT");
+        amount.setDataType(DataType.DECIMAL);
+        entity.addModelAttribute(amount);
+        sequence = new ModelAttribute("sequence", "sale", "SEQUENCE");
+        sequence.setDataType(DataType.INTEGER);
+        entity.addModelAttribute(sequence);
+        ModelAttribute value = new ModelAttribute("value", "sale", "VALUE");
+        entity.addModelAttribute(value);
+        model.getModelEntities().add(entity);
+        index = model.getAttributeIndex();
+    }
+
+    @Test
+    public void testSpillRoundTrip() throws Exception {
+        Object[] values = new Object[] { null, "text \u00e9", 1, 2L, new BigDecimal("-12.340"), 1.5d, 2.5f, true,
+                new Timestamp(1000), new java.sql.Date(2000), new java.sql.Time(3000), new Date(4000), new byte[] { 1, 2 },
+                new BigInteger("123456789012345678901234567890"), (short) 7, ChangeType.DEL };
+        File file = File.createTempFile("spill", ".test");
+        try {
+            try (EntityDataBatchWriter writer = new EntityDataBatchWriter(new FileOutputStream(file),
+                    ExternalSorter.SPILL_BATCH_SIZE)) {
+                for (Object value : values) {
+                    EntityData data = new EntityData();
+                    data.setChangeType(ChangeType.CHG);
+                    data.put("value", value);
+                    data.put("notInModel", "extra");
+                    writer.write(data);
+                }
+                assertEquals(values.length, writer.getRowCount());
+            }
+            try (EntityDataBatchReader reader = new EntityDataBatchReader(file, index)) {
+                for (Object value : values) {
+                    EntityData data = reader.read();
+                    assertEquals(ChangeType.CHG, data.getChangeType());
+                    assertEquals("extra", data.get("notInModel"));
+                    if (value instanceof byte[]) {
+                        assertArrayEquals((byte[]) value, (byte[]) data.get("value"));
+                    } else {
+                        assertEquals(value, data.get("value"));
+                        if (value != null) {
+                            assertEquals(value.getClass(), data.get("value").getClass());
+                        }
+                    }
+                }
+                assertNull(reader.read());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSortInMemory() {
+        ExternalSorter sorter = new ExternalSorter(index, new AttributeComparator(amount), 100, 0, null);
+        add(sorter, 10);
+        assertEquals(0, sorter.getRunCount());
+        assertSorted(sorter.iterator(), 10);
+        sorter.close();
+    }
+
+    @Test
+    public void testSortWithSpilledRuns() {
+        ExternalSorter sorter = new ExternalSorter(index, new AttributeComparator(amount), 7, 0, null);
+        add(sorter, 100);
+        assertEquals(14, sorter.getRunCount());
+        assertSorted(sorter.iterator(), 100);
+        sorter.close();
+        assertEquals(0, sorter.getRunCount());
+    }
+
+    @Test
+    public void testSortWithMultipleMergePasses() {
+        ExternalSorter sorter = new ExternalSorter(index, new AttributeComparator(amount), 2, 0, null);
+        sorter.setMaxMergeFanIn(3);
+        add(sorter, 100);
+        assertEquals(50, sorter.getRunCount());
+        Iterator<EntityData> rows = sorter.iterator();
+        assertTrue(sorter.getRunCount() <= 3);
+        assertSorted(rows, 100);
+        sorter.close();
+        assertEquals(0, sorter.getRunCount());
+    }
+
+    @Test
+    public void testSortWithByteBudget() {
+        ExternalSorter sorter = new ExternalSorter(index, new AttributeComparator(amount), Integer.MAX_VALUE, 1, null);
+        add(sorter, 5);
+        assertEquals(5, sorter.getRunCount());
+        assertSorted(sorter.iterator(), 5);
+        sorter.close();
+    }
+
+    @Test
+    public void testCompareByDataType() {
+        assertTrue(AttributeComparator.compare("9", "10", DataType.INTEGER) < 0);
+        assertTrue(AttributeComparator.compare("9", "10", DataType.VARCHAR) > 0);
+        assertTrue(AttributeComparator.compare(null, "10", DataType.INTEGER) < 0);
+        assertTrue(AttributeComparator.compare(2, new BigDecimal("1.5"), null) > 0);
+        assertEquals(0, AttributeComparator.compare(new Timestamp(1000), new Date(1000), DataType.TIMESTAMP));
+    }
+
+    /**
+     * Adds amounts that repeat every ten rows as strings so the sort has to
+     * compare them numerically and keep equal amounts in insertion order
+     */
+    protected void add(ExternalSorter sorter, int count) {
+        for (int i = 0; i < count; i++) {
+            EntityData data = new EntityData();
+            data.put("amount", Integer.toString((i * 7) % 10 * 5));
+            data.put("sequence", i);
+            sorter.add(data);
+        }
+        assertEquals(count, sorter.getRowCount());
+    }
+
+    protected void assertSorted(Iterator<EntityData> rows, int count) {
+        EntityData previous = null;
+        int read = 0;
+        while (rows.hasNext()) {
+            EntityData data = rows.next();
+            if (previous != null) {
+                int compare = Integer.compare(Integer.parseInt((String) previous.get("amount")),
+                        Integer.parseInt((String) data.get("amount")));
+                assertTrue(compare <= 0);
+                if (compare == 0) {
+                    assertTrue((Integer) previous.get("sequence") < (Integer) data.get("sequence"));
+                }
+            }
+            previous = data;
+            read++;
+        }
+        assertEquals(count, read);
+        assertFalse(rows.hasNext());
+    }
+
+}
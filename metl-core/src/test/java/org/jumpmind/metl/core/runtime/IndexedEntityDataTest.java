@@ -0,0 +1,181 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelAttributeIndex;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.runtime.EntityData.ChangeType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndexedEntityDataTest {
+
+    Model model;
+
+    ModelAttributeIndex index;
+
+    @Before
+    public void setup() {
+        model = new Model("m");
+        ModelEntity person = new ModelEntity("person", "PERSON");
+        person.addModelAttribute(new ModelAttribute("personId", "person", "ID"));
+        person.addModelAttribute(new ModelAttribute("personName", "person", "NAME"));
+        ModelEntity address = new ModelEntity("address", "ADDRESS");
+        address.addModelAttribute(new ModelAttribute("addressId", "address", "ID"));
+        model.getModelEntities().add(person);
+        model.getModelEntities().add(address);
+        index = model.getAttributeIndex();
+    }
+
+    @Test
+    public void testIndexIsSharedUntilModelChanges() {
+        assertSame(index, model.getAttributeIndex());
+        assertEquals(3, index.size());
+        assertEquals(1, index.indexOf("PERSONNAME"));
+        assertEquals(-1, index.indexOf("unknown"));
+
+        model.getEntityById("address").addModelAttribute(new ModelAttribute("addressLine", "address", "LINE"));
+        ModelAttributeIndex rebuilt = model.getAttributeIndex();
+        assertEquals(4, rebuilt.size());
+        assertEquals(3, rebuilt.indexOf("addressLine"));
+    }
+
+    @Test
+    public void testBehavesLikeEntityData() {
+        EntityData expected = new EntityData();
+        IndexedEntityData data = new IndexedEntityData(index);
+        assertTrue(data.isEmpty());
+
+        for (EntityData row : new EntityData[] { expected, data }) {
+            row.put("personId", 1);
+            row.put("personName", "Joe");
+            row.put("addressId", null);
+            row.put("extra", "value");
+        }
+
+        assertEquals(4, data.size());
+        assertEquals(expected, data);
+        assertEquals(data, expected);
+        assertEquals(expected.hashCode(), data.hashCode());
+        assertEquals("Joe", data.get("personname"));
+        assertEquals("value", data.get("EXTRA"));
+        assertTrue(data.containsKey("addressId"));
+        assertNull(data.get("addressId"));
+        assertTrue(data.containsValue("Joe"));
+
+        assertEquals(1, data.remove("personId"));
+        assertFalse(data.containsKey("personId"));
+        assertEquals(3, data.size());
+
+        List<String> keys = new ArrayList<String>(data.keySet());
+        assertEquals("personName", keys.get(0));
+        assertEquals("addressId", keys.get(1));
+        assertEquals("extra", keys.get(2));
+
+        data.clear();
+        assertTrue(data.isEmpty());
+        assertNull(data.get("personName"));
+    }
+
+    @Test
+    public void testPositionalAccess() {
+        IndexedEntityData data = new IndexedEntityData(index);
+        data.put(index, 2, "home");
+        assertEquals("home", data.get("addressId"));
+        assertEquals("home", data.get(index, 2));
+
+        EntityData plain = new EntityData();
+        plain.put("addressId", "work");
+        assertEquals("work", plain.get(index, 2));
+    }
+
+    @Test
+    public void testValuesCoverOnlyTheEntitiesSet() {
+        IndexedEntityData data = new IndexedEntityData(index);
+        assertEquals(0, data.values.length);
+
+        data.put("addressId", "home");
+        assertEquals(1, data.values.length);
+
+        data.put("personName", null);
+        assertEquals(3, data.values.length);
+        assertTrue(data.containsKey("personName"));
+        assertFalse(data.containsKey("personId"));
+        assertNull(data.get("personName"));
+        assertEquals("home", data.get("addressId"));
+
+        List<String> keys = new ArrayList<String>(data.keySet());
+        assertEquals("personName", keys.get(0));
+        assertEquals("addressId", keys.get(1));
+        assertEquals(2, data.size());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        IndexedEntityData data = new IndexedEntityData(index);
+        data.setChangeType(ChangeType.CHG);
+        data.put("personId", 1);
+        data.put("extra", "value");
+
+        EntityData copy = data.copy();
+        copy.put("personId", 2);
+        copy.remove("extra");
+
+        assertEquals(ChangeType.CHG, copy.getChangeType());
+        assertEquals(1, data.get("personId"));
+        assertEquals("value", data.get("extra"));
+        assertEquals(2, copy.get("personId"));
+        assertEquals(1, copy.size());
+    }
+
+    @Test
+    public void testEntryUpdatesWriteThrough() {
+        IndexedEntityData data = new IndexedEntityData(index);
+        data.put("personId", 1);
+        data.put("personName", "Joe");
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            if (entry.getKey().equals("personId")) {
+                entry.setValue(5);
+            }
+        }
+        assertEquals(5, data.get("personId"));
+
+        Iterator<String> keys = data.keySet().iterator();
+        keys.next();
+        keys.remove();
+        assertEquals(1, data.size());
+        assertFalse(data.containsKey("personId"));
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.ComponentAttributeSetting;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.ControlMessage;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.util.NameValue;
+import org.jumpmind.metl.core.utils.TestUtils;
+import org.junit.Test;
+
+public class DeduperTest {
+
+    static final int KEYS = 400;
+
+    @Test
+    public void testSpilledFirstRecords() {
+        List<EntityData> results = dedupe(Deduper.PRESERVE_FIRST, 4);
+        assertResults(results, "first");
+    }
+
+    @Test
+    public void testSpilledLastRecords() {
+        List<EntityData> results = dedupe(Deduper.PRESERVE_LAST, 4);
+        assertResults(results, "last");
+    }
+
+    @Test
+    public void testSpillMatchesMemory() {
+        assertEquals(dedupe(Deduper.PRESERVE_FIRST, Deduper.KEY_STORE_MEMORY, KEYS * 2),
+                dedupe(Deduper.PRESERVE_FIRST, Deduper.KEY_STORE_BOUNDED, 4));
+        assertEquals(dedupe(Deduper.PRESERVE_LAST, Deduper.KEY_STORE_MEMORY, KEYS * 2),
+                dedupe(Deduper.PRESERVE_LAST, Deduper.KEY_STORE_BOUNDED, 4));
+    }
+
+    protected void assertResults(List<EntityData> results, String name) {
+        assertEquals(KEYS, results.size());
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(String.valueOf(i), results.get(i).get("id"));
+            assertEquals(name, results.get(i).get("name"));
+        }
+    }
+
+    protected List<EntityData> dedupe(String preserveRecord, int maxKeysInMemory) {
+        return dedupe(preserveRecord, Deduper.KEY_STORE_BOUNDED, maxKeysInMemory);
+    }
+
+    /**
+     * Sends every key with the name 'first', then every key again in reverse
+     * with the name 'last', so that a small enough maxKeysInMemory spills and
+     * repartitions most of the keys
+     */
+    protected List<EntityData> dedupe(String preserveRecord, String keyStore, int maxKeysInMemory) {
+        Model model = new Model();
+        ModelEntity entity = new ModelEntity("person", "PERSON");
+        entity.addModelAttribute(new ModelAttribute("id", entity.getId(), "ID"));
+        entity.addModelAttribute(new ModelAttribute("name", entity.getId(), "NAME"));
+        model.getModelEntities().add(entity);
+
+        List<ComponentAttributeSetting> attributeSettings = new ArrayList<ComponentAttributeSetting>();
+        attributeSettings.add(new ComponentAttributeSetting("id", Deduper.ATTRIBUTE_DEDUPE_ENABLED, "true"));
+        Component component = TestUtils.createComponent(Deduper.TYPE, false, null, model, model, null, attributeSettings,
+                new Setting(Deduper.DEDUPE_TYPE, Deduper.DEDUPE_ATTRIBUTE), new Setting(Deduper.PRESERVE_RECORD, preserveRecord),
+                new Setting(Deduper.KEY_STORE, keyStore),
+                new Setting(Deduper.MAX_KEYS_IN_MEMORY, String.valueOf(maxKeysInMemory)),
+                new Setting(Deduper.ROWS_PER_MESSAGE, "50"));
+        Flow flow = TestUtils.createFlow("TestFlow", null);
+        FlowStep step = new FlowStep(component);
+        flow.getFlowSteps().add(step);
+
+        Deduper deduper = new Deduper();
+        deduper.setContext(new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null, null, null));
+        deduper.start();
+
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        ArrayList<EntityData> first = new ArrayList<EntityData>();
+        ArrayList<EntityData> last = new ArrayList<EntityData>();
+        for (int i = 0; i < KEYS; i++) {
+            first.add(new EntityData(new NameValue("id", String.valueOf(i)), new NameValue("name", "first")));
+            last.add(new EntityData(new NameValue("id", String.valueOf(KEYS - i - 1)), new NameValue("name", "last")));
+        }
+        deduper.handle(new EntityDataMessage("test", first), callback, false);
+        deduper.handle(new EntityDataMessage("test", last), callback, false);
+        deduper.handle(new ControlMessage("test"), callback, true);
+        deduper.stop();
+
+        List<EntityData> results = new ArrayList<EntityData>();
+        for (ArrayList<EntityData> payload : callback.getPayloadList()) {
+            results.addAll(payload);
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class LookupCacheTest {
+
+    @After
+    public void cleanup() {
+        LookupCache.invalidateAll("agent");
+    }
+
+    @Test
+    public void testSharedOnceComplete() {
+        LookupCache.Entry entry = LookupCache.acquire("agent", "states", "1", 0, "execution 1", 100);
+        assertFalse(entry.isComplete());
+        assertSame(entry, LookupCache.acquire("agent", "states", "1", 0, "execution 1", 100));
+        entry.getTable().put("OH", "Ohio");
+        entry.complete();
+        assertTrue(entry.isComplete());
+
+        LookupCache.Entry cached = LookupCache.acquire("agent", "states", "1", 0, "execution 2", 100);
+        assertSame(entry, cached);
+        assertEquals("Ohio", cached.getTable().get("OH"));
+        assertEquals("execution 1", cached.getExecutionId());
+    }
+
+    @Test
+    public void testVersionChangeAndInvalidate() {
+        LookupCache.Entry entry = LookupCache.acquire("agent", "states", "1", 0, "execution 1", 100);
+        entry.complete();
+        LookupCache.Entry newVersion = LookupCache.acquire("agent", "states", "2", 0, "execution 2", 100);
+        assertNotSame(entry, newVersion);
+        assertFalse(newVersion.isComplete());
+        newVersion.complete();
+
+        LookupCache.invalidate("agent", "states");
+        assertNotSame(newVersion, LookupCache.acquire("agent", "states", "2", 0, "execution 3", 100));
+    }
+
+    @Test
+    public void testExpired() throws Exception {
+        LookupCache.Entry entry = LookupCache.acquire("agent", "states", null, 1, "execution 1", 100);
+        entry.complete();
+        Thread.sleep(10);
+        assertTrue(entry.isExpired());
+        assertNotSame(entry, LookupCache.acquire("agent", "states", null, 1, "execution 2", 100));
+    }
+
+    @Test
+    public void testPartitionedTablesAreNotShared() {
+        LookupCache.Entry entry = LookupCache.acquire("agent", "states", null, 0, "execution 1", 1);
+        entry.getTable().put("OH", "Ohio");
+        entry.getTable().put("PA", "Pennsylvania");
+        entry.complete();
+        assertFalse(entry.isComplete());
+        assertNotSame(entry, LookupCache.acquire("agent", "states", null, 0, "execution 2", 1));
+        entry.getTable().close();
+    }
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.jumpmind.metl.core.model.DataType;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.junit.Test;
+
+public class LookupTableTest {
+
+    @Test
+    public void testKeysAreNormalizedByType() {
+        assertEquals(JoinKey.of(new BigDecimal("1.0"), DataType.DECIMAL), JoinKey.of(1, DataType.INTEGER));
+        assertEquals(JoinKey.of("42", DataType.INTEGER), JoinKey.of(42l, DataType.BIGINT));
+        assertEquals("", JoinKey.of(null, DataType.VARCHAR));
+
+        EntityData data = new EntityData();
+        data.put("a", "x");
+        data.put("b", 2);
+        assertEquals(Arrays.asList("x", BigDecimal.valueOf(2)),
+                JoinKey.of(data, new String[] { "a", "b" }, new DataType[] { DataType.VARCHAR, DataType.INTEGER }));
+    }
+
+    @Test
+    public void testMixedTypeKeysMatch() {
+        assertEquals(JoinKey.of("1", DataType.VARCHAR), JoinKey.of(1, DataType.VARCHAR));
+        assertEquals(JoinKey.of("1", DataType.VARCHAR), JoinKey.of(new BigDecimal("1.00"), DataType.VARCHAR));
+        assertFalse(JoinKey.of("01", DataType.VARCHAR).equals(JoinKey.of(1, DataType.VARCHAR)));
+
+        DataType[] lookupTypes = new DataType[] { DataType.VARCHAR, DataType.INTEGER, DataType.DECIMAL };
+        DataType[] replacementTypes = new DataType[] { DataType.INTEGER, DataType.INTEGER, DataType.BIGINT };
+        DataType[] lookupKeyTypes = JoinKey.comparableTypes(lookupTypes, replacementTypes);
+        DataType[] replacementKeyTypes = JoinKey.comparableTypes(replacementTypes, lookupTypes);
+        assertEquals(DataType.VARCHAR, lookupKeyTypes[0]);
+        assertEquals(DataType.VARCHAR, replacementKeyTypes[0]);
+        assertEquals(DataType.DECIMAL, lookupKeyTypes[2]);
+        assertEquals(DataType.BIGINT, replacementKeyTypes[2]);
+
+        EntityData lookupRow = new EntityData();
+        lookupRow.put("a", "1");
+        lookupRow.put("b", "2");
+        lookupRow.put("c", new BigDecimal("3.0"));
+        EntityData replacementRow = new EntityData();
+        replacementRow.put("x", 1);
+        replacementRow.put("y", 2);
+        replacementRow.put("z", 3l);
+        assertEquals(JoinKey.of(lookupRow, new String[] { "a", "b", "c" }, lookupKeyTypes),
+                JoinKey.of(replacementRow, new String[] { "x", "y", "z" }, replacementKeyTypes));
+    }
+
+    @Test
+    public void testInMemory() {
+        LookupTable table = new LookupTable(10);
+        table.put("a", 1);
+        table.put("b", 2);
+        table.put("a", 3);
+        table.complete();
+        assertFalse(table.isPartitioned());
+        assertEquals(3, table.get("a"));
+        assertEquals(2, table.get("b"));
+        assertNull(table.get("c"));
+        table.close();
+    }
+
+    @Test
+    public void testPartitioned() {
+        LookupTable table = new LookupTable(100);
+        for (int i = 0; i < 1000; i++) {
+            table.put(Arrays.asList("key", BigDecimal.valueOf(i)), "value " + i);
+        }
+        table.put(Arrays.asList("key", BigDecimal.valueOf(5)), "replaced");
+        table.complete();
+        assertTrue(table.isPartitioned());
+
+        int count = 0;
+        for (int partition = 0; partition < LookupTable.PARTITION_COUNT; partition++) {
+            Map<Object, Object> entries = table.loadPartition(partition);
+            for (Object key : entries.keySet()) {
+                assertEquals(partition, LookupTable.getPartition(key));
+            }
+            count += entries.size();
+        }
+        assertEquals(1000, count);
+
+        Object key = Arrays.asList("key", BigDecimal.valueOf(5));
+        assertEquals("replaced", table.loadPartition(LookupTable.getPartition(key)).get(key));
+        key = Arrays.asList("key", BigDecimal.valueOf(999));
+        assertEquals("value 999", table.loadPartition(LookupTable.getPartition(key)).get(key));
+        table.close();
+    }
+
+    @Test
+    public void testPutAfterComplete() {
+        LookupTable table = new LookupTable(10);
+        for (int i = 0; i < 100; i++) {
+            table.put(i, "value " + i);
+        }
+        table.complete();
+        assertTrue(table.isPartitioned());
+
+        /* a source that sends another unit of work after its control message */
+        table.put(5, "replaced");
+        table.put(100, "value 100");
+        table.complete();
+
+        assertEquals(102, table.size());
+        assertEquals("replaced", table.loadPartition(LookupTable.getPartition(5)).get(5));
+        assertEquals("value 100", table.loadPartition(LookupTable.getPartition(100)).get(100));
+        assertEquals("value 99", table.loadPartition(LookupTable.getPartition(99)).get(99));
+        table.close();
+    }
+
+}
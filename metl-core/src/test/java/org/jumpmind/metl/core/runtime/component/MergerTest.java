@@ -0,0 +1,156 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.ComponentAttributeSetting;
+import org.jumpmind.metl.core.model.DataType;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.Model;
+import org.jumpmind.metl.core.model.ModelAttribute;
+import org.jumpmind.metl.core.model.ModelEntity;
+import org.jumpmind.metl.core.model.Setting;
+import org.jumpmind.metl.core.runtime.ControlMessage;
+import org.jumpmind.metl.core.runtime.EntityData;
+import org.jumpmind.metl.core.runtime.EntityDataMessage;
+import org.jumpmind.metl.core.runtime.ExecutionTrackerNoOp;
+import org.jumpmind.metl.core.util.NameValue;
+import org.jumpmind.metl.core.utils.TestUtils;
+import org.junit.Test;
+
+public class MergerTest {
+
+    @Test
+    public void testMergeOnTypedCompositeKey() {
+        Merger merger = createMerger(100);
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        merger.handle(message(row("1", "east", "a1", null), row(2, "east", "a2", null)), callback, false);
+        merger.handle(message(row(new BigDecimal("1.0"), "east", null, "b1"), row(1, "west", null, "b3")), callback, false);
+        merger.handle(new ControlMessage("test"), callback, true);
+
+        List<EntityData> results = getResults(callback);
+        assertEquals(3, results.size());
+        assertMerged(results.get(0), "a1", "b1");
+        assertMerged(results.get(1), "a2", null);
+        assertMerged(results.get(2), null, "b3");
+    }
+
+    @Test
+    public void testMergeSpilledToDisk() {
+        Merger merger = createMerger(5);
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        ArrayList<EntityData> first = new ArrayList<EntityData>();
+        ArrayList<EntityData> second = new ArrayList<EntityData>();
+        for (int i = 0; i < 50; i++) {
+            first.add(row(i, "east", "a" + i, null));
+            second.add(row(String.valueOf(i), "east", null, "b" + i));
+        }
+        merger.handle(new EntityDataMessage("test", first), callback, false);
+        merger.handle(new EntityDataMessage("test", second), callback, false);
+        merger.handle(new ControlMessage("test"), callback, true);
+
+        Map<String, EntityData> byA = new HashMap<String, EntityData>();
+        for (EntityData entityData : getResults(callback)) {
+            byA.put((String) entityData.get("a"), entityData);
+        }
+        assertEquals(50, byA.size());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(byA.containsKey("a" + i));
+            assertMerged(byA.get("a" + i), "a" + i, "b" + i);
+        }
+        merger.stop();
+    }
+
+    @Test
+    public void testUnitsOfWorkAreMergedSeparately() {
+        Merger merger = createMerger(100);
+        SendMessageCallback<ArrayList<EntityData>> callback = new SendMessageCallback<ArrayList<EntityData>>();
+        merger.handle(message(row(1, "east", "a1", null)), callback, true);
+        merger.handle(message(row(1, "east", null, "b1")), callback, true);
+
+        List<EntityData> results = getResults(callback);
+        assertEquals(2, results.size());
+        assertMerged(results.get(0), "a1", null);
+        assertMerged(results.get(1), null, "b1");
+    }
+
+    protected void assertMerged(EntityData entityData, String a, String b) {
+        assertEquals(a, entityData.get("a"));
+        assertEquals(b, entityData.get("b"));
+    }
+
+    protected List<EntityData> getResults(SendMessageCallback<ArrayList<EntityData>> callback) {
+        List<EntityData> results = new ArrayList<EntityData>();
+        for (ArrayList<EntityData> payload : callback.getPayloadList()) {
+            results.addAll(payload);
+        }
+        return results;
+    }
+
+    protected EntityDataMessage message(EntityData... rows) {
+        ArrayList<EntityData> payload = new ArrayList<EntityData>();
+        for (EntityData row : rows) {
+            payload.add(row);
+        }
+        return new EntityDataMessage("test", payload);
+    }
+
+    protected EntityData row(Object id, String region, String a, String b) {
+        return new EntityData(new NameValue("id", id), new NameValue("region", region), new NameValue("a", a), new NameValue("b", b));
+    }
+
+    protected Merger createMerger(int maxRowsInMemory) {
+        ModelEntity entity = new ModelEntity("item", "ITEM");
+        ModelAttribute id = new ModelAttribute("id", entity.getId(), "ID");
+        id.setDataType(DataType.INTEGER);
+        entity.addModelAttribute(id);
+        entity.addModelAttribute(new ModelAttribute("region", entity.getId(), "REGION"));
+        entity.addModelAttribute(new ModelAttribute("a", entity.getId(), "A"));
+        entity.addModelAttribute(new ModelAttribute("b", entity.getId(), "B"));
+        Model model = new Model();
+        model.getModelEntities().add(entity);
+
+        List<ComponentAttributeSetting> attributeSettings = new ArrayList<ComponentAttributeSetting>();
+        attributeSettings.add(new ComponentAttributeSetting("id", Merger.MERGE_ATTRIBUTE, "true"));
+        attributeSettings.add(new ComponentAttributeSetting("region", Merger.MERGE_ATTRIBUTE, "true"));
+        Component component = TestUtils.createComponent(Merger.TYPE, false, null, model, model, null, attributeSettings,
+                new Setting(Merger.MAX_ROWS_IN_MEMORY, String.valueOf(maxRowsInMemory)), new Setting(Merger.ROWS_PER_MESSAGE, "10"));
+        Flow flow = TestUtils.createFlow("TestFlow", null);
+        FlowStep step = new FlowStep(component);
+        flow.getFlowSteps().add(step);
+
+        Merger merger = new Merger();
+        merger.setContext(new ComponentContext(null, step, flow, new ExecutionTrackerNoOp(), null, null, null));
+        merger.start();
+        return merger;
+    }
+
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testFingerprint() {
+        assertEquals(Fingerprint.of("abc"), Fingerprint.of("abc"));
+        assertEquals(Fingerprint.of("abc").hashCode(), Fingerprint.of("abc").hashCode());
+        assertFalse(Fingerprint.of("abc").equals(Fingerprint.of("abd")));
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", Fingerprint.of("abc").toString());
+    }
+
+    @Test
+    public void testPutAndMightContain() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.put(Fingerprint.of("key" + i)) || filter.mightContain(Fingerprint.of("key" + i)));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain(Fingerprint.of("key" + i)));
+            assertFalse(filter.put(Fingerprint.of("key" + i)));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(Fingerprint.of("other" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 300);
+    }
+
+}
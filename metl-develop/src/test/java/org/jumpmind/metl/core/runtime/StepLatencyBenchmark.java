@@ -0,0 +1,115 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.metl.core.runtime;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.jumpmind.metl.core.model.AgentDeployment;
+import org.jumpmind.metl.core.model.Component;
+import org.jumpmind.metl.core.model.Flow;
+import org.jumpmind.metl.core.model.FlowName;
+import org.jumpmind.metl.core.model.FlowStep;
+import org.jumpmind.metl.core.model.FlowStepLink;
+import org.jumpmind.metl.core.runtime.component.NoOp;
+import org.jumpmind.metl.core.runtime.flow.FlowRuntime;
+
+/**
+ * Measures the end to end latency of a linear flow of No Op steps. Every hop
+ * is a control message handed from one step runtime to the next, so the
+ * result is dominated by how quickly an idle step notices new input. Run it
+ * against two builds to compare step scheduling implementations.
+ */
+public class StepLatencyBenchmark {
+
+    static final int DEFAULT_STEP_COUNT = 20;
+
+    static final int WARMUP_ITERATIONS = 10;
+
+    static final int DEFAULT_ITERATIONS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int stepCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_STEP_COUNT;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+        StandaloneTestFlowRunner runner = new StandaloneTestFlowRunner("/general-flow-test-config.sql");
+        List<FlowName> flows = runner.getFlows();
+        if (flows.size() == 0) {
+            throw new IllegalStateException("Could not find a project version to create the benchmark flow in");
+        }
+
+        Flow flow = createLinearFlow(flows.get(0).getProjectVersionId(), stepCount);
+        runner.configurationService.save(flow);
+        AgentDeployment deployment = runner.agentRuntime.deploy(flow, new HashMap<>());
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            execute(runner, deployment);
+        }
+
+        long totalNanos = 0;
+        long minNanos = Long.MAX_VALUE;
+        long maxNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long nanos = execute(runner, deployment);
+            totalNanos += nanos;
+            minNanos = Math.min(minNanos, nanos);
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        double avgMillis = totalNanos / (double) iterations / 1000000;
+        System.out.println(String.format("%d step linear flow, %d iterations", stepCount, iterations));
+        System.out.println(String.format("avg=%.3fms min=%.3fms max=%.3fms per hop=%.3fms", avgMillis, minNanos / 1000000d,
+                maxNanos / 1000000d, avgMillis / (stepCount - 1)));
+        System.exit(0);
+    }
+
+    static long execute(StandaloneTestFlowRunner runner, AgentDeployment deployment) throws Exception {
+        FlowRuntime runtime = runner.agentRuntime.createFlowRuntime("benchmark", deployment, new HashMap<>());
+        long ts = System.nanoTime();
+        runtime.execute();
+        return System.nanoTime() - ts;
+    }
+
+    static Flow createLinearFlow(String projectVersionId, int stepCount) {
+        Flow flow = new Flow();
+        flow.setName("Step Latency Benchmark");
+        flow.setProjectVersionId(projectVersionId);
+        FlowStep previous = null;
+        for (int i = 1; i <= stepCount; i++) {
+            Component component = new Component();
+            component.setType(NoOp.TYPE);
+            component.setName("Step " + i);
+            component.setProjectVersionId(projectVersionId);
+
+            FlowStep flowStep = new FlowStep(component);
+            flowStep.setFlowId(flow.getId());
+            flowStep.setX(i * 100);
+            flow.getFlowSteps().add(flowStep);
+
+            if (previous != null) {
+                flow.getFlowStepLinks().add(new FlowStepLink(previous.getId(), flowStep.getId()));
+            }
+            previous = flowStep;
+        }
+        return flow;
+    }
+
+}
@@ -127,3 +127,323 @@ insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CR
 insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b054adf3-ac74-42b3-b91e-653d24a2ccea','92cf1be5-12e7-4f32-af5a-61d239bfe8a2',{ts '2016-01-28 12:00:06.962'},null,null,{ts '2016-01-28 12:00:06.973'});
 insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ba70395a-b94d-4dad-af15-a0e26eeac517','b054adf3-ac74-42b3-b91e-653d24a2ccea',{ts '2016-01-28 11:25:17.365'},null,null,{ts '2016-01-28 12:00:06.973'});
 insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c5f66379-84e6-4e76-b117-13f751a7fad0','2370ef97-3e89-4340-9131-a1b5e8fecae8',{ts '2015-12-19 11:06:31.847'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e76a9adc-beb4-5128-b138-674c6baf4aa5','16259401-b73f-5e2c-b4b1-386a5a33567d','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Old Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ecd194c7-cdbe-5c9c-addf-7274587feca8','45dfbc20-e651-5367-b39f-f52679020994','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Assert 1','Assert',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2',null,null,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.745'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f5a135b4-255b-5e14-af06-6ea6c3130a00','814e1a31-6275-5d19-bc82-048997c06753','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'DataDiff 1','DataDiff',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2','f0c9c897-6444-4951-bbf4-f26dac6562d2',null,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.706'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1bf66fba-ce3b-5798-952e-d252c540046d','bc6530d5-4885-5310-860e-fb7b74ef0b68','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'New Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('43c3c16f-dcfc-57fe-a1c4-c8ebf7eceee6','842429e9-8b8a-5d5f-84da-7531e2fad179','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create Old Database','Sql Executor',null,0,null,null,'67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('dcce9639-8ac1-57cc-968d-baaeff148c08','921d769d-8ad9-578b-82ac-d36a5c392ed1','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create New Database','Sql Executor',null,0,null,null,'dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.946'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3486c17d-0070-52c6-9b54-f68e9116eb9a','1bf66fba-ce3b-5798-952e-d252c540046d','sql','select * from table1 order by id;',{ts '2015-12-19 11:06:09.762'},null,null,{ts '2016-01-22 16:34:50.157'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e6916dfd-bec0-5368-a50a-5597e666bd2d','f5a135b4-255b-5e14-af06-6ea6c3130a00','logOutput','true',{ts '2016-01-22 17:26:45.879'},null,null,{ts '2016-01-22 17:26:45.879'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('2da1a15c-c782-51c0-ac8c-b440c5a6b866','43c3c16f-dcfc-57fe-a1c4-c8ebf7eceee6','sql','drop table if exists TABLE1;
+create table TABLE1 (ID integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20), primary key (ID));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''d'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''i'');
+insert into table1 values (4,''j'',null,''l'');
+insert into table1 values (5,''m'',''n'',''o'');
+',{ts '2015-12-19 11:01:25.295'},null,null,{ts '2016-01-28 11:19:31.002'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('cc0d91e0-b8d0-5eff-a4af-be9cc1714549','ecd194c7-cdbe-5c9c-addf-7274587feca8','expected.entity.messages.count','3',{ts '2015-12-19 23:50:01.159'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6876d8e5-3c72-54d3-8612-35e97729c427','ecd194c7-cdbe-5c9c-addf-7274587feca8','expected.control.messages.count','1',{ts '2015-12-19 23:50:04.062'},null,null,{ts '2016-05-04 19:39:59.646'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('09a3ce38-1df1-5fff-800c-0ab7d34d01e4','f5a135b4-255b-5e14-af06-6ea6c3130a00','in.memory.compare','false',{ts '2015-12-19 11:23:51.446'},null,null,{ts '2016-01-22 18:20:09.783'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6f769904-6420-5da7-9b21-3130a3385bf1','f5a135b4-255b-5e14-af06-6ea6c3130a00','source.2','bb0cddb6-a817-59e3-80a6-51471e43df26',{ts '2015-12-19 11:06:46.730'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('49eb38ea-e80b-5c69-91d1-033329aefdf3','43c3c16f-dcfc-57fe-a1c4-c8ebf7eceee6','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:03:47.266'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f567582a-14e2-594b-b34f-0ebbdf03d3a8','dcce9639-8ac1-57cc-968d-baaeff148c08','sql','drop table if exists TABLE1;
+create table TABLE1 (id integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20), primary key (ID));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''x'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''x'');
+insert into table1 values (4,''j'',''k'',''l'');
+insert into table1 values (5,''m'',''null'',''o'');',{ts '2015-12-19 11:04:51.436'},null,null,{ts '2016-01-22 18:25:43.464'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c97dba30-0c08-58bc-8cd9-9ddab75daf7e','dcce9639-8ac1-57cc-968d-baaeff148c08','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:04:08.684'},null,null,{ts '2015-12-21 07:55:37.949'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('62972fbb-53fd-530f-a828-f7a166682848','e76a9adc-beb4-5128-b138-674c6baf4aa5','logOutput','true',{ts '2015-12-19 11:09:38.965'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('127e9720-d42c-5a80-aa79-2d91a1e9b81b','1bf66fba-ce3b-5798-952e-d252c540046d','logOutput','true',{ts '2015-12-19 11:09:41.386'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5ae0df3e-a31c-54ab-8eb5-b4dc33c08bcf','e76a9adc-beb4-5128-b138-674c6baf4aa5','sql','select * From table1 order by id;',{ts '2015-12-19 11:05:57.084'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('cdc08007-9886-5e29-ba6b-583c9602a823','f5a135b4-255b-5e14-af06-6ea6c3130a00','rows.per.message','1',{ts '2015-12-19 23:48:39.552'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3532a04c-6a2f-5d5d-af6f-a2305e1f24ab','f5a135b4-255b-5e14-af06-6ea6c3130a00','source.1','12ae601f-200f-5f46-ac7c-63a629380132',{ts '2015-12-19 11:06:45.298'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e1b5d623-2e22-5c1f-b431-4a8c9a831122','f5a135b4-255b-5e14-af06-6ea6c3130a00','diff.mode','SORTED',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('50cd19b1-55b5-5790-a725-632db06c81c9','f5a135b4-255b-5e14-af06-6ea6c3130a00','cc4016f9-607a-43c8-a8a9-e5277bef869e','del.enabled','true',{ts '2015-12-19 21:10:16.395'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3c843daf-4f44-5ee7-b365-2d4dd9e80dcf','f5a135b4-255b-5e14-af06-6ea6c3130a00','cc4016f9-607a-43c8-a8a9-e5277bef869e','chg.enabled','true',{ts '2015-12-19 11:54:07.190'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('084f6f9a-da09-504d-b41f-9f269cf005b6','f5a135b4-255b-5e14-af06-6ea6c3130a00','cc4016f9-607a-43c8-a8a9-e5277bef869e','add.enabled','true',{ts '2015-12-19 18:42:51.710'},null,null,{ts '2016-01-22 17:25:38.709'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b366fe38-b1eb-5ff6-ae16-92168a4bade1','f5a135b4-255b-5e14-af06-6ea6c3130a00','77a175ee-1488-4897-98a8-525a5b2cf77d','compare.enabled','true',{ts '2015-12-19 23:09:26.562'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ac742b3f-75ea-53fe-b28b-03e694a599ac','f5a135b4-255b-5e14-af06-6ea6c3130a00','61842601-9cbc-42af-8e06-2a50ac39e86e','compare.enabled','false',{ts '2015-12-19 23:20:03.958'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_FLOW (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, TEST, NAME, FOLDER_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6782b723-3533-5cf7-8717-603bc42805cb','8b2b973a-6b8c-5c1c-8628-b75654d9d473','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,1,'DataDiff - Compare Specific Attributes (Sorted)',null,{ts '2015-12-19 11:00:23.319'},null,null,{ts '2015-12-19 23:49:50.244'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e025f309-88e6-5b10-a489-f4185c8542a5','6782b723-3533-5cf7-8717-603bc42805cb','f5a135b4-255b-5e14-af06-6ea6c3130a00',500,50,6,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('15b54ce4-1a38-5a0b-a564-60763024e8ea','6782b723-3533-5cf7-8717-603bc42805cb','dcce9639-8ac1-57cc-968d-baaeff148c08',180,60,1,{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.951'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('bb0cddb6-a817-59e3-80a6-51471e43df26','6782b723-3533-5cf7-8717-603bc42805cb','1bf66fba-ce3b-5798-952e-d252c540046d',340,120,6,{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0549c911-2032-5b3a-a4cd-b7607065580e','6782b723-3533-5cf7-8717-603bc42805cb','43c3c16f-dcfc-57fe-a1c4-c8ebf7eceee6',40,60,1,{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.248'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('12ae601f-200f-5f46-ac7c-63a629380132','6782b723-3533-5cf7-8717-603bc42805cb','e76a9adc-beb4-5128-b138-674c6baf4aa5',340,10,3,{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e4d02d28-011c-552f-80e2-c3acfa480f00','6782b723-3533-5cf7-8717-603bc42805cb','ecd194c7-cdbe-5c9c-addf-7274587feca8',630,50,4,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e025f309-88e6-5b10-a489-f4185c8542a5','e4d02d28-011c-552f-80e2-c3acfa480f00',{ts '2015-12-19 23:49:50.244'},null,null,{ts '2015-12-19 23:49:50.255'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('15b54ce4-1a38-5a0b-a564-60763024e8ea','bb0cddb6-a817-59e3-80a6-51471e43df26',{ts '2015-12-19 11:05:36.365'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('15b54ce4-1a38-5a0b-a564-60763024e8ea','12ae601f-200f-5f46-ac7c-63a629380132',{ts '2015-12-19 11:05:20.795'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('bb0cddb6-a817-59e3-80a6-51471e43df26','e025f309-88e6-5b10-a489-f4185c8542a5',{ts '2015-12-19 11:06:34.026'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0549c911-2032-5b3a-a4cd-b7607065580e','15b54ce4-1a38-5a0b-a564-60763024e8ea',{ts '2015-12-19 11:04:15.442'},null,null,{ts '2015-12-19 23:49:50.253'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('12ae601f-200f-5f46-ac7c-63a629380132','e025f309-88e6-5b10-a489-f4185c8542a5',{ts '2015-12-19 11:06:31.847'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('42929e9b-2295-5eb6-ad1c-c0302d73b755','6a4562a7-a585-5a28-a16f-5da37f2389e1','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Assert 1','Assert',null,0,'b5695ca7-8bbc-48ea-b641-57808d63f685',null,null,{ts '2016-01-28 12:00:04.087'},null,null,{ts '2016-01-28 12:00:26.208'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ec429459-c3d2-5530-80bf-c72ce370640d','e999d216-38d2-5883-88c9-37d9dfd0674b','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'DataDiff 1','DataDiff',null,0,'b5695ca7-8bbc-48ea-b641-57808d63f685','b5695ca7-8bbc-48ea-b641-57808d63f685',null,{ts '2016-01-28 11:25:12.935'},null,null,{ts '2016-01-28 12:16:35.991'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9117a6fa-0ff9-59d7-a4e3-127407626481','9b3c11eb-2ec6-5e90-9b35-f7ee2c0ae800','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create Old Database','Sql Executor',null,0,null,null,'67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2016-01-28 11:19:11.440'},null,null,{ts '2016-01-28 12:00:06.965'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0da02f3b-16c8-5f83-b3bf-ba4e5e56f1a7','c08c4437-3d31-59b8-8a56-46d1bddf30c3','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Old Data Reader','RDBMS Reader',null,0,null,'b5695ca7-8bbc-48ea-b641-57808d63f685','67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2016-01-28 11:24:01.262'},null,null,{ts '2016-01-28 12:00:06.963'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('67f96ed7-8332-5a85-aa42-3accee17354a','c1a2bf5c-5f84-5033-951d-a111ffbb90b7','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'New Data Reader','RDBMS Reader',null,0,null,'b5695ca7-8bbc-48ea-b641-57808d63f685','dcdf1255-3e14-447e-9283-9054bb645825',{ts '2016-01-28 11:24:29.292'},null,null,{ts '2016-01-28 12:00:06.970'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e2e3c232-f263-5ee5-96a2-b22fea0a381c','b331c080-1805-537c-98db-7e6299ac7873','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create New Database','Sql Executor',null,0,null,null,'dcdf1255-3e14-447e-9283-9054bb645825',{ts '2016-01-28 11:22:32.996'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ff58ee07-763f-575a-b411-b65307801f73','ec429459-c3d2-5530-80bf-c72ce370640d','source.2','dee6e40f-85da-5efa-98d2-0a67fe5676c7',{ts '2016-01-28 11:25:31.153'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d85a2a2f-e221-5dce-9dd4-71b09d0ad135','67f96ed7-8332-5a85-aa42-3accee17354a','sql','select * from table2;
+',{ts '2016-01-28 11:24:47.974'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('8b944689-a376-5226-9bef-8065780b1cf0','42929e9b-2295-5eb6-ad1c-c0302d73b755','expected.control.messages.count','1',{ts '2016-01-28 12:00:45.146'},null,null,{ts '2016-01-28 12:00:45.147'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3cdac9c8-2c62-5d32-9e94-f6c5b4b48d02','0da02f3b-16c8-5f83-b3bf-ba4e5e56f1a7','run.when','PER MESSAGE',{ts '2016-01-28 11:24:22.908'},null,null,{ts '2016-01-28 12:00:06.964'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a535aadb-f9bb-5ba6-8f53-0faa45e2ff41','67f96ed7-8332-5a85-aa42-3accee17354a','run.when','PER MESSAGE',{ts '2016-01-28 11:25:00.050'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d4fbbc6e-4c68-5543-a195-ec94944c509b','e2e3c232-f263-5ee5-96a2-b22fea0a381c','run.when','PER UNIT OF WORK',{ts '2016-01-28 11:22:54.661'},null,null,{ts '2016-01-28 12:00:06.967'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9ddacace-ff19-5fce-b103-42255d3053ac','ec429459-c3d2-5530-80bf-c72ce370640d','source.1','5f03469e-291d-5c01-a6c0-b7db364cd694',{ts '2016-01-28 11:25:29.555'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c73276b5-5688-5917-87c0-fff6e99e46e2','0da02f3b-16c8-5f83-b3bf-ba4e5e56f1a7','sql','select * from table2 order by pk_col1, pk_col2;',{ts '2016-01-28 11:24:17.503'},null,null,{ts '2016-01-28 12:00:06.964'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6e02ded1-90f6-535c-b16a-9fab12c2ce92','9117a6fa-0ff9-59d7-a4e3-127407626481','sql','drop table if exists TABLE2;
+create table TABLE2 (PK_COL1 varchar(20), PK_COL2 varchar(20), COL3 varchar(20), primary key (PK_COL1, PK_COL2));
+insert into TABLE2 values (''a'',''b'',''c'');
+insert into TABLE2 values (''d'',''e'',''x'');
+insert into TABLE2 values (''g'',''h'',''i'');
+insert into TABLE2 values (''1'',''2'',''3'')',{ts '2016-01-28 11:22:02.468'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('766fa7af-e96c-57e1-97c1-eaaaccb0f4e9','42929e9b-2295-5eb6-ad1c-c0302d73b755','expected.entity.messages.count','4',{ts '2016-01-28 12:00:40.668'},null,null,{ts '2016-01-28 12:17:15.710'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('cd4f2eda-cf93-544a-ad95-de916e0c4f77','9117a6fa-0ff9-59d7-a4e3-127407626481','run.when','PER UNIT OF WORK',{ts '2016-01-28 11:22:26.056'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1779cb0e-0bb8-536c-9e15-dcc98a76622e','ec429459-c3d2-5530-80bf-c72ce370640d','logOutput','false',{ts '2016-01-28 12:16:38.937'},null,null,{ts '2016-01-28 12:17:27.687'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c1adc13a-96ba-5a33-94aa-8fa39a7d16e8','e2e3c232-f263-5ee5-96a2-b22fea0a381c','sql','drop table if exists TABLE2;
+create table TABLE2 (PK_COL1 varchar(20), PK_COL2 varchar(20), COL3 varchar(20), primary key (PK_COL1, PK_COL2));
+insert into TABLE2 values (''a'',''b'',''c'');
+insert into TABLE2 values (''d'',''e'',''f'');
+insert into TABLE2 values (''x'',''y'',''z'');
+insert into TABLE2 values (''4'',''2'',''3'');',{ts '2016-01-28 11:23:08.626'},null,null,{ts '2016-01-28 12:00:06.967'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('39740c05-4df9-5f19-8ad0-22f8daeee4bd','ec429459-c3d2-5530-80bf-c72ce370640d','diff.mode','SORTED',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9455821e-b3c4-58bc-bc6d-9affef4ac15d','ec429459-c3d2-5530-80bf-c72ce370640d','rows.per.message','1',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a6e6719b-a58e-5c5b-8e68-dec0ec4f5ebd','ec429459-c3d2-5530-80bf-c72ce370640d','5ace80c1-b67a-42ea-8d1d-e035ba104644','compare.enabled','false',{ts '2016-01-28 11:25:43.503'},null,null,{ts '2016-01-28 12:16:35.991'});
+insert into METL_FLOW (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, TEST, NAME, FOLDER_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b88d454c-7049-5b2f-bbaa-674b859a11a7','ca630c82-3cc2-5915-a6c5-965268e9fd15','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,1,'DataDiff - Compare PK only (Sorted)',null,{ts '2016-01-28 11:17:47.468'},null,null,{ts '2016-01-28 12:00:06.962'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0e3464f9-6957-5232-bbb0-5a30fefaa55d','b88d454c-7049-5b2f-bbaa-674b859a11a7','9117a6fa-0ff9-59d7-a4e3-127407626481',40,80,0,{ts '2016-01-28 11:19:11.440'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('fa5c7d85-0f3b-5b50-a3e8-187b7e66e04c','b88d454c-7049-5b2f-bbaa-674b859a11a7','42929e9b-2295-5eb6-ad1c-c0302d73b755',660,80,6,{ts '2016-01-28 12:00:04.087'},null,null,{ts '2016-01-28 12:00:06.970'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5f03469e-291d-5c01-a6c0-b7db364cd694','b88d454c-7049-5b2f-bbaa-674b859a11a7','0da02f3b-16c8-5f83-b3bf-ba4e5e56f1a7',350,30,2,{ts '2016-01-28 11:24:01.262'},null,null,{ts '2016-01-28 12:00:06.964'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('511b85c4-0f07-5676-aab1-2698af3695c5','b88d454c-7049-5b2f-bbaa-674b859a11a7','e2e3c232-f263-5ee5-96a2-b22fea0a381c',180,80,1,{ts '2016-01-28 11:22:32.996'},null,null,{ts '2016-01-28 12:00:06.967'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('05f249c1-e3ec-546f-8308-13b331116bcc','b88d454c-7049-5b2f-bbaa-674b859a11a7','ec429459-c3d2-5530-80bf-c72ce370640d',510,80,6,{ts '2016-01-28 11:25:12.935'},null,null,{ts '2016-01-28 12:16:35.993'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('dee6e40f-85da-5efa-98d2-0a67fe5676c7','b88d454c-7049-5b2f-bbaa-674b859a11a7','67f96ed7-8332-5a85-aa42-3accee17354a',350,140,4,{ts '2016-01-28 11:24:29.292'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0e3464f9-6957-5232-bbb0-5a30fefaa55d','511b85c4-0f07-5676-aab1-2698af3695c5',{ts '2016-01-28 11:23:10.680'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5f03469e-291d-5c01-a6c0-b7db364cd694','05f249c1-e3ec-546f-8308-13b331116bcc',{ts '2016-01-28 11:25:15.517'},null,null,{ts '2016-01-28 12:00:06.972'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('511b85c4-0f07-5676-aab1-2698af3695c5','5f03469e-291d-5c01-a6c0-b7db364cd694',{ts '2016-01-28 11:24:26.711'},null,null,{ts '2016-01-28 12:00:06.972'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('511b85c4-0f07-5676-aab1-2698af3695c5','dee6e40f-85da-5efa-98d2-0a67fe5676c7',{ts '2016-01-28 11:25:07.553'},null,null,{ts '2016-01-28 12:00:06.972'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('05f249c1-e3ec-546f-8308-13b331116bcc','fa5c7d85-0f3b-5b50-a3e8-187b7e66e04c',{ts '2016-01-28 12:00:06.962'},null,null,{ts '2016-01-28 12:00:06.973'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('dee6e40f-85da-5efa-98d2-0a67fe5676c7','05f249c1-e3ec-546f-8308-13b331116bcc',{ts '2016-01-28 11:25:17.365'},null,null,{ts '2016-01-28 12:00:06.973'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('81f99780-f936-53f5-af77-dce2f88a3ab4','93cd239f-d65e-5078-8944-f38174589dd2','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Old Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f25cd2f6-0930-54a3-9027-5465ab267942','3a8ed740-db33-51f2-ade0-dada8daae2dc','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Assert 1','Assert',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2',null,null,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.745'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e8671959-c8ba-5d16-9ef3-da2e715c506d','eb20621b-4584-5889-86a7-42693ca6f5c0','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'DataDiff 1','DataDiff',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2','f0c9c897-6444-4951-bbf4-f26dac6562d2',null,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.706'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('45b888a4-bf05-5788-ae5b-a787ac3604b6','b1cd6a52-eaf9-524b-b9a9-3cd7fde02970','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'New Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4974c801-0634-517e-a81e-b2c717bb8385','835fcc08-dfd5-58c5-bf65-951ae75e80d6','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create Old Database','Sql Executor',null,0,null,null,'67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('cbf18c0e-154f-5d91-95ad-bf304cf338c1','0da861da-1ae0-53be-ab4f-57a1f878f0e3','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create New Database','Sql Executor',null,0,null,null,'dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.946'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('bf4e5e4f-e0a5-5a5c-80c8-c8d60e11b171','45b888a4-bf05-5788-ae5b-a787ac3604b6','sql','select * from table1 order by id;',{ts '2015-12-19 11:06:09.762'},null,null,{ts '2016-01-22 16:34:50.157'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('29d4cacb-cf6f-5750-bfe3-280710911e34','e8671959-c8ba-5d16-9ef3-da2e715c506d','logOutput','true',{ts '2016-01-22 17:26:45.879'},null,null,{ts '2016-01-22 17:26:45.879'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f33ea1ab-eecf-519c-a3d8-1fd94067fcb8','4974c801-0634-517e-a81e-b2c717bb8385','sql','drop table if exists TABLE1;
+create table TABLE1 (ID integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''d'',''e'',''f'');
+insert into table1 values (2,''d'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''i'');
+insert into table1 values (4,''j'',null,''l'');
+insert into table1 values (5,''m'',''n'',''o'');
+insert into table1 values (7,''p'',''q'',''r'');
+insert into table1 values (7,''p'',''q'',''r'');
+',{ts '2015-12-19 11:01:25.295'},null,null,{ts '2016-01-28 11:19:31.002'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b1ae1079-5883-5f8f-adb4-0dc445512c6c','f25cd2f6-0930-54a3-9027-5465ab267942','expected.entity.messages.count','5',{ts '2015-12-19 23:50:01.159'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4fe5ce2c-33f8-5caa-aaaf-481525a644aa','f25cd2f6-0930-54a3-9027-5465ab267942','expected.control.messages.count','1',{ts '2015-12-19 23:50:04.062'},null,null,{ts '2016-05-04 19:39:59.646'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('552a47b4-214b-5c7f-a38e-540c5abb406a','e8671959-c8ba-5d16-9ef3-da2e715c506d','in.memory.compare','false',{ts '2015-12-19 11:23:51.446'},null,null,{ts '2016-01-22 18:20:09.783'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c8e12d2d-c093-50c2-8962-204025405890','e8671959-c8ba-5d16-9ef3-da2e715c506d','source.2','178f3271-6046-5967-bf5c-e99f02d5329f',{ts '2015-12-19 11:06:46.730'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a4b11476-dd85-5724-aa33-a525fe89d5f4','4974c801-0634-517e-a81e-b2c717bb8385','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:03:47.266'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('124694df-e182-5a0f-922c-4e6231dc83ad','cbf18c0e-154f-5d91-95ad-bf304cf338c1','sql','drop table if exists TABLE1;
+create table TABLE1 (id integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''x'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''x'');
+insert into table1 values (3,''g'',''h'',''x'');
+insert into table1 values (4,''j'',''k'',''l'');
+insert into table1 values (4,''j'',''k'',''l'');
+insert into table1 values (5,''m'',''null'',''o'');
+insert into table1 values (6,''s'',''t'',''u'');
+insert into table1 values (6,''s'',''t'',''u'');',{ts '2015-12-19 11:04:51.436'},null,null,{ts '2016-01-22 18:25:43.464'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a616d816-3258-5e79-8913-36947d88c0f5','cbf18c0e-154f-5d91-95ad-bf304cf338c1','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:04:08.684'},null,null,{ts '2015-12-21 07:55:37.949'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('53062668-1a05-5301-83de-303ea156e0a4','81f99780-f936-53f5-af77-dce2f88a3ab4','logOutput','true',{ts '2015-12-19 11:09:38.965'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4a5d4337-ce32-5da9-afb2-74906fe1e4a0','45b888a4-bf05-5788-ae5b-a787ac3604b6','logOutput','true',{ts '2015-12-19 11:09:41.386'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('02f1caec-266c-578c-ba54-8228b1461ab2','81f99780-f936-53f5-af77-dce2f88a3ab4','sql','select * From table1 order by id;',{ts '2015-12-19 11:05:57.084'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3802f2e5-9835-5b0d-88cc-b49c58790dd3','e8671959-c8ba-5d16-9ef3-da2e715c506d','rows.per.message','1',{ts '2015-12-19 23:48:39.552'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c0f8b722-ee78-5528-bd5c-fbcb1e31caed','e8671959-c8ba-5d16-9ef3-da2e715c506d','source.1','e4b21681-706e-528e-9b43-3747a60cead5',{ts '2015-12-19 11:06:45.298'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('99f83280-c566-5ba5-98d7-3560d74e0ff4','e8671959-c8ba-5d16-9ef3-da2e715c506d','diff.mode','SORTED',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('68fbd496-003e-5762-8f7e-66a09eca0b68','e8671959-c8ba-5d16-9ef3-da2e715c506d','cc4016f9-607a-43c8-a8a9-e5277bef869e','del.enabled','true',{ts '2015-12-19 21:10:16.395'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('140a5854-7301-510a-b345-d18bfb9b8c60','e8671959-c8ba-5d16-9ef3-da2e715c506d','cc4016f9-607a-43c8-a8a9-e5277bef869e','chg.enabled','true',{ts '2015-12-19 11:54:07.190'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d6e264d5-855c-5b58-8cc5-18c2f9e404d6','e8671959-c8ba-5d16-9ef3-da2e715c506d','cc4016f9-607a-43c8-a8a9-e5277bef869e','add.enabled','true',{ts '2015-12-19 18:42:51.710'},null,null,{ts '2016-01-22 17:25:38.709'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('cf817c8a-4d30-5ed5-b80b-0f183b4c9531','e8671959-c8ba-5d16-9ef3-da2e715c506d','77a175ee-1488-4897-98a8-525a5b2cf77d','compare.enabled','true',{ts '2015-12-19 23:09:26.562'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('cfb592e9-9d37-54bf-bd3e-b6e809d87d91','e8671959-c8ba-5d16-9ef3-da2e715c506d','61842601-9cbc-42af-8e06-2a50ac39e86e','compare.enabled','false',{ts '2015-12-19 23:20:03.958'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_FLOW (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, TEST, NAME, FOLDER_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9f5bda57-1848-56fa-9afc-173da3060054','3bb2f4ed-6aef-5ef8-8555-f18e5198b0f4','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,1,'DataDiff - Duplicate Keys (Sorted)',null,{ts '2015-12-19 11:00:23.319'},null,null,{ts '2015-12-19 23:49:50.244'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4e0805a6-d2b5-5cad-b0fd-98bf84d24c42','9f5bda57-1848-56fa-9afc-173da3060054','e8671959-c8ba-5d16-9ef3-da2e715c506d',500,50,6,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7e74e392-4cf9-5122-85fc-5a4e29b3e95e','9f5bda57-1848-56fa-9afc-173da3060054','cbf18c0e-154f-5d91-95ad-bf304cf338c1',180,60,1,{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.951'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('178f3271-6046-5967-bf5c-e99f02d5329f','9f5bda57-1848-56fa-9afc-173da3060054','45b888a4-bf05-5788-ae5b-a787ac3604b6',340,120,6,{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('2802ec5f-6f05-5ed9-a546-7eaac819abab','9f5bda57-1848-56fa-9afc-173da3060054','4974c801-0634-517e-a81e-b2c717bb8385',40,60,1,{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.248'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e4b21681-706e-528e-9b43-3747a60cead5','9f5bda57-1848-56fa-9afc-173da3060054','81f99780-f936-53f5-af77-dce2f88a3ab4',340,10,3,{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3221a28e-f0a9-586b-a468-0afa8c097a3b','9f5bda57-1848-56fa-9afc-173da3060054','f25cd2f6-0930-54a3-9027-5465ab267942',630,50,4,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4e0805a6-d2b5-5cad-b0fd-98bf84d24c42','3221a28e-f0a9-586b-a468-0afa8c097a3b',{ts '2015-12-19 23:49:50.244'},null,null,{ts '2015-12-19 23:49:50.255'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7e74e392-4cf9-5122-85fc-5a4e29b3e95e','178f3271-6046-5967-bf5c-e99f02d5329f',{ts '2015-12-19 11:05:36.365'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7e74e392-4cf9-5122-85fc-5a4e29b3e95e','e4b21681-706e-528e-9b43-3747a60cead5',{ts '2015-12-19 11:05:20.795'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('178f3271-6046-5967-bf5c-e99f02d5329f','4e0805a6-d2b5-5cad-b0fd-98bf84d24c42',{ts '2015-12-19 11:06:34.026'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('2802ec5f-6f05-5ed9-a546-7eaac819abab','7e74e392-4cf9-5122-85fc-5a4e29b3e95e',{ts '2015-12-19 11:04:15.442'},null,null,{ts '2015-12-19 23:49:50.253'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e4b21681-706e-528e-9b43-3747a60cead5','4e0805a6-d2b5-5cad-b0fd-98bf84d24c42',{ts '2015-12-19 11:06:31.847'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e828fd33-477d-515c-90d4-bfc4d001d887','df36c6c4-e2e1-53b9-b59f-e76469304eae','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Old Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('23a3e3fa-2c50-51af-b4d3-f7237b81e9cf','a349cc4d-42c0-5a74-b2c9-989619c574e2','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Assert 1','Assert',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2',null,null,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.745'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','67af07b2-b3eb-5900-8e90-1633d099e81a','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'DataDiff 1','DataDiff',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2','f0c9c897-6444-4951-bbf4-f26dac6562d2',null,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.706'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ca7d352e-280e-53ce-befc-2deb39731a36','62512d43-8c1a-5708-8fe6-a86d48977ba3','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'New Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('811b50d4-1b98-5d21-8cac-92cea25fef30','b5f072ae-5312-5038-b1ec-396b7f4cf13a','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create Old Database','Sql Executor',null,0,null,null,'67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('005ab674-ff8d-513d-8c42-a9c74e1e9daa','e0833772-b464-505a-bdcf-0af6f181cef2','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create New Database','Sql Executor',null,0,null,null,'dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.946'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e0846487-2342-52a1-85a9-d68949307e17','ca7d352e-280e-53ce-befc-2deb39731a36','sql','select * from table1 order by id;',{ts '2015-12-19 11:06:09.762'},null,null,{ts '2016-01-22 16:34:50.157'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c2c754fb-70aa-5e1b-86c5-372d035c45a6','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','logOutput','true',{ts '2016-01-22 17:26:45.879'},null,null,{ts '2016-01-22 17:26:45.879'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ff073e46-995e-568e-836b-d76e060e0828','811b50d4-1b98-5d21-8cac-92cea25fef30','sql','drop table if exists TABLE1;
+create table TABLE1 (ID integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20), primary key (ID));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''d'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''i'');
+insert into table1 values (4,''j'',null,''l'');
+insert into table1 values (5,''m'',''n'',''o'');
+',{ts '2015-12-19 11:01:25.295'},null,null,{ts '2016-01-28 11:19:31.002'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0c88012a-b029-5cc8-a3f1-ec541be452f0','23a3e3fa-2c50-51af-b4d3-f7237b81e9cf','expected.entity.messages.count','3',{ts '2015-12-19 23:50:01.159'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('2b06b153-a38a-565b-b3b1-eef57045dd5f','23a3e3fa-2c50-51af-b4d3-f7237b81e9cf','expected.control.messages.count','1',{ts '2015-12-19 23:50:04.062'},null,null,{ts '2016-05-04 19:39:59.646'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('33068ca5-289d-5bab-8aae-900d23393c6f','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','in.memory.compare','false',{ts '2015-12-19 11:23:51.446'},null,null,{ts '2016-01-22 18:20:09.783'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0d4f3fa8-d154-5054-aedb-1d655d81a14d','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','source.2','6e32ff66-97db-539a-bf0d-2c269fe8a1c0',{ts '2015-12-19 11:06:46.730'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a64b7153-d49c-5e5b-82af-300762b4dddc','811b50d4-1b98-5d21-8cac-92cea25fef30','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:03:47.266'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('db18b5b1-92bc-5089-91f9-2863ae7a8ecf','005ab674-ff8d-513d-8c42-a9c74e1e9daa','sql','drop table if exists TABLE1;
+create table TABLE1 (id integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20), primary key (ID));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''x'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''x'');
+insert into table1 values (4,''j'',''k'',''l'');
+insert into table1 values (5,''m'',''null'',''o'');',{ts '2015-12-19 11:04:51.436'},null,null,{ts '2016-01-22 18:25:43.464'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0c0d8217-5b90-5217-a3b1-82b6ab2a2d0b','005ab674-ff8d-513d-8c42-a9c74e1e9daa','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:04:08.684'},null,null,{ts '2015-12-21 07:55:37.949'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9027dc77-c49e-5f9f-9631-af977de9fde1','e828fd33-477d-515c-90d4-bfc4d001d887','logOutput','true',{ts '2015-12-19 11:09:38.965'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('8b52a08b-ed3f-565d-b514-a248e0a21616','ca7d352e-280e-53ce-befc-2deb39731a36','logOutput','true',{ts '2015-12-19 11:09:41.386'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('fa8fc6e4-4ba0-5b00-a543-2e01d19fc595','e828fd33-477d-515c-90d4-bfc4d001d887','sql','select * From table1 order by id;',{ts '2015-12-19 11:05:57.084'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7ab5a70b-1f3e-54b5-81e4-f3c96ef32287','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','rows.per.message','1',{ts '2015-12-19 23:48:39.552'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0617cc85-67e9-557c-b834-0b8a709e491a','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','source.1','72114e6f-7e5a-59c0-94e0-986c66bccf19',{ts '2015-12-19 11:06:45.298'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3d6417be-9952-5d89-b65f-f9314d8f7736','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','diff.mode','HASHED',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4b11b223-bd70-5472-a1c8-a8f2261e88a7','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','cc4016f9-607a-43c8-a8a9-e5277bef869e','del.enabled','true',{ts '2015-12-19 21:10:16.395'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a9bd74e4-4ac8-5b7e-aa94-4dea30b33cbb','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','cc4016f9-607a-43c8-a8a9-e5277bef869e','chg.enabled','true',{ts '2015-12-19 11:54:07.190'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5f441fa7-7fb7-5ba9-9798-9a49b56dcdbf','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','cc4016f9-607a-43c8-a8a9-e5277bef869e','add.enabled','true',{ts '2015-12-19 18:42:51.710'},null,null,{ts '2016-01-22 17:25:38.709'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5cc88783-94ca-5f90-9dee-6cef7950ada2','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','77a175ee-1488-4897-98a8-525a5b2cf77d','compare.enabled','true',{ts '2015-12-19 23:09:26.562'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7016ad9d-0f15-5a97-9899-bf9e9063a4ea','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0','61842601-9cbc-42af-8e06-2a50ac39e86e','compare.enabled','false',{ts '2015-12-19 23:20:03.958'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_FLOW (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, TEST, NAME, FOLDER_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','d64a416d-9ef8-5d61-be65-6164b820fe42','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,1,'DataDiff - Compare Specific Attributes (Hashed)',null,{ts '2015-12-19 11:00:23.319'},null,null,{ts '2015-12-19 23:49:50.244'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('70c096bd-fa31-52c5-8db9-26af56664355','adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','a6ad4d3a-5d79-5497-b4ac-261bd71f0bd0',500,50,6,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0b3a93d0-aefe-5b9e-987e-a395d0d8900c','adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','005ab674-ff8d-513d-8c42-a9c74e1e9daa',180,60,1,{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.951'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6e32ff66-97db-539a-bf0d-2c269fe8a1c0','adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','ca7d352e-280e-53ce-befc-2deb39731a36',340,120,6,{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0bf7eced-5f4c-50b8-be84-8af7889081d0','adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','811b50d4-1b98-5d21-8cac-92cea25fef30',40,60,1,{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.248'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('72114e6f-7e5a-59c0-94e0-986c66bccf19','adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','e828fd33-477d-515c-90d4-bfc4d001d887',340,10,3,{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3cfc3c76-0eb3-533c-a0cb-6265b286e182','adcdd6a9-44a6-5c6c-9c68-5ac3440ee57d','23a3e3fa-2c50-51af-b4d3-f7237b81e9cf',630,50,4,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('70c096bd-fa31-52c5-8db9-26af56664355','3cfc3c76-0eb3-533c-a0cb-6265b286e182',{ts '2015-12-19 23:49:50.244'},null,null,{ts '2015-12-19 23:49:50.255'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0b3a93d0-aefe-5b9e-987e-a395d0d8900c','6e32ff66-97db-539a-bf0d-2c269fe8a1c0',{ts '2015-12-19 11:05:36.365'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0b3a93d0-aefe-5b9e-987e-a395d0d8900c','72114e6f-7e5a-59c0-94e0-986c66bccf19',{ts '2015-12-19 11:05:20.795'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6e32ff66-97db-539a-bf0d-2c269fe8a1c0','70c096bd-fa31-52c5-8db9-26af56664355',{ts '2015-12-19 11:06:34.026'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0bf7eced-5f4c-50b8-be84-8af7889081d0','0b3a93d0-aefe-5b9e-987e-a395d0d8900c',{ts '2015-12-19 11:04:15.442'},null,null,{ts '2015-12-19 23:49:50.253'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('72114e6f-7e5a-59c0-94e0-986c66bccf19','70c096bd-fa31-52c5-8db9-26af56664355',{ts '2015-12-19 11:06:31.847'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0eecfe1b-8128-57c2-8729-0fca54cd3999','4d8eb57e-a412-5d95-9a40-128791a6273c','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Assert 1','Assert',null,0,'b5695ca7-8bbc-48ea-b641-57808d63f685',null,null,{ts '2016-01-28 12:00:04.087'},null,null,{ts '2016-01-28 12:00:26.208'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d9f8f39d-5389-5de6-982c-06a3ddf77580','3d5ee9f7-fa52-5226-9372-3bdd89080682','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'DataDiff 1','DataDiff',null,0,'b5695ca7-8bbc-48ea-b641-57808d63f685','b5695ca7-8bbc-48ea-b641-57808d63f685',null,{ts '2016-01-28 11:25:12.935'},null,null,{ts '2016-01-28 12:16:35.991'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('022c532b-1d97-5da4-89c1-57a571e9dfcf','10784811-881f-5cb9-9ba8-7700dff9d419','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create Old Database','Sql Executor',null,0,null,null,'67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2016-01-28 11:19:11.440'},null,null,{ts '2016-01-28 12:00:06.965'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('61ce3ebd-11cf-54fc-9eb6-fa73c839aa52','b8fffe28-3a66-5fd4-8038-a1155821e155','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Old Data Reader','RDBMS Reader',null,0,null,'b5695ca7-8bbc-48ea-b641-57808d63f685','67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2016-01-28 11:24:01.262'},null,null,{ts '2016-01-28 12:00:06.963'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0eaa1825-9f36-5ab3-80dd-a33ec5a20050','e32daa67-c101-5a46-8f7b-14565decf9f6','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'New Data Reader','RDBMS Reader',null,0,null,'b5695ca7-8bbc-48ea-b641-57808d63f685','dcdf1255-3e14-447e-9283-9054bb645825',{ts '2016-01-28 11:24:29.292'},null,null,{ts '2016-01-28 12:00:06.970'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f638dc83-2319-5736-8458-7a00ba25beca','2b05fc80-93a5-5c06-ae86-fd654f84e5b2','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create New Database','Sql Executor',null,0,null,null,'dcdf1255-3e14-447e-9283-9054bb645825',{ts '2016-01-28 11:22:32.996'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('85470c96-bea8-57d5-be8b-cdc000cb894f','d9f8f39d-5389-5de6-982c-06a3ddf77580','source.2','c85e0f2b-cce8-5f53-86db-a8930deeb5c6',{ts '2016-01-28 11:25:31.153'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('8e1e90c4-f434-5d01-a663-9be0c90ce34e','0eaa1825-9f36-5ab3-80dd-a33ec5a20050','sql','select * from table2;
+',{ts '2016-01-28 11:24:47.974'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('45a90224-4b22-53c2-8cf5-6e46812403eb','0eecfe1b-8128-57c2-8729-0fca54cd3999','expected.control.messages.count','1',{ts '2016-01-28 12:00:45.146'},null,null,{ts '2016-01-28 12:00:45.147'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0bc54a6a-f3c3-52ca-9154-bbfe8dfe7e7f','61ce3ebd-11cf-54fc-9eb6-fa73c839aa52','run.when','PER MESSAGE',{ts '2016-01-28 11:24:22.908'},null,null,{ts '2016-01-28 12:00:06.964'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4fc8ecd8-87e7-5a5c-8a51-cde6c5c75c31','0eaa1825-9f36-5ab3-80dd-a33ec5a20050','run.when','PER MESSAGE',{ts '2016-01-28 11:25:00.050'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f6c28c48-6a87-5784-9750-69bc43acd312','f638dc83-2319-5736-8458-7a00ba25beca','run.when','PER UNIT OF WORK',{ts '2016-01-28 11:22:54.661'},null,null,{ts '2016-01-28 12:00:06.967'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4f8495f4-4bca-5b55-8cc4-124a9679e7f8','d9f8f39d-5389-5de6-982c-06a3ddf77580','source.1','6db1809b-5fef-5b55-8200-14a16f525b62',{ts '2016-01-28 11:25:29.555'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3807bac0-e418-55dd-ac52-104cea652e81','61ce3ebd-11cf-54fc-9eb6-fa73c839aa52','sql','select * from table2 order by pk_col1, pk_col2;',{ts '2016-01-28 11:24:17.503'},null,null,{ts '2016-01-28 12:00:06.964'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b7d056a3-64f4-5325-aa26-b2fdba43d30a','022c532b-1d97-5da4-89c1-57a571e9dfcf','sql','drop table if exists TABLE2;
+create table TABLE2 (PK_COL1 varchar(20), PK_COL2 varchar(20), COL3 varchar(20), primary key (PK_COL1, PK_COL2));
+insert into TABLE2 values (''a'',''b'',''c'');
+insert into TABLE2 values (''d'',''e'',''x'');
+insert into TABLE2 values (''g'',''h'',''i'');
+insert into TABLE2 values (''1'',''2'',''3'')',{ts '2016-01-28 11:22:02.468'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('0dbf1b90-fc64-5e36-880e-caf107b787a7','0eecfe1b-8128-57c2-8729-0fca54cd3999','expected.entity.messages.count','4',{ts '2016-01-28 12:00:40.668'},null,null,{ts '2016-01-28 12:17:15.710'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e1063b2a-463c-5168-868a-c29e63b0082c','022c532b-1d97-5da4-89c1-57a571e9dfcf','run.when','PER UNIT OF WORK',{ts '2016-01-28 11:22:26.056'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9de77ac6-ae72-5e0c-8032-9b53a088ba7b','d9f8f39d-5389-5de6-982c-06a3ddf77580','logOutput','false',{ts '2016-01-28 12:16:38.937'},null,null,{ts '2016-01-28 12:17:27.687'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1615bbe2-4bf2-539a-adcb-6bdc61ff1059','f638dc83-2319-5736-8458-7a00ba25beca','sql','drop table if exists TABLE2;
+create table TABLE2 (PK_COL1 varchar(20), PK_COL2 varchar(20), COL3 varchar(20), primary key (PK_COL1, PK_COL2));
+insert into TABLE2 values (''a'',''b'',''c'');
+insert into TABLE2 values (''d'',''e'',''f'');
+insert into TABLE2 values (''x'',''y'',''z'');
+insert into TABLE2 values (''4'',''2'',''3'');',{ts '2016-01-28 11:23:08.626'},null,null,{ts '2016-01-28 12:00:06.967'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('093547b9-19b5-59f4-bfa4-fb5e15d3bd30','d9f8f39d-5389-5de6-982c-06a3ddf77580','diff.mode','HASHED',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('f9a7af56-f3f2-5c67-8760-077292f95b0e','d9f8f39d-5389-5de6-982c-06a3ddf77580','rows.per.message','1',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5b79bf99-ef42-59ed-b8c7-5d31a78da049','d9f8f39d-5389-5de6-982c-06a3ddf77580','5ace80c1-b67a-42ea-8d1d-e035ba104644','compare.enabled','false',{ts '2016-01-28 11:25:43.503'},null,null,{ts '2016-01-28 12:16:35.991'});
+insert into METL_FLOW (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, TEST, NAME, FOLDER_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('eef90dde-f8bd-56da-bb0e-4728719ecbbb','fe4fc0da-d430-52bc-8959-b115ba34bfc5','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,1,'DataDiff - Compare PK only (Hashed)',null,{ts '2016-01-28 11:17:47.468'},null,null,{ts '2016-01-28 12:00:06.962'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d0e105b4-3444-56ab-b5ef-ba631be075f9','eef90dde-f8bd-56da-bb0e-4728719ecbbb','022c532b-1d97-5da4-89c1-57a571e9dfcf',40,80,0,{ts '2016-01-28 11:19:11.440'},null,null,{ts '2016-01-28 12:00:06.966'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('17cf9cb7-a5e0-52ba-932c-ab4b652cd816','eef90dde-f8bd-56da-bb0e-4728719ecbbb','0eecfe1b-8128-57c2-8729-0fca54cd3999',660,80,6,{ts '2016-01-28 12:00:04.087'},null,null,{ts '2016-01-28 12:00:06.970'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6db1809b-5fef-5b55-8200-14a16f525b62','eef90dde-f8bd-56da-bb0e-4728719ecbbb','61ce3ebd-11cf-54fc-9eb6-fa73c839aa52',350,30,2,{ts '2016-01-28 11:24:01.262'},null,null,{ts '2016-01-28 12:00:06.964'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a24e6d0e-7f0f-5722-9c90-249cdafe6e5b','eef90dde-f8bd-56da-bb0e-4728719ecbbb','f638dc83-2319-5736-8458-7a00ba25beca',180,80,1,{ts '2016-01-28 11:22:32.996'},null,null,{ts '2016-01-28 12:00:06.967'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('125b4762-ba17-506a-9e34-d55341ca306e','eef90dde-f8bd-56da-bb0e-4728719ecbbb','d9f8f39d-5389-5de6-982c-06a3ddf77580',510,80,6,{ts '2016-01-28 11:25:12.935'},null,null,{ts '2016-01-28 12:16:35.993'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c85e0f2b-cce8-5f53-86db-a8930deeb5c6','eef90dde-f8bd-56da-bb0e-4728719ecbbb','0eaa1825-9f36-5ab3-80dd-a33ec5a20050',350,140,4,{ts '2016-01-28 11:24:29.292'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d0e105b4-3444-56ab-b5ef-ba631be075f9','a24e6d0e-7f0f-5722-9c90-249cdafe6e5b',{ts '2016-01-28 11:23:10.680'},null,null,{ts '2016-01-28 12:00:06.971'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6db1809b-5fef-5b55-8200-14a16f525b62','125b4762-ba17-506a-9e34-d55341ca306e',{ts '2016-01-28 11:25:15.517'},null,null,{ts '2016-01-28 12:00:06.972'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a24e6d0e-7f0f-5722-9c90-249cdafe6e5b','6db1809b-5fef-5b55-8200-14a16f525b62',{ts '2016-01-28 11:24:26.711'},null,null,{ts '2016-01-28 12:00:06.972'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a24e6d0e-7f0f-5722-9c90-249cdafe6e5b','c85e0f2b-cce8-5f53-86db-a8930deeb5c6',{ts '2016-01-28 11:25:07.553'},null,null,{ts '2016-01-28 12:00:06.972'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('125b4762-ba17-506a-9e34-d55341ca306e','17cf9cb7-a5e0-52ba-932c-ab4b652cd816',{ts '2016-01-28 12:00:06.962'},null,null,{ts '2016-01-28 12:00:06.973'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('c85e0f2b-cce8-5f53-86db-a8930deeb5c6','125b4762-ba17-506a-9e34-d55341ca306e',{ts '2016-01-28 11:25:17.365'},null,null,{ts '2016-01-28 12:00:06.973'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7fe617f1-4aca-5794-8ac3-62538ef7cd93','d0d616f5-4a32-5ebc-9989-81b64ccbda4d','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Old Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('adb5be6d-af8d-5f82-869b-0119a015d2e8','17669d11-219e-5880-8ec7-e883bcac6fec','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Assert 1','Assert',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2',null,null,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.745'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('871597c8-2ce8-56ed-b830-a79f0f335ceb','786c72db-fee9-58ad-a117-e85a2cf4252a','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'DataDiff 1','DataDiff',null,0,'f0c9c897-6444-4951-bbf4-f26dac6562d2','f0c9c897-6444-4951-bbf4-f26dac6562d2',null,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.706'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('4d373a28-5f86-5566-9f94-1f566c7300fb','0189c977-3ced-5540-ae68-6867c3a3b669','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'New Reader','RDBMS Reader',null,0,null,'f0c9c897-6444-4951-bbf4-f26dac6562d2','dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a805bc6b-374a-5b06-b3d8-c6e2644c2d2c','4bfe7247-edd8-51e2-951e-9748b0f07e84','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create Old Database','Sql Executor',null,0,null,null,'67b7484d-ebe9-4de4-8818-53a5ede68235',{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, NAME, TYPE, FOLDER_ID, SHARED, INPUT_MODEL_ID, OUTPUT_MODEL_ID, RESOURCE_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('3bb79224-e8b3-569e-a08c-96ab0b467285','cbb4467e-f0a4-59da-80c6-fbe7070ecc5a','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,'Create New Database','Sql Executor',null,0,null,null,'dcdf1255-3e14-447e-9283-9054bb645825',{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.946'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e9b728b4-a475-5e85-8cf3-79207aea1258','4d373a28-5f86-5566-9f94-1f566c7300fb','sql','select * from table1 order by id;',{ts '2015-12-19 11:06:09.762'},null,null,{ts '2016-01-22 16:34:50.157'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('51e7b962-ff28-5c21-88fc-95e6524d439f','871597c8-2ce8-56ed-b830-a79f0f335ceb','logOutput','true',{ts '2016-01-22 17:26:45.879'},null,null,{ts '2016-01-22 17:26:45.879'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('691e57e0-dbc2-5045-98b0-2c2c80821d9c','a805bc6b-374a-5b06-b3d8-c6e2644c2d2c','sql','drop table if exists TABLE1;
+create table TABLE1 (ID integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''d'',''e'',''f'');
+insert into table1 values (2,''d'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''i'');
+insert into table1 values (4,''j'',null,''l'');
+insert into table1 values (5,''m'',''n'',''o'');
+insert into table1 values (7,''p'',''q'',''r'');
+insert into table1 values (7,''p'',''q'',''r'');
+',{ts '2015-12-19 11:01:25.295'},null,null,{ts '2016-01-28 11:19:31.002'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('409a1318-609e-58f4-b2ef-27363ce443c3','adb5be6d-af8d-5f82-869b-0119a015d2e8','expected.entity.messages.count','5',{ts '2015-12-19 23:50:01.159'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('55c42c52-5f72-5e9d-b595-83a9c9ab5d9e','adb5be6d-af8d-5f82-869b-0119a015d2e8','expected.control.messages.count','1',{ts '2015-12-19 23:50:04.062'},null,null,{ts '2016-05-04 19:39:59.646'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('5e60a2ed-a544-524b-aaa2-e604586b84f0','871597c8-2ce8-56ed-b830-a79f0f335ceb','in.memory.compare','false',{ts '2015-12-19 11:23:51.446'},null,null,{ts '2016-01-22 18:20:09.783'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('2a4c5219-c275-5dd6-9bc1-6b517a8c925f','871597c8-2ce8-56ed-b830-a79f0f335ceb','source.2','a445fef9-518a-5b1c-bd91-12098ba4fead',{ts '2015-12-19 11:06:46.730'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('d38011af-02ed-59fe-8f31-4f4c551e8df8','a805bc6b-374a-5b06-b3d8-c6e2644c2d2c','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:03:47.266'},null,null,{ts '2015-12-19 23:49:50.247'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('335145bc-e26e-599f-b62a-96d2295f0fb4','3bb79224-e8b3-569e-a08c-96ab0b467285','sql','drop table if exists TABLE1;
+create table TABLE1 (id integer, COL_A varchar(20), COL_B varchar(20), COL_C varchar(20));
+insert into table1 values (1,''a'',''b'',''c'');
+insert into table1 values (2,''x'',''e'',''f'');
+insert into table1 values (3,''g'',''h'',''x'');
+insert into table1 values (3,''g'',''h'',''x'');
+insert into table1 values (4,''j'',''k'',''l'');
+insert into table1 values (4,''j'',''k'',''l'');
+insert into table1 values (5,''m'',''null'',''o'');
+insert into table1 values (6,''s'',''t'',''u'');
+insert into table1 values (6,''s'',''t'',''u'');',{ts '2015-12-19 11:04:51.436'},null,null,{ts '2016-01-22 18:25:43.464'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6ec9b0d0-4d4f-521f-a17b-fdb5dc8228b3','3bb79224-e8b3-569e-a08c-96ab0b467285','run.when','PER UNIT OF WORK',{ts '2015-12-19 11:04:08.684'},null,null,{ts '2015-12-21 07:55:37.949'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('9d01667c-91f1-593c-a095-8d9bc3a2acca','7fe617f1-4aca-5794-8ac3-62538ef7cd93','logOutput','true',{ts '2015-12-19 11:09:38.965'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('8f1b28cb-978b-5d5b-a2f9-f8dd3bc02828','4d373a28-5f86-5566-9f94-1f566c7300fb','logOutput','true',{ts '2015-12-19 11:09:41.386'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('88b22216-13f2-5dd8-9529-a82b3702a973','7fe617f1-4aca-5794-8ac3-62538ef7cd93','sql','select * From table1 order by id;',{ts '2015-12-19 11:05:57.084'},null,null,{ts '2015-12-19 23:49:50.245'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e2be3e24-acbe-5a9a-b03e-a41c5152a09a','871597c8-2ce8-56ed-b830-a79f0f335ceb','rows.per.message','1',{ts '2015-12-19 23:48:39.552'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1126faa2-5b5e-5b9f-98df-3939d132b97c','871597c8-2ce8-56ed-b830-a79f0f335ceb','source.1','1f996103-6ac3-5299-bef5-909f9b68488a',{ts '2015-12-19 11:06:45.298'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_COMPONENT_SETTING (ID, COMPONENT_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('7bc25217-e6cb-5069-87ee-8911e88468e9','871597c8-2ce8-56ed-b830-a79f0f335ceb','diff.mode','HASHED',{ts '2016-01-28 12:16:35.992'},null,null,{ts '2016-01-28 12:16:35.992'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('e1e82dbc-e358-5465-a9ce-f99d4787cc79','871597c8-2ce8-56ed-b830-a79f0f335ceb','cc4016f9-607a-43c8-a8a9-e5277bef869e','del.enabled','true',{ts '2015-12-19 21:10:16.395'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('ea4a0e3c-2d8c-5888-9dc4-5cf2a37c500d','871597c8-2ce8-56ed-b830-a79f0f335ceb','cc4016f9-607a-43c8-a8a9-e5277bef869e','chg.enabled','true',{ts '2015-12-19 11:54:07.190'},null,null,{ts '2016-01-22 17:25:38.710'});
+insert into METL_COMPONENT_ENTITY_SETTING (ID, COMPONENT_ID, ENTITY_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('49d1e10c-817b-54d7-b4f6-7639053cfe65','871597c8-2ce8-56ed-b830-a79f0f335ceb','cc4016f9-607a-43c8-a8a9-e5277bef869e','add.enabled','true',{ts '2015-12-19 18:42:51.710'},null,null,{ts '2016-01-22 17:25:38.709'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('081c1e2f-0c62-5036-9fd2-b22556322550','871597c8-2ce8-56ed-b830-a79f0f335ceb','77a175ee-1488-4897-98a8-525a5b2cf77d','compare.enabled','true',{ts '2015-12-19 23:09:26.562'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_COMPONENT_ATTRIBUTE_SETTING (ID, COMPONENT_ID, ATTRIBUTE_ID, NAME, VALUE, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('555d1398-d8fe-59f9-aa85-7da125242fb1','871597c8-2ce8-56ed-b830-a79f0f335ceb','61842601-9cbc-42af-8e06-2a50ac39e86e','compare.enabled','false',{ts '2015-12-19 23:20:03.958'},null,null,{ts '2016-01-22 17:25:38.708'});
+insert into METL_FLOW (ID, ROW_ID, PROJECT_VERSION_ID, DELETED, TEST, NAME, FOLDER_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','e868e038-cfe9-5db8-80f4-c9f609f8f0f5','7c24f46b-a40a-45cb-8e06-e2a65f404cf2',0,1,'DataDiff - Duplicate Keys (Hashed)',null,{ts '2015-12-19 11:00:23.319'},null,null,{ts '2015-12-19 23:49:50.244'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6e68d684-1562-5418-bb23-11f4877324eb','1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','871597c8-2ce8-56ed-b830-a79f0f335ceb',500,50,6,{ts '2015-12-19 11:06:28.858'},null,null,{ts '2016-01-22 17:25:38.711'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b5c7ff6d-898d-5196-bee3-060f2288af56','1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','3bb79224-e8b3-569e-a08c-96ab0b467285',180,60,1,{ts '2015-12-19 11:03:48.811'},null,null,{ts '2015-12-21 07:55:37.951'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a445fef9-518a-5b1c-bd91-12098ba4fead','1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','4d373a28-5f86-5566-9f94-1f566c7300fb',340,120,6,{ts '2015-12-19 11:05:27.926'},null,null,{ts '2015-12-19 23:49:50.252'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('be5a29c6-2133-5d1f-b8f4-49e59fc6b82b','1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','a805bc6b-374a-5b06-b3d8-c6e2644c2d2c',40,60,1,{ts '2015-12-19 11:01:07.240'},null,null,{ts '2015-12-19 23:49:50.248'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1f996103-6ac3-5299-bef5-909f9b68488a','1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','7fe617f1-4aca-5794-8ac3-62538ef7cd93',340,10,3,{ts '2015-12-19 11:05:04.945'},null,null,{ts '2015-12-19 23:49:50.246'});
+insert into METL_FLOW_STEP (ID, FLOW_ID, COMPONENT_ID, X, Y, APPROXIMATE_ORDER, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('bf2e75c2-9633-5357-bd9d-c4ac158fc178','1f067b2e-c30f-59d2-aec8-f58a97a9a1ac','adb5be6d-af8d-5f82-869b-0119a015d2e8',630,50,4,{ts '2015-12-19 23:49:45.573'},null,null,{ts '2016-05-04 19:39:56.746'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('6e68d684-1562-5418-bb23-11f4877324eb','bf2e75c2-9633-5357-bd9d-c4ac158fc178',{ts '2015-12-19 23:49:50.244'},null,null,{ts '2015-12-19 23:49:50.255'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b5c7ff6d-898d-5196-bee3-060f2288af56','a445fef9-518a-5b1c-bd91-12098ba4fead',{ts '2015-12-19 11:05:36.365'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('b5c7ff6d-898d-5196-bee3-060f2288af56','1f996103-6ac3-5299-bef5-909f9b68488a',{ts '2015-12-19 11:05:20.795'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('a445fef9-518a-5b1c-bd91-12098ba4fead','6e68d684-1562-5418-bb23-11f4877324eb',{ts '2015-12-19 11:06:34.026'},null,null,{ts '2015-12-19 23:49:50.254'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('be5a29c6-2133-5d1f-b8f4-49e59fc6b82b','b5c7ff6d-898d-5196-bee3-060f2288af56',{ts '2015-12-19 11:04:15.442'},null,null,{ts '2015-12-19 23:49:50.253'});
+insert into METL_FLOW_STEP_LINK (SOURCE_STEP_ID, TARGET_STEP_ID, CREATE_TIME, CREATE_BY, LAST_UPDATE_BY, LAST_UPDATE_TIME) values ('1f996103-6ac3-5299-bef5-909f9b68488a','6e68d684-1562-5418-bb23-11f4877324eb',{ts '2015-12-19 11:06:31.847'},null,null,{ts '2015-12-19 23:49:50.254'});